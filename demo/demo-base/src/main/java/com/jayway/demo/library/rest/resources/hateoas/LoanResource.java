@@ -54,6 +54,7 @@ public class LoanResource {
 
 		Customer customer = customerRepository.getById(loan.getCustomerId());
 		book.setBorrowedBy(customer);
+		bookRepository.markModified();
 
 		return HateoasResponse
 				.created(LinkableIds.LOAN_DETAILS_ID, book.getId())
@@ -101,6 +102,7 @@ public class LoanResource {
 	public Response returnLoan(@PathParam("id") Integer id) {
 		Book book = bookRepository.getBookById(id);
 		book.returned();
+		bookRepository.markModified();
 
 		return HateoasResponse.ok()
 				.location(makeLink(LinkableIds.LOANS_LIST_ID, Rels.LOANS)).build();
@@ -21,6 +21,20 @@ import java.util.List;
 public interface BookRepository {
 	List<Book> getAllBooks();
 
+    /**
+     * @param id    the id to start after, <code>null</code> to start with the first book.
+     * @param limit the maximum number of books to return.
+     * @return the books following the id, in id order.
+     */
+    List<Book> getBooksAfter(Integer id, int limit);
+
+    /**
+     * @param id    the id to end before.
+     * @param limit the maximum number of books to return.
+     * @return the books immediately preceding the id, in id order.
+     */
+    List<Book> getBooksBefore(Integer id, int limit);
+
 	Book getBookById(Integer id);
 
 	Book newBook(String author, String title);
@@ -28,4 +42,14 @@ public interface BookRepository {
     Collection<Book> getLoansForCustomer(Integer customerId);
 
     Collection<Book> getLoans();
+
+    /**
+     * @return a version stamp that changes whenever a book is added, lent or returned.
+     */
+    long getVersion();
+
+    /**
+     * Signal that a book in this repository was lent or returned.
+     */
+    void markModified();
 }
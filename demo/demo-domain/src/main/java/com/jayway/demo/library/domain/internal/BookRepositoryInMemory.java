@@ -22,19 +22,24 @@ import com.jayway.demo.library.domain.BookRepository;
 
 import javax.annotation.PostConstruct;
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class BookRepositoryInMemory implements BookRepository {
 
-    private final Map<Integer, Book> allBooks = new HashMap<Integer, Book>();
+    private final NavigableMap<Integer, Book> allBooks = new ConcurrentSkipListMap<Integer, Book>();
 
     private final AtomicInteger nextId = new AtomicInteger();
 
+    private final AtomicLong version = new AtomicLong();
+
     @Override
     public Book newBook(String author, String title) {
         int id = nextId.getAndIncrement();
         Book book = new Book(id, author, title);
         allBooks.put(id, book);
+        markModified();
         return book;
     }
 
@@ -65,6 +70,16 @@ public class BookRepositoryInMemory implements BookRepository {
         });
     }
 
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public void markModified() {
+        version.incrementAndGet();
+    }
+
     @PostConstruct
     public void init() {
         newBook("J.R.R. Tolkien", "Lord of the Rings");
@@ -78,6 +93,29 @@ public class BookRepositoryInMemory implements BookRepository {
         return new ArrayList<Book>(allBooks.values());
     }
 
+    @Override
+    public List<Book> getBooksAfter(Integer id, int limit) {
+        return take(id == null ? allBooks.values() : allBooks.tailMap(id, false).values(), limit);
+    }
+
+    @Override
+    public List<Book> getBooksBefore(Integer id, int limit) {
+        List<Book> books = take(allBooks.headMap(id, false).descendingMap().values(), limit);
+        Collections.reverse(books);
+        return books;
+    }
+
+    private static List<Book> take(Collection<Book> books, int limit) {
+        List<Book> result = new ArrayList<Book>(Math.min(limit, 64));
+        for (Book book : books) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(book);
+        }
+        return result;
+    }
+
     @Override
     public Book getBookById(Integer id) {
         return allBooks.get(id);
@@ -26,7 +26,7 @@ public class BookResource {
     }
 
     @GET
-    @Linkable(LinkableIds.BOOK_DETAILS_ID)
+    @Linkable(value = LinkableIds.BOOK_DETAILS_ID, cacheable = true)
     @Produces(MediaType.APPLICATION_JSON)
     public Response getBookById(@PathParam("id") Integer id) {
         Book book = bookRepository.getBookById(id);
@@ -23,11 +23,14 @@ import com.jayway.demo.library.rest.dto.BookListDto;
 import com.jayway.jaxrs.hateoas.Linkable;
 import com.jayway.jaxrs.hateoas.core.HateoasResponse;
 import com.jayway.jaxrs.hateoas.core.HateoasResponse.HateoasResponseBuilder;
+import com.jayway.jaxrs.hateoas.paging.Page;
+import com.jayway.jaxrs.hateoas.paging.Pageable;
 import com.jayway.jaxrs.hateoas.support.AtomRels;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.List;
 
 @Path("/library/books")
 public class BooksResource {
@@ -41,10 +44,13 @@ public class BooksResource {
     @GET
     @Linkable(LinkableIds.BOOKS_LIST_ID)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getAllBooks() {
+    public Response getAllBooks(@QueryParam(Page.CURSOR_PARAMETER) String cursor,
+                                @QueryParam(Page.LIMIT_PARAMETER) @DefaultValue("20") Integer limit) {
+        Page<Book> page = Page.fetch(LinkableIds.BOOKS_LIST_ID, new BookPages(bookRepository), cursor, limit);
         return HateoasResponse
-                .ok(BookListDto.fromBeanCollection(bookRepository.getAllBooks()))
+                .ok(BookListDto.fromBeanCollection(page.getItems()))
                 .selfLink(LinkableIds.BOOK_NEW_ID)
+                .pageLinks(page)
                 .selfEach(LinkableIds.BOOK_DETAILS_ID, "id").build();
     }
 
@@ -66,4 +72,38 @@ public class BooksResource {
         return new BookResource(bookRepository);
     }
 
+    private static class BookPages implements Pageable<Book> {
+        private final BookRepository bookRepository;
+
+        private BookPages(BookRepository bookRepository) {
+            this.bookRepository = bookRepository;
+        }
+
+        @Override
+        public List<Book> fetchAfter(String key, int limit) {
+            return bookRepository.getBooksAfter(key == null ? null : parseKey(key), limit);
+        }
+
+        @Override
+        public List<Book> fetchBefore(String key, int limit) {
+            return bookRepository.getBooksBefore(parseKey(key), limit);
+        }
+
+        @Override
+        public String keyOf(Book book) {
+            return book.getId().toString();
+        }
+
+        /**
+         * The key comes from a cursor given by the client, so a malformed one is a bad request.
+         */
+        private static Integer parseKey(String key) {
+            try {
+                return Integer.valueOf(key);
+            } catch (NumberFormatException e) {
+                throw new WebApplicationException(Response.Status.BAD_REQUEST);
+            }
+        }
+    }
+
 }
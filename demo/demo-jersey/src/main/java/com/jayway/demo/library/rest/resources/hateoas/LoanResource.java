@@ -22,6 +22,8 @@ import com.jayway.demo.library.domain.CustomerRepository;
 import com.jayway.demo.library.domain.factory.RepositoryFactory;
 import com.jayway.demo.library.rest.dto.LoanDto;
 import com.jayway.jaxrs.hateoas.Linkable;
+import com.jayway.jaxrs.hateoas.ResponseLink;
+import com.jayway.jaxrs.hateoas.ResponseLinks;
 import com.jayway.jaxrs.hateoas.core.HateoasResponse;
 
 import javax.ws.rs.*;
@@ -54,6 +56,7 @@ public class LoanResource {
 
 		Customer customer = customerRepository.getById(loan.getCustomerId());
 		book.setBorrowedBy(customer);
+		bookRepository.markModified();
 
 		return HateoasResponse
 				.created(LinkableIds.LOAN_DETAILS_ID, book.getId())
@@ -68,19 +71,27 @@ public class LoanResource {
 	@Produces("application/vnd.demo.library.list.loan+json")
 	@Linkable(LinkableIds.LOANS_LIST_ID)
 	public Response getLoans() {
+		long version = bookRepository.getVersion();
 		Collection<Book> books = bookRepository.getLoans();
 
 		Collection<LoanDto> dtos = LoanDto.fromBeanCollection(books);
 
 		return HateoasResponse.ok(dtos).selfLink(LinkableIds.LOANS_LIST_ID)
 				.selfLink(LinkableIds.LOAN_NEW_ID)
-				.selfEach(LinkableIds.LOAN_DETAILS_ID, "bookId").build();
+				.selfEach(LinkableIds.LOAN_DETAILS_ID, "bookId")
+				.autoTag(version).build();
 	}
 
 	@GET
 	@Path("/{id}")
 	@Produces("application/vnd.demo.library.loan+json")
 	@Linkable(LinkableIds.LOAN_DETAILS_ID)
+	@ResponseLinks({
+			@ResponseLink(value = LinkableIds.LOAN_DETAILS_ID, params = "bookId"),
+			@ResponseLink(value = LinkableIds.BOOK_DETAILS_ID, rel = Rels.BOOK, params = "bookId"),
+			@ResponseLink(value = LinkableIds.CUSTOMER_DETAILS_ID, rel = Rels.CUSTOMER, params = "customerId"),
+			@ResponseLink(value = LinkableIds.LOAN_RETURN_ID, params = "$0")
+	})
 	public Response getLoan(@PathParam("id") Integer id) {
 		Book book = bookRepository.getBookById(id);
 		if (book == null || !book.isBorrowed()) {
@@ -89,10 +100,7 @@ public class LoanResource {
 
 		Customer customer = book.getBorrowedBy();
 		return HateoasResponse.ok(new LoanDto(customer.getId(), book.getId()))
-				.selfLink(LinkableIds.LOAN_DETAILS_ID, book.getId())
-				.link(LinkableIds.BOOK_DETAILS_ID, Rels.BOOK, book.getId())
-				.link(LinkableIds.CUSTOMER_DETAILS_ID, Rels.CUSTOMER, customer.getId())
-				.selfLink(LinkableIds.LOAN_RETURN_ID, id).build();
+				.plan(LinkableIds.LOAN_DETAILS_ID, id).build();
 	}
 
 	@DELETE
@@ -101,6 +109,7 @@ public class LoanResource {
 	public Response returnLoan(@PathParam("id") Integer id) {
 		Book book = bookRepository.getBookById(id);
 		book.returned();
+		bookRepository.markModified();
 
 		return HateoasResponse.ok()
 				.location(makeLink(LinkableIds.LOANS_LIST_ID, Rels.LOANS)).build();
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import com.jayway.demo.library.domain.Book;
+import com.jayway.demo.library.domain.factory.RepositoryFactory;
+import com.jayway.demo.library.rest.application.hateoas.LibraryApplication;
+import com.jayway.demo.library.rest.resources.hateoas.BookResource;
+import com.jayway.demo.library.rest.resources.hateoas.BooksResource;
+import com.jayway.demo.library.rest.resources.hateoas.ItemResource;
+import com.jayway.demo.library.rest.resources.hateoas.LoanResource;
+import com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory;
+import com.jayway.jaxrs.hateoas.jackson.HateoasObjectMapperProvider;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.codehaus.jackson.jaxrs.JacksonJsonProvider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * Builds representative responses of the demo resources in-process, against a stub {@link RequestContext}, writes
+ * their entities as JSON using the provider Jersey uses with the <code>POJOMappingFeature</code> of the demo, and
+ * fails when the bytes allocated per request exceed the budget stored for the scenario in
+ * <code>allocation-budgets.properties</code>. Budgets are set with some headroom above the measured figures; lower
+ * them when an optimization lands, raise them only knowingly.
+ */
+public class AllocationBudgetTest {
+
+    private static final String BUDGETS = "allocation-budgets.properties";
+    private static final int WARMUP_REQUESTS = 2000;
+    private static final int MEASURED_REQUESTS = 1000;
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private static HateoasConfiguration configuration;
+    private static JacksonJsonProvider writer;
+    private static Properties budgets;
+
+    @BeforeClass
+    public static void createApplication() throws Exception {
+        // Fail rather than skip, so that a regression can not hide behind a JVM that does not measure.
+        assertTrue("The JVM does not report allocated bytes", TestUtils.allocatedBytes() >= 0);
+
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put("com.sun.jersey.config.property.packages", "com.jayway.demo.library.rest.resources.hateoas");
+        props.put(HateoasConfigurationFactory.PROPERTY_HATEOAS_VERBOSITY, "GENERIC_CLIENT");
+        props.put(HateoasConfigurationFactory.PROPERTY_HATEOAS_LINK_INJECTOR,
+                "com.jayway.jaxrs.hateoas.support.StrategyBasedLinkInjector");
+        props.put(HateoasConfigurationFactory.PROPERTY_HATEOAS_COLLECTION_WRAPPER_STRATEGY,
+                "com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapperStrategy");
+        props.put(HateoasConfigurationFactory.PROPERTY_HATEOAS_JACKSON_MODULE, "true");
+        props.put(HateoasConfigurationFactory.PROPERTY_HATEOAS_LINK_CACHE, "10000");
+        configuration = new LibraryApplication(props).getHateoasConfiguration();
+        writer = new JacksonJsonProvider(new HateoasObjectMapperProvider().getContext(Object.class));
+
+        budgets = new Properties();
+        InputStream in = AllocationBudgetTest.class.getClassLoader().getResourceAsStream(BUDGETS);
+        assertNotNull(BUDGETS + " not found", in);
+        try {
+            budgets.load(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void booksList() throws Exception {
+        assertWithinBudget("books.list", new Scenario() {
+            @Override
+            public Response request() {
+                return new BooksResource().getAllBooks(null, 20);
+            }
+        });
+    }
+
+    @Test
+    public void bookDetails() throws Exception {
+        final BookResource resource = new BookResource(RepositoryFactory.getBookRepository());
+        assertWithinBudget("book.details", new Scenario() {
+            @Override
+            public Response request() {
+                return resource.getBookById(1);
+            }
+        });
+    }
+
+    @Test
+    public void loanDetails() throws Exception {
+        // Lend the book directly rather than through the resource, leaving the repository version and the loans
+        // seen by the integration tests untouched.
+        Book book = RepositoryFactory.getBookRepository().getBookById(2);
+        assertFalse(book.isBorrowed());
+        book.setBorrowedBy(RepositoryFactory.getCustomerRepository().getById(1));
+        try {
+            final LoanResource resource = new LoanResource();
+            assertWithinBudget("loan.details", new Scenario() {
+                @Override
+                public Response request() {
+                    return resource.getLoan(2);
+                }
+            });
+        } finally {
+            book.returned();
+        }
+    }
+
+    @Test
+    public void itemSearch() throws Exception {
+        final ItemResource resource = new ItemResource();
+        assertWithinBudget("item.search", new Scenario() {
+            @Override
+            public Response request() {
+                return resource.getItems("keyword", false);
+            }
+        });
+    }
+
+    private void assertWithinBudget(String scenario, Scenario request) throws Exception {
+        String budget = budgets.getProperty(scenario);
+        assertNotNull("No budget for " + scenario + " in " + BUDGETS, budget);
+
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            run(request);
+        }
+        long before = TestUtils.allocatedBytes();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            run(request);
+        }
+        long perRequest = (TestUtils.allocatedBytes() - before) / MEASURED_REQUESTS;
+
+        assertTrue(scenario + " allocated " + perRequest + " bytes per request, budget is " + budget,
+                perRequest <= Long.parseLong(budget.trim()));
+    }
+
+    private static void run(Scenario scenario) throws IOException {
+        RequestContext.setRequestContext(new RequestContext(
+                UriBuilder.fromUri("http://localhost:9998/api"), null, configuration));
+        try {
+            Response response = scenario.request();
+            assertEquals(200, response.getStatus());
+            // The links of collection rows are injected while the entity is written.
+            Object entity = response.getEntity();
+            writer.writeTo(entity, entity.getClass(), entity.getClass(), NO_ANNOTATIONS,
+                    MediaType.APPLICATION_JSON_TYPE, response.getMetadata(), DISCARD);
+        } finally {
+            RequestContext.clearRequestContext();
+        }
+    }
+
+    private interface Scenario {
+        Response request();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import com.jayway.demo.library.domain.factory.RepositoryFactory;
+import com.jayway.demo.library.rest.application.hateoas.LibraryApplication;
+import com.jayway.demo.library.rest.resources.hateoas.BookResource;
+import com.jayway.demo.library.rest.resources.hateoas.BooksResource;
+import com.jayway.demo.library.rest.resources.hateoas.ItemResource;
+import com.jayway.jaxrs.hateoas.cbor.CborMessageBodyWriter;
+import com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.UriBuilder;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the size of the JSON and CBOR encodings of demo responses, and the time spent writing them. The entities
+ * are built in-process, as in {@link AllocationBudgetTest}, and written to memory; the rows of collections get their
+ * links injected as they are written, which costs the same for both encodings. Not run as part of the build, run the
+ * main method with the test classpath:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=com.jayway.jaxrs.hateoas.CborBenchmark -Dexec.classpathScope=test
+ * </pre>
+ */
+public class CborBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20000;
+    private static final int ITERATIONS = 100000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final CborMessageBodyWriter CBOR_WRITER = new CborMessageBodyWriter();
+
+    private static HateoasConfiguration configuration;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put("com.sun.jersey.config.property.packages", "com.jayway.demo.library.rest.resources.hateoas");
+        props.put(HateoasConfigurationFactory.PROPERTY_HATEOAS_VERBOSITY, "GENERIC_CLIENT");
+        props.put(HateoasConfigurationFactory.PROPERTY_HATEOAS_LINK_INJECTOR,
+                "com.jayway.jaxrs.hateoas.support.StrategyBasedLinkInjector");
+        props.put(HateoasConfigurationFactory.PROPERTY_HATEOAS_COLLECTION_WRAPPER_STRATEGY,
+                "com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapperStrategy");
+        configuration = new LibraryApplication(props).getHateoasConfiguration();
+
+        run("books.list", new Scenario() {
+            @Override
+            public Object entity() {
+                return new BooksResource().getAllBooks(null, 20).getEntity();
+            }
+        });
+        final BookResource bookResource = new BookResource(RepositoryFactory.getBookRepository());
+        run("book.details", new Scenario() {
+            @Override
+            public Object entity() {
+                return bookResource.getBookById(1).getEntity();
+            }
+        });
+        final ItemResource itemResource = new ItemResource();
+        run("item.search", new Scenario() {
+            @Override
+            public Object entity() {
+                return itemResource.getItems("keyword", false).getEntity();
+            }
+        });
+    }
+
+    private static void run(String name, Scenario scenario) throws Exception {
+        // Kept for the whole run, as the links of collection rows are built while writing.
+        RequestContext.setRequestContext(new RequestContext(
+                UriBuilder.fromUri("http://localhost:9998/api"), null, configuration));
+        try {
+            run(name, scenario.entity());
+        } finally {
+            RequestContext.clearRequestContext();
+        }
+    }
+
+    private static void run(String name, Object entity) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16384);
+        int jsonSize = writeJson(entity, out);
+        int cborSize = writeCbor(entity, out);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            writeJson(entity, out);
+            writeCbor(entity, out);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            writeJson(entity, out);
+        }
+        long jsonNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            writeCbor(entity, out);
+        }
+        long cborNanos = System.nanoTime() - start;
+
+        System.out.printf("%-13s JSON %5d bytes %8.0f writes/s; CBOR %5d bytes (%3.0f%%) %8.0f writes/s (%.2fx)%n",
+                name, jsonSize, ITERATIONS * 1e9 / jsonNanos, cborSize, 100.0 * cborSize / jsonSize,
+                ITERATIONS * 1e9 / cborNanos, (double) jsonNanos / cborNanos);
+    }
+
+    private static int writeJson(Object entity, ByteArrayOutputStream out) throws Exception {
+        out.reset();
+        MAPPER.writeValue(out, entity);
+        return out.size();
+    }
+
+    private static int writeCbor(Object entity, ByteArrayOutputStream out) throws Exception {
+        out.reset();
+        CBOR_WRITER.writeTo(entity, entity.getClass(), null, null, CborMessageBodyWriter.APPLICATION_CBOR_TYPE, null,
+                out);
+        return out.size();
+    }
+
+    private interface Scenario {
+        Object entity();
+    }
+}
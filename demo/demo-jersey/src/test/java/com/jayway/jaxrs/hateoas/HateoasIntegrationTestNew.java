@@ -13,6 +13,7 @@ import org.junit.Test;
 import java.io.InputStream;
 
 import static com.jayway.restassured.RestAssured.expect;
+import static com.jayway.restassured.RestAssured.given;
 import static com.jayway.restassured.RestAssured.registerParser;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.hasItems;
@@ -35,6 +36,7 @@ public class HateoasIntegrationTestNew extends JerseyTest {
                         .servletPath("api")
                         .initParam("javax.ws.rs.Application", "com.jayway.demo.library.rest.application.hateoas.LibraryApplication")
                         .initParam("com.sun.jersey.api.json.POJOMappingFeature", "true")
+                        .initParam("com.jayway.jaxrs.hateoas.JacksonModule", "true")
                         .build();
     }
 
@@ -51,6 +53,8 @@ public class HateoasIntegrationTestNew extends JerseyTest {
         RestAssured.registerParser("application/vnd.demo.library.book+json", Parser.JSON);
         RestAssured.registerParser("application/vnd.demo.library.list.customer+json", Parser.JSON);
         RestAssured.registerParser("application/vnd.demo.library.customer+json", Parser.JSON);
+        RestAssured.registerParser("application/vnd.demo.library.list.loan+json", Parser.JSON);
+        RestAssured.registerParser("application/vnd.demo.library.loan+json", Parser.JSON);
     }
 
     @Before
@@ -135,6 +139,7 @@ public class HateoasIntegrationTestNew extends JerseyTest {
                 body("rows[0].title", equalTo("Lord of the Rings")).
                 body("rows[0].author", equalTo("J.R.R. Tolkien")).
                 body("rows[0].links.size()", is(1)).
+                body("links.rel", hasItems("first")).
                 statusCode(200).
                 when().get(booksHref).asInputStream();
 
@@ -154,4 +159,46 @@ public class HateoasIntegrationTestNew extends JerseyTest {
                 when().get(bookHref);
 
     }
+
+    @Test
+    public void verifyMalformedCursorKeyIsBadRequest() {
+        // The cursor of the key "abc", which is not a book id.
+        given().
+                queryParam("cursor", "YTphYmM").
+        expect().
+                statusCode(400).
+                when().get(booksHref);
+    }
+
+    @Test
+    public void verifyConditionalGetLoans() {
+        String etag = expect().
+                statusCode(200).
+                when().get(loansHref).getHeader("ETag");
+
+        given().
+                header("If-None-Match", etag).
+        expect().
+                statusCode(304).
+                when().get(loansHref);
+    }
+
+    @Test
+    public void verifyGetLoan() {
+        String loanHref = given().
+                contentType("application/vnd.demo.library.loan+json").
+                body("{\"customerId\":1,\"bookId\":3}").
+        expect().
+                statusCode(201).
+                when().post(loansHref).getHeader("Location");
+
+        expect().
+                body("bookId", is(3)).
+                body("customerId", is(1)).
+                body("links.rel", hasItems("self", "book", "customer")).
+                body("links.size()", is(4)).
+                body("links.method", hasItems("GET", "DELETE")).
+                statusCode(200).
+                when().get(loanHref);
+    }
 }
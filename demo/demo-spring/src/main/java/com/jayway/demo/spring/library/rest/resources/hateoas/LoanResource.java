@@ -53,6 +53,7 @@ public class LoanResource {
 
         Customer customer = customerRepository.getById(loan.getCustomerId());
         book.setBorrowedBy(customer);
+        bookRepository.markModified();
 
         return HateoasResponse
                 .created(LinkableIds.LOAN_DETAILS_ID, book.getId())
@@ -100,6 +101,7 @@ public class LoanResource {
     public Response returnLoan(@PathParam("id") Integer id) {
         Book book = bookRepository.getBookById(id);
         book.returned();
+        bookRepository.markModified();
 
         return HateoasResponse.ok()
                 .location(makeLink(LinkableIds.LOANS_LIST_ID, Rels.LOANS)).build();
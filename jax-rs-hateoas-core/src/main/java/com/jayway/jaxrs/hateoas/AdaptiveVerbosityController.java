@@ -0,0 +1,246 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notEmpty;
+
+/**
+ * Degrades the verbosity of links under load. The controller watches the peak number of requests in flight and the
+ * average time spent producing and injecting links per response, evaluated once per interval. When either crosses
+ * its threshold the next, cheaper, level is used. A level is only left upwards after a number of consecutive intervals
+ * with both signals below a fraction of their thresholds, so that the lower cost of a cheaper level does not make the
+ * controller oscillate.
+ * <p/>
+ * The first level replaces the default verbosity for requests that do not ask for one. Requests asking for a
+ * verbosity using {@link com.jayway.jaxrs.hateoas.web.RequestContext#HATEOAS_OPTIONS_HEADER} get it as requested, or
+ * capped to the options of the current level, depending on the {@link ClientPolicy}.
+ * <p/>
+ * The controller in use is part of the {@link HateoasConfiguration}, none by default.
+ */
+public class AdaptiveVerbosityController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveVerbosityController.class);
+
+    public static final long DEFAULT_EVALUATION_INTERVAL_MILLIS = 1000;
+    public static final double DEFAULT_RECOVERY_RATIO = 0.5;
+    public static final int DEFAULT_RECOVERY_INTERVALS = 5;
+
+    /**
+     * How to treat requests asking for a verbosity explicitly.
+     */
+    public enum ClientPolicy {
+        /**
+         * Use the requested verbosity regardless of load.
+         */
+        HONOUR,
+        /**
+         * Leave out requested options that are not part of the current level.
+         */
+        CAP
+    }
+
+    private final HateoasVerbosity[] levels;
+    private final int maxConcurrency;
+    private final long maxLinkNanos;
+    private final ClientPolicy clientPolicy;
+    private final long evaluationIntervalNanos;
+    private final double recoveryRatio;
+    private final int recoveryIntervals;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong linkNanos = new AtomicLong();
+    private final AtomicLong linkResponses = new AtomicLong();
+    private final AtomicLong nextEvaluation;
+
+    private volatile int level;
+
+    /**
+     * Only accessed by the thread winning the evaluation of an interval.
+     */
+    private int calmIntervals;
+
+    /**
+     * @param levels         the verbosities to use, from the normal to the cheapest one.
+     * @param maxConcurrency the number of requests in flight above which the level is lowered, 0 to ignore.
+     * @param maxLinkMicros  the average time in microseconds spent on links per response above which the level is
+     *                       lowered, 0 to ignore.
+     * @param clientPolicy   how to treat requests asking for a verbosity explicitly.
+     */
+    public AdaptiveVerbosityController(HateoasVerbosity[] levels, int maxConcurrency, long maxLinkMicros,
+                                       ClientPolicy clientPolicy) {
+        this(levels, maxConcurrency, maxLinkMicros, clientPolicy, DEFAULT_EVALUATION_INTERVAL_MILLIS,
+                DEFAULT_RECOVERY_RATIO, DEFAULT_RECOVERY_INTERVALS);
+    }
+
+    /**
+     * @param evaluationIntervalMillis how often the signals are evaluated.
+     * @param recoveryRatio            the fraction of the thresholds both signals must stay below to raise the level.
+     * @param recoveryIntervals        the number of consecutive intervals the signals must stay below the recovery
+     *                                 thresholds to raise the level.
+     * @see #AdaptiveVerbosityController(HateoasVerbosity[], int, long, ClientPolicy)
+     */
+    public AdaptiveVerbosityController(HateoasVerbosity[] levels, int maxConcurrency, long maxLinkMicros,
+                                       ClientPolicy clientPolicy, long evaluationIntervalMillis,
+                                       double recoveryRatio, int recoveryIntervals) {
+        notEmpty(levels, "levels must not be empty");
+        isTrue(recoveryRatio > 0.0 && recoveryRatio <= 1.0, "recoveryRatio must be in (0, 1]");
+        isTrue(recoveryIntervals > 0, "recoveryIntervals must be positive");
+        this.levels = levels.clone();
+        this.maxConcurrency = maxConcurrency;
+        this.maxLinkNanos = TimeUnit.MICROSECONDS.toNanos(maxLinkMicros);
+        this.clientPolicy = clientPolicy == null ? ClientPolicy.HONOUR : clientPolicy;
+        this.evaluationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(evaluationIntervalMillis);
+        this.recoveryRatio = recoveryRatio;
+        this.recoveryIntervals = recoveryIntervals;
+        this.nextEvaluation = new AtomicLong(System.nanoTime() + evaluationIntervalNanos);
+    }
+
+    /**
+     * @return the controller of the current request, see {@link HateoasConfiguration#current()}.
+     */
+    public static AdaptiveVerbosityController getCurrent() {
+        return HateoasConfiguration.current().getAdaptiveVerbosityController();
+    }
+
+    /**
+     * Set the controller of the default {@link HateoasConfiguration}.
+     *
+     * @param controller the controller to use, <code>null</code> to disable adaptive verbosity.
+     */
+    public static void setCurrent(AdaptiveVerbosityController controller) {
+        HateoasConfiguration.getDefault().setAdaptiveVerbosityController(controller);
+    }
+
+    /**
+     * Get the verbosity to use for a request, taking the current controller into account if there is one.
+     *
+     * @param optionsHeader the value of the {@link com.jayway.jaxrs.hateoas.web.RequestContext#HATEOAS_OPTIONS_HEADER}
+     *                      header, may be <code>null</code>.
+     * @return the verbosity to use.
+     * @see HateoasVerbosity#valueOf(String)
+     */
+    public static HateoasVerbosity resolve(String optionsHeader) {
+        AdaptiveVerbosityController controller = getCurrent();
+        if (controller == null) {
+            return HateoasVerbosity.valueOf(optionsHeader);
+        }
+        return controller.verbosityFor(optionsHeader);
+    }
+
+    public HateoasVerbosity verbosityFor(String optionsHeader) {
+        evaluateIfDue();
+        HateoasVerbosity currentLevel = levels[level];
+        if (StringUtils.isBlank(optionsHeader)) {
+            return currentLevel;
+        }
+
+        HateoasVerbosity requested = HateoasVerbosity.valueOf(optionsHeader);
+        if (clientPolicy == ClientPolicy.HONOUR || level == 0) {
+            return requested;
+        }
+        List<HateoasOption> allowed = Arrays.asList(currentLevel.getOptions());
+        List<HateoasOption> capped = new ArrayList<HateoasOption>();
+        for (HateoasOption option : requested.getOptions()) {
+            if (allowed.contains(option)) {
+                capped.add(option);
+            }
+        }
+        return new HateoasVerbosity(capped.toArray(new HateoasOption[capped.size()]));
+    }
+
+    public void requestStarted() {
+        int count = inFlight.incrementAndGet();
+        int peak = peakInFlight.get();
+        while (count > peak && !peakInFlight.compareAndSet(peak, count)) {
+            peak = peakInFlight.get();
+        }
+    }
+
+    public void requestCompleted() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @param nanos the time spent producing and injecting the links of a response, including those of collection rows,
+     *              which are injected while building the response when a controller is configured.
+     */
+    public void linksBuilt(long nanos) {
+        linkNanos.addAndGet(nanos);
+        linkResponses.incrementAndGet();
+    }
+
+    /**
+     * @return the index of the level currently used, 0 being the normal level.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    public HateoasVerbosity getCurrentVerbosity() {
+        return levels[level];
+    }
+
+    private void evaluateIfDue() {
+        long next = nextEvaluation.get();
+        long now = System.nanoTime();
+        if (now - next < 0 || !nextEvaluation.compareAndSet(next, now + evaluationIntervalNanos)) {
+            return;
+        }
+        evaluate();
+    }
+
+    private void evaluate() {
+        long responses = linkResponses.getAndSet(0);
+        long nanos = linkNanos.getAndSet(0);
+        long averageLinkNanos = responses == 0 ? 0 : nanos / responses;
+        int peak = peakInFlight.getAndSet(inFlight.get());
+
+        boolean overloaded = (maxConcurrency > 0 && peak > maxConcurrency)
+                || (maxLinkNanos > 0 && averageLinkNanos > maxLinkNanos);
+        boolean calm = (maxConcurrency <= 0 || peak <= maxConcurrency * recoveryRatio)
+                && (maxLinkNanos <= 0 || averageLinkNanos <= maxLinkNanos * recoveryRatio);
+
+        int currentLevel = level;
+        if (overloaded) {
+            calmIntervals = 0;
+            if (currentLevel < levels.length - 1) {
+                level = currentLevel + 1;
+                log.info("Lowering link verbosity to level {}: {} requests in flight, {} us per response on links",
+                        new Object[]{currentLevel + 1, peak, TimeUnit.NANOSECONDS.toMicros(averageLinkNanos)});
+            }
+        } else if (calm && currentLevel > 0) {
+            if (++calmIntervals >= recoveryIntervals) {
+                calmIntervals = 0;
+                level = currentLevel - 1;
+                log.info("Raising link verbosity to level {}", currentLevel - 1);
+            }
+        } else {
+            calmIntervals = 0;
+        }
+    }
+}
@@ -14,6 +14,7 @@
  */
 package com.jayway.jaxrs.hateoas;
 
+import com.jayway.jaxrs.hateoas.core.LinkPlan;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
@@ -24,29 +25,48 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Default implementation of {@link HateoasContext}. Not intended for external use. This class is configured by the
  * Application classes in the core package.
+ * <p/>
+ * Resource classes are reflected in parallel, see {@link #setMappingParallelism(int)}. The reflected classes are then
+ * merged in the order they were supplied, detecting already mapped classes and duplicate ids exactly like mapping
+ * them one by one would, so the result does not depend on the parallelism.
  *
  * @author Mattias Hellborg Arthursson
  * @author Kalle Stenflo
  */
 public class DefaultHateoasContext implements HateoasContext {
 
-    private static final ReadWriteLock LOCK = new ReentrantReadWriteLock();
-
     private static final String[] DEFAULT_MEDIA_TYPE = {"*/*"};
 
     private final static Logger logger = LoggerFactory
             .getLogger(DefaultHateoasContext.class);
 
-    private final Map<String, LinkableInfo> linkableMapping = new LinkedHashMap<String, LinkableInfo>();
+    /**
+     * The mapped classes, replaced as a whole when classes are mapped so that reads need no locking.
+     */
+    private volatile Registry registry = new Registry();
+
+    /**
+     * Serializes mapping and adding link rules, which are rare compared to reading.
+     */
+    private final Object mappingLock = new Object();
+
+    private volatile int mappingParallelism = Runtime.getRuntime().availableProcessors();
+
+    private volatile MappingReport mappingReport;
 
-    private final Set<Class<?>> initializedClasses = new HashSet<Class<?>>();
+    private final ConcurrentMap<String, LinkPlan> linkPlans = new ConcurrentHashMap<String, LinkPlan>();
+
+    /**
+     * The link rules together with the rules matching each class, replaced as a whole when a rule is added so that a
+     * lookup racing with the addition can only cache its result in the replaced snapshot.
+     */
+    private volatile LinkRules linkRules = new LinkRules(Collections.<LinkRule>emptyList());
 
     /*
       * (non-Javadoc)
@@ -55,12 +75,64 @@ public class DefaultHateoasContext implements HateoasContext {
       */
     @Override
     public void mapClass(Class<?> clazz) {
-        if (clazz.isAnnotationPresent(Path.class)) {
-            String rootPath = clazz.getAnnotation(Path.class).value();
-            mapClass(clazz, rootPath);
-        } else {
-            logger.debug("Class {} is not annotated with @Path", clazz);
+        mapClasses(Collections.<Class<?>>singleton(clazz));
+    }
+
+    /*
+      * (non-Javadoc)
+      *
+      * @see com.jayway.jaxrs.hateoas.HateoasContext#mapClasses(java.util.Collection)
+      */
+    @Override
+    public void mapClasses(Collection<Class<?>> classes) {
+        long start = System.nanoTime();
+        List<Class<?>> rootClasses = new ArrayList<Class<?>>();
+        for (Class<?> clazz : classes) {
+            if (clazz.isAnnotationPresent(Path.class)) {
+                rootClasses.add(clazz);
+            } else {
+                logger.debug("Class {} is not annotated with @Path", clazz);
+            }
+        }
+
+        int threads = Math.max(1, Math.min(mappingParallelism, rootClasses.size()));
+        List<ReflectedClass> reflected = reflectClasses(rootClasses, threads);
+        long reflectedAt = System.nanoTime();
+
+        synchronized (mappingLock) {
+            // Mapped into a copy that is published when complete, readers keep using the current registry meanwhile.
+            Registry mapping = new Registry(registry);
+            int mappedClasses = mapping.initializedClasses.size();
+            int mappedLinks = mapping.linkableMapping.size();
+            for (ReflectedClass reflectedClass : reflected) {
+                mapClass(mapping, reflectedClass);
+            }
+            long mergedAt = System.nanoTime();
+
+            registry = mapping.publish();
+            long publishedAt = System.nanoTime();
+
+            mappingReport = new MappingReport(rootClasses.size(), mapping.initializedClasses.size() - mappedClasses,
+                    mapping.linkableMapping.size() - mappedLinks, threads, reflectedAt - start,
+                    mergedAt - reflectedAt, publishedAt - mergedAt, reflected);
         }
+        logger.info("{}", mappingReport);
+    }
+
+    /**
+     * Set the number of threads reflecting resource classes when mapping several classes at once. Defaults to the
+     * number of available processors, 1 maps the classes on the calling thread.
+     */
+    public void setMappingParallelism(int mappingParallelism) {
+        Validate.isTrue(mappingParallelism > 0, "mappingParallelism must be positive");
+        this.mappingParallelism = mappingParallelism;
+    }
+
+    /**
+     * @return where the time went when classes were last mapped, or <code>null</code> if no classes were mapped.
+     */
+    public MappingReport getMappingReport() {
+        return mappingReport;
     }
 
     /*
@@ -71,59 +143,188 @@ public class DefaultHateoasContext implements HateoasContext {
       */
     @Override
     public LinkableInfo getLinkableInfo(String link) {
-        LinkableInfo linkableInfo = linkableMapping.get(link);
-        Validate.notNull(linkableInfo, "Invalid link: " + link);
+        LinkableInfo linkableInfo = registry.linkableMapping.get(link);
+        if (linkableInfo == null) {
+            // Not using Validate, which would build the message on every call.
+            throw new IllegalArgumentException("Invalid link: " + link);
+        }
 
         return linkableInfo;
     }
 
-    private void mapClass(Class<?> clazz, String path) {
+    /*
+      * (non-Javadoc)
+      *
+      * @see com.jayway.jaxrs.hateoas.HateoasContext#findLinkableInfo(java.lang.String)
+      */
+    @Override
+    public LinkableInfo findLinkableInfo(String id) {
+        return registry.linkableMapping.get(id);
+    }
 
+    /*
+      * (non-Javadoc)
+      *
+      * @see com.jayway.jaxrs.hateoas.HateoasContext#matchLinkableInfo(java.lang.String, java.lang.String)
+      */
+    @Override
+    public LinkableInfo matchLinkableInfo(String httpMethod, String path) {
+        return registry.pathTemplates.match(httpMethod, path, null);
+    }
 
-        if (!isInitialized(clazz)) {
-            logger.info("Mapping class {}", clazz);
+    /*
+      * (non-Javadoc)
+      *
+      * @see com.jayway.jaxrs.hateoas.HateoasContext#matchLinkableInfo(java.lang.String, java.lang.String,
+      * com.jayway.jaxrs.hateoas.PathMatch)
+      */
+    @Override
+    public LinkableInfo matchLinkableInfo(String httpMethod, String path, PathMatch match) {
+        return registry.pathTemplates.match(httpMethod, path, match);
+    }
 
-            if (path.endsWith("/")) {
-                path = StringUtils.removeEnd(path, "/");
+    /*
+      * (non-Javadoc)
+      *
+      * @see com.jayway.jaxrs.hateoas.HateoasContext#getLinkPlan(java.lang.String)
+      */
+    @Override
+    public LinkPlan getLinkPlan(String id) {
+        LinkPlan linkPlan = linkPlans.get(id);
+        if (linkPlan == null) {
+            // Compiled on first use, since the targets may be mapped after the declaring class.
+            linkPlan = compileLinkPlan(id);
+            LinkPlan existing = linkPlans.putIfAbsent(id, linkPlan);
+            if (existing != null) {
+                linkPlan = existing;
             }
+        }
+        return linkPlan;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void addLinkRule(Class<?> type, LinkProducer<?> linkProducer) {
+        Validate.notNull(type, "type must not be null");
+        Validate.notNull(linkProducer, "linkProducer must not be null");
+
+        synchronized (mappingLock) {
+            List<LinkRule> rules = new ArrayList<LinkRule>(linkRules.rules);
+            rules.add(new LinkRule(type, (LinkProducer<Object>) linkProducer));
+            linkRules = new LinkRules(rules);
+        }
+    }
 
-            Method[] methods = clazz.getMethods();
-            for (Method method : methods) {
-                if (!method.getDeclaringClass().equals(Object.class)) {
-                    mapMethod(clazz, path, method);
+    @Override
+    public boolean hasLinkRules() {
+        return !linkRules.rules.isEmpty();
+    }
+
+    @Override
+    public List<LinkProducer<Object>> getLinkRules(Class<?> clazz) {
+        LinkRules snapshot = linkRules;
+        List<LinkProducer<Object>> result = snapshot.byClass.get(clazz);
+        if (result == null) {
+            List<LinkProducer<Object>> matching = new ArrayList<LinkProducer<Object>>();
+            for (LinkRule linkRule : snapshot.rules) {
+                if (linkRule.type.isAssignableFrom(clazz)) {
+                    matching.add(linkRule.linkProducer);
                 }
             }
-        } else {
-            logger.info("Class {} already mapped. Skipped mapping.", clazz);
+            result = matching.isEmpty() ? Collections.<LinkProducer<Object>>emptyList() : Collections.unmodifiableList(matching);
+            snapshot.byClass.putIfAbsent(clazz, result);
         }
+        return result;
     }
 
-    private void mapMethod(Class<?> clazz, String rootPath, Method method) {
-        String httpMethod = findHttpMethod(method);
+    private LinkPlan compileLinkPlan(String id) {
+        ResponseLink[] responseLinks = registry.responseLinksMapping.get(id);
+        Validate.notNull(responseLinks, "No @ResponseLinks declared for: " + id);
 
-        if (httpMethod != null) {
-            String path = getPath(rootPath, method);
-            String[] consumes = getConsumes(method);
-            String[] produces = getProduces(method);
+        return LinkPlan.compile(id, responseLinks, this);
+    }
 
-            if (method.isAnnotationPresent(Linkable.class)) {
-                Linkable linkAnnotation = method.getAnnotation(Linkable.class);
-                String id = linkAnnotation.value();
-                if (linkableMapping.containsKey(id)) {
-                    throw new IllegalArgumentException("Id '" + id
-                            + "' mapped in class " + clazz
-                            + " is already mapped from another class");
-                }
+    private List<ReflectedClass> reflectClasses(List<Class<?>> rootClasses, int threads) {
+        List<ReflectedClass> reflected = new ArrayList<ReflectedClass>(rootClasses.size());
+        if (threads == 1) {
+            for (Class<?> rootClass : rootClasses) {
+                reflected.add(reflectRootClass(rootClass));
+            }
+            return reflected;
+        }
 
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new MappingThreadFactory());
+        try {
+            List<Future<ReflectedClass>> futures = new ArrayList<Future<ReflectedClass>>(rootClasses.size());
+            for (final Class<?> rootClass : rootClasses) {
+                futures.add(executor.submit(new Callable<ReflectedClass>() {
+                    @Override
+                    public ReflectedClass call() {
+                        return reflectRootClass(rootClass);
+                    }
+                }));
+            }
+            // Collected in the supplied order, which determines the order of merging.
+            for (Future<ReflectedClass> future : futures) {
+                reflected.add(future.get());
+            }
+            return reflected;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while mapping classes", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ReflectedClass reflectRootClass(Class<?> rootClass) {
+        long start = System.nanoTime();
+        ReflectedClass reflected = reflectClass(rootClass, rootClass.getAnnotation(Path.class).value(),
+                new HashSet<Class<?>>());
+        reflected.nanos = System.nanoTime() - start;
+        return reflected;
+    }
 
-                LinkableParameterInfo[] parameterInfo = extractMethodParameterInfo(method);
+    /**
+     * Reflect a class and its sub-resources without touching the registry. Classes seen before in the same tree are
+     * only recorded, to be skipped when merging.
+     */
+    private ReflectedClass reflectClass(Class<?> clazz, String path, Set<Class<?>> visited) {
+        ReflectedClass reflected = new ReflectedClass(clazz);
+        if (!visited.add(clazz)) {
+            reflected.repeated = true;
+            return reflected;
+        }
+
+        if (path.endsWith("/")) {
+            path = StringUtils.removeEnd(path, "/");
+        }
 
-                LinkableInfo linkableInfo = new LinkableInfo(id, path,
-                        httpMethod, consumes, produces,
-                        linkAnnotation.label(), linkAnnotation.description(),
-                        linkAnnotation.templateClass(), parameterInfo);
+        Method[] methods = clazz.getMethods();
+        for (Method method : methods) {
+            if (!method.getDeclaringClass().equals(Object.class)) {
+                reflectMethod(reflected, path, method, visited);
+            }
+        }
+        return reflected;
+    }
+
+    private void reflectMethod(ReflectedClass reflected, String rootPath, Method method, Set<Class<?>> visited) {
+        String httpMethod = findHttpMethod(method);
 
-                linkableMapping.put(id, linkableInfo);
+        if (httpMethod != null) {
+            if (method.isAnnotationPresent(Linkable.class)) {
+                reflected.members.add(new ReflectedMethod(method, httpMethod, getPath(rootPath, method),
+                        getConsumes(method), getProduces(method), extractMethodParameterInfo(method),
+                        extractPathParameterTypes(method)));
             } else {
                 logger.info("Method {} is missing Linkable annotation", method);
             }
@@ -137,9 +338,63 @@ public class DefaultHateoasContext implements HateoasContext {
 
                 Class<?> subResourceType = method.getReturnType();
 
-                mapClass(subResourceType, rootPath + path);
+                reflected.members.add(reflectClass(subResourceType, rootPath + path, visited));
+            }
+        }
+    }
+
+    private void mapClass(Registry mapping, ReflectedClass reflected) {
+        Class<?> clazz = reflected.clazz;
+        if (!reflected.repeated && mapping.initializedClasses.add(clazz)) {
+            logger.info("Mapping class {}", clazz);
+
+            for (Object member : reflected.members) {
+                if (member instanceof ReflectedClass) {
+                    mapClass(mapping, (ReflectedClass) member);
+                } else {
+                    mapMethod(mapping, clazz, (ReflectedMethod) member);
+                }
+            }
+        } else {
+            logger.info("Class {} already mapped. Skipped mapping.", clazz);
+        }
+    }
+
+    private void mapMethod(Registry mapping, Class<?> clazz, ReflectedMethod reflected) {
+        Method method = reflected.method;
+        Linkable linkAnnotation = method.getAnnotation(Linkable.class);
+        String id = linkAnnotation.value();
+        if (mapping.linkableMapping.containsKey(id)) {
+            throw new IllegalArgumentException("Id '" + id
+                    + "' mapped in class " + clazz
+                    + " is already mapped from another class");
+        }
+
+        LinkableInfo linkableInfo = new LinkableInfo(id, reflected.path,
+                reflected.httpMethod, reflected.consumes, reflected.produces,
+                linkAnnotation.label(), linkAnnotation.description(),
+                linkAnnotation.templateClass(), reflected.parameterInfo, mapping.linkableMapping.size(),
+                reflected.pathParameterTypes, linkAnnotation.cacheable());
+
+        mapping.linkableMapping.put(id, linkableInfo);
+
+        if (method.isAnnotationPresent(ResponseLinks.class)) {
+            mapping.responseLinksMapping.put(id, method.getAnnotation(ResponseLinks.class).value());
+        }
+    }
+
+    private Map<String, Class<?>> extractPathParameterTypes(Method method) {
+        Map<String, Class<?>> types = new HashMap<String, Class<?>>();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof PathParam) {
+                    types.put(((PathParam) annotation).value(), parameterTypes[i]);
+                }
             }
         }
+        return types.isEmpty() ? Collections.<String, Class<?>>emptyMap() : Collections.unmodifiableMap(types);
     }
 
     private LinkableParameterInfo[] extractMethodParameterInfo(Method method) {
@@ -220,7 +475,7 @@ public class DefaultHateoasContext implements HateoasContext {
 
     @Override
     public String toString() {
-        Set<Entry<String, LinkableInfo>> entrySet = linkableMapping.entrySet();
+        Set<Entry<String, LinkableInfo>> entrySet = registry.linkableMapping.entrySet();
         StringBuilder sb = new StringBuilder();
         for (Entry<String, LinkableInfo> relInfo : entrySet) {
             sb.append(relInfo.toString()).append("<br/>");
@@ -230,35 +485,119 @@ public class DefaultHateoasContext implements HateoasContext {
     }
 
     /**
-     * Checks if the specified class has been registered. If not add the class to the set mapping
-     * registred classes.
+     * Checks if the specified class has been mapped.
      *
      * @param clazz the class to check
-     * @return <code>true</code> if the class has already been registered,
+     * @return <code>true</code> if the class has already been mapped,
      *         <code>false</code> otherwise.
      */
     public boolean isInitialized(Class<?> clazz) {
-        Lock readLock = LOCK.readLock();
-        try {
-            readLock.lock();
-            if (initializedClasses.contains(clazz)) {
-                return true;
-            }
-        } finally {
-            readLock.unlock();
+        return registry.initializedClasses.contains(clazz);
+    }
+
+    /**
+     * Everything known about the mapped classes. A published instance is never modified; mapping works on a copy
+     * which is published by a single volatile write.
+     */
+    private static final class Registry {
+        private final Map<String, LinkableInfo> linkableMapping;
+        private final Set<Class<?>> initializedClasses;
+        private final Map<String, ResponseLink[]> responseLinksMapping;
+        private final PathTemplateTrie pathTemplates;
+
+        private Registry() {
+            this(new LinkedHashMap<String, LinkableInfo>(), new HashSet<Class<?>>(),
+                    new HashMap<String, ResponseLink[]>(), new PathTemplateTrie());
         }
 
-        Lock writeLock = LOCK.writeLock();
-        try {
-            writeLock.lock();
-            if (!initializedClasses.contains(clazz)) { // check again - things might have changed
-                initializedClasses.add(clazz);
-                return false;
+        private Registry(Registry base) {
+            this(new LinkedHashMap<String, LinkableInfo>(base.linkableMapping),
+                    new HashSet<Class<?>>(base.initializedClasses),
+                    new HashMap<String, ResponseLink[]>(base.responseLinksMapping), null);
+        }
+
+        private Registry(Map<String, LinkableInfo> linkableMapping, Set<Class<?>> initializedClasses,
+                         Map<String, ResponseLink[]> responseLinksMapping, PathTemplateTrie pathTemplates) {
+            this.linkableMapping = linkableMapping;
+            this.initializedClasses = initializedClasses;
+            this.responseLinksMapping = responseLinksMapping;
+            this.pathTemplates = pathTemplates;
+        }
+
+        private Registry publish() {
+            PathTemplateTrie pathTemplates = new PathTemplateTrie();
+            for (LinkableInfo linkableInfo : linkableMapping.values()) {
+                pathTemplates.add(linkableInfo);
             }
-        } finally {
-            writeLock.unlock();
+            return new Registry(Collections.unmodifiableMap(linkableMapping),
+                    Collections.unmodifiableSet(initializedClasses),
+                    Collections.unmodifiableMap(responseLinksMapping), pathTemplates);
         }
+    }
+
+    /**
+     * A class reflected for mapping, with its linkable methods and sub-resource classes in declaration order.
+     */
+    static final class ReflectedClass {
+        final Class<?> clazz;
+        final List<Object> members = new ArrayList<Object>();
+        boolean repeated;
+        long nanos;
+
+        private ReflectedClass(Class<?> clazz) {
+            this.clazz = clazz;
+        }
+    }
+
+    private static final class ReflectedMethod {
+        private final Method method;
+        private final String httpMethod;
+        private final String path;
+        private final String[] consumes;
+        private final String[] produces;
+        private final LinkableParameterInfo[] parameterInfo;
+        private final Map<String, Class<?>> pathParameterTypes;
+
+        private ReflectedMethod(Method method, String httpMethod, String path, String[] consumes, String[] produces,
+                                LinkableParameterInfo[] parameterInfo, Map<String, Class<?>> pathParameterTypes) {
+            this.method = method;
+            this.httpMethod = httpMethod;
+            this.path = path;
+            this.consumes = consumes;
+            this.produces = produces;
+            this.parameterInfo = parameterInfo;
+            this.pathParameterTypes = pathParameterTypes;
+        }
+    }
+
+    private static final class MappingThreadFactory implements ThreadFactory {
+        private static final AtomicInteger COUNT = new AtomicInteger();
 
-        return true;
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "hateoas-mapping-" + COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static final class LinkRules {
+        private final List<LinkRule> rules;
+        private final ConcurrentMap<Class<?>, List<LinkProducer<Object>>> byClass =
+                new ConcurrentHashMap<Class<?>, List<LinkProducer<Object>>>();
+
+        private LinkRules(List<LinkRule> rules) {
+            this.rules = rules;
+        }
+    }
+
+    private static final class LinkRule {
+        private final Class<?> type;
+        private final LinkProducer<Object> linkProducer;
+
+        private LinkRule(Class<?> type, LinkProducer<Object> linkProducer) {
+            this.type = type;
+            this.linkProducer = linkProducer;
+        }
     }
 }
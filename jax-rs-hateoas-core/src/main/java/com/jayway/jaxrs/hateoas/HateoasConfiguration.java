@@ -0,0 +1,252 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import com.jayway.jaxrs.hateoas.core.LinkCache;
+import com.jayway.jaxrs.hateoas.embed.BatchLoader;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.NoOpHateoasMetrics;
+import com.jayway.jaxrs.hateoas.usage.LinkUsageTracker;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import com.jayway.jaxrs.hateoas.web.ServerTimingRecorder;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+
+/**
+ * The {@link HateoasContext} and configuration of one application. Each application class in the core package creates
+ * its own configuration and hands it to its request filter, which binds it to the {@link RequestContext} of every
+ * request, so that several applications in the same JVM neither share link ids nor overwrite each other's settings.
+ * <p/>
+ * Outside of requests, and for applications not using one of the request filters, the default configuration is used.
+ * It wraps {@link HateoasContextProvider#getDefaultContext()} and is the one changed by the static configuration
+ * methods such as {@link com.jayway.jaxrs.hateoas.core.HateoasResponse.HateoasResponseBuilder#configure} and
+ * {@link HateoasVerbosity#setDefaultVerbosity(HateoasVerbosity)}, as well as
+ * {@link com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider#setMetrics(HateoasMetrics)} and
+ * {@link ServerTimingRecorder#configure(ServerTimingRecorder.Mode, String)}.
+ */
+public final class HateoasConfiguration {
+
+    private static final HateoasConfiguration DEFAULT = new HateoasConfiguration(HateoasContextProvider.getDefaultContext());
+
+    private final HateoasContext context;
+
+    private volatile HateoasLinkInjector<Object> linkInjector;
+    private volatile CollectionWrapperStrategy collectionWrapperStrategy;
+    private volatile HateoasViewFactory viewFactory;
+    private volatile HateoasVerbosity defaultVerbosity = HateoasVerbosity.MAXIMUM;
+    private volatile AdaptiveVerbosityController adaptiveVerbosityController;
+    private volatile LinkUsageTracker linkUsageTracker;
+    private volatile boolean halEnabled;
+    private volatile LinkCache linkCache;
+    private final ConcurrentMap<String, BatchLoader<?>> batchLoaders = new ConcurrentHashMap<String, BatchLoader<?>>();
+    private volatile int maxEmbedded = 100;
+    private volatile int maxEmbedDepth = 1;
+    private volatile HateoasMetrics metrics = NoOpHateoasMetrics.INSTANCE;
+    private volatile ServerTimingRecorder.Mode serverTimingMode = ServerTimingRecorder.Mode.NEVER;
+    private volatile String serverTimingToken;
+
+    public HateoasConfiguration(HateoasContext context) {
+        notNull(context, "context must not be null");
+        this.context = context;
+    }
+
+    public static HateoasConfiguration getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the configuration of the current request, or the default configuration if there is none.
+     */
+    public static HateoasConfiguration current() {
+        RequestContext requestContext = RequestContext.getRequestContext();
+        return requestContext == null ? DEFAULT : requestContext.getConfiguration();
+    }
+
+    public HateoasContext getContext() {
+        return context;
+    }
+
+    public void configure(HateoasLinkInjector<Object> linkInjector,
+                          CollectionWrapperStrategy collectionWrapperStrategy,
+                          HateoasViewFactory viewFactory) {
+        this.linkInjector = linkInjector;
+        this.collectionWrapperStrategy = collectionWrapperStrategy;
+        this.viewFactory = viewFactory;
+    }
+
+    public HateoasLinkInjector<Object> getLinkInjector() {
+        return linkInjector;
+    }
+
+    public CollectionWrapperStrategy getCollectionWrapperStrategy() {
+        return collectionWrapperStrategy;
+    }
+
+    public HateoasViewFactory getViewFactory() {
+        return viewFactory;
+    }
+
+    /**
+     * @return the verbosity of requests not asking for one.
+     */
+    public HateoasVerbosity getDefaultVerbosity() {
+        return defaultVerbosity;
+    }
+
+    public void setDefaultVerbosity(HateoasVerbosity defaultVerbosity) {
+        this.defaultVerbosity = defaultVerbosity;
+    }
+
+    /**
+     * @return the controller adapting the verbosity to load, or <code>null</code> if the verbosity is not adapted.
+     */
+    public AdaptiveVerbosityController getAdaptiveVerbosityController() {
+        return adaptiveVerbosityController;
+    }
+
+    public void setAdaptiveVerbosityController(AdaptiveVerbosityController adaptiveVerbosityController) {
+        this.adaptiveVerbosityController = adaptiveVerbosityController;
+    }
+
+    /**
+     * @return the tracker of link usage, or <code>null</code> if link usage is not tracked.
+     */
+    public LinkUsageTracker getLinkUsageTracker() {
+        return linkUsageTracker;
+    }
+
+    public void setLinkUsageTracker(LinkUsageTracker linkUsageTracker) {
+        this.linkUsageTracker = linkUsageTracker;
+    }
+
+    /**
+     * @return <code>true</code> if responses are written as HAL to requests preferring it.
+     * @see com.jayway.jaxrs.hateoas.hal.HalMediaType#isPreferredBy(String)
+     */
+    public boolean isHalEnabled() {
+        return halEnabled;
+    }
+
+    public void setHalEnabled(boolean halEnabled) {
+        this.halEnabled = halEnabled;
+    }
+
+    /**
+     * @return the cache of links reused across requests, or <code>null</code> if links are built for each request.
+     */
+    public LinkCache getLinkCache() {
+        return linkCache;
+    }
+
+    public void setLinkCache(LinkCache linkCache) {
+        this.linkCache = linkCache;
+    }
+
+    /**
+     * Register the loader of the resources served by the specified {@link Linkable}, allowing clients to have them
+     * embedded in the links pointing to them using the <code>embed</code> query parameter.
+     *
+     * @param id     the id of the Linkable.
+     * @param loader the loader of the resources served by the Linkable.
+     * @see com.jayway.jaxrs.hateoas.embed.EmbedBatch
+     */
+    public void registerBatchLoader(String id, BatchLoader<?> loader) {
+        notNull(id, "id must not be null");
+        notNull(loader, "loader must not be null");
+        batchLoaders.put(id, loader);
+    }
+
+    /**
+     * @return the loader registered for the specified Linkable id, or <code>null</code> if there is none.
+     */
+    public BatchLoader<?> getBatchLoader(String id) {
+        return batchLoaders.get(id);
+    }
+
+    public boolean hasBatchLoaders() {
+        return !batchLoaders.isEmpty();
+    }
+
+    /**
+     * @return the maximum number of distinct resources embedded in one response.
+     */
+    public int getMaxEmbedded() {
+        return maxEmbedded;
+    }
+
+    /**
+     * @return the maximum depth of the links embedding resources, the root entity being at depth 0 and e.g. the rows
+     *         of a collection at depth 1.
+     */
+    public int getMaxEmbedDepth() {
+        return maxEmbedDepth;
+    }
+
+    public void setEmbedLimits(int maxEmbedded, int maxEmbedDepth) {
+        isTrue(maxEmbedded >= 0, "maxEmbedded must not be negative");
+        isTrue(maxEmbedDepth >= 0, "maxEmbedDepth must not be negative");
+        this.maxEmbedded = maxEmbedded;
+        this.maxEmbedDepth = maxEmbedDepth;
+    }
+
+    /**
+     * @return the metrics recorded for the requests of this configuration, {@link NoOpHateoasMetrics} unless set.
+     * @see com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider
+     */
+    public HateoasMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(HateoasMetrics metrics) {
+        notNull(metrics, "metrics must not be null");
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return when timing is recorded for the requests of this configuration, never unless configured.
+     */
+    public ServerTimingRecorder.Mode getServerTimingMode() {
+        return serverTimingMode;
+    }
+
+    /**
+     * @return the value the {@link ServerTimingRecorder#SERVER_TIMING_REQUEST_HEADER} must have to enable timing in
+     *         {@link ServerTimingRecorder.Mode#ON_REQUEST} mode, or <code>null</code> in other modes.
+     */
+    public String getServerTimingToken() {
+        return serverTimingToken;
+    }
+
+    /**
+     * Configure when timing is recorded for the requests of this configuration.
+     *
+     * @param mode  when to record timing.
+     * @param token the value the {@link ServerTimingRecorder#SERVER_TIMING_REQUEST_HEADER} must have to enable timing
+     *              in {@link ServerTimingRecorder.Mode#ON_REQUEST} mode, required in that mode so that timing is not
+     *              exposed to every client.
+     */
+    public void configureServerTiming(ServerTimingRecorder.Mode mode, String token) {
+        isTrue(mode != ServerTimingRecorder.Mode.ON_REQUEST || StringUtils.isNotBlank(token),
+                "a token is required in ON_REQUEST mode");
+        this.serverTimingMode = mode == null ? ServerTimingRecorder.Mode.NEVER : mode;
+        this.serverTimingToken = this.serverTimingMode != ServerTimingRecorder.Mode.ON_REQUEST ? null : token;
+    }
+}
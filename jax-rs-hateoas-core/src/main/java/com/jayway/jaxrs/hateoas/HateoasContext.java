@@ -14,6 +14,11 @@
  */
 package com.jayway.jaxrs.hateoas;
 
+import com.jayway.jaxrs.hateoas.core.LinkPlan;
+
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Keeps track of all methods annotated with {@link Linkable}, along with the metadata associated with each method.
  * Not intended for external use.
@@ -26,6 +31,51 @@ public interface HateoasContext {
 
 	void mapClass(Class<?> clazz);
 
+	/**
+	 * Map several classes at once, making them visible to readers together.
+	 */
+	void mapClasses(Collection<Class<?>> classes);
+
 	LinkableInfo getLinkableInfo(String link);
 
+	/**
+	 * Get the LinkableInfo with the specified id, or <code>null</code> if there is none, for lookups of ids coming
+	 * from clients.
+	 */
+	LinkableInfo findLinkableInfo(String id);
+
+	/**
+	 * Get the LinkableInfo serving requests with the specified method and path, or <code>null</code> if there is
+	 * none.
+	 *
+	 * @param httpMethod the method of the request.
+	 * @param path       the path of the request relative to the application root.
+	 */
+	LinkableInfo matchLinkableInfo(String httpMethod, String path);
+
+	/**
+	 * Like {@link #matchLinkableInfo(String, String)}, also extracting the values of the path template parameters
+	 * into the supplied PathMatch, which may be reused between calls. Matching does not allocate.
+	 */
+	LinkableInfo matchLinkableInfo(String httpMethod, String path, PathMatch match);
+
+	/**
+	 * Get the compiled {@link LinkPlan} declared by {@link ResponseLinks} on the {@link Linkable} method with the
+	 * specified id.
+	 */
+	LinkPlan getLinkPlan(String id);
+
+	/**
+	 * Register a rule adding the links produced by the supplied LinkProducer to every instance of the specified type,
+	 * wherever it appears in a response entity.
+	 */
+	void addLinkRule(Class<?> type, LinkProducer<?> linkProducer);
+
+	boolean hasLinkRules();
+
+	/**
+	 * Get the LinkProducers of all rules matching the specified class, in registration order.
+	 */
+	List<LinkProducer<Object>> getLinkRules(Class<?> clazz);
+
 }
\ No newline at end of file
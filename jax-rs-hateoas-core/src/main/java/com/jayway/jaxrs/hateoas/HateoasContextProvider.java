@@ -26,4 +26,11 @@ public class HateoasContextProvider {
 	public static HateoasContext getDefaultContext() {
 		return defaultContext;
 	}
+
+	/**
+	 * @return the context of the current request, see {@link HateoasConfiguration#current()}.
+	 */
+	public static HateoasContext getContext() {
+		return HateoasConfiguration.current().getContext();
+	}
 }
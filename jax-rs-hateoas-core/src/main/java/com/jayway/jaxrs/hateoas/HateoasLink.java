@@ -42,6 +42,12 @@ public interface HateoasLink {
 
 	Class<?> getTemplateClass();
 
+	/**
+	 * Create the map representation of this link, holding the entries added by the {@link HateoasOption}s of the
+	 * verbosity. The entries may be created on first access, see {@link com.jayway.jaxrs.hateoas.support.LinkMap},
+	 * except for the template: if the verbosity contains {@link HateoasOption#TEMPLATE} the template class is
+	 * instantiated by this method, which throws if that fails.
+	 */
 	Map<String, Object> toMap(HateoasVerbosity verbosity);
 
 }
\ No newline at end of file
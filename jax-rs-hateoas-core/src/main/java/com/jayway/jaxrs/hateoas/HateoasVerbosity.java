@@ -16,6 +16,7 @@ package com.jayway.jaxrs.hateoas;
 
 import org.apache.commons.lang.StringUtils;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -46,16 +47,17 @@ public class HateoasVerbosity {
             HateoasOption.REL, HateoasOption.HREF, HateoasOption.CONSUMES,
             HateoasOption.METHOD, HateoasOption.TEMPLATE);
 
-    private static HateoasVerbosity defaultVerbosity = HateoasVerbosity.MAXIMUM;
-
     private HateoasOption[] options;
 
     public HateoasVerbosity(HateoasOption... options) {
         this.options = options;
     }
 
+    /**
+     * Set the verbosity of the default {@link HateoasConfiguration}.
+     */
     public static void setDefaultVerbosity(HateoasVerbosity verbosity) {
-        defaultVerbosity = verbosity;
+        HateoasConfiguration.getDefault().setDefaultVerbosity(verbosity);
     }
 
     /**
@@ -106,7 +108,7 @@ public class HateoasVerbosity {
             return new HateoasVerbosity(
                     options.toArray(new HateoasOption[0]));
         } else {
-            return defaultVerbosity;
+            return HateoasConfiguration.current().getDefaultVerbosity();
         }
 
     }
@@ -115,4 +117,19 @@ public class HateoasVerbosity {
         return options;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        HateoasVerbosity that = (HateoasVerbosity) o;
+
+        return Arrays.equals(options, that.options);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(options);
+    }
+
 }
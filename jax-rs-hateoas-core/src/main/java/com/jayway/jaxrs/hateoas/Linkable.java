@@ -52,4 +52,10 @@ public @interface Linkable {
      * Description of this link.
      */
 	String description() default "";
+
+    /**
+     * Whether links to this method may be reused across requests, see {@link com.jayway.jaxrs.hateoas.core.LinkCache}.
+     * Only to be enabled if the link depends on nothing but its rel and parameters, i.e. not on who is asking.
+     */
+	boolean cacheable() default false;
 }
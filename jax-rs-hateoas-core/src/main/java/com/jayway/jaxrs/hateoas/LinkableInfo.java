@@ -14,8 +14,14 @@
  */
 package com.jayway.jaxrs.hateoas;
 
+import com.jayway.jaxrs.hateoas.core.HrefTemplate;
 import org.apache.commons.lang.builder.ToStringBuilder;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Holds all data regarding a Linkable method. Not intended for external use.
  *
@@ -32,6 +38,11 @@ public final class LinkableInfo {
 	private final String[] consumes;
 	private final String label;
     private final LinkableParameterInfo[] parameterInfo;
+    private final int handle;
+    private final Map<String, Class<?>> pathParameterTypes;
+    private final boolean cacheable;
+    private final HrefTemplate hrefTemplate;
+    private final ConcurrentMap<Object, Object> derivedValues = new ConcurrentHashMap<Object, Object>(4, 0.75f, 1);
 
     public LinkableInfo(String id, String methodPath,
                            String httpMethod, String[] consumes, String[] produces,
@@ -43,6 +54,17 @@ public final class LinkableInfo {
 	public LinkableInfo(String id, String methodPath,
                         String httpMethod, String[] consumes, String[] produces,
                         String label, String description, Class<?> templateClass, LinkableParameterInfo[] parameterInfo) {
+		this(id, methodPath, httpMethod, consumes, produces, label, description, templateClass, parameterInfo, -1,
+				Collections.<String, Class<?>>emptyMap(), false);
+	}
+
+	LinkableInfo(String id, String methodPath,
+                 String httpMethod, String[] consumes, String[] produces,
+                 String label, String description, Class<?> templateClass, LinkableParameterInfo[] parameterInfo,
+                 int handle, Map<String, Class<?>> pathParameterTypes, boolean cacheable) {
+		this.handle = handle;
+		this.cacheable = cacheable;
+		this.pathParameterTypes = pathParameterTypes;
 		this.id = id;
 		this.methodPath = methodPath;
 		this.httpMethod = httpMethod;
@@ -52,6 +74,8 @@ public final class LinkableInfo {
 		this.description = description;
 		this.templateClass = templateClass;
         this.parameterInfo = parameterInfo;
+        // Compiled last, from the path and the path parameter types assigned above.
+        this.hrefTemplate = HrefTemplate.compile(this);
 	}
 
 	public Class<?> getTemplateClass() {
@@ -90,6 +114,63 @@ public final class LinkableInfo {
         return parameterInfo;
     }
 
+    /**
+     * @return a small number identifying this LinkableInfo within its {@link HateoasContext}, assigned in mapping
+     *         order, or -1 if it was not created by a context.
+     */
+    public int getHandle() {
+        return handle;
+    }
+
+    /**
+     * @return the declared type of the {@link javax.ws.rs.PathParam} with the specified name of the linkable method,
+     *         or <code>null</code> if unknown.
+     */
+    public Class<?> getPathParameterType(String name) {
+        return pathParameterTypes.get(name);
+    }
+
+    /**
+     * @return <code>true</code> if links to the linkable method may be reused across requests.
+     * @see Linkable#cacheable()
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * @return the path template of the linkable method compiled for building hrefs.
+     */
+    public HrefTemplate getHrefTemplate() {
+        return hrefTemplate;
+    }
+
+    /**
+     * @return the value derived from this LinkableInfo by a writer that was kept for the specified key, or
+     *         <code>null</code> if there is none.
+     * @see #keepDerivedValue(Object, Object, int)
+     */
+    public Object getDerivedValue(Object key) {
+        return derivedValues.get(key);
+    }
+
+    /**
+     * Keep a value derived from this LinkableInfo by a writer, e.g. pre-serialized fragments, for as long as the
+     * LinkableInfo and thereby its context is alive. Keys must be distinct between writers.
+     *
+     * @param key       the key of the value.
+     * @param value     the derived value.
+     * @param maxValues the number of values this LinkableInfo may hold, above which the value is not kept.
+     * @return the value already kept for the key if there is one, otherwise the supplied value.
+     */
+    public Object keepDerivedValue(Object key, Object value, int maxValues) {
+        if (derivedValues.size() >= maxValues) {
+            return value;
+        }
+        Object existing = derivedValues.putIfAbsent(key, value);
+        return existing == null ? value : existing;
+    }
+
     @Override
 	public String toString() {
 		return ToStringBuilder.reflectionToString(this);
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where the time went when {@link DefaultHateoasContext} mapped resource classes: reflecting the classes, which is
+ * done in parallel, merging them into the registry and publishing it.
+ */
+public final class MappingReport {
+
+    private static final int SLOWEST_CLASSES = 5;
+
+    private final int rootClasses;
+    private final int mappedClasses;
+    private final int mappedLinks;
+    private final int threads;
+    private final long reflectNanos;
+    private final long reflectTotalNanos;
+    private final long mergeNanos;
+    private final long publishNanos;
+    private final Map<Class<?>, Long> slowestClasses;
+
+    MappingReport(int rootClasses, int mappedClasses, int mappedLinks, int threads, long reflectNanos,
+                  long mergeNanos, long publishNanos, List<DefaultHateoasContext.ReflectedClass> reflected) {
+        this.rootClasses = rootClasses;
+        this.mappedClasses = mappedClasses;
+        this.mappedLinks = mappedLinks;
+        this.threads = threads;
+        this.reflectNanos = reflectNanos;
+        this.mergeNanos = mergeNanos;
+        this.publishNanos = publishNanos;
+
+        long total = 0;
+        for (DefaultHateoasContext.ReflectedClass reflectedClass : reflected) {
+            total += reflectedClass.nanos;
+        }
+        this.reflectTotalNanos = total;
+
+        List<DefaultHateoasContext.ReflectedClass> sorted = new ArrayList<DefaultHateoasContext.ReflectedClass>(reflected);
+        Collections.sort(sorted, new Comparator<DefaultHateoasContext.ReflectedClass>() {
+            @Override
+            public int compare(DefaultHateoasContext.ReflectedClass first, DefaultHateoasContext.ReflectedClass second) {
+                return first.nanos > second.nanos ? -1 : (first.nanos == second.nanos ? 0 : 1);
+            }
+        });
+        Map<Class<?>, Long> slowest = new LinkedHashMap<Class<?>, Long>();
+        for (DefaultHateoasContext.ReflectedClass reflectedClass : sorted.subList(0, Math.min(SLOWEST_CLASSES, sorted.size()))) {
+            slowest.put(reflectedClass.clazz, reflectedClass.nanos);
+        }
+        this.slowestClasses = Collections.unmodifiableMap(slowest);
+    }
+
+    /**
+     * @return the number of resource classes supplied for mapping.
+     */
+    public int getRootClasses() {
+        return rootClasses;
+    }
+
+    /**
+     * @return the number of classes mapped, including sub-resources but not classes mapped before.
+     */
+    public int getMappedClasses() {
+        return mappedClasses;
+    }
+
+    public int getMappedLinks() {
+        return mappedLinks;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getTotalTime(TimeUnit unit) {
+        return unit.convert(reflectNanos + mergeNanos + publishNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the elapsed time spent reflecting the classes.
+     */
+    public long getReflectTime(TimeUnit unit) {
+        return unit.convert(reflectNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the time spent reflecting the classes summed over all threads.
+     */
+    public long getReflectTotalTime(TimeUnit unit) {
+        return unit.convert(reflectTotalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMergeTime(TimeUnit unit) {
+        return unit.convert(mergeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getPublishTime(TimeUnit unit) {
+        return unit.convert(publishNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the resource classes taking the longest to reflect, including their sub-resources, slowest first, with
+     *         their reflection time in nanoseconds.
+     */
+    public Map<Class<?>, Long> getSlowestClasses() {
+        return slowestClasses;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Mapped ").append(rootClasses).append(" resource classes (").append(mappedClasses)
+                .append(" classes including sub-resources, ").append(mappedLinks).append(" links) in ")
+                .append(millis(reflectNanos + mergeNanos + publishNanos)).append(": reflection ")
+                .append(millis(reflectNanos)).append(" on ").append(threads).append(threads == 1 ? " thread (" : " threads (")
+                .append(millis(reflectTotalNanos)).append(" summed), merge ").append(millis(mergeNanos))
+                .append(", publish ").append(millis(publishNanos));
+        if (!slowestClasses.isEmpty()) {
+            sb.append("; slowest:");
+            for (Map.Entry<Class<?>, Long> entry : slowestClasses.entrySet()) {
+                sb.append(' ').append(entry.getKey().getSimpleName()).append(' ').append(millis(entry.getValue()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ENGLISH, "%.1f ms", nanos / 1000000.0);
+    }
+}
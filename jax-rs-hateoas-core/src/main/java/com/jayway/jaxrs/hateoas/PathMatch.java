@@ -0,0 +1,103 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+/**
+ * The result of matching a request path using {@link HateoasContext#matchLinkableInfo(String, String, PathMatch)}:
+ * the matching {@link LinkableInfo} and the values of its path template parameters. Parameters are kept as offsets
+ * into the path until asked for, so an instance can be reused for any number of matches without allocating. Values
+ * are returned as they appear in the path, i.e. not decoded.
+ * <p/>
+ * Instances are not thread safe.
+ */
+public final class PathMatch {
+
+    private static final String[] NO_NAMES = new String[0];
+
+    private int[] offsets = new int[16];
+    private String path;
+    private LinkableInfo linkableInfo;
+    private String[] parameterNames = NO_NAMES;
+
+    void capture(int index, int start, int end) {
+        if (2 * index + 1 >= offsets.length) {
+            int[] grown = new int[Math.max(offsets.length * 2, 2 * index + 2)];
+            System.arraycopy(offsets, 0, grown, 0, offsets.length);
+            offsets = grown;
+        }
+        offsets[2 * index] = start;
+        offsets[2 * index + 1] = end;
+    }
+
+    void matched(String path, LinkableInfo linkableInfo, String[] parameterNames) {
+        this.path = path;
+        this.linkableInfo = linkableInfo;
+        this.parameterNames = parameterNames;
+    }
+
+    void clear() {
+        matched(null, null, NO_NAMES);
+    }
+
+    /**
+     * @return the LinkableInfo of the last match, or <code>null</code> if the last match failed.
+     */
+    public LinkableInfo getLinkableInfo() {
+        return linkableInfo;
+    }
+
+    public int getParameterCount() {
+        return parameterNames.length;
+    }
+
+    /**
+     * @return the name of the parameter at the specified index, in template order.
+     */
+    public String getParameterName(int index) {
+        return parameterNames[index];
+    }
+
+    /**
+     * @return the value of the parameter at the specified index, in template order.
+     */
+    public String getParameterValue(int index) {
+        if (index < 0 || index >= parameterNames.length) {
+            throw new IndexOutOfBoundsException("No parameter " + index);
+        }
+        return path.substring(offsets[2 * index], offsets[2 * index + 1]);
+    }
+
+    /**
+     * @return the value of the parameter with the specified name, or <code>null</code> if there is none.
+     */
+    public String getParameterValue(String name) {
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (parameterNames[i].equals(name)) {
+                return getParameterValue(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Append the value of the parameter at the specified index without creating a String for it.
+     */
+    public StringBuilder appendParameterValue(int index, StringBuilder sb) {
+        if (index < 0 || index >= parameterNames.length) {
+            throw new IndexOutOfBoundsException("No parameter " + index);
+        }
+        return sb.append(path, offsets[2 * index], offsets[2 * index + 1]);
+    }
+}
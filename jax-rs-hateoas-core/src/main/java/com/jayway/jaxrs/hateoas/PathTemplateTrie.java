@@ -0,0 +1,206 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trie of the path templates of {@link LinkableInfo}s, one segment per edge, matching request paths back to the
+ * LinkableInfo serving them. Literal segments take precedence over template parameters, as in JAX-RS. Segments mixing
+ * literals and parameters, such as <code>{id}.json</code>, match any segment, and regular expressions of parameters
+ * are not checked. Not intended for external use.
+ * <p/>
+ * Matching walks the path in place: literal edges are kept sorted by the hash code of their segment, which is computed
+ * from the path characters and confirmed using {@link String#regionMatches(int, String, int, int)}, and parameters are
+ * recorded as offsets into the path. A match therefore allocates nothing, apart from growing a {@link PathMatch} used
+ * with deeper templates than before.
+ * <p/>
+ * Adding is not thread safe, matching is safe once all templates are added.
+ */
+final class PathTemplateTrie {
+
+    private static final int[] NO_HASHES = new int[0];
+    private static final String[] NO_STRINGS = new String[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Leaf[] NO_LEAVES = new Leaf[0];
+
+    private final Node root = new Node();
+
+    void add(LinkableInfo linkableInfo) {
+        Node node = root;
+        List<String> parameterNames = new ArrayList<String>();
+        for (String segment : StringUtils.split(linkableInfo.getMethodPath(), '/')) {
+            if (segment.indexOf('{') >= 0) {
+                parameterNames.add(parameterName(segment));
+                if (node.parameter == null) {
+                    node.parameter = new Node();
+                }
+                node = node.parameter;
+            } else {
+                node = node.literal(segment);
+            }
+        }
+        node.addLeaf(new Leaf(linkableInfo, parameterNames.toArray(new String[parameterNames.size()])));
+    }
+
+    /**
+     * @param httpMethod the method of the request.
+     * @param path       the path of the request relative to the application root, with or without leading slash.
+     * @param match      receives the parameters of the match, may be <code>null</code>.
+     * @return the matching LinkableInfo, or <code>null</code> if there is none.
+     */
+    LinkableInfo match(String httpMethod, String path, PathMatch match) {
+        LinkableInfo result = match(root, httpMethod, path, 0, match, 0);
+        if (result == null && match != null) {
+            match.clear();
+        }
+        return result;
+    }
+
+    private static LinkableInfo match(Node node, String httpMethod, String path, int position, PathMatch match,
+                                      int parameterIndex) {
+        int length = path.length();
+        int start = position;
+        while (start < length && path.charAt(start) == '/') {
+            start++;
+        }
+        if (start == length) {
+            for (Leaf leaf : node.leaves) {
+                if (leaf.linkableInfo.getHttpMethod().equals(httpMethod)) {
+                    if (match != null) {
+                        match.matched(path, leaf.linkableInfo, leaf.parameterNames);
+                    }
+                    return leaf.linkableInfo;
+                }
+            }
+            return null;
+        }
+
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = length;
+        }
+        Node literal = node.findLiteral(path, start, end);
+        if (literal != null) {
+            LinkableInfo result = match(literal, httpMethod, path, end, match, parameterIndex);
+            if (result != null) {
+                return result;
+            }
+        }
+        if (node.parameter == null) {
+            return null;
+        }
+        if (match != null) {
+            match.capture(parameterIndex, start, end);
+        }
+        return match(node.parameter, httpMethod, path, end, match, parameterIndex + 1);
+    }
+
+    private static String parameterName(String segment) {
+        int start = segment.indexOf('{') + 1;
+        int end = segment.indexOf('}', start);
+        String name = end < 0 ? segment.substring(start) : segment.substring(start, end);
+        int colon = name.indexOf(':');
+        return (colon < 0 ? name : name.substring(0, colon)).trim();
+    }
+
+    private static final class Node {
+        // Sorted by hash, segments with equal hashes are adjacent.
+        private int[] literalHashes = NO_HASHES;
+        private String[] literals = NO_STRINGS;
+        private Node[] literalNodes = NO_NODES;
+        private Node parameter;
+        private Leaf[] leaves = NO_LEAVES;
+
+        private Node literal(String segment) {
+            int hash = segment.hashCode();
+            int index = Arrays.binarySearch(literalHashes, hash);
+            if (index >= 0) {
+                for (int i = first(index, hash); i < literalHashes.length && literalHashes[i] == hash; i++) {
+                    if (literals[i].equals(segment)) {
+                        return literalNodes[i];
+                    }
+                }
+            } else {
+                index = -index - 1;
+            }
+            Node node = new Node();
+            literalHashes = insert(literalHashes, index, hash);
+            literals = insert(literals, index, segment, NO_STRINGS);
+            literalNodes = insert(literalNodes, index, node, NO_NODES);
+            return node;
+        }
+
+        private Node findLiteral(String path, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int index = Arrays.binarySearch(literalHashes, hash);
+            if (index < 0) {
+                return null;
+            }
+            int length = end - start;
+            for (int i = first(index, hash); i < literalHashes.length && literalHashes[i] == hash; i++) {
+                String literal = literals[i];
+                if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+                    return literalNodes[i];
+                }
+            }
+            return null;
+        }
+
+        private int first(int index, int hash) {
+            while (index > 0 && literalHashes[index - 1] == hash) {
+                index--;
+            }
+            return index;
+        }
+
+        private void addLeaf(Leaf leaf) {
+            leaves = insert(leaves, leaves.length, leaf, NO_LEAVES);
+        }
+    }
+
+    private static final class Leaf {
+        private final LinkableInfo linkableInfo;
+        private final String[] parameterNames;
+
+        private Leaf(LinkableInfo linkableInfo, String[] parameterNames) {
+            this.linkableInfo = linkableInfo;
+            this.parameterNames = parameterNames;
+        }
+    }
+
+    private static int[] insert(int[] array, int index, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static <T> T[] insert(T[] array, int index, T value, T[] empty) {
+        T[] result = Arrays.copyOf(empty, array.length + 1);
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import com.jayway.jaxrs.hateoas.support.AtomRels;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A single link declared by {@link ResponseLinks}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({})
+public @interface ResponseLink {
+
+    /**
+     * The @Linkable id of the target method.
+     */
+    String value();
+
+    /**
+     * The relation of the linked resource.
+     */
+    String rel() default AtomRels.SELF;
+
+    /**
+     * The path parameters of the link. A parameter of the form <code>$n</code> refers to the n:th argument supplied
+     * when applying the plan, anything else is the name of a field in the object the link is added to.
+     */
+    String[] params() default {};
+
+    /**
+     * The field path, in dot notation, of the object the link is added to. Defaults to the entity itself.
+     * Ignored if {@link #each()} is <code>true</code>.
+     */
+    String path() default "";
+
+    /**
+     * Add the link to each row of a collection entity rather than to the entity itself.
+     */
+    boolean each() default false;
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the links of the responses of a {@link Linkable} method. The links are compiled once into a
+ * {@link com.jayway.jaxrs.hateoas.core.LinkPlan}, which is applied using
+ * {@link com.jayway.jaxrs.hateoas.core.HateoasResponse.HateoasResponseBuilder#plan(String, Object...)} with the
+ * id of the annotated method.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ResponseLinks {
+
+    /**
+     * The links of the response.
+     */
+    ResponseLink[] value();
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.cbor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads CBOR (RFC 8949) data items, as written by {@link CborMessageBodyWriter}, into plain Java objects, for clients
+ * of services producing <code>application/cbor</code>:
+ * <ul>
+ * <li>maps as {@link LinkedHashMap}s, keeping the order of the entries,</li>
+ * <li>arrays as {@link ArrayList}s,</li>
+ * <li>text strings as {@link String}s and byte strings as byte arrays,</li>
+ * <li>integers as {@link Long}s, or {@link BigInteger}s if too large for a long (tags 2 and 3),</li>
+ * <li>floating point numbers as {@link Double}s and decimal fractions (tag 4) as {@link BigDecimal}s,</li>
+ * <li>booleans as {@link Boolean}s and null and undefined as <code>null</code>.</li>
+ * </ul>
+ * Other tags are skipped, i.e. the tagged item is returned as is.
+ * <p/>
+ * Instances are not thread safe.
+ */
+public class CborDecoder {
+
+    private static final Object BREAK_MARKER = new Object();
+
+    private final InputStream in;
+
+    public CborDecoder(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Decode a single data item.
+     *
+     * @param data the encoded item.
+     * @return the decoded item.
+     * @throws IOException if the data is not well-formed CBOR.
+     */
+    public static Object decode(byte[] data) throws IOException {
+        return new CborDecoder(new ByteArrayInputStream(data)).read();
+    }
+
+    /**
+     * Read the next data item of the stream.
+     *
+     * @return the decoded item.
+     * @throws EOFException if the stream ends before the item is complete.
+     * @throws IOException  if the item is not well-formed CBOR.
+     */
+    public Object read() throws IOException {
+        Object item = readItem();
+        if (item == BREAK_MARKER) {
+            throw new IOException("Unexpected break outside of an indefinite length item");
+        }
+        return item;
+    }
+
+    private Object readItem() throws IOException {
+        int initial = readByte();
+        int major = initial >>> 5;
+        int info = initial & 0x1f;
+        switch (major) {
+            case CborGenerator.MAJOR_UNSIGNED:
+                return unsigned(readArgument(info));
+            case CborGenerator.MAJOR_NEGATIVE:
+                long argument = readArgument(info);
+                return argument >= 0 ? (Object) (-1 - argument) : unsignedBig(argument).negate().subtract(BigInteger.ONE);
+            case CborGenerator.MAJOR_BYTES:
+                return readString(info, CborGenerator.MAJOR_BYTES);
+            case CborGenerator.MAJOR_TEXT:
+                return new String(readString(info, CborGenerator.MAJOR_TEXT), "UTF-8");
+            case CborGenerator.MAJOR_ARRAY:
+                return readArray(info);
+            case CborGenerator.MAJOR_MAP:
+                return readMap(info);
+            case CborGenerator.MAJOR_TAG:
+                return readTagged(readArgument(info));
+            default:
+                return readSimple(initial, info);
+        }
+    }
+
+    private List<Object> readArray(int info) throws IOException {
+        List<Object> list = new ArrayList<Object>();
+        if (info == CborGenerator.INDEFINITE_LENGTH) {
+            for (Object item = readItem(); item != BREAK_MARKER; item = readItem()) {
+                list.add(item);
+            }
+        } else {
+            for (long size = readLength(info); size > 0; size--) {
+                list.add(read());
+            }
+        }
+        return list;
+    }
+
+    private Map<Object, Object> readMap(int info) throws IOException {
+        Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+        if (info == CborGenerator.INDEFINITE_LENGTH) {
+            for (Object key = readItem(); key != BREAK_MARKER; key = readItem()) {
+                map.put(key, read());
+            }
+        } else {
+            for (long size = readLength(info); size > 0; size--) {
+                map.put(read(), read());
+            }
+        }
+        return map;
+    }
+
+    private Object readTagged(long tag) throws IOException {
+        Object item = read();
+        if (tag == CborGenerator.TAG_POSITIVE_BIGNUM || tag == CborGenerator.TAG_NEGATIVE_BIGNUM) {
+            if (!(item instanceof byte[])) {
+                throw new IOException("Bignum content must be a byte string");
+            }
+            BigInteger value = new BigInteger(1, (byte[]) item);
+            return tag == CborGenerator.TAG_POSITIVE_BIGNUM ? value : value.negate().subtract(BigInteger.ONE);
+        }
+        if (tag == CborGenerator.TAG_DECIMAL_FRACTION) {
+            if (!(item instanceof List) || ((List<?>) item).size() != 2) {
+                throw new IOException("Decimal fraction must be an array of exponent and mantissa");
+            }
+            List<?> parts = (List<?>) item;
+            BigInteger mantissa = parts.get(1) instanceof BigInteger
+                    ? (BigInteger) parts.get(1) : BigInteger.valueOf(((Number) parts.get(1)).longValue());
+            return new BigDecimal(mantissa, -((Number) parts.get(0)).intValue());
+        }
+        return item;
+    }
+
+    private Object readSimple(int initial, int info) throws IOException {
+        switch (initial) {
+            case CborGenerator.FALSE:
+                return Boolean.FALSE;
+            case CborGenerator.TRUE:
+                return Boolean.TRUE;
+            case CborGenerator.NULL:
+            case CborGenerator.NULL + 1:
+                // Null and undefined.
+                return null;
+            case 0xf9:
+                return (double) halfToFloat((int) readArgument(25));
+            case CborGenerator.FLOAT:
+                return (double) Float.intBitsToFloat((int) readArgument(26));
+            case CborGenerator.DOUBLE:
+                return Double.longBitsToDouble(readArgument(27));
+            case CborGenerator.BREAK:
+                return BREAK_MARKER;
+            default:
+                throw new IOException("Unsupported simple value " + (info == 24 ? readByte() : info));
+        }
+    }
+
+    private byte[] readString(int info, int major) throws IOException {
+        if (info != CborGenerator.INDEFINITE_LENGTH) {
+            long length = readLength(info);
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("String too long: " + length);
+            }
+            byte[] bytes = new byte[(int) length];
+            readFully(bytes);
+            return bytes;
+        }
+        // Concatenation of definite length chunks of the same major type.
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+        for (int initial = readByte(); initial != CborGenerator.BREAK; initial = readByte()) {
+            if (initial >>> 5 != major || (initial & 0x1f) == CborGenerator.INDEFINITE_LENGTH) {
+                throw new IOException("Invalid chunk in indefinite length string");
+            }
+            byte[] chunk = readString(initial & 0x1f, major);
+            chunks.write(chunk, 0, chunk.length);
+        }
+        return chunks.toByteArray();
+    }
+
+    private long readLength(int info) throws IOException {
+        long length = readArgument(info);
+        if (length < 0) {
+            throw new IOException("Length too large: " + unsignedBig(length));
+        }
+        return length;
+    }
+
+    /**
+     * @return the argument of the initial byte, an unsigned 64 bit value which may appear negative.
+     */
+    private long readArgument(int info) throws IOException {
+        if (info < 24) {
+            return info;
+        }
+        int bytes;
+        switch (info) {
+            case 24:
+                bytes = 1;
+                break;
+            case 25:
+                bytes = 2;
+                break;
+            case 26:
+                bytes = 4;
+                break;
+            case 27:
+                bytes = 8;
+                break;
+            default:
+                throw new IOException("Invalid additional information " + info);
+        }
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = value << 8 | readByte();
+        }
+        return value;
+    }
+
+    private static Object unsigned(long value) {
+        return value >= 0 ? (Object) value : unsignedBig(value);
+    }
+
+    private static BigInteger unsignedBig(long value) {
+        return BigInteger.valueOf(value & Long.MAX_VALUE).setBit(63);
+    }
+
+    private static float halfToFloat(int half) {
+        int exponent = half >> 10 & 0x1f;
+        int mantissa = half & 0x3ff;
+        float value;
+        if (exponent == 0) {
+            value = mantissa * (float) Math.pow(2, -24);
+        } else if (exponent == 31) {
+            value = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+        } else {
+            value = (1 + mantissa / 1024f) * (float) Math.pow(2, exponent - 15);
+        }
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+
+    private void readFully(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            int read = in.read(bytes, offset, bytes.length - offset);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            offset += read;
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+}
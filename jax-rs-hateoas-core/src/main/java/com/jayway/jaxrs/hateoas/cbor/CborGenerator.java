@@ -0,0 +1,556 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.cbor;
+
+import com.jayway.jaxrs.hateoas.jackson.LinkEnvelopeSerializer;
+import org.codehaus.jackson.Base64Variant;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerationException;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.ObjectCodec;
+import org.codehaus.jackson.PrettyPrinter;
+import org.codehaus.jackson.impl.JsonGeneratorBase;
+import org.codehaus.jackson.impl.JsonWriteContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Jackson generator writing CBOR (RFC 8949) rather than JSON text, so that everything Jackson can serialize,
+ * including the link serializers of this library, can be written as CBOR without a separate object mapping. Arrays
+ * and objects are written with indefinite length, as their size is not known up front.
+ * <p/>
+ * Field names and the attributes of links other than the href, i.e. the strings repeated in every response, are
+ * copied from pre-encoded fragments rather than encoded each time, see {@link CborStrings}. Raw values are JSON
+ * text and transcoded, other raw content can not be written.
+ * <p/>
+ * Instances are not thread safe.
+ */
+public class CborGenerator extends JsonGeneratorBase {
+
+    static final int MAJOR_UNSIGNED = 0;
+    static final int MAJOR_NEGATIVE = 1;
+    static final int MAJOR_BYTES = 2;
+    static final int MAJOR_TEXT = 3;
+    static final int MAJOR_ARRAY = 4;
+    static final int MAJOR_MAP = 5;
+    static final int MAJOR_TAG = 6;
+
+    static final int INDEFINITE_LENGTH = 31;
+    static final int BREAK = 0xff;
+    static final int FALSE = 0xf4;
+    static final int TRUE = 0xf5;
+    static final int NULL = 0xf6;
+    static final int FLOAT = 0xfa;
+    static final int DOUBLE = 0xfb;
+
+    static final int TAG_POSITIVE_BIGNUM = 2;
+    static final int TAG_NEGATIVE_BIGNUM = 3;
+    static final int TAG_DECIMAL_FRACTION = 4;
+
+    private static final int BUFFER_SIZE = 8000;
+
+    /**
+     * Buffers reused by the generators of a thread. A buffer is taken while in use, so nested generators get a
+     * buffer of their own.
+     */
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<byte[]>();
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int position;
+
+    public CborGenerator(OutputStream out, ObjectCodec codec) {
+        super(Feature.collectDefaults(), codec);
+        this.out = out;
+        buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        } else {
+            BUFFERS.set(null);
+        }
+    }
+
+    /**
+     * CBOR has no whitespace, pretty printing is not supported and the request ignored.
+     */
+    @Override
+    public JsonGenerator useDefaultPrettyPrinter() {
+        return this;
+    }
+
+    @Override
+    public JsonGenerator setPrettyPrinter(PrettyPrinter pp) {
+        return this;
+    }
+
+    @Override
+    public void writeStartArray() throws IOException {
+        _verifyValueWrite("start an array");
+        _writeContext = _writeContext.createChildArrayContext();
+        writeByte(MAJOR_ARRAY << 5 | INDEFINITE_LENGTH);
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        if (!_writeContext.inArray()) {
+            _reportError("Current context not an ARRAY but " + _writeContext.getTypeDesc());
+        }
+        writeByte(BREAK);
+        _writeContext = _writeContext.getParent();
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+        _verifyValueWrite("start an object");
+        _writeContext = _writeContext.createChildObjectContext();
+        writeByte(MAJOR_MAP << 5 | INDEFINITE_LENGTH);
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        if (!_writeContext.inObject()) {
+            _reportError("Current context not an OBJECT but " + _writeContext.getTypeDesc());
+        }
+        writeByte(BREAK);
+        _writeContext = _writeContext.getParent();
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        if (_writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE) {
+            _reportError("Can not write a field name, expecting a value");
+        }
+        writeCachedText(name);
+    }
+
+    @Override
+    public void writeString(String text) throws IOException {
+        if (text == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write text value");
+        if (isStaticLinkAttribute()) {
+            writeCachedText(text);
+        } else {
+            writeText(text);
+        }
+    }
+
+    @Override
+    public void writeString(char[] text, int offset, int len) throws IOException {
+        writeString(new String(text, offset, len));
+    }
+
+    @Override
+    public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+        writeUTF8String(text, offset, length);
+    }
+
+    @Override
+    public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+        _verifyValueWrite("write text value");
+        writeHeader(MAJOR_TEXT, length);
+        writeBytes(text, offset, length);
+    }
+
+    @Override
+    public void writeRaw(String text) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRaw(String text, int offset, int len) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRaw(char[] text, int offset, int len) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRaw(char c) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    /**
+     * Raw values are JSON text, such as pre-rendered link templates, and are transcoded.
+     */
+    @Override
+    public void writeRawValue(String text) throws IOException {
+        JsonParser parser = JSON_FACTORY.createJsonParser(text);
+        try {
+            parser.nextToken();
+            copyCurrentStructure(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    @Override
+    public void writeRawValue(String text, int offset, int len) throws IOException {
+        writeRawValue(text.substring(offset, offset + len));
+    }
+
+    @Override
+    public void writeRawValue(char[] text, int offset, int len) throws IOException {
+        writeRawValue(new String(text, offset, len));
+    }
+
+    /**
+     * Binary data is written as a CBOR byte string, the Base64 variant is not used.
+     */
+    @Override
+    public void writeBinary(Base64Variant b64variant, byte[] data, int offset, int len) throws IOException {
+        if (data == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write binary value");
+        writeHeader(MAJOR_BYTES, len);
+        writeBytes(data, offset, len);
+    }
+
+    @Override
+    public void writeNumber(int v) throws IOException {
+        writeNumber((long) v);
+    }
+
+    @Override
+    public void writeNumber(long v) throws IOException {
+        _verifyValueWrite("write number");
+        writeInteger(v);
+    }
+
+    @Override
+    public void writeNumber(BigInteger v) throws IOException {
+        if (v == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write number");
+        writeBigInteger(v);
+    }
+
+    @Override
+    public void writeNumber(double d) throws IOException {
+        _verifyValueWrite("write number");
+        ensureCapacity(9);
+        buffer[position++] = (byte) DOUBLE;
+        writeLong(Double.doubleToLongBits(d));
+    }
+
+    @Override
+    public void writeNumber(float f) throws IOException {
+        _verifyValueWrite("write number");
+        ensureCapacity(5);
+        buffer[position++] = (byte) FLOAT;
+        writeInt(Float.floatToIntBits(f));
+    }
+
+    /**
+     * Decimals are written as decimal fractions (tag 4), i.e. an exponent and a mantissa.
+     */
+    @Override
+    public void writeNumber(BigDecimal dec) throws IOException {
+        if (dec == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write number");
+        writeHeader(MAJOR_TAG, TAG_DECIMAL_FRACTION);
+        writeHeader(MAJOR_ARRAY, 2);
+        writeInteger(-dec.scale());
+        writeBigInteger(dec.unscaledValue());
+    }
+
+    /**
+     * Numbers already in textual form are written as text strings.
+     */
+    @Override
+    public void writeNumber(String encodedValue) throws IOException {
+        writeString(encodedValue);
+    }
+
+    @Override
+    public void writeBoolean(boolean state) throws IOException {
+        _verifyValueWrite("write boolean value");
+        writeByte(state ? TRUE : FALSE);
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        _verifyValueWrite("write null value");
+        writeByte(NULL);
+    }
+
+    @Override
+    protected void _verifyValueWrite(String typeMsg) throws JsonGenerationException {
+        if (_writeContext.writeValue() == JsonWriteContext.STATUS_EXPECT_NAME) {
+            _reportError("Can not " + typeMsg + ", expecting field name");
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        if (isEnabled(Feature.FLUSH_PASSED_TO_STREAM)) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed()) {
+            return;
+        }
+        if (isEnabled(Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            while (true) {
+                JsonWriteContext context = getOutputContext();
+                if (context.inArray()) {
+                    writeEndArray();
+                } else if (context.inObject()) {
+                    writeEndObject();
+                } else {
+                    break;
+                }
+            }
+        }
+        super.close();
+        flushBuffer();
+        if (isEnabled(Feature.AUTO_CLOSE_TARGET)) {
+            out.close();
+        } else if (isEnabled(Feature.FLUSH_PASSED_TO_STREAM)) {
+            out.flush();
+        }
+        _releaseBuffers();
+    }
+
+    @Override
+    protected void _releaseBuffers() {
+        if (buffer != null) {
+            BUFFERS.set(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * @return whether a string about to be written is an attribute of a link that is the same for all links created
+     *         from a <code>LinkableInfo</code>, i.e. any attribute of an object in a <code>links</code> array but the
+     *         href, possibly an element of an array such as <code>produces</code>.
+     */
+    private boolean isStaticLinkAttribute() {
+        JsonWriteContext context = _writeContext;
+        if (context.inArray()) {
+            context = context.getParent();
+        }
+        if (!context.inObject() || "href".equals(context.getCurrentName())) {
+            return false;
+        }
+        JsonWriteContext links = context.getParent();
+        return links != null && links.inArray() && links.getParent() != null
+                && LinkEnvelopeSerializer.LINKS_FIELD_NAME.equals(links.getParent().getCurrentName());
+    }
+
+    private void writeCachedText(String text) throws IOException {
+        byte[] encoded = CborStrings.get(text);
+        if (encoded != null) {
+            writeBytes(encoded, 0, encoded.length);
+        } else {
+            writeText(text);
+        }
+    }
+
+    private void writeText(String text) throws IOException {
+        int length = text.length();
+        int utf8Length = length;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                utf8Length = utf8Length(text, i, utf8Length);
+                break;
+            }
+        }
+        writeHeader(MAJOR_TEXT, utf8Length);
+        if (utf8Length == length) {
+            // ASCII only, as most hrefs.
+            for (int i = 0; i < length; ) {
+                ensureCapacity(1);
+                int end = Math.min(length, i + buffer.length - position);
+                while (i < end) {
+                    buffer[position++] = (byte) text.charAt(i++);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            ensureCapacity(4);
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xc0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[position++] = (byte) (0xf0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3f);
+            } else {
+                if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                    c = '\ufffd';
+                }
+                buffer[position++] = (byte) (0xe0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3f);
+                buffer[position++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+    }
+
+    /**
+     * @return the UTF-8 length of the string, given the length up to the first non ASCII character, lone surrogates
+     *         being replaced by U+FFFD.
+     */
+    private static int utf8Length(String text, int from, int asciiLength) {
+        int utf8Length = asciiLength;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x800) {
+                // Three bytes, or four for a surrogate pair counted as two characters already.
+                utf8Length += 2;
+                if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    i++;
+                }
+            } else if (c >= 0x80) {
+                utf8Length += 1;
+            }
+        }
+        return utf8Length;
+    }
+
+    private void writeInteger(long v) throws IOException {
+        if (v >= 0) {
+            writeHeader(MAJOR_UNSIGNED, v);
+        } else {
+            writeHeader(MAJOR_NEGATIVE, -1 - v);
+        }
+    }
+
+    private void writeBigInteger(BigInteger v) throws IOException {
+        if (v.bitLength() < 64) {
+            writeInteger(v.longValue());
+            return;
+        }
+        boolean negative = v.signum() < 0;
+        writeHeader(MAJOR_TAG, negative ? TAG_NEGATIVE_BIGNUM : TAG_POSITIVE_BIGNUM);
+        byte[] bytes = (negative ? v.negate().subtract(BigInteger.ONE) : v).toByteArray();
+        // Strip the sign byte of two's complement representation.
+        int offset = bytes[0] == 0 ? 1 : 0;
+        writeHeader(MAJOR_BYTES, bytes.length - offset);
+        writeBytes(bytes, offset, bytes.length - offset);
+    }
+
+    private void writeHeader(int major, long value) throws IOException {
+        ensureCapacity(9);
+        position += encodeHeader(major, value, buffer, position);
+    }
+
+    /**
+     * Encode the initial byte of a data item, and its argument in the shortest form.
+     *
+     * @return the number of bytes written.
+     */
+    static int encodeHeader(int major, long value, byte[] target, int offset) {
+        int type = major << 5;
+        if (value < 24) {
+            target[offset] = (byte) (type | (int) value);
+            return 1;
+        }
+        if (value <= 0xffL) {
+            target[offset] = (byte) (type | 24);
+            target[offset + 1] = (byte) value;
+            return 2;
+        }
+        if (value <= 0xffffL) {
+            target[offset] = (byte) (type | 25);
+            target[offset + 1] = (byte) (value >> 8);
+            target[offset + 2] = (byte) value;
+            return 3;
+        }
+        if (value <= 0xffffffffL) {
+            target[offset] = (byte) (type | 26);
+            for (int i = 0; i < 4; i++) {
+                target[offset + 1 + i] = (byte) (value >> (24 - 8 * i));
+            }
+            return 5;
+        }
+        // Values beyond Long.MAX_VALUE, i.e. -1 - Long.MIN_VALUE, are not passed here.
+        target[offset] = (byte) (type | 27);
+        for (int i = 0; i < 8; i++) {
+            target[offset + 1 + i] = (byte) (value >> (56 - 8 * i));
+        }
+        return 9;
+    }
+
+    private void writeLong(long v) {
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte) (v >> (56 - 8 * i));
+        }
+    }
+
+    private void writeInt(int v) {
+        for (int i = 0; i < 4; i++) {
+            buffer[position++] = (byte) (v >> (24 - 8 * i));
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            flushBuffer();
+            if (length > buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.cbor;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes entities as <code>application/cbor</code>, a compact binary encoding of the same structure as the JSON
+ * representation, for service to service calls. The entities are serialized by Jackson to a {@link CborGenerator}, so
+ * the {@link ObjectMapper} of the application is used if there is a <code>ContextResolver</code> for it. Responses can
+ * be read using {@link CborDecoder}.
+ * <p/>
+ * Registered by the application classes in the core package when Jackson is on the classpath. Resource methods must
+ * list the media type in their <code>@Produces</code> annotation, unless they produce any type.
+ */
+@Provider
+@Produces(CborMessageBodyWriter.APPLICATION_CBOR)
+public class CborMessageBodyWriter implements MessageBodyWriter<Object> {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    public static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+    @Context
+    private Providers providers;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return true;
+    }
+
+    @Override
+    public long getSize(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        ObjectMapper mapper = getMapper(type, mediaType);
+        CborGenerator generator = new CborGenerator(entityStream, mapper);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        mapper.writeValue(generator, value);
+        // Returns the buffer of the generator for reuse, the stream is left open.
+        generator.close();
+    }
+
+    private ObjectMapper getMapper(Class<?> type, MediaType mediaType) {
+        if (providers != null) {
+            ContextResolver<ObjectMapper> resolver = providers.getContextResolver(ObjectMapper.class, mediaType);
+            if (resolver != null) {
+                ObjectMapper mapper = resolver.getContext(type);
+                if (mapper != null) {
+                    return mapper;
+                }
+            }
+        }
+        return DEFAULT_MAPPER;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.cbor;
+
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
+
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pre-encoded CBOR text strings, header included, for the strings repeated in every response: field names, i.e.
+ * property names and link attribute keys, and the link attributes given by the <code>LinkableInfo</code> of a link
+ * and its rel. Not intended for external use.
+ */
+final class CborStrings {
+
+    /**
+     * Upper bound of cached strings. Once reached further strings are encoded on each use.
+     */
+    private static final int MAX_CACHED_STRINGS = 4096;
+
+    static final String CACHE_NAME = "cbor-strings";
+
+    private static final ConcurrentMap<String, byte[]> ENCODED = new ConcurrentHashMap<String, byte[]>();
+
+    private CborStrings() {
+    }
+
+    /**
+     * @return the encoded string, or <code>null</code> if it is not cached and the cache is full.
+     */
+    static byte[] get(String value) {
+        byte[] encoded = ENCODED.get(value);
+        HateoasMetrics metrics = HateoasMetricsProvider.getMetrics();
+        if (metrics.isEnabled()) {
+            metrics.cacheLookup(CACHE_NAME, encoded != null);
+        }
+        if (encoded == null && ENCODED.size() < MAX_CACHED_STRINGS) {
+            encoded = encode(value);
+            ENCODED.putIfAbsent(value, encoded);
+        }
+        return encoded;
+    }
+
+    private static byte[] encode(String value) {
+        byte[] utf8;
+        try {
+            utf8 = value.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] header = new byte[9];
+        int headerLength = CborGenerator.encodeHeader(CborGenerator.MAJOR_TEXT, utf8.length, header, 0);
+        byte[] encoded = new byte[headerLength + utf8.length];
+        System.arraycopy(header, 0, encoded, 0, headerLength);
+        System.arraycopy(utf8, 0, encoded, headerLength, utf8.length);
+        return encoded;
+    }
+}
@@ -14,17 +14,18 @@
  */
 package com.jayway.jaxrs.hateoas.core;
 
-import com.google.common.collect.Maps;
 import com.jayway.jaxrs.hateoas.HateoasLink;
-import com.jayway.jaxrs.hateoas.HateoasOption;
 import com.jayway.jaxrs.hateoas.HateoasVerbosity;
 import com.jayway.jaxrs.hateoas.LinkableInfo;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
+import com.jayway.jaxrs.hateoas.support.LinkMap;
 import com.jayway.jaxrs.hateoas.web.RequestContext;
+import com.jayway.jaxrs.hateoas.web.ServerTimingRecorder;
 
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -43,10 +44,25 @@ class DefaultHateoasLink implements HateoasLink {
 	private final String[] consumes;
 	private final String description;
 	private final String label;
+	private final LinkableInfo linkableInfo;
 
 	DefaultHateoasLink(String id, String rel, String href, String[] consumes,
 			String[] produces, String method, String label, String description,
 			Class<?> templateClass) {
+		this(id, rel, href, consumes, produces, method, label, description, templateClass, null);
+	}
+
+	DefaultHateoasLink(LinkableInfo linkableInfo, String rel, String href) {
+		this(linkableInfo.getId(), rel, href, linkableInfo.getConsumes(),
+				linkableInfo.getProduces(), linkableInfo.getHttpMethod(),
+				linkableInfo.getLabel(), linkableInfo.getDescription(),
+				linkableInfo.getTemplateClass(), linkableInfo);
+	}
+
+	private DefaultHateoasLink(String id, String rel, String href, String[] consumes,
+			String[] produces, String method, String label, String description,
+			Class<?> templateClass, LinkableInfo linkableInfo) {
+		this.linkableInfo = linkableInfo;
 		this.id = id;
 		this.rel = rel;
 		this.href = href;
@@ -73,6 +89,13 @@ class DefaultHateoasLink implements HateoasLink {
 		return templateClass;
 	}
 
+	/**
+	 * @return the LinkableInfo this link was created from, or <code>null</code> if it was created from scratch.
+	 */
+	LinkableInfo getLinkableInfo() {
+		return linkableInfo;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -137,45 +160,64 @@ class DefaultHateoasLink implements HateoasLink {
 	 */
 	@Override
 	public Map<String, Object> toMap(HateoasVerbosity verbosity) {
-		HashMap<String, Object> result = Maps.newLinkedHashMap();
-
-		for (HateoasOption element : verbosity.getOptions()) {
-			element.addTo(result, this);
-		}
-
-		return result;
+		// Filled on first access unless it holds a template, serializers knowing LinkMap write the link directly.
+		return new LinkMap(this, verbosity);
 	}
 
 	static DefaultHateoasLink fromLinkableInfo(LinkableInfo linkableInfo,
 			String rel, Object... params) {
-		URI requestURI = RequestContext.getRequestContext().getBasePath()
-				.path(linkableInfo.getMethodPath()).build(params);
-
-		return new DefaultHateoasLink(linkableInfo.getId(), rel,
-				requestURI.toASCIIString(), linkableInfo.getConsumes(),
-				linkableInfo.getProduces(), linkableInfo.getHttpMethod(),
-				linkableInfo.getLabel(), linkableInfo.getDescription(),
-				linkableInfo.getTemplateClass());
+		return fromLinkableInfo(linkableInfo, rel, (Map<String, Object>) null, params);
 	}
 
     static DefaultHateoasLink fromLinkableInfo(LinkableInfo linkableInfo,
    			String rel, Map<String, Object> queryParameters, Object... params) {
 
-        UriBuilder builder = RequestContext.getRequestContext().getBasePath().path(linkableInfo.getMethodPath());
+        RequestContext requestContext = RequestContext.getRequestContext();
+        ServerTimingRecorder timing = requestContext.getServerTiming();
+        HateoasMetrics metrics = HateoasMetricsProvider.getMetrics();
+        long start = metrics.isEnabled() || timing != null ? System.nanoTime() : 0L;
 
-        if(queryParameters!= null){
-            for (Map.Entry<String, Object> entry : queryParameters.entrySet()) {
-                builder.queryParam(entry.getKey(), entry.getValue());
+        boolean noQuery = queryParameters == null || queryParameters.isEmpty();
+        LinkCache linkCache = noQuery && linkableInfo.isCacheable() ? requestContext.getConfiguration().getLinkCache() : null;
+        if (linkCache != null) {
+            DefaultHateoasLink cached = linkCache.get(linkableInfo, rel, requestContext.getBaseUri(), params);
+            if (cached != null) {
+                return cached;
             }
         }
 
-        URI requestURI = builder.build(params);
+        String href = null;
+        if (noQuery) {
+            href = linkableInfo.getHrefTemplate().build(requestContext.getBaseUri(), params);
+        }
+
+        if (href == null) {
+            UriBuilder builder = requestContext.getBasePath().path(linkableInfo.getMethodPath());
+
+            if(queryParameters!= null){
+                for (Map.Entry<String, Object> entry : queryParameters.entrySet()) {
+                    builder.queryParam(entry.getKey(), entry.getValue());
+                }
+            }
+
+            URI requestURI = builder.build(params);
+            href = requestURI.toASCIIString();
+        }
 
-        return new DefaultHateoasLink(linkableInfo.getId(), rel,
-   				requestURI.toASCIIString(), linkableInfo.getConsumes(),
-   				linkableInfo.getProduces(), linkableInfo.getHttpMethod(),
-   				linkableInfo.getLabel(), linkableInfo.getDescription(),
-   				linkableInfo.getTemplateClass());
+        DefaultHateoasLink link = new DefaultHateoasLink(linkableInfo, rel, href);
+        if (linkCache != null) {
+            linkCache.put(linkableInfo, rel, requestContext.getBaseUri(), params, link);
+        }
+        if (metrics.isEnabled() || timing != null) {
+            long elapsed = System.nanoTime() - start;
+            if (metrics.isEnabled()) {
+                metrics.linkBuilt(linkableInfo.getId(), elapsed);
+            }
+            if (timing != null) {
+                timing.add(ServerTimingRecorder.LINKS, elapsed);
+            }
+        }
+        return link;
    	}
 
     @Override
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+/**
+ * Count-min sketch estimating how often keys were seen recently, in the style of TinyLFU: four rows of 4 bit
+ * counters, each row four times as wide as the cache to keep collisions rare, all halved once the number of
+ * increments reaches ten times the capacity of the cache, so that old popularity fades. Not intended for external
+ * use.
+ * <p/>
+ * Counters are updated without synchronization. Lost updates only make the estimates slightly less precise, which
+ * is acceptable for deciding what to keep in a cache.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L};
+
+    private static final int MAX_COUNT = 15;
+
+    private final byte[] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param capacity the maximum number of entries of the cache the sketch is used for.
+     */
+    FrequencySketch(int capacity) {
+        int width = Integer.highestOneBit(Math.max(capacity, 8) - 1) << 3;
+        counters = new byte[4 * width];
+        mask = width - 1;
+        sampleSize = 10 * Math.max(capacity, 8);
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            int index = index(hash, row);
+            if (counters[index] < MAX_COUNT) {
+                counters[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < 4; row++) {
+            frequency = Math.min(frequency, counters[index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private int index(int hash, int row) {
+        // Keys often differ only in their lowest bits, so each row multiplies into 64 bits and folds the high half
+        // back in, making the rows independent of each other.
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (row * (mask + 1)) + ((int) h & mask);
+    }
+
+    private void reset() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = (byte) (counters[i] >>> 1);
+        }
+        additions = sampleSize / 2;
+    }
+}
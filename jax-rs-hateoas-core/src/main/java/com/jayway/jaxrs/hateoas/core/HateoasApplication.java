@@ -25,11 +25,13 @@ import com.jayway.jaxrs.hateoas.support.JavassistHateoasLinkInjector;
 import com.jayway.jaxrs.hateoas.support.StrategyBasedLinkInjector;
 
 import javax.ws.rs.core.Application;
-import java.util.Set;
 
 /**
  * Plain JAX-RS application adding HATEOAS capability. Subclass this to add hypermedia capability to a plain JAX-RS
  * application.
+ * <p/>
+ * As there is no request filter binding a configuration to each request, this application uses
+ * {@link com.jayway.jaxrs.hateoas.HateoasConfiguration#getDefault() the default configuration}.
  *
  * @author Mattias Hellborg Arthursson
  * @author Kalle Stenflo
@@ -46,10 +48,7 @@ public class HateoasApplication extends Application {
 	public HateoasApplication(HateoasLinkInjector<Object> linkInjector,
                               CollectionWrapperStrategy collectionWrapperStrategy, HateoasVerbosity verbosity) {
 
-		Set<Class<?>> allClasses = getClasses();
-		for (Class<?> clazz : allClasses) {
-			HateoasContextProvider.getDefaultContext().mapClass(clazz);
-		}
+		HateoasContextProvider.getDefaultContext().mapClasses(getClasses());
 
 		HateoasResponseBuilder.configure(linkInjector, collectionWrapperStrategy, new DefaultHateoasViewFactory());
         HateoasVerbosity.setDefaultVerbosity(verbosity);
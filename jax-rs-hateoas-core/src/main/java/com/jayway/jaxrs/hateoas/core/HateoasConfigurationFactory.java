@@ -1,15 +1,24 @@
 package com.jayway.jaxrs.hateoas.core;
 
+import com.jayway.jaxrs.hateoas.AdaptiveVerbosityController;
 import com.jayway.jaxrs.hateoas.CollectionWrapperStrategy;
+import com.jayway.jaxrs.hateoas.DefaultHateoasContext;
+import com.jayway.jaxrs.hateoas.HateoasContext;
 import com.jayway.jaxrs.hateoas.HateoasLinkInjector;
 import com.jayway.jaxrs.hateoas.HateoasVerbosity;
 import com.jayway.jaxrs.hateoas.HateoasViewFactory;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.NoOpHateoasMetrics;
 import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapperStrategy;
 import com.jayway.jaxrs.hateoas.support.StrategyBasedLinkInjector;
 import com.jayway.jaxrs.hateoas.support.DefaultHateoasViewFactory;
+import com.jayway.jaxrs.hateoas.usage.LinkUsageTracker;
+import com.jayway.jaxrs.hateoas.web.ServerTimingRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.apache.commons.lang.Validate.notEmpty;
@@ -45,6 +54,8 @@ public class HateoasConfigurationFactory {
      * {@link com.jayway.jaxrs.hateoas.HateoasLinkInjector}.
      * <p/>
      * If not set the default {@link com.jayway.jaxrs.hateoas.HateoasLinkInjector} implementation will be used.
+     * Set to <code>com.jayway.jaxrs.hateoas.support.EnvelopeHateoasLinkInjector</code> to inject links without
+     * subclassing the entities, when Jackson is used as JSON provider.
      */
     public static final String PROPERTY_HATEOAS_LINK_INJECTOR = "com.jayway.jaxrs.hateoas.HateoasLinkInjector";
 
@@ -70,6 +81,129 @@ public class HateoasConfigurationFactory {
      */
     public static final String PROPERTY_HATEOAS_VIEW_FACTORY = "com.jayway.jaxrs.hateoas.HateoasViewFactory";
 
+    /**
+     * If set specifies the implementation class of the {@link com.jayway.jaxrs.hateoas.metrics.HateoasMetrics}
+     * <p/>
+     * The type of this property must be a String that is a Class name,
+     * and the Class must implement {@link com.jayway.jaxrs.hateoas.metrics.HateoasMetrics}.
+     * <p/>
+     * If not set no metrics are recorded. Set to
+     * <code>com.jayway.jaxrs.hateoas.metrics.InMemoryHateoasMetrics</code> to record metrics and expose them using JMX.
+     */
+    public static final String PROPERTY_HATEOAS_METRICS = "com.jayway.jaxrs.hateoas.metrics.HateoasMetrics";
+
+    /**
+     * If set the value of the <code>app</code> key of the name the metrics are exposed under using JMX, see
+     * {@link com.jayway.jaxrs.hateoas.metrics.HateoasMetricsJmx}. Applications deployed side by side must use distinct
+     * names.
+     * <p/>
+     * If not set the class name of the application, or the name of the servlet, is used.
+     */
+    public static final String PROPERTY_HATEOAS_METRICS_APP = "com.jayway.jaxrs.hateoas.metrics.HateoasMetrics.app";
+
+    /**
+     * If set determines when a <code>Server-Timing</code> header with the time spent building HATEOAS responses is
+     * added.
+     * <p/>
+     * The value must be one of the names in {@link com.jayway.jaxrs.hateoas.web.ServerTimingRecorder.Mode}. In
+     * <code>ON_REQUEST</code> mode the header is only added to responses of requests carrying the
+     * <code>x-jax-rs-hateoas-server-timing</code> header, see {@link #PROPERTY_HATEOAS_SERVER_TIMING_TOKEN}.
+     * <p/>
+     * If not set no timing is recorded.
+     */
+    public static final String PROPERTY_HATEOAS_SERVER_TIMING = "com.jayway.jaxrs.hateoas.ServerTiming";
+
+    /**
+     * The value the <code>x-jax-rs-hateoas-server-timing</code> request header must have to enable timing in
+     * <code>ON_REQUEST</code> mode. Required in that mode, so that timing is not exposed to every client.
+     */
+    public static final String PROPERTY_HATEOAS_SERVER_TIMING_TOKEN = "com.jayway.jaxrs.hateoas.ServerTiming.token";
+
+    /**
+     * If set enables adaptive verbosity, lowering the verbosity of links under load.
+     * <p/>
+     * The value must be a String of verbosity names defined in {@link com.jayway.jaxrs.hateoas.HateoasVerbosity}
+     * separated by ',', from the normal to the cheapest level, e.g. <code>MAXIMUM,NORMAL,MINIMUM</code>.
+     * <p/>
+     * If not set the verbosity is not adapted.
+     *
+     * @see com.jayway.jaxrs.hateoas.AdaptiveVerbosityController
+     */
+    public static final String PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY = "com.jayway.jaxrs.hateoas.AdaptiveVerbosity";
+
+    /**
+     * The number of requests in flight above which the verbosity is lowered. If not set concurrency is ignored.
+     */
+    public static final String PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY_MAX_CONCURRENCY = "com.jayway.jaxrs.hateoas.AdaptiveVerbosity.maxConcurrency";
+
+    /**
+     * The average time in microseconds spent on links per response above which the verbosity is lowered. If not set
+     * link latency is ignored.
+     */
+    public static final String PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY_MAX_LINK_MICROS = "com.jayway.jaxrs.hateoas.AdaptiveVerbosity.maxLinkMicros";
+
+    /**
+     * How to treat requests asking for a verbosity explicitly, one of the names in
+     * {@link com.jayway.jaxrs.hateoas.AdaptiveVerbosityController.ClientPolicy}. If not set they are honoured.
+     */
+    public static final String PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY_CLIENT_POLICY = "com.jayway.jaxrs.hateoas.AdaptiveVerbosity.clientPolicy";
+
+    /**
+     * If set enables tracking of which links clients follow, one of the names in
+     * {@link com.jayway.jaxrs.hateoas.usage.LinkUsageTracker.Policy}, e.g. <code>REPORT</code>.
+     * <p/>
+     * If not set link usage is not tracked.
+     *
+     * @see com.jayway.jaxrs.hateoas.usage.LinkUsageTracker
+     */
+    public static final String PROPERTY_HATEOAS_LINK_USAGE = "com.jayway.jaxrs.hateoas.LinkUsage";
+
+    /**
+     * The number of times a link must have been emitted by an endpoint without being followed before it is
+     * suppressed. If not set {@link com.jayway.jaxrs.hateoas.usage.LinkUsageTracker#DEFAULT_MIN_EMITTED} is used.
+     */
+    public static final String PROPERTY_HATEOAS_LINK_USAGE_MIN_EMITTED = "com.jayway.jaxrs.hateoas.LinkUsage.minEmitted";
+
+    /**
+     * The number of threads reflecting resource classes at startup. If not set the number of available processors is
+     * used, <code>1</code> maps the classes serially.
+     *
+     * @see DefaultHateoasContext#setMappingParallelism(int)
+     */
+    public static final String PROPERTY_HATEOAS_MAPPING_PARALLELISM = "com.jayway.jaxrs.hateoas.MappingParallelism";
+
+    /**
+     * If set to <code>true</code> responses are written as <code>application/hal+json</code> to requests preferring
+     * it in their <code>Accept</code> header. Resource methods must list that media type in their
+     * <code>@Produces</code> annotation for such requests to reach them.
+     * <p/>
+     * If not set HAL is not written.
+     *
+     * @see com.jayway.jaxrs.hateoas.hal.HalMediaType#isPreferredBy(String)
+     */
+    public static final String PROPERTY_HATEOAS_HAL = "com.jayway.jaxrs.hateoas.Hal";
+
+    /**
+     * If set to <code>true</code> JSON is written by a mapper with the
+     * {@link com.jayway.jaxrs.hateoas.jackson.HateoasJacksonModule} registered, serializing links and the entities
+     * holding them without reflection.
+     * <p/>
+     * If not set the mapper of the JSON provider is used as is.
+     *
+     * @see com.jayway.jaxrs.hateoas.jackson.HateoasObjectMapperProvider
+     */
+    public static final String PROPERTY_HATEOAS_JACKSON_MODULE = "com.jayway.jaxrs.hateoas.JacksonModule";
+
+    /**
+     * If set to a positive number, links to {@link com.jayway.jaxrs.hateoas.Linkable} methods marked as cacheable are
+     * reused across requests, keeping at most that many links.
+     * <p/>
+     * If not set links are built for each request.
+     *
+     * @see LinkCache
+     */
+    public static final String PROPERTY_HATEOAS_LINK_CACHE = "com.jayway.jaxrs.hateoas.LinkCache";
+
     
 
     
@@ -104,6 +238,110 @@ public class HateoasConfigurationFactory {
         }
     }
 
+    public static HateoasMetrics createMetrics(Map<String, Object> props, String... defaults) {
+        String implClass = getProperty(props, PROPERTY_HATEOAS_METRICS, NoOpHateoasMetrics.class.getName(), defaults);
+        if (NoOpHateoasMetrics.class.getName().equals(implClass)) {
+            return NoOpHateoasMetrics.INSTANCE;
+        }
+        try {
+            return (HateoasMetrics)Class.forName((String) implClass).newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to instantiate " + implClass);
+        }
+    }
+
+    public static String getMetricsApp(Map<String, Object> props, String defaultApp) {
+        return getProperty(props, PROPERTY_HATEOAS_METRICS_APP, defaultApp).trim();
+    }
+
+    public static ServerTimingRecorder.Mode createServerTimingMode(Map<String, Object> props, String... defaults) {
+        String mode = getProperty(props, PROPERTY_HATEOAS_SERVER_TIMING, ServerTimingRecorder.Mode.NEVER.name(), defaults);
+        return ServerTimingRecorder.Mode.valueOf(mode.trim().toUpperCase());
+    }
+
+    public static String getServerTimingToken(Map<String, Object> props) {
+        return (String) props.get(PROPERTY_HATEOAS_SERVER_TIMING_TOKEN);
+    }
+
+    /**
+     * @return the configured controller, or <code>null</code> if adaptive verbosity is not enabled.
+     */
+    public static AdaptiveVerbosityController createAdaptiveVerbosityController(Map<String, Object> props) {
+        String levelNames = (String) props.get(PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY);
+        if (levelNames == null || levelNames.trim().isEmpty()) {
+            return null;
+        }
+        List<HateoasVerbosity> levels = new ArrayList<HateoasVerbosity>();
+        for (String levelName : levelNames.split(",")) {
+            HateoasVerbosity level = HateoasVerbosity.findByName(levelName.trim());
+            if (level == null) {
+                throw new IllegalArgumentException("Unknown verbosity " + levelName + " in " + PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY);
+            }
+            levels.add(level);
+        }
+        int maxConcurrency = Integer.parseInt(getProperty(props, PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY_MAX_CONCURRENCY, "0").trim());
+        long maxLinkMicros = Long.parseLong(getProperty(props, PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY_MAX_LINK_MICROS, "0").trim());
+        AdaptiveVerbosityController.ClientPolicy clientPolicy = AdaptiveVerbosityController.ClientPolicy.valueOf(
+                getProperty(props, PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY_CLIENT_POLICY, "HONOUR").trim().toUpperCase());
+
+        return new AdaptiveVerbosityController(levels.toArray(new HateoasVerbosity[levels.size()]),
+                maxConcurrency, maxLinkMicros, clientPolicy);
+    }
+
+    /**
+     * @return the configured tracker, or <code>null</code> if link usage is not tracked.
+     */
+    public static LinkUsageTracker createLinkUsageTracker(Map<String, Object> props, HateoasContext context) {
+        String policy = (String) props.get(PROPERTY_HATEOAS_LINK_USAGE);
+        if (policy == null || policy.trim().isEmpty()) {
+            return null;
+        }
+        long minEmitted = Long.parseLong(getProperty(props, PROPERTY_HATEOAS_LINK_USAGE_MIN_EMITTED,
+                String.valueOf(LinkUsageTracker.DEFAULT_MIN_EMITTED)).trim());
+        return new LinkUsageTracker(context, LinkUsageTracker.Policy.valueOf(policy.trim().toUpperCase()), minEmitted);
+    }
+
+    public static boolean isHalEnabled(Map<String, Object> props) {
+        return Boolean.parseBoolean(getProperty(props, PROPERTY_HATEOAS_HAL, "false").trim());
+    }
+
+    /**
+     * @return the configured link cache, or <code>null</code> if links are not cached.
+     */
+    public static LinkCache createLinkCache(Map<String, Object> props) {
+        int maximumSize = Integer.parseInt(getProperty(props, PROPERTY_HATEOAS_LINK_CACHE, "0").trim());
+        return maximumSize > 0 ? new LinkCache(maximumSize) : null;
+    }
+
+    public static boolean isJacksonModuleEnabled(Map<String, Object> props) {
+        return Boolean.parseBoolean(getProperty(props, PROPERTY_HATEOAS_JACKSON_MODULE, "false").trim());
+    }
+
+    /**
+     * @return <code>true</code> if Jackson, an optional dependency, is on the classpath, so that the writers built on
+     *         it can be registered.
+     */
+    public static boolean isJacksonAvailable() {
+        try {
+            Class.forName("org.codehaus.jackson.map.ObjectMapper", false,
+                    HateoasConfigurationFactory.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    public static DefaultHateoasContext createHateoasContext(Map<String, Object> props) {
+        DefaultHateoasContext context = new DefaultHateoasContext();
+        String parallelism = (String) props.get(PROPERTY_HATEOAS_MAPPING_PARALLELISM);
+        if (parallelism != null && !parallelism.trim().isEmpty()) {
+            context.setMappingParallelism(Integer.parseInt(parallelism.trim()));
+        }
+        return context;
+    }
+
     public static HateoasVerbosity createVerbosity(Map<String, Object> props, String... defaults) {
         String verbosityConfig = getProperty(props, PROPERTY_HATEOAS_VERBOSITY, "MAXIMUM", defaults);
         HateoasVerbosity verbosity = HateoasVerbosity.findByName(verbosityConfig);
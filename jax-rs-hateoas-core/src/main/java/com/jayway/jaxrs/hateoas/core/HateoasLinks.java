@@ -0,0 +1,35 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+
+/**
+ * Access to the internals of the links created by the framework for writers outside of this package. Not intended
+ * for external use.
+ */
+public final class HateoasLinks {
+
+    private HateoasLinks() {
+    }
+
+    /**
+     * @return the LinkableInfo the link was created from, or <code>null</code> if it was created from scratch.
+     */
+    public static LinkableInfo getLinkableInfo(HateoasLink link) {
+        return link instanceof DefaultHateoasLink ? ((DefaultHateoasLink) link).getLinkableInfo() : null;
+    }
+}
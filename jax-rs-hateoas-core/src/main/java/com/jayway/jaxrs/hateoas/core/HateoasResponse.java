@@ -15,6 +15,8 @@
 package com.jayway.jaxrs.hateoas.core;
 
 import com.jayway.jaxrs.hateoas.*;
+import com.jayway.jaxrs.hateoas.paging.Page;
+import com.jayway.jaxrs.hateoas.support.AtomRels;
 import com.jayway.jaxrs.hateoas.support.FieldPath;
 
 import javax.ws.rs.core.*;
@@ -354,9 +356,6 @@ public abstract class HateoasResponse extends Response {
      */
     public static abstract class HateoasResponseBuilder extends ResponseBuilder {
 
-        private static HateoasLinkInjector<Object> linkInjector;
-        private static CollectionWrapperStrategy collectionWrapperStrategy;
-        private static HateoasViewFactory viewFactory;
 
 
         //public abstract HateoasLinkBuilder linkBuilder(String id);
@@ -592,6 +591,91 @@ public abstract class HateoasResponse extends Response {
 
         public abstract HateoasResponseBuilder each(LinkProducer<?> linkProducer);
 
+        /**
+         * Append the links declared using {@link com.jayway.jaxrs.hateoas.ResponseLinks} on the
+         * {@link com.jayway.jaxrs.hateoas.Linkable} method with the specified id. The declaration is compiled once,
+         * only the entity and the supplied arguments are bound for each response. A plan can be applied once per
+         * response.
+         *
+         * @param id   the @Linkable id of the method declaring the links.
+         * @param args the arguments referred to as <code>$0</code>, <code>$1</code>, ... in the link parameters.
+         * @return this.
+         * @throws IllegalStateException if a plan has already been applied to this response.
+         */
+        public abstract HateoasResponseBuilder plan(String id, Object... args);
+
+        /**
+         * Append the <code>first</code>, <code>prev</code> and <code>next</code> links of a page fetched using
+         * {@link Page#fetch}.
+         *
+         * @param page   the page being the entity of this response.
+         * @param params the path parameters of the method serving the collection.
+         * @return this.
+         */
+        public abstract HateoasResponseBuilder pageLinks(Page<?> page, Object... params);
+
+        /**
+         * Send the root level links of this response as <code>Link</code> headers (RFC 8288) rather than
+         * injecting them into the entity, i.e. links appended using {@link #link(String, String, Object...)},
+         * {@link #selfLink(String, Object...)}, {@link #links(HateoasLink...)} and the like.
+         * <p/>
+         * If no links are mapped to other parts of the entity, the entity is passed on untouched.
+         *
+         * @return this.
+         */
+        public abstract HateoasResponseBuilder linkHeaders();
+
+        /**
+         * Compute a strong entity tag for this response from the entity, the links, the effective verbosity and
+         * the representation, i.e. the content type if set and the <code>Accept</code> header of the request
+         * otherwise, adding <code>Vary: Accept</code>. For a <code>GET</code> or <code>HEAD</code> request matching
+         * the <code>If-None-Match</code> header, a <code>304 Not Modified</code> response without entity is built
+         * instead.
+         * <p/>
+         * The links of collection rows are injected when building the response rather than when writing it, so that
+         * the entity hashed is the one written.
+         *
+         * @return this.
+         * @see #autoTag(Object)
+         */
+        public abstract HateoasResponseBuilder autoTag();
+
+        /**
+         * Compute a strong entity tag for this response from a cheap version key, e.g. the version stamp of a
+         * repository, and the effective verbosity. The version key must change whenever the entity or its links
+         * change. The representation is included as by {@link #autoTag()}. For a <code>GET</code> or
+         * <code>HEAD</code> request matching the <code>If-None-Match</code> header, a
+         * <code>304 Not Modified</code> response is built without doing any link injection at all.
+         *
+         * @param versionKey the version of the entity, its <code>toString()</code> value is used.
+         * @return this.
+         * @see #autoTag()
+         */
+        public abstract HateoasResponseBuilder autoTag(Object versionKey);
+
+
+        /**
+         * Create a LinkProducer linking to the specified id, using the values of the specified fields of each
+         * target object as path parameters. Typically used with
+         * {@link com.jayway.jaxrs.hateoas.HateoasContext#addLinkRule(Class, LinkProducer)}.
+         *
+         * @param id           the @Linkable id of the target method.
+         * @param rel          the relation of the linked resource.
+         * @param entityFields the names of the fields holding the path parameters.
+         * @return a new LinkProducer.
+         */
+        public static LinkProducer<Object> linkProducer(String id, String rel, String... entityFields) {
+            return new HateoasResponseBuilderImpl.ReflectionBasedLinkProducer(id, rel, entityFields);
+        }
+
+        /**
+         * Create a LinkProducer adding a self link.
+         *
+         * @see #linkProducer(String, String, String...)
+         */
+        public static LinkProducer<Object> selfLinkProducer(String id, String... entityFields) {
+            return linkProducer(id, AtomRels.SELF, entityFields);
+        }
 
         /**
          * Construct a {@link HateoasLink} for the supplied id, building the URI using the specified parameters.
@@ -601,14 +685,14 @@ public abstract class HateoasResponse extends Response {
          * @param params the parameters to use for populating path parameters.  @return a populated HateoasLink instance.
          */
         public static HateoasLink makeLink(String id, String rel, Object... params) {
-            HateoasContext hateoasContext = HateoasContextProvider.getDefaultContext();
+            HateoasContext hateoasContext = HateoasContextProvider.getContext();
 
             LinkableInfo linkableInfo = hateoasContext.getLinkableInfo(id);
             return DefaultHateoasLink.fromLinkableInfo(linkableInfo, rel, params);
         }
 
         public static HateoasLink makeLink(String id, String rel, Map<String, Object> queryParameters, Object... params) {
-            HateoasContext hateoasContext = HateoasContextProvider.getDefaultContext();
+            HateoasContext hateoasContext = HateoasContextProvider.getContext();
 
             LinkableInfo linkableInfo = hateoasContext.getLinkableInfo(id);
             return DefaultHateoasLink.fromLinkableInfo(linkableInfo, rel, queryParameters, params);
@@ -858,24 +942,25 @@ public abstract class HateoasResponse extends Response {
          */
         public abstract HateoasResponseBuilder cookie(NewCookie... cookies);
 
+        /**
+         * Configure the default {@link HateoasConfiguration}.
+         */
         public static void configure(HateoasLinkInjector<Object> linkInjector,
                                      CollectionWrapperStrategy collectionWrapperStrategy,
                                      HateoasViewFactory hateoasViewFactory) {
-            HateoasResponseBuilder.linkInjector = linkInjector;
-            HateoasResponseBuilder.collectionWrapperStrategy = collectionWrapperStrategy;
-            HateoasResponseBuilder.viewFactory = hateoasViewFactory;
+            HateoasConfiguration.getDefault().configure(linkInjector, collectionWrapperStrategy, hateoasViewFactory);
         }
 
         public static HateoasViewFactory getViewFactory() {
-            return viewFactory;
+            return HateoasConfiguration.current().getViewFactory();
         }
 
         public static HateoasLinkInjector<Object> getLinkInjector() {
-            return linkInjector;
+            return HateoasConfiguration.current().getLinkInjector();
         }
 
         public static CollectionWrapperStrategy getCollectionWrapperStrategy() {
-            return collectionWrapperStrategy;
+            return HateoasConfiguration.current().getCollectionWrapperStrategy();
         }
     }
 
@@ -16,13 +16,29 @@ package com.jayway.jaxrs.hateoas.core;
 
 import com.jayway.jaxrs.hateoas.*;
 import com.jayway.jaxrs.hateoas.core.HateoasResponse.HateoasResponseBuilder;
+import com.jayway.jaxrs.hateoas.embed.EmbedBatch;
+import com.jayway.jaxrs.hateoas.hal.HalCollection;
+import com.jayway.jaxrs.hateoas.hal.HalCollectionWrapperStrategy;
+import com.jayway.jaxrs.hateoas.hal.HalLinkInjector;
+import com.jayway.jaxrs.hateoas.hal.HalMediaType;
+import com.jayway.jaxrs.hateoas.hal.HalResource;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
+import com.jayway.jaxrs.hateoas.paging.Page;
 import com.jayway.jaxrs.hateoas.support.AtomRels;
+import com.jayway.jaxrs.hateoas.support.ContentHash;
 import com.jayway.jaxrs.hateoas.support.FieldPath;
+import com.jayway.jaxrs.hateoas.support.LinkGraphWalker;
 import com.jayway.jaxrs.hateoas.support.ReflectionUtils;
+import com.jayway.jaxrs.hateoas.usage.LinkUsageTracker;
+import com.jayway.jaxrs.hateoas.web.LinkFilter;
 import com.jayway.jaxrs.hateoas.web.RequestContext;
+import com.jayway.jaxrs.hateoas.web.ServerTimingRecorder;
 import com.sun.jersey.core.header.OutBoundHeaders;
 import com.sun.jersey.core.spi.factory.ResponseImpl;
+import org.apache.commons.lang.StringUtils;
 
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.*;
 import java.lang.reflect.Type;
 import java.net.URI;
@@ -47,8 +63,22 @@ public class HateoasResponseBuilderImpl extends HateoasResponse.HateoasResponseB
 
     private final Map<FieldPath, ChainedLinkProducer> linkMappings = new HashMap<FieldPath, ChainedLinkProducer>();
 
+    private boolean linkHeaders;
+
+    private boolean autoTag;
+
+    private Object versionKey;
+
+    private int headerLinkCount;
+
+    private BoundPlan boundPlan;
+
     @Override
     public HateoasResponseBuilder link(String id, String rel, Object... params) {
+        LinkFilter linkFilter = LinkFilter.current();
+        if (linkFilter != null && !linkFilter.accepts(HateoasContextProvider.getContext().getLinkableInfo(id), rel)) {
+            return this;
+        }
         return links(HateoasResponseBuilder.makeLink(id, rel, params));
     }
 
@@ -101,6 +131,41 @@ public class HateoasResponseBuilderImpl extends HateoasResponse.HateoasResponseB
         return link(FieldPath.path(collectionWrapperStrategy.rowsFieldName()), linkProducer);
     }
 
+    @Override
+    public HateoasResponseBuilder plan(String id, Object... args) {
+        if (boundPlan != null) {
+            throw new IllegalStateException("A link plan has already been applied to this response: "
+                    + boundPlan.linkPlan.getId());
+        }
+        boundPlan = new BoundPlan(HateoasContextProvider.getContext().getLinkPlan(id), args);
+        return this;
+    }
+
+    @Override
+    public HateoasResponseBuilder pageLinks(Page<?> page, Object... params) {
+        List<HateoasLink> links = page.links(params);
+        return links(links.toArray(new HateoasLink[links.size()]));
+    }
+
+    @Override
+    public HateoasResponseBuilder linkHeaders() {
+        this.linkHeaders = true;
+        return this;
+    }
+
+    @Override
+    public HateoasResponseBuilder autoTag() {
+        this.autoTag = true;
+        return this;
+    }
+
+    @Override
+    public HateoasResponseBuilder autoTag(Object versionKey) {
+        this.autoTag = true;
+        this.versionKey = versionKey;
+        return this;
+    }
+
     //-------------------------
 
 
@@ -153,6 +218,10 @@ public class HateoasResponseBuilderImpl extends HateoasResponse.HateoasResponseB
             this.headers = null;
         }
         this.entityType = that.entityType;
+        this.linkHeaders = that.linkHeaders;
+        this.autoTag = that.autoTag;
+        this.versionKey = that.versionKey;
+        this.boundPlan = that.boundPlan == null ? null : new BoundPlan(that.boundPlan.linkPlan, that.boundPlan.args);
     }
 
     public HateoasResponse.HateoasResponseBuilder entityWithType(Object entity,
@@ -170,54 +239,297 @@ public class HateoasResponseBuilderImpl extends HateoasResponse.HateoasResponseB
 
     // Response.Builder
 
-    @SuppressWarnings("unchecked")
     public HateoasResponse build() {
-        HateoasLinkInjector<Object> linkInjector = HateoasResponseBuilder.getLinkInjector();
+        return build(null);
+    }
 
-        CollectionWrapperStrategy collectionWrapperStrategy = HateoasResponseBuilder.getCollectionWrapperStrategy();
-        HateoasVerbosity verbosity = HateoasVerbosity.valueOf(RequestContext.getRequestContext().getVerbosityHeader());
+    public HateoasResponse render(String template) {
+        return build(template);
+    }
 
-        Object newEntity = entity;
-        if (entity != null) {
-            if (Collection.class.isAssignableFrom(entity.getClass())) {
-                newEntity = collectionWrapperStrategy.wrapRootCollection((Collection<Object>) entity);
+    private HateoasResponse build(String template) {
+        RequestContext requestContext = RequestContext.getRequestContext();
+        HateoasConfiguration configuration = requestContext.getConfiguration();
+        ServerTimingRecorder timing = requestContext.getServerTiming();
+        long start = timing != null ? System.nanoTime() : 0L;
+
+        HateoasVerbosity verbosity = AdaptiveVerbosityController.resolve(requestContext.getVerbosityHeader());
+        requestContext.setVerbosity(verbosity);
+        if (timing != null) {
+            timing.checkpoint(ServerTimingRecorder.VERBOSITY, start);
+        }
+        boolean hal = template == null && configuration.isHalEnabled()
+                && HalMediaType.isPreferredBy(requestContext.getHeader(HttpHeaders.ACCEPT));
+
+        if (autoTag) {
+            varyAccept();
+        }
+        EntityTag entityTag = null;
+        if (autoTag && versionKey != null) {
+            entityTag = new EntityTag(versionHash(template, verbosity, hal));
+            if (matchesIfNoneMatch(entityTag)) {
+                return notModified(entityTag, timing, start);
             }
+        }
 
-            Set<Entry<FieldPath, ChainedLinkProducer>> entries = linkMappings.entrySet();
-            for (Entry<FieldPath, ChainedLinkProducer> entry : entries) {
-                newEntity = entry.getKey().injectLinks(newEntity, linkInjector, entry.getValue(), verbosity);
+        AdaptiveVerbosityController controller = configuration.getAdaptiveVerbosityController();
+        HateoasMetrics metrics = HateoasMetricsProvider.getMetrics();
+        long injectStart = timing != null || controller != null ? System.nanoTime() : 0L;
+        // Rows are otherwise injected while the entity is written, and injected again each time they are iterated.
+        // Hashing them, and measuring or counting their links, needs them injected here.
+        boolean eager = autoTag && versionKey == null || timing != null || controller != null || metrics.isEnabled();
+        Object newEntity = injectLinks(verbosity, configuration, hal, eager);
+        if (newEntity instanceof HalResource || newEntity instanceof HalCollection) {
+            type(HalMediaType.APPLICATION_HAL_JSON_TYPE);
+        }
+        if (timing != null || controller != null) {
+            long injectNanos = System.nanoTime() - injectStart;
+            if (timing != null) {
+                timing.add(ServerTimingRecorder.INJECT, injectNanos);
+            }
+            if (controller != null) {
+                controller.linksBuilt(injectNanos);
             }
         }
 
+        if (metrics.isEnabled()) {
+            metrics.responseBuilt(linkCount(), verbosity);
+        }
+
+        if (autoTag && entityTag == null) {
+            entityTag = new EntityTag(contentHash(newEntity, template, verbosity));
+            if (matchesIfNoneMatch(entityTag)) {
+                return notModified(entityTag, timing, start);
+            }
+        }
+        if (entityTag != null) {
+            tag(entityTag);
+        }
+
+        if (template != null) {
+            long viewStart = timing != null ? System.nanoTime() : 0L;
+            newEntity = configuration.getViewFactory().createView(template, newEntity);
+            if (timing != null) {
+                timing.checkpoint(ServerTimingRecorder.VIEW, viewStart);
+            }
+        }
+        addServerTiming(timing, start);
         final HateoasResponse r = new HateoasResponseImpl(statusType,
                 getHeaders(), newEntity, entityType);
         reset();
         return r;
     }
 
-    public HateoasResponse render(String template) {
-        HateoasLinkInjector<Object> linkInjector = HateoasResponseBuilder.getLinkInjector();
+    private int linkCount() {
+        int count = headerLinkCount;
+        for (ChainedLinkProducer linkProducer : linkMappings.values()) {
+            count += linkProducer.getLinkCount();
+        }
+        if (boundPlan != null) {
+            count += boundPlan.linkCount;
+        }
+        return count;
+    }
+
+    private String versionHash(String template, HateoasVerbosity verbosity, boolean hal) {
+        ContentHash hash = new ContentHash()
+                .update(versionKey.toString())
+                .update(template)
+                .update(RequestContext.getRequestContext().getBasePath().build().toString())
+                .update(String.valueOf(linkHeaders))
+                .update(RequestContext.getRequestContext().getHeader(RequestContext.HATEOAS_LINKS_HEADER))
+                .update(RequestContext.getRequestContext().getQueryParameter(RequestContext.EMBED_PARAMETER))
+                .update(representation());
+        if (hal) {
+            hash.update(HalMediaType.APPLICATION_HAL_JSON);
+        }
+        return hash.updateGraph(verbosity.getOptions()).toHexString();
+    }
+
+    private String contentHash(Object newEntity, String template, HateoasVerbosity verbosity) {
+        ContentHash hash = new ContentHash()
+                .updateGraph(newEntity)
+                .update(template)
+                .update(representation())
+                .updateGraph(getHeaders().get(LinkHeaders.LINK_HEADER));
+        return hash.updateGraph(verbosity.getOptions()).toHexString();
+    }
+
+    /**
+     * @return the content type of this response if set, otherwise the <code>Accept</code> header it is negotiated
+     *         from, so that JSON, XML and other representations of the same entity are tagged differently.
+     */
+    private String representation() {
+        Object contentType = getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+        if (contentType != null) {
+            return contentType.toString();
+        }
+        return RequestContext.getRequestContext().getHeader(HttpHeaders.ACCEPT);
+    }
 
-        CollectionWrapperStrategy collectionWrapperStrategy = HateoasResponseBuilder.getCollectionWrapperStrategy();
-        HateoasVerbosity verbosity = HateoasVerbosity.valueOf(RequestContext.getRequestContext().getVerbosityHeader());
+    private void varyAccept() {
+        List<Object> vary = getHeaders().get(HttpHeaders.VARY);
+        if (vary != null) {
+            for (Object value : vary) {
+                for (String name : StringUtils.split(String.valueOf(value), ',')) {
+                    if (HttpHeaders.ACCEPT.equalsIgnoreCase(name.trim())) {
+                        return;
+                    }
+                }
+            }
+        }
+        header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    private boolean matchesIfNoneMatch(EntityTag entityTag) {
+        String method = RequestContext.getRequestContext().getMethod();
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+            return false;
+        }
+        String ifNoneMatch = RequestContext.getRequestContext().getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : StringUtils.split(ifNoneMatch, ',')) {
+            candidate = StringUtils.removeStart(candidate.trim(), "W/");
+            if ("*".equals(candidate) || StringUtils.equals(candidate, "\"" + entityTag.getValue() + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    private void addServerTiming(ServerTimingRecorder timing, long start) {
+        if (timing != null) {
+            timing.checkpoint(ServerTimingRecorder.TOTAL, start);
+            header(ServerTimingRecorder.SERVER_TIMING_HEADER, timing.toHeaderValue());
+            timing.clear();
+        }
+    }
+
+    private HateoasResponse notModified(EntityTag entityTag, ServerTimingRecorder timing, long start) {
+        header(LinkHeaders.LINK_HEADER, null);
+        tag(entityTag);
+        addServerTiming(timing, start);
+        final HateoasResponse r = new HateoasResponseImpl(Response.Status.NOT_MODIFIED, getHeaders(), null, null);
+        reset();
+        return r;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object injectLinks(HateoasVerbosity verbosity, HateoasConfiguration configuration, boolean hal,
+                               boolean eager) {
+        LinkPlan linkPlan = boundPlan == null ? null : boundPlan.linkPlan;
+        if (linkHeaders) {
+            ChainedLinkProducer rootLinkProducer = linkMappings.remove(FieldPath.EMPTY_PATH);
+            if (rootLinkProducer != null) {
+                for (HateoasLink link : rootLinkProducer.getLinks(entity)) {
+                    headerLinkCount++;
+                    header(LinkHeaders.LINK_HEADER, LinkHeaders.toHeaderValue(link, verbosity));
+                }
+            }
+            if (linkPlan != null) {
+                for (int i = 0; i < linkPlan.getGroupCount(); i++) {
+                    if (isRoot(linkPlan.getGroup(i))) {
+                        for (HateoasLink link : boundPlan.getLinks(linkPlan.getGroup(i), entity)) {
+                            headerLinkCount++;
+                            header(LinkHeaders.LINK_HEADER, LinkHeaders.toHeaderValue(link, verbosity));
+                        }
+                    }
+                }
+            }
+        }
+
+        HateoasContext context = configuration.getContext();
+        // HAL has its own way of embedding resources.
+        EmbedBatch embedBatch = hal ? null : EmbedBatch.forRequest(RequestContext.getRequestContext());
         Object newEntity = entity;
-        if (entity != null) {
+        if (entity != null && !(linkHeaders && linkMappings.isEmpty() && !context.hasLinkRules()
+                && (linkPlan == null || linkPlan.getGroupCount() == countRoots(linkPlan)))) {
+            HateoasLinkInjector<Object> linkInjector = hal ? HalLinkInjector.INSTANCE : configuration.getLinkInjector();
+            CollectionWrapperStrategy collectionWrapperStrategy = hal ? HalCollectionWrapperStrategy.INSTANCE
+                    : configuration.getCollectionWrapperStrategy();
+            String rowsFieldName = collectionWrapperStrategy.rowsFieldName();
+
+            if (linkPlan != null && !linkMappings.isEmpty()) {
+                // Links mapped to the same objects are injected together.
+                for (int i = 0; i < linkPlan.getGroupCount(); i++) {
+                    LinkPlan.Group group = linkPlan.getGroup(i);
+                    ChainedLinkProducer chained = linkMappings.get(group.getFieldPath(rowsFieldName));
+                    if (chained != null && !(linkHeaders && isRoot(group))) {
+                        chained.append(new GroupLinkProducer(boundPlan, group, false));
+                    }
+                }
+            }
+
             if (Collection.class.isAssignableFrom(entity.getClass())) {
                 newEntity = collectionWrapperStrategy.wrapRootCollection((Collection<Object>) entity);
             }
 
             Set<Entry<FieldPath, ChainedLinkProducer>> entries = linkMappings.entrySet();
-            for (Entry<FieldPath, ChainedLinkProducer> entry : entries) {
-                Object oldEntity = newEntity;
-                newEntity = entry.getKey().injectLinks(newEntity, linkInjector, entry.getValue(), verbosity);
-                Object postEntity = newEntity;
+            if (context.hasLinkRules() || embedBatch != null) {
+                // Link rules may apply anywhere in the graph, so walk it once applying the FieldPaths along the way.
+                // The walk produces all links up front, which embedding needs to know every target before loading.
+                LinkGraphWalker walker = new LinkGraphWalker(context, linkInjector, verbosity);
+                for (Entry<FieldPath, ChainedLinkProducer> entry : entries) {
+                    LinkProducer<Object> linkProducer = entry.getValue();
+                    if (embedBatch != null && embedBatch.appliesTo(entry.getKey())) {
+                        linkProducer = embedBatch.wrap(linkProducer);
+                    }
+                    walker.addPath(entry.getKey(), linkProducer);
+                }
+                for (int i = 0; linkPlan != null && i < linkPlan.getGroupCount(); i++) {
+                    LinkPlan.Group group = linkPlan.getGroup(i);
+                    FieldPath fieldPath = group.getFieldPath(rowsFieldName);
+                    if (isInjectedSeparately(group, fieldPath)) {
+                        LinkProducer<Object> linkProducer = boundPlan.producer(group);
+                        if (embedBatch != null && embedBatch.appliesTo(fieldPath)) {
+                            linkProducer = embedBatch.wrap(linkProducer);
+                        }
+                        walker.addPath(fieldPath, linkProducer);
+                    }
+                }
+                newEntity = walker.walk(newEntity);
+                if (embedBatch != null) {
+                    embedBatch.load();
+                }
+            } else {
+                for (Entry<FieldPath, ChainedLinkProducer> entry : entries) {
+                    newEntity = entry.getKey().injectLinks(newEntity, linkInjector, entry.getValue(), verbosity, eager);
+                }
+                for (int i = 0; linkPlan != null && i < linkPlan.getGroupCount(); i++) {
+                    LinkPlan.Group group = linkPlan.getGroup(i);
+                    FieldPath fieldPath = group.getFieldPath(rowsFieldName);
+                    if (isInjectedSeparately(group, fieldPath)) {
+                        newEntity = fieldPath.injectLinks(newEntity, linkInjector, boundPlan.producer(group), verbosity,
+                                eager);
+                    }
+                }
             }
         }
+        return newEntity;
+    }
 
-        final HateoasResponse r = new HateoasResponseImpl(statusType, getHeaders(), HateoasResponseBuilder.getViewFactory().createView(template, newEntity), entityType);
-        reset();
-        return r;
+    private boolean isRoot(LinkPlan.Group group) {
+        return !group.isEach() && FieldPath.EMPTY_PATH.equals(group.getFieldPath());
+    }
+
+    private int countRoots(LinkPlan linkPlan) {
+        int count = 0;
+        for (int i = 0; i < linkPlan.getGroupCount(); i++) {
+            if (isRoot(linkPlan.getGroup(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return <code>true</code> if the links of a plan group are neither written as headers nor appended to the links
+     *         mapped to the same objects.
+     */
+    private boolean isInjectedSeparately(LinkPlan.Group group, FieldPath fieldPath) {
+        return !(linkHeaders && isRoot(group)) && (linkMappings.isEmpty() || !linkMappings.containsKey(fieldPath));
     }
 
     private void reset() {
@@ -226,6 +538,11 @@ public class HateoasResponseBuilderImpl extends HateoasResponse.HateoasResponseB
         entity = null;
         entityType = null;
         linkMappings.clear();
+        linkHeaders = false;
+        autoTag = false;
+        versionKey = null;
+        headerLinkCount = 0;
+        boundPlan = null;
     }
 
     @Override
@@ -424,53 +741,91 @@ public class HateoasResponseBuilderImpl extends HateoasResponse.HateoasResponseB
         return this;
     }
 
-    private final static class ParamExpandingLinkProducer implements LinkProducer<Object> {
+    /**
+     * Check the link filter of the current request before doing any work for a link.
+     */
+    private static boolean isWanted(String id, String rel) {
+        LinkFilter linkFilter = LinkFilter.current();
+        return linkFilter == null || linkFilter.accepts(HateoasContextProvider.getContext().getLinkableInfo(id), rel);
+    }
+
+    /**
+     * A LinkProducer checking the link filter of the current request itself, see {@link #isWanted(String, String)}, so
+     * that its links need not be filtered again.
+     */
+    private interface PreFilteredLinkProducer extends LinkProducer<Object> {
+    }
+
+    private final static class ParamExpandingLinkProducer implements PreFilteredLinkProducer {
 
         private final String id;
         private final String rel;
         private final ParamExpander[] paramExpanders;
+        private final int pathParamCount;
+        private final boolean hasQueryParams;
 
         private ParamExpandingLinkProducer(String id, String rel, ParamExpander... paramExpanders) {
             this.id = id;
             this.rel = rel;
             this.paramExpanders = paramExpanders;
+
+            int pathParamCount = 0;
+            boolean hasQueryParams = false;
+            for (ParamExpander paramExpander : paramExpanders) {
+                if (paramExpander instanceof ParamExpander.QueryParamExpander) {
+                    hasQueryParams = true;
+                } else if (paramExpander instanceof ParamExpander.ReflectionPathParamExpander
+                        || paramExpander instanceof ParamExpander.PathParamExpander) {
+                    pathParamCount++;
+                }
+            }
+            this.pathParamCount = pathParamCount;
+            this.hasQueryParams = hasQueryParams;
         }
 
         @Override
         public Collection<HateoasLink> getLinks(Object entity) {
-            Map<String, Object> queryParams = new LinkedHashMap<String, Object>();
+            if (!isWanted(id, rel)) {
+                return Collections.emptyList();
+            }
+            Map<String, Object> queryParams = hasQueryParams ? new LinkedHashMap<String, Object>() : null;
 
-            LinkedList<Object> argumentList = new LinkedList<Object>();
+            ScratchBuffers scratch = ScratchBuffers.get();
+            Object[] arguments = scratch.arguments(pathParamCount);
+            try {
+                int argumentCount = 0;
+                for (ParamExpander paramExpander : paramExpanders) {
 
-            for (ParamExpander paramExpander : paramExpanders) {
+                    if (paramExpander instanceof ParamExpander.QueryParamExpander) {
+                        ParamExpander.QueryParamExpander expander = (ParamExpander.QueryParamExpander) paramExpander;
+                        queryParams.put(expander.getName(), expander.getValue());
 
-                if (paramExpander instanceof ParamExpander.QueryParamExpander) {
-                    ParamExpander.QueryParamExpander expander = (ParamExpander.QueryParamExpander) paramExpander;
-                    queryParams.put(expander.getName(), expander.getValue());
+                    } else if (paramExpander instanceof ParamExpander.ReflectionPathParamExpander) {
 
-                } else if (paramExpander instanceof ParamExpander.ReflectionPathParamExpander) {
+                        ParamExpander.ReflectionPathParamExpander expander = (ParamExpander.ReflectionPathParamExpander) paramExpander;
+                        Object fieldValue = ReflectionUtils.getFieldValueHierarchical(entity, expander.getField());
+                        arguments[argumentCount++] = fieldValue;
 
-                    ParamExpander.ReflectionPathParamExpander expander = (ParamExpander.ReflectionPathParamExpander) paramExpander;
-                    Object fieldValue = ReflectionUtils.getFieldValueHierarchical(entity, expander.getField());
-                    argumentList.add(fieldValue);
+                    } else if (paramExpander instanceof ParamExpander.PathParamExpander) {
 
-                } else if (paramExpander instanceof ParamExpander.PathParamExpander) {
-
-                    ParamExpander.PathParamExpander expander = (ParamExpander.PathParamExpander) paramExpander;
-                    argumentList.add(expander.getValue());
+                        ParamExpander.PathParamExpander expander = (ParamExpander.PathParamExpander) paramExpander;
+                        arguments[argumentCount++] = expander.getValue();
 
+                    }
                 }
+                return Collections.singletonList(makeLink(id, rel, queryParams, arguments));
+            } finally {
+                scratch.release(arguments);
             }
-            return Collections.singletonList(makeLink(id, rel, queryParams, argumentList.toArray()));
         }
     }
 
-    private final static class ReflectionBasedLinkProducer implements LinkProducer<Object> {
+    final static class ReflectionBasedLinkProducer implements PreFilteredLinkProducer {
         private final String id;
         private final String rel;
         private final String[] entityFields;
 
-        private ReflectionBasedLinkProducer(String id, String rel, String... entityFields) {
+        ReflectionBasedLinkProducer(String id, String rel, String... entityFields) {
             this.id = id;
             this.rel = rel;
             this.entityFields = entityFields;
@@ -478,19 +833,25 @@ public class HateoasResponseBuilderImpl extends HateoasResponse.HateoasResponseB
 
         @Override
         public Collection<HateoasLink> getLinks(Object entity) {
-            LinkedList<Object> argumentList = new LinkedList<Object>();
-
-            for (String fieldName : entityFields) {
-                Object fieldValue = ReflectionUtils.getFieldValueHierarchical(entity, fieldName);
-                argumentList.add(fieldValue);
+            if (!isWanted(id, rel)) {
+                return Collections.emptyList();
+            }
+            ScratchBuffers scratch = ScratchBuffers.get();
+            Object[] arguments = scratch.arguments(entityFields.length);
+            try {
+                for (int i = 0; i < entityFields.length; i++) {
+                    arguments[i] = ReflectionUtils.getFieldValueHierarchical(entity, entityFields[i]);
+                }
+                return Collections.singletonList(makeLink(id, rel, arguments));
+            } finally {
+                scratch.release(arguments);
             }
-
-            return Collections.singletonList(makeLink(id, rel, argumentList.toArray()));
         }
     }
 
     private final static class ChainedLinkProducer implements LinkProducer<Object> {
         private final Collection<LinkProducer<Object>> wrappedCallbacks = new LinkedList<LinkProducer<Object>>();
+        private int linkCount;
 
         @SuppressWarnings("unchecked")
         public void append(LinkProducer<?> callback) {
@@ -500,12 +861,83 @@ public class HateoasResponseBuilderImpl extends HateoasResponse.HateoasResponseB
         @Override
         public Collection<HateoasLink> getLinks(Object entity) {
             Collection<HateoasLink> result = new LinkedList<HateoasLink>();
+            LinkFilter linkFilter = LinkFilter.current();
             for (LinkProducer<Object> callback : wrappedCallbacks) {
-                result.addAll(callback.getLinks(entity));
+                Collection<HateoasLink> links = callback.getLinks(entity);
+                // Only fixed, custom and rule producers leave the filtering to this producer.
+                boolean filtered = linkFilter == null || callback instanceof PreFilteredLinkProducer;
+                result.addAll(filtered ? links : linkFilter.filter(links));
+            }
+            linkCount += result.size();
+            LinkUsageTracker tracker = LinkUsageTracker.getCurrent();
+            if (tracker != null) {
+                tracker.linksEmitted(RequestContext.getRequestContext(), result);
             }
 
             return result;
         }
+
+        /**
+         * @return the number of links produced so far.
+         */
+        public int getLinkCount() {
+            return linkCount;
+        }
+    }
+
+    /**
+     * A {@link LinkPlan} bound to the arguments of a response. The links of each group are produced straight from the
+     * compiled plan and the argument array.
+     */
+    private final static class BoundPlan {
+        private final LinkPlan linkPlan;
+        private final Object[] args;
+        private int linkCount;
+
+        private BoundPlan(LinkPlan linkPlan, Object[] args) {
+            this.linkPlan = linkPlan;
+            this.args = args;
+        }
+
+        /**
+         * Produce the links of a group, counting and tracking them as {@link ChainedLinkProducer} does.
+         */
+        private Collection<HateoasLink> getLinks(LinkPlan.Group group, Object entity) {
+            Collection<HateoasLink> links = group.getLinks(entity, args);
+            linkCount += links.size();
+            LinkUsageTracker tracker = LinkUsageTracker.getCurrent();
+            if (tracker != null) {
+                tracker.linksEmitted(RequestContext.getRequestContext(), links);
+            }
+            return links;
+        }
+
+        private LinkProducer<Object> producer(LinkPlan.Group group) {
+            return new GroupLinkProducer(this, group, true);
+        }
+    }
+
+    /**
+     * The LinkProducer the injectors are handed for a group of a {@link BoundPlan}.
+     */
+    private final static class GroupLinkProducer implements PreFilteredLinkProducer {
+        private final BoundPlan boundPlan;
+        private final LinkPlan.Group group;
+        private final boolean counted;
+
+        /**
+         * @param counted <code>false</code> if appended to a {@link ChainedLinkProducer}, which counts the links.
+         */
+        private GroupLinkProducer(BoundPlan boundPlan, LinkPlan.Group group, boolean counted) {
+            this.boundPlan = boundPlan;
+            this.group = group;
+            this.counted = counted;
+        }
+
+        @Override
+        public Collection<HateoasLink> getLinks(Object entity) {
+            return counted ? boundPlan.getLinks(group, entity) : group.getLinks(entity, boundPlan.args);
+        }
     }
 
     public final static class FixedLinkProducer implements LinkProducer<Object> {
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The {@link LinkableInfo#getMethodPath() path template} of a LinkableInfo compiled for building hrefs without going
+ * through {@link javax.ws.rs.core.UriBuilder}. Not intended for external use.
+ * <p/>
+ * Each parameter slot has an encoder selected from the declared type of its path parameter: integral numbers are
+ * written as digits and UUIDs from their two longs, directly into the href buffer, and other values are appended as
+ * they are after checking that they contain no character UriBuilder would percent-encode. Whenever a value can not be
+ * appended that way {@link #build(String, Object[])} returns <code>null</code> and the caller falls back to UriBuilder,
+ * so the href is always identical to <code>UriBuilder.fromUri(base).path(template).build(params)</code>.
+ * <p/>
+ * Hrefs are assembled in a {@link ScratchBuffers per-thread buffer}, only the resulting string is allocated.
+ * Templates are compiled once when the LinkableInfo is created and held by it, see
+ * {@link LinkableInfo#getHrefTemplate()}.
+ */
+public final class HrefTemplate {
+
+    private static final HrefTemplate UNSUPPORTED = new HrefTemplate("", null, null, null);
+
+    /**
+     * Characters UriBuilder leaves as they are in path parameter values: unreserved and sub-delims characters, ':',
+     * '@' and '/'.
+     */
+    private static final boolean[] SAFE = new boolean[128];
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            SAFE[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            SAFE[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            SAFE[c] = true;
+        }
+        for (char c : "-._~!$&'()*+,;=:@/".toCharArray()) {
+            SAFE[c] = true;
+        }
+    }
+
+    private final String template;
+
+    /**
+     * The literal text before each parameter occurrence, followed by the text after the last one.
+     */
+    private final String[] literals;
+
+    /**
+     * The slot, i.e. the index into the build parameters, of each parameter occurrence.
+     */
+    private final int[] occurrences;
+
+    private final Encoder[] encoders;
+
+    private HrefTemplate(String template, String[] literals, int[] occurrences, Encoder[] encoders) {
+        this.template = template;
+        this.literals = literals;
+        this.occurrences = occurrences;
+        this.encoders = encoders;
+    }
+
+    /**
+     * Compile the path template of the supplied LinkableInfo, selecting the encoder of each parameter slot from the
+     * declared type of the path parameter.
+     */
+    public static HrefTemplate compile(LinkableInfo linkableInfo) {
+        String template = linkableInfo.getMethodPath();
+        if (template == null) {
+            return UNSUPPORTED;
+        }
+
+        List<String> literals = new ArrayList<String>();
+        List<Integer> occurrences = new ArrayList<Integer>();
+        // Slots are numbered in order of first occurrence, like UriBuilder assigns build parameters.
+        Map<String, Integer> slots = new LinkedHashMap<String, Integer>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '{') {
+                int end = endOfParameter(template, i);
+                if (end < 0) {
+                    return UNSUPPORTED;
+                }
+                String name = template.substring(i + 1, end);
+                int colon = name.indexOf(':');
+                if (colon >= 0) {
+                    name = name.substring(0, colon);
+                }
+                name = name.trim();
+                Integer slot = slots.get(name);
+                if (slot == null) {
+                    slot = slots.size();
+                    slots.put(name, slot);
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                occurrences.add(slot);
+                i = end + 1;
+            } else if (isSafe(c)) {
+                literal.append(c);
+                i++;
+            } else {
+                // Literal text UriBuilder would encode, not worth handling here.
+                return UNSUPPORTED;
+            }
+        }
+        literals.add(literal.toString());
+
+        int[] occurrenceArray = new int[occurrences.size()];
+        for (int j = 0; j < occurrenceArray.length; j++) {
+            occurrenceArray[j] = occurrences.get(j);
+        }
+        Encoder[] encoders = new Encoder[slots.size()];
+        for (Map.Entry<String, Integer> slot : slots.entrySet()) {
+            encoders[slot.getValue()] = Encoder.forType(linkableInfo.getPathParameterType(slot.getKey()));
+        }
+        return new HrefTemplate(template, literals.toArray(new String[literals.size()]), occurrenceArray, encoders);
+    }
+
+    private static int endOfParameter(String template, int start) {
+        int depth = 0;
+        for (int i = start; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Build the href of this template relative to the supplied base URI.
+     *
+     * @param base   the base URI in its ASCII form.
+     * @param params the path parameter values in slot order.
+     * @return the href, or <code>null</code> if it must be built using UriBuilder.
+     */
+    String build(String base, Object[] params) {
+        if (literals == null || params == null || params.length != encoders.length
+                || base.indexOf('?') >= 0 || base.indexOf('#') >= 0) {
+            return null;
+        }
+
+        int authority = base.indexOf("://");
+        boolean basePathEmpty = authority < 0 || base.indexOf('/', authority + 3) < 0;
+        boolean baseEndsWithSlash = base.endsWith("/");
+        boolean templateStartsWithSlash = template.startsWith("/");
+        if (template.length() == 0) {
+            return base;
+        }
+        if (basePathEmpty && !templateStartsWithSlash) {
+            // UriBuilder appends the path to the authority in this case.
+            return null;
+        }
+
+        StringBuilder sb = ScratchBuffers.get().href();
+        sb.append(base);
+        int literalStart = 0;
+        if (baseEndsWithSlash && templateStartsWithSlash) {
+            literalStart = 1;
+        } else if (!baseEndsWithSlash && !templateStartsWithSlash && !basePathEmpty) {
+            sb.append('/');
+        }
+
+        appendLiteral(sb, literals[0], literalStart);
+        for (int i = 0; i < occurrences.length; i++) {
+            int slot = occurrences[i];
+            Object value = params[slot];
+            if (value == null || !encoders[slot].append(sb, value)) {
+                return null;
+            }
+            sb.append(literals[i + 1]);
+        }
+        return sb.toString();
+    }
+
+    private static void appendLiteral(StringBuilder sb, String literal, int start) {
+        if (start < literal.length()) {
+            sb.append(literal, start, literal.length());
+        }
+    }
+
+    private static boolean isSafe(char c) {
+        return c < 128 && SAFE[c];
+    }
+
+    /**
+     * Appends path parameter values of a type, falling back to {@link #GENERIC} for values of other types.
+     */
+    private abstract static class Encoder {
+
+        static final Encoder GENERIC = new Encoder() {
+            @Override
+            boolean append(StringBuilder sb, Object value) {
+                if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                    sb.append(((Number) value).longValue());
+                    return true;
+                }
+                if (value instanceof UUID) {
+                    return UUID_ENCODER.append(sb, value);
+                }
+                return appendString(sb, value.toString());
+            }
+        };
+
+        static final Encoder INT = new Encoder() {
+            @Override
+            boolean append(StringBuilder sb, Object value) {
+                if (value instanceof Integer) {
+                    sb.append(((Integer) value).intValue());
+                    return true;
+                }
+                return GENERIC.append(sb, value);
+            }
+        };
+
+        static final Encoder LONG = new Encoder() {
+            @Override
+            boolean append(StringBuilder sb, Object value) {
+                if (value instanceof Long) {
+                    sb.append(((Long) value).longValue());
+                    return true;
+                }
+                return GENERIC.append(sb, value);
+            }
+        };
+
+        static final Encoder UUID_ENCODER = new Encoder() {
+            @Override
+            boolean append(StringBuilder sb, Object value) {
+                if (!(value instanceof UUID)) {
+                    return GENERIC.append(sb, value);
+                }
+                // The format of UUID.toString(), 8-4-4-4-12 hex digits.
+                UUID uuid = (UUID) value;
+                long most = uuid.getMostSignificantBits();
+                long least = uuid.getLeastSignificantBits();
+                appendHex(sb, most >>> 32, 8);
+                sb.append('-');
+                appendHex(sb, most >>> 16, 4);
+                sb.append('-');
+                appendHex(sb, most, 4);
+                sb.append('-');
+                appendHex(sb, least >>> 48, 4);
+                sb.append('-');
+                appendHex(sb, least, 12);
+                return true;
+            }
+        };
+
+        static final Encoder STRING = new Encoder() {
+            @Override
+            boolean append(StringBuilder sb, Object value) {
+                if (value instanceof String) {
+                    return appendString(sb, (String) value);
+                }
+                return GENERIC.append(sb, value);
+            }
+        };
+
+        static Encoder forType(Class<?> type) {
+            if (type == int.class || type == Integer.class || type == short.class || type == Short.class) {
+                return INT;
+            }
+            if (type == long.class || type == Long.class) {
+                return LONG;
+            }
+            if (type == UUID.class) {
+                return UUID_ENCODER;
+            }
+            if (type == String.class) {
+                return STRING;
+            }
+            return GENERIC;
+        }
+
+        abstract boolean append(StringBuilder sb, Object value);
+
+        static boolean appendString(StringBuilder sb, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (!isSafe(value.charAt(i))) {
+                    return false;
+                }
+            }
+            sb.append(value);
+            return true;
+        }
+
+        private static void appendHex(StringBuilder sb, long value, int digits) {
+            for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+                sb.append(HEX_DIGITS[(int) (value >>> shift) & 0xf]);
+            }
+        }
+    }
+}
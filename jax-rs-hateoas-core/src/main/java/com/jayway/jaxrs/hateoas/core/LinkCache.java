@@ -0,0 +1,209 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.lang.Validate.isTrue;
+
+/**
+ * Cache of links across requests, for links to {@link com.jayway.jaxrs.hateoas.Linkable} methods marked as
+ * cacheable. Such a link depends only on the LinkableInfo, the rel, the base URI of the request and the path
+ * parameters, which make up the key. Links with query parameters are not cached. Enabled per application using
+ * {@link HateoasConfiguration#setLinkCache(LinkCache)}, see also
+ * {@link HateoasConfigurationFactory#PROPERTY_HATEOAS_LINK_CACHE}.
+ * <p/>
+ * The cache is split into segments, each a small LRU map guarded by its own lock. When a segment is full, a new link
+ * is only admitted if it has been asked for more often recently than the least recently used link it would replace,
+ * as estimated by a {@link FrequencySketch}, so that a burst of links asked for once, such as a crawl through all
+ * pages of a collection, does not push out the links asked for all the time.
+ * <p/>
+ * The path parameters are held by the cache, so they should be values such as ids rather than whole entities.
+ */
+public final class LinkCache {
+
+    static final String CACHE_NAME = "links";
+
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * Smallest number of links per segment worth splitting for. Small caches use fewer segments, as a segment holding
+     * only a handful of links would evict by hash collision rather than by frequency.
+     */
+    private static final int MIN_SEGMENT_SIZE = 32;
+
+    private final Segment[] segments;
+    private final FrequencySketch sketch;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maximumSize the maximum number of links held.
+     */
+    public LinkCache(int maximumSize) {
+        isTrue(maximumSize > 0, "maximumSize must be positive");
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 * MIN_SEGMENT_SIZE <= maximumSize) {
+            segmentCount <<= 1;
+        }
+        int segmentSize = (maximumSize + segmentCount - 1) / segmentCount;
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+        sketch = new FrequencySketch(segmentSize * segmentCount);
+    }
+
+    /**
+     * @return the cached link, or <code>null</code> if there is none.
+     */
+    DefaultHateoasLink get(LinkableInfo linkableInfo, String rel, String baseUri, Object[] params) {
+        Key key = new Key(linkableInfo, rel, baseUri, params);
+        sketch.increment(key.hash);
+        Segment segment = segmentFor(key.hash);
+        DefaultHateoasLink link;
+        synchronized (segment) {
+            link = segment.get(key);
+        }
+        (link != null ? hits : misses).incrementAndGet();
+        HateoasMetrics metrics = HateoasMetricsProvider.getMetrics();
+        if (metrics.isEnabled()) {
+            metrics.cacheLookup(CACHE_NAME, link != null);
+        }
+        return link;
+    }
+
+    /**
+     * Offer a link built after a miss. The parameters are copied, so the array may be reused.
+     */
+    void put(LinkableInfo linkableInfo, String rel, String baseUri, Object[] params, DefaultHateoasLink link) {
+        Key key = new Key(linkableInfo, rel, baseUri, params == null || params.length == 0 ? params : params.clone());
+        Segment segment = segmentFor(key.hash);
+        boolean evicted = false;
+        synchronized (segment) {
+            if (segment.size() >= segment.capacity && !segment.containsKey(key)) {
+                Iterator<Key> lru = segment.keySet().iterator();
+                Key victim = lru.next();
+                if (sketch.frequency(key.hash) <= sketch.frequency(victim.hash)) {
+                    return;
+                }
+                lru.remove();
+                evicted = true;
+            }
+            segment.put(key, link);
+        }
+        if (evicted) {
+            evictions.incrementAndGet();
+            HateoasMetrics metrics = HateoasMetricsProvider.getMetrics();
+            if (metrics.isEnabled()) {
+                metrics.cacheEviction(CACHE_NAME);
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the number of links held.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private static final class Segment extends LinkedHashMap<Key, DefaultHateoasLink> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+    }
+
+    private static final class Key {
+        private final LinkableInfo linkableInfo;
+        private final String rel;
+        private final String baseUri;
+        private final Object[] params;
+        private final int hash;
+
+        private Key(LinkableInfo linkableInfo, String rel, String baseUri, Object[] params) {
+            this.linkableInfo = linkableInfo;
+            this.rel = rel;
+            this.baseUri = baseUri;
+            this.params = params;
+            int h = System.identityHashCode(linkableInfo);
+            h = 31 * h + (rel == null ? 0 : rel.hashCode());
+            h = 31 * h + baseUri.hashCode();
+            this.hash = 31 * h + Arrays.hashCode(params);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key that = (Key) o;
+
+            return hash == that.hash && linkableInfo == that.linkableInfo
+                    && (rel == null ? that.rel == null : rel.equals(that.rel))
+                    && baseUri.equals(that.baseUri) && Arrays.equals(params, that.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasOption;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Formats {@link HateoasLink}s as RFC 8288 <code>Link</code> header values. Not intended for external use.
+ * <p/>
+ * Everything but the target and the rel of a header value is given by the {@link LinkableInfo} the link was created
+ * from and the verbosity, so that part is computed once per LinkableInfo and verbosity and kept by the LinkableInfo,
+ * see {@link LinkableInfo#keepDerivedValue(Object, Object, int)}.
+ */
+final class LinkHeaders {
+
+    static final String LINK_HEADER = "Link";
+
+    /**
+     * Upper bound of values derived from a LinkableInfo before the attribute strings are no longer kept, protecting
+     * against clients sending arbitrary option combinations.
+     */
+    private static final int MAX_DERIVED_VALUES = 32;
+
+    static final String ATTRIBUTES_CACHE_NAME = "link-header-attributes";
+
+    private LinkHeaders() {
+    }
+
+    static String toHeaderValue(HateoasLink link, HateoasVerbosity verbosity) {
+        String attributes;
+        LinkableInfo linkableInfo = (link instanceof DefaultHateoasLink) ? ((DefaultHateoasLink) link).getLinkableInfo() : null;
+        if (linkableInfo != null) {
+            AttributesKey key = new AttributesKey(verbosity);
+            attributes = (String) linkableInfo.getDerivedValue(key);
+            HateoasMetrics metrics = HateoasMetricsProvider.getMetrics();
+            if (metrics.isEnabled()) {
+                metrics.cacheLookup(ATTRIBUTES_CACHE_NAME, attributes != null);
+            }
+            if (attributes == null) {
+                attributes = (String) linkableInfo.keepDerivedValue(key, attributes(link, verbosity),
+                        MAX_DERIVED_VALUES);
+            }
+        } else {
+            attributes = attributes(link, verbosity);
+        }
+
+        StringBuilder sb = new StringBuilder(link.getHref().length() + attributes.length() + 16);
+        sb.append('<').append(link.getHref()).append('>');
+        if (link.getRel() != null) {
+            appendParam(sb, "rel", link.getRel());
+        }
+        return sb.append(attributes).toString();
+    }
+
+    private static String attributes(HateoasLink link, HateoasVerbosity verbosity) {
+        StringBuilder sb = new StringBuilder();
+        for (HateoasOption option : verbosity.getOptions()) {
+            switch (option) {
+                case ID:
+                    appendParam(sb, "id", link.getId());
+                    break;
+                case METHOD:
+                    appendParam(sb, "method", link.getMethod());
+                    break;
+                case TYPE:
+                    if (link.getProduces() != null && link.getProduces().length > 0) {
+                        appendParam(sb, "type", link.getProduces()[0]);
+                    }
+                    break;
+                case PRODUCES:
+                    appendParam(sb, "produces", join(link.getProduces()));
+                    break;
+                case CONSUMES:
+                    if (!"GET".equals(link.getMethod()) && !"DELETE".equals(link.getMethod())) {
+                        appendParam(sb, "consumes", join(link.getConsumes()));
+                    }
+                    break;
+                case LABEL:
+                    appendParam(sb, "title", link.getLabel());
+                    break;
+                case DESCRIPTION:
+                    appendParam(sb, "description", link.getDescription());
+                    break;
+                default:
+                    // REL and HREF are always written, TEMPLATE can not be expressed in a header.
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String join(String[] values) {
+        return values == null ? null : StringUtils.join(values, ' ');
+    }
+
+    private static void appendParam(StringBuilder sb, String name, String value) {
+        if (StringUtils.isEmpty(value)) {
+            return;
+        }
+        sb.append("; ").append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static final class AttributesKey {
+        private final HateoasVerbosity verbosity;
+
+        private AttributesKey(HateoasVerbosity verbosity) {
+            this.verbosity = verbosity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            AttributesKey that = (AttributesKey) o;
+
+            return verbosity.equals(that.verbosity);
+        }
+
+        @Override
+        public int hashCode() {
+            return verbosity.hashCode();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+import com.jayway.jaxrs.hateoas.*;
+import com.jayway.jaxrs.hateoas.support.FieldPath;
+import com.jayway.jaxrs.hateoas.support.ReflectionUtils;
+import com.jayway.jaxrs.hateoas.web.LinkFilter;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * The links of a response as declared by {@link ResponseLinks}, compiled to resolved {@link LinkableInfo}s, parameter
+ * accessors and field paths, so that only the entity and the arguments remain to be supplied for each response.
+ * Instances are immutable apart from caches and shared by all responses. Not intended for external use.
+ */
+public final class LinkPlan {
+
+    private final String id;
+
+    private final Group[] groups;
+
+    private LinkPlan(String id, Group[] groups) {
+        this.id = id;
+        this.groups = groups;
+    }
+
+    /**
+     * Compile the links declared for a {@link Linkable} method.
+     *
+     * @param id            the @Linkable id of the declaring method.
+     * @param responseLinks the declared links.
+     * @param context       the context to resolve the link targets in.
+     * @return the compiled plan.
+     */
+    public static LinkPlan compile(String id, ResponseLink[] responseLinks, HateoasContext context) {
+        Map<String, List<Step>> stepsByPath = new LinkedHashMap<String, List<Step>>();
+        for (ResponseLink responseLink : responseLinks) {
+            String[] params = responseLink.params();
+            Param[] compiledParams = new Param[params.length];
+            for (int i = 0; i < params.length; i++) {
+                compiledParams[i] = Param.parse(params[i]);
+            }
+
+            String key = responseLink.each() ? null : responseLink.path();
+            List<Step> steps = stepsByPath.get(key);
+            if (steps == null) {
+                steps = new ArrayList<Step>();
+                stepsByPath.put(key, steps);
+            }
+            steps.add(new Step(context.getLinkableInfo(responseLink.value()), responseLink.rel(), compiledParams));
+        }
+
+        List<Group> groups = new ArrayList<Group>();
+        for (Map.Entry<String, List<Step>> entry : stepsByPath.entrySet()) {
+            String path = entry.getKey();
+            FieldPath fieldPath = null;
+            if (path != null) {
+                fieldPath = path.isEmpty() ? FieldPath.EMPTY_PATH : FieldPath.path(path);
+            }
+            groups.add(new Group(fieldPath, path == null, entry.getValue().toArray(new Step[entry.getValue().size()])));
+        }
+        return new LinkPlan(id, groups.toArray(new Group[groups.size()]));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getGroupCount() {
+        return groups.length;
+    }
+
+    public Group getGroup(int index) {
+        return groups[index];
+    }
+
+    /**
+     * The links that are added to the objects at a single field path.
+     */
+    public static final class Group {
+        private final FieldPath fieldPath;
+        private final boolean each;
+        private final Step[] steps;
+        private volatile RowsPath rowsPath;
+
+        private Group(FieldPath fieldPath, boolean each, Step[] steps) {
+            this.fieldPath = fieldPath;
+            this.each = each;
+            this.steps = steps;
+        }
+
+        /**
+         * @return the field path of the target objects, or <code>null</code> if the links are added to each row of
+         *         the collection entity.
+         */
+        public FieldPath getFieldPath() {
+            return fieldPath;
+        }
+
+        public boolean isEach() {
+            return each;
+        }
+
+        /**
+         * @param rowsFieldName the rows field of the collection wrapper in use.
+         * @return the field path of the target objects, for links added to each row the path of the rows.
+         */
+        public FieldPath getFieldPath(String rowsFieldName) {
+            if (!each) {
+                return fieldPath;
+            }
+            RowsPath current = rowsPath;
+            if (current == null || !current.rowsFieldName.equals(rowsFieldName)) {
+                // There is practically only one collection wrapper in use, so caching the last path is enough.
+                current = new RowsPath(rowsFieldName);
+                rowsPath = current;
+            }
+            return current.fieldPath;
+        }
+
+        /**
+         * Produce the links of this group for a target object.
+         *
+         * @param entity the target object.
+         * @param args   the arguments referred to by <code>$n</code> parameters.
+         * @return the links wanted by the client.
+         */
+        public Collection<HateoasLink> getLinks(Object entity, Object[] args) {
+            LinkFilter linkFilter = LinkFilter.current();
+            if (linkFilter != null) {
+                List<HateoasLink> links = new ArrayList<HateoasLink>(steps.length);
+                for (Step step : steps) {
+                    if (linkFilter.accepts(step.linkableInfo, step.rel)) {
+                        links.add(step.toLink(entity, args));
+                    }
+                }
+                return links;
+            }
+            HateoasLink[] links = new HateoasLink[steps.length];
+            for (int i = 0; i < steps.length; i++) {
+                links[i] = steps[i].toLink(entity, args);
+            }
+            return Arrays.asList(links);
+        }
+    }
+
+    private static final class RowsPath {
+        private final String rowsFieldName;
+        private final FieldPath fieldPath;
+
+        private RowsPath(String rowsFieldName) {
+            this.rowsFieldName = rowsFieldName;
+            this.fieldPath = FieldPath.path(rowsFieldName);
+        }
+    }
+
+    private static final class Step {
+        private final LinkableInfo linkableInfo;
+        private final String rel;
+        private final Param[] params;
+
+        private Step(LinkableInfo linkableInfo, String rel, Param[] params) {
+            this.linkableInfo = linkableInfo;
+            this.rel = rel;
+            this.params = params;
+        }
+
+        private HateoasLink toLink(Object entity, Object[] args) {
+            ScratchBuffers scratch = ScratchBuffers.get();
+            Object[] values = scratch.arguments(params.length);
+            try {
+                for (int i = 0; i < params.length; i++) {
+                    values[i] = params[i].value(entity, args);
+                }
+                return DefaultHateoasLink.fromLinkableInfo(linkableInfo, rel, values);
+            } finally {
+                scratch.release(values);
+            }
+        }
+    }
+
+    private static final class Param {
+        private final int argIndex;
+        private final String fieldName;
+        private volatile FieldAccessor accessor;
+
+        private Param(int argIndex, String fieldName) {
+            this.argIndex = argIndex;
+            this.fieldName = fieldName;
+        }
+
+        private static Param parse(String param) {
+            if (param.startsWith("$")) {
+                try {
+                    return new Param(Integer.parseInt(param.substring(1)), null);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid argument reference: " + param);
+                }
+            }
+            return new Param(-1, param);
+        }
+
+        private Object value(Object entity, Object[] args) {
+            if (fieldName == null) {
+                if (args == null || argIndex >= args.length) {
+                    throw new HateoasInjectException("Missing argument $" + argIndex);
+                }
+                return args[argIndex];
+            }
+
+            FieldAccessor current = accessor;
+            if (current == null || current.type != entity.getClass()) {
+                // Entities of a single response method are practically always of the same class, so caching the
+                // last resolved field is enough.
+                try {
+                    current = new FieldAccessor(entity.getClass(),
+                            ReflectionUtils.getFieldHierarchical(entity.getClass(), fieldName));
+                } catch (NoSuchFieldException e) {
+                    throw new HateoasInjectException(e);
+                }
+                accessor = current;
+            }
+            try {
+                return current.field.get(entity);
+            } catch (IllegalAccessException e) {
+                throw new HateoasInjectException(e);
+            }
+        }
+    }
+
+    private static final class FieldAccessor {
+        private final Class<?> type;
+        private final Field field;
+
+        private FieldAccessor(Class<?> type, Field field) {
+            this.type = type;
+            this.field = field;
+        }
+    }
+}
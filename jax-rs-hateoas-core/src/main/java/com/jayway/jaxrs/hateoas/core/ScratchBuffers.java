@@ -0,0 +1,88 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread buffers reused while rendering links, so that building a link allocates little more than the final href
+ * and link. Not intended for external use.
+ * <p/>
+ * A buffer must not be used again before the previous use is complete; link rendering does not call back into user
+ * code while holding one.
+ */
+final class ScratchBuffers {
+
+    /**
+     * Buffers grown beyond this capacity by an unusually long href are replaced rather than kept for the thread's
+     * lifetime.
+     */
+    private static final int MAX_HREF_CAPACITY = 2048;
+
+    private static final int MAX_ARGUMENTS = 8;
+
+    private static final ThreadLocal<ScratchBuffers> CURRENT = new ThreadLocal<ScratchBuffers>() {
+        @Override
+        protected ScratchBuffers initialValue() {
+            return new ScratchBuffers();
+        }
+    };
+
+    private StringBuilder href = new StringBuilder(256);
+
+    private final Object[][] arguments = new Object[MAX_ARGUMENTS + 1][];
+
+    private ScratchBuffers() {
+    }
+
+    static ScratchBuffers get() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return an empty buffer for assembling an href.
+     */
+    StringBuilder href() {
+        if (href.capacity() > MAX_HREF_CAPACITY) {
+            href = new StringBuilder(256);
+        } else {
+            href.setLength(0);
+        }
+        return href;
+    }
+
+    /**
+     * @return an array of exactly the specified length for link arguments, to be handed back using
+     *         {@link #release(Object[])} when the link is built.
+     */
+    Object[] arguments(int length) {
+        if (length > MAX_ARGUMENTS) {
+            return new Object[length];
+        }
+        Object[] array = arguments[length];
+        if (array == null) {
+            array = new Object[length];
+            arguments[length] = array;
+        }
+        return array;
+    }
+
+    /**
+     * Clear an argument array, so that the thread does not keep entities reachable.
+     */
+    void release(Object[] array) {
+        Arrays.fill(array, null);
+    }
+}
@@ -15,18 +15,29 @@
 package com.jayway.jaxrs.hateoas.core.jersey;
 
 import com.jayway.jaxrs.hateoas.*;
+import com.jayway.jaxrs.hateoas.cbor.CborMessageBodyWriter;
 import com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory;
-import com.jayway.jaxrs.hateoas.core.HateoasResponse.HateoasResponseBuilder;
+import com.jayway.jaxrs.hateoas.hal.HalMessageBodyWriter;
+import com.jayway.jaxrs.hateoas.jackson.HateoasObjectMapperProvider;
+import com.jayway.jaxrs.hateoas.jackson.NdjsonCollectionWriter;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsJmx;
+import com.jayway.jaxrs.hateoas.xml.XmlLinkedEntityWriter;
 import com.sun.jersey.api.core.PackagesResourceConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
-import java.util.Set;
 
 /**
  * JAX-RS Application adding HATEOAS capability to a Jersey application. Subclass this to add hypermedia capability
  * to your Jersey application.
+ * <p/>
+ * Each application has its own {@link HateoasContext} and configuration, including its metrics and Server-Timing
+ * settings, see {@link #getHateoasConfiguration()}, so several applications can be deployed in the same JVM. The
+ * resource classes are mapped into the context of the application only, not into
+ * {@link HateoasContextProvider#getDefaultContext()}: code looking up links outside of requests, such as background
+ * jobs, should use the context of the application.
  *
  * @author Mattias Hellborg Arthursson
  * @author Kalle Stenflo
@@ -35,6 +46,8 @@ public abstract class JerseyHateoasApplication extends PackagesResourceConfig {
 
     private static final Logger log = LoggerFactory.getLogger(JerseyHateoasApplication.class);
 
+    private final HateoasConfiguration configuration;
+
     /**
      * Creates a new Application with he given {@link HateoasVerbosity} level.
      *
@@ -60,6 +73,10 @@ public abstract class JerseyHateoasApplication extends PackagesResourceConfig {
      * @see com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_LINK_INJECTOR
      * @see com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_COLLECTION_WRAPPER_STRATEGY
      * @see com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_VIEW_FACTORY
+     * @see com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_METRICS
+     * @see com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_SERVER_TIMING
+     * @see com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_ADAPTIVE_VERBOSITY
+     * @see com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_HAL
      */
     public JerseyHateoasApplication(Map<String, Object> props) {
         this(HateoasConfigurationFactory.createLinkInjector(props),
@@ -76,18 +93,47 @@ public abstract class JerseyHateoasApplication extends PackagesResourceConfig {
                                     Map<String, Object> props) {
         super(props);
 
-        Set<Class<?>> allClasses = getClasses();
-        for (Class<?> clazz : allClasses) {
-            HateoasContextProvider.getDefaultContext().mapClass(clazz);
-        }
+        configuration = new HateoasConfiguration(HateoasConfigurationFactory.createHateoasContext(props));
+        configuration.getContext().mapClasses(getClasses());
 
-        HateoasResponseBuilder.configure(linkInjector, collectionWrapperStrategy, viewFactory);
-        HateoasVerbosity.setDefaultVerbosity(verbosity);
+        configuration.configure(linkInjector, collectionWrapperStrategy, viewFactory);
+        configuration.setDefaultVerbosity(verbosity);
 
-        JerseyHateoasContextFilter filter = new JerseyHateoasContextFilter();
+        HateoasMetrics metrics = HateoasConfigurationFactory.createMetrics(props);
+        configuration.setMetrics(metrics);
+        if (metrics.isEnabled()) {
+            HateoasMetricsJmx.register(metrics, HateoasConfigurationFactory.getMetricsApp(props, getClass().getName()));
+        }
+        configuration.configureServerTiming(HateoasConfigurationFactory.createServerTimingMode(props),
+                HateoasConfigurationFactory.getServerTimingToken(props));
+        configuration.setAdaptiveVerbosityController(HateoasConfigurationFactory.createAdaptiveVerbosityController(props));
+        configuration.setLinkUsageTracker(HateoasConfigurationFactory.createLinkUsageTracker(props,
+                configuration.getContext()));
+        configuration.setLinkCache(HateoasConfigurationFactory.createLinkCache(props));
+        if (HateoasConfigurationFactory.isHalEnabled(props)) {
+            configuration.setHalEnabled(true);
+            getSingletons().add(new HalMessageBodyWriter());
+        }
+        if (HateoasConfigurationFactory.isJacksonModuleEnabled(props)) {
+            getSingletons().add(new HateoasObjectMapperProvider());
+        }
+        getSingletons().add(new XmlLinkedEntityWriter());
+        if (HateoasConfigurationFactory.isJacksonAvailable()) {
+            getSingletons().add(new NdjsonCollectionWriter());
+            getSingletons().add(new CborMessageBodyWriter());
+        }
+
+        JerseyHateoasContextFilter filter = new JerseyHateoasContextFilter(configuration);
 
         super.getContainerRequestFilters().add(filter);
         super.getContainerResponseFilters().add(filter);
     }
 
+    /**
+     * @return the configuration of this application, e.g. for adding link rules to its context.
+     */
+    public HateoasConfiguration getHateoasConfiguration() {
+        return configuration;
+    }
+
 }
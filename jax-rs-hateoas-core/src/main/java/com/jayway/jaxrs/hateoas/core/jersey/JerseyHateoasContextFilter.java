@@ -14,19 +14,27 @@
  */
 package com.jayway.jaxrs.hateoas.core.jersey;
 
+import com.jayway.jaxrs.hateoas.AdaptiveVerbosityController;
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.usage.LinkUsageTracker;
 import com.jayway.jaxrs.hateoas.web.RequestContext;
 import com.sun.jersey.spi.container.ContainerRequest;
 import com.sun.jersey.spi.container.ContainerRequestFilter;
 import com.sun.jersey.spi.container.ContainerResponse;
 import com.sun.jersey.spi.container.ContainerResponseFilter;
+import com.sun.jersey.spi.container.ContainerResponseWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.core.UriBuilder;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Jersey filter implementation that stores the current request in a ThreadLocal ({@link RequestContext}),
- * so that the current URI root can be used when generating link hrefs.
+ * so that the current URI root can be used when generating link hrefs. The {@link HateoasConfiguration} of the filter
+ * is bound to each request.
  *
  * @author Mattias Hellborg Arthursson
  * @author Kalle Stenflo
@@ -35,11 +43,42 @@ public class JerseyHateoasContextFilter implements ContainerRequestFilter, Conta
 
     private static final Logger log = LoggerFactory.getLogger(JerseyHateoasContextFilter.class);
 
+    private final HateoasConfiguration configuration;
+
+    /**
+     * Create a filter using the default configuration.
+     */
+    public JerseyHateoasContextFilter() {
+        this(HateoasConfiguration.getDefault());
+    }
+
+    public JerseyHateoasContextFilter(HateoasConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
     @Override
     public ContainerResponse filter(ContainerRequest request, ContainerResponse response) {
+        RequestContext ctx = RequestContext.getRequestContext();
+        if (ctx != null) {
+            // The entity has not been written yet, so complete the request once the response writer has finished.
+            response.setContainerResponseWriter(new CompletingResponseWriter(response.getContainerResponseWriter(), ctx));
+        }
         return response;
     }
 
+    private static void complete(RequestContext ctx) {
+        if (ctx.complete()) {
+            HateoasMetrics metrics = ctx.getConfiguration().getMetrics();
+            if (metrics.isEnabled()) {
+                metrics.requestCompleted(System.nanoTime() - ctx.getStartNanos());
+            }
+            AdaptiveVerbosityController controller = ctx.getConfiguration().getAdaptiveVerbosityController();
+            if (controller != null) {
+                controller.requestCompleted();
+            }
+        }
+    }
+
     @Override
     public ContainerRequest filter(final ContainerRequest request) {
         if (log.isDebugEnabled()) {
@@ -47,21 +86,90 @@ public class JerseyHateoasContextFilter implements ContainerRequestFilter, Conta
             log.debug("request.getBaseUri : " + request.getBaseUri());
         }
 
+        RequestContext previous = RequestContext.getRequestContext();
+        AdaptiveVerbosityController previousController =
+                previous == null ? null : previous.getConfiguration().getAdaptiveVerbosityController();
+        if (previousController != null && previous.complete()) {
+            // The response filter was not run for the previous request on this thread, e.g. due to an exception.
+            previousController.requestCompleted();
+        }
         RequestContext.clearRequestContext();
 
-        RequestContext ctx = new RequestContext(UriBuilder.fromUri(request.getBaseUri()), request.getHeaderValue(RequestContext.HATEOAS_OPTIONS_HEADER));
+        RequestContext ctx = new RequestContext(UriBuilder.fromUri(request.getBaseUri()),
+                request.getHeaderValue(RequestContext.HATEOAS_OPTIONS_HEADER), configuration) {
+            @Override
+            public String getHeader(String name) {
+                return request.getHeaderValue(name);
+            }
+
+            @Override
+            public String getQueryParameter(String name) {
+                return request.getQueryParameters().getFirst(name);
+            }
+
+            @Override
+            public String getMethod() {
+                return request.getMethod();
+            }
+        };
 
         RequestContext.setRequestContext(ctx);
+        LinkUsageTracker tracker = configuration.getLinkUsageTracker();
+        if (tracker != null) {
+            tracker.requestReceived(ctx, request.getMethod(), request.getPath());
+        }
+        AdaptiveVerbosityController controller = configuration.getAdaptiveVerbosityController();
+        if (controller != null) {
+            controller.requestStarted();
+        }
 
         return request;
     }
 
-    @Override
-    public boolean equals(Object other) {
-        if (other.getClass().equals(this.getClass())) {
-            return true;
-        } else {
-            return false;
+    /**
+     * Completes the request when the entity has been written.
+     */
+    private static class CompletingResponseWriter implements ContainerResponseWriter {
+
+        private final ContainerResponseWriter delegate;
+
+        private final RequestContext ctx;
+
+        private CompletingResponseWriter(ContainerResponseWriter delegate, RequestContext ctx) {
+            this.delegate = delegate;
+            this.ctx = ctx;
+        }
+
+        @Override
+        public OutputStream writeStatusAndHeaders(long contentLength, ContainerResponse response) throws IOException {
+            return delegate.writeStatusAndHeaders(contentLength, response);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            try {
+                delegate.finish();
+            } finally {
+                complete(ctx);
+            }
         }
     }
+
+    /**
+     * Filters are equal if they bind the same configuration, so that an application registering the filter twice
+     * only gets it once, while applications with their own configurations each keep theirs.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        HateoasConfiguration that = ((JerseyHateoasContextFilter) o).configuration;
+        return configuration == null ? that == null : configuration.equals(that);
+    }
+
+    @Override
+    public int hashCode() {
+        return configuration == null ? 0 : configuration.hashCode();
+    }
 }
@@ -16,23 +16,33 @@
 package com.jayway.jaxrs.hateoas.core.spring;
 
 import com.jayway.jaxrs.hateoas.*;
+import com.jayway.jaxrs.hateoas.cbor.CborMessageBodyWriter;
 import com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory;
-import com.jayway.jaxrs.hateoas.core.HateoasResponse.HateoasResponseBuilder;
 import com.jayway.jaxrs.hateoas.core.jersey.JerseyHateoasContextFilter;
 import com.jayway.jaxrs.hateoas.core.jersey.JerseyHateoasViewFactory;
+import com.jayway.jaxrs.hateoas.hal.HalMessageBodyWriter;
+import com.jayway.jaxrs.hateoas.jackson.HateoasObjectMapperProvider;
+import com.jayway.jaxrs.hateoas.jackson.NdjsonCollectionWriter;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsJmx;
+import com.jayway.jaxrs.hateoas.xml.XmlLinkedEntityWriter;
 import com.sun.jersey.api.core.ResourceConfig;
-import com.sun.jersey.spi.container.ContainerRequestFilter;
-import com.sun.jersey.spi.container.ContainerResponseFilter;
 import com.sun.jersey.spi.container.WebApplication;
 import com.sun.jersey.spi.spring.container.servlet.SpringServlet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Set;
+import java.util.List;
+
 
 /**
  * Adds HATEOAS capability to the Jersey {@link SpringServlet}. Use this instead of the standard SpringServlet to add
  * hypermedia capability to a Spring/Jersey application.
+ * <p/>
+ * Unless the {@link JerseyHateoasContextFilter} is declared in the servlet configuration, each servlet has its own
+ * {@link HateoasContext} and configuration, including its metrics and Server-Timing settings. The root resource
+ * classes are then mapped into the context of the servlet only, not into
+ * {@link HateoasContextProvider#getDefaultContext()}.
  *
  * @author Mattias Hellborg Arthursson
  * @author Kalle Stenflo
@@ -42,77 +52,80 @@ public class SpringHateoasServlet extends SpringServlet {
     private final static Logger logger = LoggerFactory.getLogger(SpringHateoasServlet.class);
 
 
-    private final static JerseyHateoasContextFilter HATEOAS_CONTEXT_FILTER = new JerseyHateoasContextFilter();
+    private volatile HateoasConfiguration configuration = HateoasConfiguration.getDefault();
 
 
     @Override
     protected void initiate(ResourceConfig rc, WebApplication wa) {
-        addHateoasRequestFilterIfApplicable(rc);
-        addHateoasResponseFilterIfApplicable(rc);
+        // A filter declared in the servlet configuration is created by Jersey and binds the default configuration.
+        if (!isDeclared(rc.getContainerRequestFilters())
+                && !isDeclared(rc.getContainerResponseFilters())) {
+            configuration = new HateoasConfiguration(HateoasConfigurationFactory.createHateoasContext(rc.getProperties()));
+        }
+        JerseyHateoasContextFilter filter = new JerseyHateoasContextFilter(configuration);
+        if (!isDeclared(rc.getContainerRequestFilters())) {
+            rc.getContainerRequestFilters().add(filter);
+        }
+        if (!isDeclared(rc.getContainerResponseFilters())) {
+            rc.getContainerResponseFilters().add(filter);
+        }
+        if (HateoasConfigurationFactory.isHalEnabled(rc.getProperties())) {
+            configuration.setHalEnabled(true);
+            rc.getSingletons().add(new HalMessageBodyWriter());
+        }
+        if (HateoasConfigurationFactory.isJacksonModuleEnabled(rc.getProperties())) {
+            rc.getSingletons().add(new HateoasObjectMapperProvider());
+        }
+        rc.getSingletons().add(new XmlLinkedEntityWriter());
+        if (HateoasConfigurationFactory.isJacksonAvailable()) {
+            rc.getSingletons().add(new NdjsonCollectionWriter());
+            rc.getSingletons().add(new CborMessageBodyWriter());
+        }
 
         super.initiate(rc, wa);
 
-        Set<Class<?>> allClasses = rc.getRootResourceClasses();
-        for (Class<?> clazz : allClasses) {
-            HateoasContextProvider.getDefaultContext().mapClass(clazz);
-        }
+        configuration.getContext().mapClasses(rc.getRootResourceClasses());
 
         HateoasLinkInjector<Object> linkInjector = HateoasConfigurationFactory.createLinkInjector(rc.getProperties());
         CollectionWrapperStrategy collectionWrapperStrategy = HateoasConfigurationFactory.createCollectionWrapperStrategy(rc.getProperties());
         HateoasVerbosity verbosity = HateoasConfigurationFactory.createVerbosity(rc.getProperties());
         HateoasViewFactory viewFactory = HateoasConfigurationFactory.createHateoasViewFactory(rc.getProperties(), JerseyHateoasViewFactory.class.getName());
 
-        HateoasResponseBuilder.configure(linkInjector, collectionWrapperStrategy, viewFactory);
-        HateoasVerbosity.setDefaultVerbosity(verbosity);
-    }
-
+        configuration.configure(linkInjector, collectionWrapperStrategy, viewFactory);
+        configuration.setDefaultVerbosity(verbosity);
 
-    private void addHateoasRequestFilterIfApplicable(ResourceConfig rc) {
-        if (!rc.getContainerRequestFilters().contains(HATEOAS_CONTEXT_FILTER)) {
-            boolean found = false;
-            for (Object f : rc.getContainerRequestFilters()) {
-                if (f instanceof String) {
-                    String filterString = (String) f;
-                    if (filterString.contains(HATEOAS_CONTEXT_FILTER.getClass().getName())) {
-                        found = true;
-                        break;
-                    }
-                } else if (f instanceof ContainerRequestFilter) {
-                    ContainerRequestFilter r = (ContainerRequestFilter) f;
-                    if (HATEOAS_CONTEXT_FILTER.equals(r)) {
-                        found = true;
-                        break;
-                    }
-                }
-            }
-            if(!found){
-                rc.getContainerRequestFilters().add(HATEOAS_CONTEXT_FILTER);
-            }
+        HateoasMetrics metrics = HateoasConfigurationFactory.createMetrics(rc.getProperties());
+        configuration.setMetrics(metrics);
+        if (metrics.isEnabled()) {
+            HateoasMetricsJmx.register(metrics, HateoasConfigurationFactory.getMetricsApp(rc.getProperties(),
+                    getServletName()));
         }
+        configuration.configureServerTiming(HateoasConfigurationFactory.createServerTimingMode(rc.getProperties()),
+                HateoasConfigurationFactory.getServerTimingToken(rc.getProperties()));
+        configuration.setAdaptiveVerbosityController(HateoasConfigurationFactory.createAdaptiveVerbosityController(rc.getProperties()));
+        configuration.setLinkUsageTracker(HateoasConfigurationFactory.createLinkUsageTracker(rc.getProperties(),
+                configuration.getContext()));
+        configuration.setLinkCache(HateoasConfigurationFactory.createLinkCache(rc.getProperties()));
+    }
+
+    /**
+     * @return the configuration of this servlet, e.g. for adding link rules to its context.
+     */
+    public HateoasConfiguration getHateoasConfiguration() {
+        return configuration;
     }
 
-    private void addHateoasResponseFilterIfApplicable(ResourceConfig rc) {
-        if (!rc.getContainerResponseFilters().contains(HATEOAS_CONTEXT_FILTER)) {
-            boolean found = false;
-            for (Object f : rc.getContainerResponseFilters()) {
-                if (f instanceof String) {
-                    String filterString = (String) f;
-                    if (filterString.contains(HATEOAS_CONTEXT_FILTER.getClass().getName())) {
-                        found = true;
-                        break;
-                    }
-                } else if (f instanceof ContainerResponseFilter) {
-                    ContainerResponseFilter r = (ContainerResponseFilter) f;
-                    if (HATEOAS_CONTEXT_FILTER.equals(r)) {
-                        found = true;
-                        break;
-                    }
+    private static boolean isDeclared(List<?> filters) {
+        for (Object f : filters) {
+            if (f instanceof String) {
+                if (((String) f).contains(JerseyHateoasContextFilter.class.getName())) {
+                    return true;
                 }
-            }
-            if(!found){
-                rc.getContainerResponseFilters().add(HATEOAS_CONTEXT_FILTER);
+            } else if (f instanceof JerseyHateoasContextFilter) {
+                return true;
             }
         }
+        return false;
     }
 
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.embed;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the resources served by one {@link com.jayway.jaxrs.hateoas.Linkable} for many links at once, so that
+ * embedding the targets of the links of a whole collection takes a single call rather than one per row. Registered
+ * per Linkable id using {@link com.jayway.jaxrs.hateoas.HateoasConfiguration#registerBatchLoader(String, BatchLoader)}.
+ * <p/>
+ * Implementations are called by the thread building the response and must be thread safe.
+ *
+ * @param <V> the type of the loaded resources.
+ */
+public interface BatchLoader<V> {
+
+    /**
+     * @param targets the distinct targets to load, never empty.
+     * @return the loaded resources by target. Targets missing from the result are not embedded.
+     */
+    Map<LinkTarget, V> load(List<LinkTarget> targets);
+}
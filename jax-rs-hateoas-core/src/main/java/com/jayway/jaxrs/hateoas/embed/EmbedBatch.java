@@ -0,0 +1,182 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.embed;
+
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.LinkProducer;
+import com.jayway.jaxrs.hateoas.PathMatch;
+import com.jayway.jaxrs.hateoas.support.FieldPath;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.apache.commons.lang.StringUtils;
+
+import javax.ws.rs.HttpMethod;
+import java.util.*;
+
+/**
+ * Embeds the resources targeted by the links of a response, for clients asking for them using the
+ * {@link RequestContext#EMBED_PARAMETER} query parameter, e.g. <code>?embed=book,author</code>. Not intended for
+ * external use.
+ * <p/>
+ * Links with a requested rel are collected while the links are injected, if a {@link BatchLoader} is registered for the
+ * {@link com.jayway.jaxrs.hateoas.Linkable} they point to. Identical targets are collected once. When all links are
+ * injected, {@link #load()} calls each loader once with all of its targets, and the map of each collected link gets
+ * the loaded resource under {@link #EMBEDDED}. Embedded resources are written as loaded, i.e. their links are neither
+ * injected nor embedded.
+ * <p/>
+ * The number of distinct targets embedded in one response is limited by
+ * {@link HateoasConfiguration#getMaxEmbedded()}, further links are left as they are. Only links at a depth of at most
+ * {@link HateoasConfiguration#getMaxEmbedDepth()} are considered. A new instance is needed for each response.
+ */
+public final class EmbedBatch {
+
+    /**
+     * Key of the embedded resource in the map of a link.
+     */
+    public static final String EMBEDDED = "embedded";
+
+    private final HateoasConfiguration configuration;
+    private final Set<String> rels;
+    private final String baseUri;
+
+    private final Map<String, LinkTarget> targets = new LinkedHashMap<String, LinkTarget>();
+    private final Map<LinkTarget, Object> embedded = new HashMap<LinkTarget, Object>();
+    private final PathMatch match = new PathMatch();
+
+    EmbedBatch(HateoasConfiguration configuration, Set<String> rels, String baseUri) {
+        this.configuration = configuration;
+        this.rels = rels;
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * @return the batch of the current request, or <code>null</code> if it asks for nothing that can be embedded.
+     */
+    public static EmbedBatch forRequest(RequestContext requestContext) {
+        String embed = requestContext.getQueryParameter(RequestContext.EMBED_PARAMETER);
+        HateoasConfiguration configuration = requestContext.getConfiguration();
+        if (StringUtils.isBlank(embed) || !configuration.hasBatchLoaders() || configuration.getMaxEmbedded() == 0) {
+            return null;
+        }
+        Set<String> rels = new HashSet<String>();
+        for (String rel : StringUtils.split(embed, ',')) {
+            if (StringUtils.isNotBlank(rel)) {
+                rels.add(rel.trim());
+            }
+        }
+        return rels.isEmpty() ? null : new EmbedBatch(configuration, rels, requestContext.getBaseUri());
+    }
+
+    /**
+     * @return <code>true</code> if links of objects at the specified FieldPath may embed their targets.
+     */
+    public boolean appliesTo(FieldPath fieldPath) {
+        int depth = 0;
+        for (Iterator<String> it = fieldPath.iterator(); it.hasNext(); it.next()) {
+            depth++;
+        }
+        return depth <= configuration.getMaxEmbedDepth();
+    }
+
+    /**
+     * @return a LinkProducer collecting the targets of the links of the specified one.
+     */
+    public LinkProducer<Object> wrap(LinkProducer<Object> linkProducer) {
+        return new EmbeddingLinkProducer(linkProducer);
+    }
+
+    /**
+     * Load the collected targets, one call per {@link BatchLoader}.
+     */
+    public void load() {
+        Map<String, List<LinkTarget>> targetsById = new LinkedHashMap<String, List<LinkTarget>>();
+        for (LinkTarget target : targets.values()) {
+            List<LinkTarget> idTargets = targetsById.get(target.getId());
+            if (idTargets == null) {
+                idTargets = new ArrayList<LinkTarget>();
+                targetsById.put(target.getId(), idTargets);
+            }
+            idTargets.add(target);
+        }
+        for (Map.Entry<String, List<LinkTarget>> entry : targetsById.entrySet()) {
+            Map<LinkTarget, ?> loaded = configuration.getBatchLoader(entry.getKey()).load(entry.getValue());
+            if (loaded != null) {
+                embedded.putAll(loaded);
+            }
+        }
+    }
+
+    /**
+     * @return the number of distinct targets collected.
+     */
+    public int getTargetCount() {
+        return targets.size();
+    }
+
+    Object getEmbedded(LinkTarget target) {
+        return embedded.get(target);
+    }
+
+    private HateoasLink collect(HateoasLink link) {
+        if (link.getHref() == null || !rels.contains(link.getRel()) || configuration.getBatchLoader(link.getId()) == null) {
+            return link;
+        }
+        LinkTarget target = targets.get(link.getHref());
+        if (target == null) {
+            if (targets.size() >= configuration.getMaxEmbedded()) {
+                return link;
+            }
+            target = new LinkTarget(link.getId(), link.getHref(), parameters(link));
+            targets.put(link.getHref(), target);
+        }
+        return new EmbeddingLink(link, target, this);
+    }
+
+    private Map<String, String> parameters(HateoasLink link) {
+        String href = link.getHref();
+        if (!href.startsWith(baseUri)) {
+            return Collections.emptyMap();
+        }
+        int end = href.indexOf('?');
+        String path = href.substring(baseUri.length(), end < 0 ? href.length() : end);
+        String method = link.getMethod() == null ? HttpMethod.GET : link.getMethod();
+        if (configuration.getContext().matchLinkableInfo(method, path, match) == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> parameters = new LinkedHashMap<String, String>();
+        for (int i = 0; i < match.getParameterCount(); i++) {
+            parameters.put(match.getParameterName(i), match.getParameterValue(i));
+        }
+        return parameters;
+    }
+
+    private final class EmbeddingLinkProducer implements LinkProducer<Object> {
+        private final LinkProducer<Object> linkProducer;
+
+        private EmbeddingLinkProducer(LinkProducer<Object> linkProducer) {
+            this.linkProducer = linkProducer;
+        }
+
+        @Override
+        public Collection<HateoasLink> getLinks(Object entity) {
+            Collection<HateoasLink> links = linkProducer.getLinks(entity);
+            List<HateoasLink> result = new ArrayList<HateoasLink>(links.size());
+            for (HateoasLink link : links) {
+                result.add(collect(link));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.embed;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+
+import java.util.Map;
+
+/**
+ * A link whose map gets the resource loaded for its target by an {@link EmbedBatch}. Maps are created when the
+ * response is written, i.e. after the batch is loaded.
+ */
+final class EmbeddingLink implements HateoasLink {
+
+    private final HateoasLink link;
+    private final LinkTarget target;
+    private final EmbedBatch batch;
+
+    EmbeddingLink(HateoasLink link, LinkTarget target, EmbedBatch batch) {
+        this.link = link;
+        this.target = target;
+        this.batch = batch;
+    }
+
+    @Override
+    public String getRel() {
+        return link.getRel();
+    }
+
+    @Override
+    public String getMethod() {
+        return link.getMethod();
+    }
+
+    @Override
+    public String getId() {
+        return link.getId();
+    }
+
+    @Override
+    public String getHref() {
+        return link.getHref();
+    }
+
+    @Override
+    public String[] getConsumes() {
+        return link.getConsumes();
+    }
+
+    @Override
+    public String[] getProduces() {
+        return link.getProduces();
+    }
+
+    @Override
+    public String getLabel() {
+        return link.getLabel();
+    }
+
+    @Override
+    public String getDescription() {
+        return link.getDescription();
+    }
+
+    @Override
+    public Class<?> getTemplateClass() {
+        return link.getTemplateClass();
+    }
+
+    @Override
+    public Map<String, Object> toMap(HateoasVerbosity verbosity) {
+        Map<String, Object> map = link.toMap(verbosity);
+        Object embedded = batch.getEmbedded(target);
+        if (embedded != null) {
+            map.put(EmbedBatch.EMBEDDED, embedded);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.embed;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The target of a link whose resource is to be embedded: the id of the {@link com.jayway.jaxrs.hateoas.Linkable}
+ * serving it, the href and the values of the path template parameters, as they appear in the href. Targets are equal
+ * if their hrefs are.
+ */
+public final class LinkTarget {
+
+    private final String id;
+    private final String href;
+    private final Map<String, String> parameters;
+
+    public LinkTarget(String id, String href, Map<String, String> parameters) {
+        this.id = id;
+        this.href = href;
+        this.parameters = Collections.unmodifiableMap(parameters);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getHref() {
+        return href;
+    }
+
+    /**
+     * @return the path template parameters by name.
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the value of the path template parameter with the specified name, or <code>null</code> if there is none.
+     */
+    public String getParameter(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return href.equals(((LinkTarget) o).href);
+    }
+
+    @Override
+    public int hashCode() {
+        return href.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return id + " " + href;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Wrapper of root collection entities in HAL responses, created by {@link HalCollectionWrapperStrategy}. Serialized
+ * by {@link HalCollectionSerializer} as a HAL resource with the links of the collection in <code>_links</code> and
+ * the rows in <code>_embedded</code>, under the {@link #EMBEDDED_REL} rel. Not for use outside of the framework.
+ */
+@JsonSerialize(using = HalCollectionSerializer.class)
+public final class HalCollection {
+    /**
+     * The field holding the rows, named like the one of
+     * {@link com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper} so that links added to each row are found.
+     */
+    public static final String ROWS_FIELD_NAME = "rows";
+
+    public static final String EMBEDDED_REL = "items";
+
+    private Collection<Object> rows;
+    private HateoasVerbosity verbosity;
+    private final List<HateoasLink> links = new ArrayList<HateoasLink>();
+
+    public HalCollection(Collection<Object> rows) {
+        this.rows = rows;
+    }
+
+    public Collection<Object> getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the verbosity of the links of the collection, <code>null</code> if it has none.
+     */
+    public HateoasVerbosity getVerbosity() {
+        return verbosity;
+    }
+
+    public List<HateoasLink> getLinks() {
+        return links;
+    }
+
+    void addLinks(Collection<HateoasLink> links, HateoasVerbosity verbosity) {
+        this.links.addAll(links);
+        this.verbosity = verbosity;
+    }
+}
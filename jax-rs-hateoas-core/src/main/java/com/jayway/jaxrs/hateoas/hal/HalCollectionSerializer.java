@@ -0,0 +1,51 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.ser.std.SerializerBase;
+
+import java.io.IOException;
+
+/**
+ * Jackson serializer writing a {@link HalCollection} as a HAL resource: the <code>_links</code> of the collection,
+ * followed by the rows in <code>_embedded</code>.
+ */
+public class HalCollectionSerializer extends SerializerBase<HalCollection> {
+
+    public HalCollectionSerializer() {
+        super(HalCollection.class);
+    }
+
+    @Override
+    public void serialize(HalCollection collection, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        jgen.writeStartObject();
+        if (collection.getVerbosity() != null) {
+            HalLinkWriter.writeLinks(jgen, collection.getLinks(), collection.getVerbosity());
+        }
+        if (collection.getRows() != null) {
+            jgen.writeFieldName(HalLinkWriter.EMBEDDED);
+            jgen.writeStartObject();
+            jgen.writeArrayFieldStart(HalCollection.EMBEDDED_REL);
+            for (Object row : collection.getRows()) {
+                provider.defaultSerializeValue(row, jgen);
+            }
+            jgen.writeEndArray();
+            jgen.writeEndObject();
+        }
+        jgen.writeEndObject();
+    }
+}
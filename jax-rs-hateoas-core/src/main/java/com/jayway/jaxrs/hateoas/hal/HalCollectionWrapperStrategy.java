@@ -0,0 +1,37 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import com.jayway.jaxrs.hateoas.CollectionWrapperStrategy;
+
+import java.util.Collection;
+
+/**
+ * Wraps root collections in a {@link HalCollection}, used for requests negotiating HAL.
+ */
+public class HalCollectionWrapperStrategy implements CollectionWrapperStrategy {
+
+    public static final HalCollectionWrapperStrategy INSTANCE = new HalCollectionWrapperStrategy();
+
+    @Override
+    public Object wrapRootCollection(Collection<Object> rootCollection) {
+        return new HalCollection(rootCollection);
+    }
+
+    @Override
+    public String rowsFieldName() {
+        return HalCollection.ROWS_FIELD_NAME;
+    }
+}
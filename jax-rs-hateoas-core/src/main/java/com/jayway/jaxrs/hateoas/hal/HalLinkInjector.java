@@ -0,0 +1,61 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import com.jayway.jaxrs.hateoas.HateoasLinkInjector;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.LinkProducer;
+
+/**
+ * {@link HateoasLinkInjector} used for requests negotiating HAL. Entities are wrapped in a {@link HalResource}
+ * together with their links, like {@link com.jayway.jaxrs.hateoas.support.EnvelopeHateoasLinkInjector} does, keeping
+ * the links themselves rather than maps so that they can be written using the fragments precomputed for their
+ * {@link com.jayway.jaxrs.hateoas.LinkableInfo}.
+ * <p/>
+ * Since a HalResource is not an instance of the entity class, links can only be injected at the root, in collection
+ * rows and in fields of type Object.
+ */
+public class HalLinkInjector implements HateoasLinkInjector<Object> {
+
+    public static final HalLinkInjector INSTANCE = new HalLinkInjector();
+
+    @Override
+    public boolean canInject(Object entity) {
+        return true;
+    }
+
+    @Override
+    public Object injectLinks(Object entity, LinkProducer<Object> linkProducer, HateoasVerbosity verbosity) {
+        if (entity == null) {
+            return null;
+        }
+
+        if (entity instanceof HalCollection) {
+            HalCollection collection = (HalCollection) entity;
+            collection.addLinks(linkProducer.getLinks(collection), verbosity);
+            return collection;
+        }
+
+        HalResource resource;
+        if (entity instanceof HalResource) {
+            // Links for the same entity from another mapping.
+            resource = (HalResource) entity;
+        } else {
+            resource = new HalResource(entity, verbosity);
+        }
+        resource.addLinks(linkProducer.getLinks(resource.getEntity()));
+        return resource;
+    }
+}
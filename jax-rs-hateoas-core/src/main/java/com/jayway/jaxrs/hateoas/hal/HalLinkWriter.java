@@ -0,0 +1,188 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasOption;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import com.jayway.jaxrs.hateoas.LinkableParameterInfo;
+import com.jayway.jaxrs.hateoas.core.HateoasLinks;
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.io.SerializedString;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the <code>_links</code> object of HAL resources. Not intended for external use.
+ * <p/>
+ * Everything but the href of a link is given by the {@link LinkableInfo} it was created from, so the title, the type
+ * and the query template of each LinkableInfo are serialized once, as {@link SerializedString}s caching their quoted
+ * UTF-8 bytes, which the generator copies to the output as is. The fragments are kept by the LinkableInfo, see
+ * {@link LinkableInfo#keepDerivedValue(Object, Object, int)}.
+ */
+final class HalLinkWriter {
+
+    static final SerializedString LINKS = new SerializedString("_links");
+    static final SerializedString EMBEDDED = new SerializedString("_embedded");
+
+    private static final SerializedString HREF = new SerializedString("href");
+    private static final SerializedString TEMPLATED = new SerializedString("templated");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString TITLE = new SerializedString("title");
+
+    /**
+     * The key of the fragments among the values derived from a LinkableInfo.
+     */
+    private static final Object FRAGMENTS_KEY = Fragments.class;
+
+    private HalLinkWriter() {
+    }
+
+    /**
+     * Write a <code>_links</code> field, if there are any links. Links sharing a rel are written as an array, in the
+     * position of the first of them.
+     */
+    static void writeLinks(JsonGenerator jgen, List<HateoasLink> links, HateoasVerbosity verbosity) throws IOException {
+        if (links.isEmpty()) {
+            return;
+        }
+        boolean withType = false;
+        boolean withTitle = false;
+        for (HateoasOption option : verbosity.getOptions()) {
+            withType |= option == HateoasOption.TYPE || option == HateoasOption.PRODUCES;
+            withTitle |= option == HateoasOption.LABEL;
+        }
+
+        jgen.writeFieldName(LINKS);
+        jgen.writeStartObject();
+        for (int i = 0; i < links.size(); i++) {
+            String rel = links.get(i).getRel();
+            if (isWritten(links, i, rel)) {
+                continue;
+            }
+            jgen.writeFieldName(rel == null ? "" : rel);
+            int count = count(links, i, rel);
+            if (count > 1) {
+                jgen.writeStartArray();
+            }
+            for (int j = i; j < links.size(); j++) {
+                if (StringUtils.equals(rel, links.get(j).getRel())) {
+                    writeLink(jgen, links.get(j), withType, withTitle);
+                }
+            }
+            if (count > 1) {
+                jgen.writeEndArray();
+            }
+        }
+        jgen.writeEndObject();
+    }
+
+    private static boolean isWritten(List<HateoasLink> links, int index, String rel) {
+        for (int i = 0; i < index; i++) {
+            if (StringUtils.equals(rel, links.get(i).getRel())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int count(List<HateoasLink> links, int from, String rel) {
+        int count = 0;
+        for (int i = from; i < links.size(); i++) {
+            if (StringUtils.equals(rel, links.get(i).getRel())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void writeLink(JsonGenerator jgen, HateoasLink link, boolean withType, boolean withTitle)
+            throws IOException {
+        Fragments fragments = fragments(link);
+        String href = link.getHref();
+        boolean templated = fragments.queryTemplate != null && href.indexOf('?') < 0;
+
+        jgen.writeStartObject();
+        jgen.writeFieldName(HREF);
+        jgen.writeString(templated ? href + fragments.queryTemplate : href);
+        if (templated) {
+            jgen.writeFieldName(TEMPLATED);
+            jgen.writeBoolean(true);
+        }
+        if (withType && fragments.type != null) {
+            jgen.writeFieldName(TYPE);
+            jgen.writeString(fragments.type);
+        }
+        if (withTitle && fragments.title != null) {
+            jgen.writeFieldName(TITLE);
+            jgen.writeString(fragments.title);
+        }
+        jgen.writeEndObject();
+    }
+
+    private static Fragments fragments(HateoasLink link) {
+        LinkableInfo linkableInfo = HateoasLinks.getLinkableInfo(link);
+        if (linkableInfo == null) {
+            return new Fragments(link.getLabel(), link.getProduces(), null);
+        }
+        Fragments fragments = (Fragments) linkableInfo.getDerivedValue(FRAGMENTS_KEY);
+        if (fragments == null) {
+            fragments = (Fragments) linkableInfo.keepDerivedValue(FRAGMENTS_KEY, new Fragments(
+                    linkableInfo.getLabel(), linkableInfo.getProduces(), linkableInfo.getParameterInfo()),
+                    // A single value per LinkableInfo, so it is always kept.
+                    Integer.MAX_VALUE);
+        }
+        return fragments;
+    }
+
+    private static final class Fragments {
+        private final SerializedString title;
+        private final SerializedString type;
+        private final String queryTemplate;
+
+        private Fragments(String label, String[] produces, LinkableParameterInfo[] queryParameters) {
+            this.title = StringUtils.isEmpty(label) ? null : new SerializedString(label);
+            this.type = produces == null || produces.length == 0 ? null : new SerializedString(produces[0]);
+            this.queryTemplate = queryTemplate(queryParameters);
+            // Serialize eagerly rather than on first write, the instances are shared between threads.
+            if (title != null) {
+                title.asQuotedUTF8();
+            }
+            if (type != null) {
+                type.asQuotedUTF8();
+            }
+        }
+
+        /**
+         * @return the RFC 6570 form-style query expansion of the parameters, e.g. <code>{?page,size}</code>.
+         */
+        private static String queryTemplate(LinkableParameterInfo[] queryParameters) {
+            if (queryParameters == null || queryParameters.length == 0) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder("{?");
+            for (int i = 0; i < queryParameters.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(queryParameters[i].getName());
+            }
+            return sb.append('}').toString();
+        }
+    }
+}
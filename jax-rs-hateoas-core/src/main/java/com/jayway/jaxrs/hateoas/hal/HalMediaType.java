@@ -0,0 +1,110 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
+import org.apache.commons.lang.StringUtils;
+
+import javax.ws.rs.core.MediaType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The HAL media type, and negotiation of it from <code>Accept</code> headers.
+ */
+public final class HalMediaType {
+
+    public static final String APPLICATION_HAL_JSON = "application/hal+json";
+
+    public static final MediaType APPLICATION_HAL_JSON_TYPE = new MediaType("application", "hal+json");
+
+    /**
+     * Upper bound of cached negotiation results, protecting against clients sending arbitrary headers.
+     */
+    private static final int MAX_CACHED_RESULTS = 1024;
+
+    static final String NEGOTIATION_CACHE_NAME = "hal-negotiation";
+
+    private static final ConcurrentMap<String, Boolean> NEGOTIATED = new ConcurrentHashMap<String, Boolean>();
+
+    private HalMediaType() {
+    }
+
+    /**
+     * Check whether an <code>Accept</code> header asks for HAL rather than the plain representation: HAL must be
+     * listed explicitly, and no other specific media type may have a higher quality, or the same quality and be listed
+     * first. Wildcards are ignored. Clients have a handful of distinct headers, so the result is cached per value.
+     *
+     * @param accept the value of the <code>Accept</code> header, may be <code>null</code>.
+     * @return <code>true</code> if HAL should be written.
+     */
+    public static boolean isPreferredBy(String accept) {
+        if (StringUtils.isBlank(accept)) {
+            return false;
+        }
+        Boolean preferred = NEGOTIATED.get(accept);
+        HateoasMetrics metrics = HateoasMetricsProvider.getMetrics();
+        if (metrics.isEnabled()) {
+            metrics.cacheLookup(NEGOTIATION_CACHE_NAME, preferred != null);
+        }
+        if (preferred == null) {
+            preferred = negotiate(accept);
+            if (NEGOTIATED.size() < MAX_CACHED_RESULTS) {
+                NEGOTIATED.putIfAbsent(accept, preferred);
+            }
+        }
+        return preferred;
+    }
+
+    static boolean negotiate(String accept) {
+        float halQuality = 0f;
+        float bestOtherQuality = 0f;
+        for (String range : StringUtils.split(accept, ',')) {
+            String[] parts = StringUtils.split(range, ';');
+            if (parts.length == 0) {
+                continue;
+            }
+            String type = parts[0].trim().toLowerCase();
+            float quality = quality(parts);
+            if (APPLICATION_HAL_JSON.equals(type)) {
+                if (halQuality == 0f && quality > bestOtherQuality) {
+                    halQuality = quality;
+                }
+            } else if (!type.endsWith("/*") && quality > bestOtherQuality) {
+                if (halQuality == 0f) {
+                    bestOtherQuality = quality;
+                } else if (quality > halQuality) {
+                    return false;
+                }
+            }
+        }
+        return halQuality > 0f;
+    }
+
+    private static float quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0f;
+                }
+            }
+        }
+        return 1f;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes {@link HalResource}s and {@link HalCollection}s as <code>application/hal+json</code>, streaming them to the
+ * response using Jackson. The {@link ObjectMapper} of the application is used if there is a
+ * <code>ContextResolver</code> for it.
+ * <p/>
+ * Registered by the application classes in the core package when HAL is enabled, see
+ * {@link com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_HAL}.
+ */
+@Provider
+@Produces(HalMediaType.APPLICATION_HAL_JSON)
+public class HalMessageBodyWriter implements MessageBodyWriter<Object> {
+
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+    @Context
+    private Providers providers;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return HalResource.class.isAssignableFrom(type) || HalCollection.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        ObjectMapper mapper = getMapper(type, mediaType);
+        JsonGenerator jgen = mapper.getJsonFactory().createJsonGenerator(entityStream, JsonEncoding.UTF8);
+        jgen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        mapper.writeValue(jgen, value);
+        // Returns the buffers of the generator for reuse, the stream is left open.
+        jgen.close();
+    }
+
+    private ObjectMapper getMapper(Class<?> type, MediaType mediaType) {
+        if (providers != null) {
+            ContextResolver<ObjectMapper> resolver = providers.getContextResolver(ObjectMapper.class, mediaType);
+            if (resolver != null) {
+                ObjectMapper mapper = resolver.getContext(type);
+                if (mapper != null) {
+                    return mapper;
+                }
+            }
+        }
+        return DEFAULT_MAPPER;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Holds an unchanged entity together with its links, as created by {@link HalLinkInjector}. Serialized by
+ * {@link HalResourceSerializer} as a HAL resource: a <code>_links</code> object keyed by rel, followed by the
+ * properties of the entity.
+ */
+@JsonSerialize(using = HalResourceSerializer.class)
+public final class HalResource {
+    private final Object entity;
+    private final HateoasVerbosity verbosity;
+    private final List<HateoasLink> links = new ArrayList<HateoasLink>();
+
+    public HalResource(Object entity, HateoasVerbosity verbosity) {
+        this.entity = entity;
+        this.verbosity = verbosity;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    public HateoasVerbosity getVerbosity() {
+        return verbosity;
+    }
+
+    public List<HateoasLink> getLinks() {
+        return links;
+    }
+
+    void addLinks(Collection<HateoasLink> links) {
+        this.links.addAll(links);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.ser.std.SerializerBase;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Jackson serializer writing a {@link HalResource} as a single object: the <code>_links</code> of the resource,
+ * followed by the properties of the wrapped entity.
+ */
+public class HalResourceSerializer extends SerializerBase<HalResource> {
+
+    public HalResourceSerializer() {
+        super(HalResource.class);
+    }
+
+    @Override
+    public void serialize(HalResource resource, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        jgen.writeStartObject();
+        HalLinkWriter.writeLinks(jgen, resource.getLinks(), resource.getVerbosity());
+        writeProperties(resource.getEntity(), jgen, provider);
+        jgen.writeEndObject();
+    }
+
+    private static void writeProperties(Object entity, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException {
+        if (entity == null) {
+            return;
+        }
+        if (entity instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) entity).entrySet()) {
+                jgen.writeFieldName(String.valueOf(entry.getKey()));
+                provider.defaultSerializeValue(entry.getValue(), jgen);
+            }
+            return;
+        }
+        JsonSerializer<Object> serializer = provider.findValueSerializer(entity.getClass(), null).unwrappingSerializer();
+        if (!serializer.isUnwrappingSerializer()) {
+            throw new JsonMappingException("Can not write properties of " + entity.getClass().getName()
+                    + " inline in a HAL resource");
+        }
+        serializer.serialize(entity, jgen, provider);
+    }
+}
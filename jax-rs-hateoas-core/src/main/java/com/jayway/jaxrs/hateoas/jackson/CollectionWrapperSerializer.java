@@ -0,0 +1,76 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.io.SerializedString;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.codehaus.jackson.map.ser.std.SerializerBase;
+
+import java.io.IOException;
+
+/**
+ * Jackson serializer writing a {@link DefaultCollectionWrapper} as its bean serializer would, i.e. the
+ * <code>rows</code> followed by the <code>links</code>, without reflection. The serializer of the rows is looked up
+ * once per run of rows of the same class. Registered by {@link HateoasJacksonModule}.
+ */
+class CollectionWrapperSerializer extends SerializerBase<DefaultCollectionWrapper<?>> {
+
+    private static final SerializedString ROWS = new SerializedString(DefaultCollectionWrapper.ROWS_FIELD_NAME);
+    private static final SerializedString LINKS = new SerializedString(LinkEnvelopeSerializer.LINKS_FIELD_NAME);
+
+    private final HateoasLinkSerializer linkSerializer;
+
+    CollectionWrapperSerializer(HateoasLinkSerializer linkSerializer) {
+        super(DefaultCollectionWrapper.class, false);
+        this.linkSerializer = linkSerializer;
+    }
+
+    @Override
+    public void serialize(DefaultCollectionWrapper<?> wrapper, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException {
+        boolean writeNulls = provider.getConfig().getSerializationInclusion() == JsonSerialize.Inclusion.ALWAYS;
+        jgen.writeStartObject();
+        if (wrapper.getRows() != null) {
+            jgen.writeFieldName(ROWS);
+            jgen.writeStartArray();
+            Class<?> rowClass = null;
+            JsonSerializer<Object> rowSerializer = null;
+            for (Object row : wrapper.getRows()) {
+                if (row == null) {
+                    provider.defaultSerializeNull(jgen);
+                    continue;
+                }
+                if (row.getClass() != rowClass) {
+                    rowClass = row.getClass();
+                    rowSerializer = provider.findValueSerializer(rowClass, null);
+                }
+                rowSerializer.serialize(row, jgen, provider);
+            }
+            jgen.writeEndArray();
+        } else if (writeNulls) {
+            jgen.writeFieldName(ROWS);
+            jgen.writeNull();
+        }
+        if (wrapper.getLinks() != null || writeNulls) {
+            jgen.writeFieldName(LINKS);
+            linkSerializer.serialize(wrapper.getLinks(), jgen, provider);
+        }
+        jgen.writeEndObject();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import com.jayway.jaxrs.hateoas.HateoasLinkBean;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.io.SerializedString;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.ResolvableSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.codehaus.jackson.map.ser.std.SerializerBase;
+
+import java.io.IOException;
+
+/**
+ * Jackson serializer writing a subclass generated by
+ * {@link com.jayway.jaxrs.hateoas.support.JavassistHateoasLinkInjector} as its bean serializer would, i.e. the
+ * properties of the entity class followed by the <code>links</code>. The properties are written by the serializer of
+ * the entity class, so the generated class is never introspected, and the links are written directly. Registered by
+ * {@link HateoasJacksonModule}.
+ */
+class GeneratedLinkBeanSerializer extends SerializerBase<HateoasLinkBean> implements ResolvableSerializer {
+
+    private static final SerializedString LINKS = new SerializedString(LinkEnvelopeSerializer.LINKS_FIELD_NAME);
+
+    private final Class<?> entityClass;
+    private final HateoasLinkSerializer linkSerializer;
+    private JsonSerializer<Object> entitySerializer;
+
+    GeneratedLinkBeanSerializer(Class<?> entityClass, HateoasLinkSerializer linkSerializer) {
+        super(HateoasLinkBean.class);
+        this.entityClass = entityClass;
+        this.linkSerializer = linkSerializer;
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        JsonSerializer<Object> serializer = provider.findValueSerializer(entityClass, null).unwrappingSerializer();
+        if (!serializer.isUnwrappingSerializer()) {
+            throw new JsonMappingException("Can not write properties of " + entityClass.getName()
+                    + " inline, use another link injector for this type");
+        }
+        entitySerializer = serializer;
+    }
+
+    @Override
+    public void serialize(HateoasLinkBean bean, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        jgen.writeStartObject();
+        entitySerializer.serialize(bean, jgen, provider);
+        if (bean.getLinks() != null
+                || provider.getConfig().getSerializationInclusion() == JsonSerialize.Inclusion.ALWAYS) {
+            jgen.writeFieldName(LINKS);
+            linkSerializer.serialize(bean.getLinks(), jgen, provider);
+        }
+        jgen.writeEndObject();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import com.jayway.jaxrs.hateoas.support.JavassistHateoasLinkInjector;
+import com.jayway.jaxrs.hateoas.support.LinkMap;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.Version;
+import org.codehaus.jackson.map.BeanDescription;
+import org.codehaus.jackson.map.BeanProperty;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.Module;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.Serializers;
+import org.codehaus.jackson.map.TypeSerializer;
+import org.codehaus.jackson.map.ser.std.SerializerBase;
+import org.codehaus.jackson.map.type.MapType;
+import org.codehaus.jackson.type.JavaType;
+
+import java.io.IOException;
+
+/**
+ * Optional Jackson module registering serializers for the structures holding links, replacing the reflective
+ * serialization of beans and maps by code writing them directly, with the same output:
+ * <ul>
+ * <li>{@link HateoasLink}s and the maps created by {@link HateoasLink#toMap}, see {@link HateoasLinkSerializer},</li>
+ * <li>{@link DefaultCollectionWrapper}s,</li>
+ * <li>the subclasses generated by {@link JavassistHateoasLinkInjector}.</li>
+ * </ul>
+ * Register an instance with each {@link org.codehaus.jackson.map.ObjectMapper}, or set
+ * {@link com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_JACKSON_MODULE} to have the
+ * application classes in the core package provide a mapper with the module, see
+ * {@link HateoasObjectMapperProvider}.
+ */
+public class HateoasJacksonModule extends Module {
+
+    private static final Version VERSION = new Version(1, 0, 0, null);
+
+    @Override
+    public String getModuleName() {
+        return "HateoasJacksonModule";
+    }
+
+    @Override
+    public Version version() {
+        return VERSION;
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        context.addSerializers(new HateoasSerializers());
+    }
+
+    private static class HateoasSerializers extends Serializers.Base {
+
+        // Created per module, i.e. per mapper, as it caches templates serialized with the mapper.
+        private final HateoasLinkSerializer linkSerializer = new HateoasLinkSerializer();
+        private final LinkMapSerializer linkMapSerializer = new LinkMapSerializer(linkSerializer);
+        private final CollectionWrapperSerializer collectionWrapperSerializer =
+                new CollectionWrapperSerializer(linkSerializer);
+
+        @Override
+        public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc,
+                                                BeanProperty property) {
+            Class<?> raw = type.getRawClass();
+            if (HateoasLink.class.isAssignableFrom(raw)) {
+                return linkSerializer;
+            }
+            if (DefaultCollectionWrapper.class.isAssignableFrom(raw)) {
+                return collectionWrapperSerializer;
+            }
+            Class<?> entityClass = JavassistHateoasLinkInjector.getEntityClass(raw);
+            if (entityClass != raw) {
+                return new GeneratedLinkBeanSerializer(entityClass, linkSerializer);
+            }
+            return null;
+        }
+
+        @Override
+        public JsonSerializer<?> findMapSerializer(SerializationConfig config, MapType type, BeanDescription beanDesc,
+                                                   BeanProperty property, JsonSerializer<Object> keySerializer,
+                                                   TypeSerializer elementTypeSerializer,
+                                                   JsonSerializer<Object> elementValueSerializer) {
+            return LinkMap.class.isAssignableFrom(type.getRawClass()) ? linkMapSerializer : null;
+        }
+    }
+
+    private static class LinkMapSerializer extends SerializerBase<LinkMap> {
+
+        private final HateoasLinkSerializer linkSerializer;
+
+        LinkMapSerializer(HateoasLinkSerializer linkSerializer) {
+            super(LinkMap.class);
+            this.linkSerializer = linkSerializer;
+        }
+
+        @Override
+        public void serialize(LinkMap value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+            linkSerializer.serialize(value, jgen, provider);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasOption;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.Linkable;
+import com.jayway.jaxrs.hateoas.support.LinkMap;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.ObjectCodec;
+import org.codehaus.jackson.io.SerializedString;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.ser.std.SerializerBase;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Jackson serializer writing a {@link HateoasLink} straight from its properties, giving the same output as
+ * serializing the map created by {@link HateoasLink#toMap(HateoasVerbosity)}. Links are written with the verbosity of
+ * the current request, links held as {@link LinkMap}s with the verbosity they were created with.
+ * <p/>
+ * Templates of links, i.e. instances of {@link Linkable#templateClass()}, are serialized once per template class and
+ * written as raw values afterwards, so an instance of a serializer must only be used with a single
+ * {@link ObjectMapper}. Registered by {@link HateoasJacksonModule}.
+ */
+public class HateoasLinkSerializer extends SerializerBase<HateoasLink> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString REL = new SerializedString("rel");
+    private static final SerializedString HREF = new SerializedString("href");
+    private static final SerializedString CONSUMES = new SerializedString("consumes");
+    private static final SerializedString PRODUCES = new SerializedString("produces");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString METHOD = new SerializedString("method");
+    private static final SerializedString LABEL = new SerializedString("label");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString TEMPLATE = new SerializedString("template");
+
+    private static final String TEMPLATE_NOT_DEFINED = "NOT_DEFINED";
+
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+    private final ConcurrentMap<Class<?>, String> templates = new ConcurrentHashMap<Class<?>, String>();
+
+    public HateoasLinkSerializer() {
+        super(HateoasLink.class);
+    }
+
+    @Override
+    public void serialize(HateoasLink link, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        serialize(link, currentVerbosity(), jgen, provider);
+    }
+
+    /**
+     * Write a link map, directly from the link unless the map was filled.
+     */
+    void serialize(Map<String, Object> map, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        if (!(map instanceof LinkMap)) {
+            provider.defaultSerializeValue(map, jgen);
+        } else if (!((LinkMap) map).isMaterialized()) {
+            LinkMap linkMap = (LinkMap) map;
+            serialize(linkMap.getLink(), linkMap.getVerbosity(), jgen, provider);
+        } else {
+            // Written like any map, the serializer of LinkMap being this one.
+            boolean writeNulls = provider.isEnabled(SerializationConfig.Feature.WRITE_NULL_MAP_VALUES);
+            jgen.writeStartObject();
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                if (entry.getValue() != null || writeNulls) {
+                    jgen.writeFieldName(entry.getKey());
+                    provider.defaultSerializeValue(entry.getValue(), jgen);
+                }
+            }
+            jgen.writeEndObject();
+        }
+    }
+
+    /**
+     * Write a collection of link maps as an array, or <code>null</code>.
+     */
+    void serialize(Collection<Map<String, Object>> links, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException {
+        if (links == null) {
+            jgen.writeNull();
+            return;
+        }
+        jgen.writeStartArray();
+        for (Map<String, Object> link : links) {
+            serialize(link, jgen, provider);
+        }
+        jgen.writeEndArray();
+    }
+
+    void serialize(HateoasLink link, HateoasVerbosity verbosity, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException {
+        boolean writeNulls = provider.isEnabled(SerializationConfig.Feature.WRITE_NULL_MAP_VALUES);
+        jgen.writeStartObject();
+        for (HateoasOption option : verbosity.getOptions()) {
+            // Mirrors HateoasOption.addTo.
+            switch (option) {
+                case ID:
+                    writeString(ID, link.getId(), writeNulls, jgen);
+                    break;
+                case REL:
+                    writeString(REL, link.getRel(), writeNulls, jgen);
+                    break;
+                case HREF:
+                    writeString(HREF, link.getHref(), writeNulls, jgen);
+                    break;
+                case CONSUMES:
+                    if (!"GET".equals(link.getMethod()) && !"DELETE".equals(link.getMethod())) {
+                        writeStrings(CONSUMES, link.getConsumes(), writeNulls, jgen);
+                    }
+                    break;
+                case PRODUCES:
+                    writeStrings(PRODUCES, link.getProduces(), writeNulls, jgen);
+                    break;
+                case TYPE:
+                    writeStrings(TYPE, link.getProduces(), writeNulls, jgen);
+                    break;
+                case METHOD:
+                    writeString(METHOD, link.getMethod(), writeNulls, jgen);
+                    break;
+                case LABEL:
+                    writeString(LABEL, link.getLabel(), writeNulls, jgen);
+                    break;
+                case DESCRIPTION:
+                    writeString(DESCRIPTION, link.getDescription(), writeNulls, jgen);
+                    break;
+                case TEMPLATE:
+                    if (!"GET".equals(link.getMethod()) && !"DELETE".equals(link.getMethod())) {
+                        jgen.writeFieldName(TEMPLATE);
+                        if (link.getTemplateClass().equals(Linkable.NoTemplate.class)) {
+                            jgen.writeString(TEMPLATE_NOT_DEFINED);
+                        } else {
+                            jgen.writeRawValue(template(link.getTemplateClass(), jgen));
+                        }
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown option " + option);
+            }
+        }
+        jgen.writeEndObject();
+    }
+
+    private String template(Class<?> templateClass, JsonGenerator jgen) throws IOException {
+        String template = templates.get(templateClass);
+        if (template == null) {
+            Object instance;
+            try {
+                instance = templateClass.newInstance();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to instantiate class", e);
+            }
+            ObjectCodec codec = jgen.getCodec();
+            ObjectMapper mapper = codec instanceof ObjectMapper ? (ObjectMapper) codec : DEFAULT_MAPPER;
+            template = mapper.writeValueAsString(instance);
+            templates.putIfAbsent(templateClass, template);
+        }
+        return template;
+    }
+
+    private static void writeString(SerializedString name, String value, boolean writeNulls, JsonGenerator jgen)
+            throws IOException {
+        if (value != null) {
+            jgen.writeFieldName(name);
+            jgen.writeString(value);
+        } else if (writeNulls) {
+            jgen.writeFieldName(name);
+            jgen.writeNull();
+        }
+    }
+
+    private static void writeStrings(SerializedString name, String[] values, boolean writeNulls, JsonGenerator jgen)
+            throws IOException {
+        if (values == null) {
+            if (writeNulls) {
+                jgen.writeFieldName(name);
+                jgen.writeNull();
+            }
+            return;
+        }
+        jgen.writeFieldName(name);
+        jgen.writeStartArray();
+        for (String value : values) {
+            if (value == null) {
+                jgen.writeNull();
+            } else {
+                jgen.writeString(value);
+            }
+        }
+        jgen.writeEndArray();
+    }
+
+    private static HateoasVerbosity currentVerbosity() {
+        RequestContext requestContext = RequestContext.getRequestContext();
+        if (requestContext != null && requestContext.getVerbosity() != null) {
+            return requestContext.getVerbosity();
+        }
+        return HateoasConfiguration.current().getDefaultVerbosity();
+    }
+}
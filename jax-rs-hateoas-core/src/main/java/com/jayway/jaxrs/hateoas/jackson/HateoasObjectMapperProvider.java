@@ -0,0 +1,46 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Provides an {@link ObjectMapper} with the {@link HateoasJacksonModule} registered, to the JSON provider of Jersey
+ * and the writers of this library. Registered by the application classes in the core package when
+ * {@link com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_JACKSON_MODULE} is set; an
+ * application with a mapper of its own should register the module with it instead.
+ */
+@Provider
+public class HateoasObjectMapperProvider implements ContextResolver<ObjectMapper> {
+
+    private final ObjectMapper mapper;
+
+    public HateoasObjectMapperProvider() {
+        this(new ObjectMapper());
+    }
+
+    public HateoasObjectMapperProvider(ObjectMapper mapper) {
+        mapper.registerModule(new HateoasJacksonModule());
+        this.mapper = mapper;
+    }
+
+    @Override
+    public ObjectMapper getContext(Class<?> type) {
+        return mapper;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import com.jayway.jaxrs.hateoas.support.LinkEnvelope;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.ser.std.SerializerBase;
+
+import java.io.IOException;
+
+/**
+ * Jackson serializer writing a {@link LinkEnvelope} as a single object: the properties of the wrapped entity,
+ * followed by a <code>links</code> property.
+ */
+public class LinkEnvelopeSerializer extends SerializerBase<LinkEnvelope> {
+
+    public static final String LINKS_FIELD_NAME = "links";
+
+    public LinkEnvelopeSerializer() {
+        super(LinkEnvelope.class);
+    }
+
+    @Override
+    public void serialize(LinkEnvelope envelope, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        jgen.writeStartObject();
+        Object entity = envelope.getEntity();
+        if (entity != null) {
+            JsonSerializer<Object> serializer = provider.findValueSerializer(entity.getClass(), null).unwrappingSerializer();
+            if (!serializer.isUnwrappingSerializer()) {
+                throw new JsonMappingException("Can not write properties of " + entity.getClass().getName()
+                        + " inline, use another link injector for this type");
+            }
+            serializer.serialize(entity, jgen, provider);
+        }
+        jgen.writeFieldName(LINKS_FIELD_NAME);
+        provider.defaultSerializeValue(envelope.getLinks(), jgen);
+        jgen.writeEndObject();
+    }
+}
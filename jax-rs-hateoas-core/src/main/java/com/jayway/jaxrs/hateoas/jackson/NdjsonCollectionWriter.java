@@ -0,0 +1,115 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.util.MinimalPrettyPrinter;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+
+/**
+ * Writes root collections as newline delimited JSON, <code>application/x-ndjson</code>: one row per line with its
+ * injected links, followed by a line holding the links of the collection if it has any, e.g.
+ * <pre>
+ * {"id":1,"links":[{"rel":"self","href":"http://example.com/books/1"}]}
+ * {"id":2,"links":[{"rel":"self","href":"http://example.com/books/2"}]}
+ * {"links":[{"rel":"self","href":"http://example.com/books"}]}
+ * </pre>
+ * Each line is flushed as soon as it is written. Links are injected into the rows as they are iterated, so combined
+ * with a {@link com.jayway.jaxrs.hateoas.support.LazyCollection} as entity a response holds one row at a time.
+ * <p/>
+ * Registered by the application classes in the core package when Jackson is on the classpath. Resource methods must
+ * list the media type in their <code>@Produces</code> annotation. The {@link ObjectMapper} of the application is used
+ * if there is a <code>ContextResolver</code> for it.
+ */
+@Provider
+@Produces(NdjsonCollectionWriter.APPLICATION_NDJSON)
+public class NdjsonCollectionWriter implements MessageBodyWriter<DefaultCollectionWrapper<?>> {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+    @Context
+    private Providers providers;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return DefaultCollectionWrapper.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(DefaultCollectionWrapper<?> value, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(DefaultCollectionWrapper<?> value, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        ObjectMapper mapper = getMapper(type, mediaType);
+        JsonGenerator jgen = mapper.getJsonFactory().createJsonGenerator(entityStream, JsonEncoding.UTF8);
+        jgen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Writes the values compactly and without separator, each line is terminated below.
+        jgen.setPrettyPrinter(new MinimalPrettyPrinter(""));
+
+        if (value.getRows() != null) {
+            for (Object row : value.getRows()) {
+                writeLine(mapper, jgen, row);
+            }
+        }
+        if (value.getLinks() != null && !value.getLinks().isEmpty()) {
+            writeLine(mapper, jgen, Collections.singletonMap(LinkEnvelopeSerializer.LINKS_FIELD_NAME, value.getLinks()));
+        }
+        // Returns the buffers of the generator for reuse, the stream is left open.
+        jgen.close();
+    }
+
+    private static void writeLine(ObjectMapper mapper, JsonGenerator jgen, Object value) throws IOException {
+        mapper.writeValue(jgen, value);
+        jgen.writeRaw('\n');
+        jgen.flush();
+    }
+
+    private ObjectMapper getMapper(Class<?> type, MediaType mediaType) {
+        if (providers != null) {
+            ContextResolver<ObjectMapper> resolver = providers.getContextResolver(ObjectMapper.class, mediaType);
+            if (resolver != null) {
+                ObjectMapper mapper = resolver.getContext(type);
+                if (mapper != null) {
+                    return mapper;
+                }
+            }
+        }
+        return DEFAULT_MAPPER;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.metrics;
+
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+
+/**
+ * SPI for recording what the HATEOAS machinery costs. The framework calls the recording methods from its hot paths,
+ * so implementations must be thread safe and should not block. Callers check {@link #isEnabled()} before measuring,
+ * so a disabled implementation adds no more than a thread local lookup and a virtual call.
+ * <p/>
+ * Each {@link com.jayway.jaxrs.hateoas.HateoasConfiguration} has its own metrics, given for the current request by
+ * {@link HateoasMetricsProvider}, which may be configured using
+ * {@link com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_METRICS}.
+ *
+ * @see InMemoryHateoasMetrics
+ * @see NoOpHateoasMetrics
+ */
+public interface HateoasMetrics {
+
+    /**
+     * @return <code>false</code> if nothing is recorded, in which case callers may skip measuring.
+     */
+    boolean isEnabled();
+
+    /**
+     * Record the time spent building a link from a {@link com.jayway.jaxrs.hateoas.Linkable} method.
+     *
+     * @param linkableId the id of the linkable method.
+     * @param nanos      elapsed time in nanoseconds.
+     */
+    void linkBuilt(String linkableId, long nanos);
+
+    /**
+     * Record the time spent injecting links into an entity.
+     *
+     * @param injectorType the {@link com.jayway.jaxrs.hateoas.HateoasLinkInjector} strategy that was used.
+     * @param entityType   the type of the entity.
+     * @param nanos        elapsed time in nanoseconds, including producing the links.
+     */
+    void linksInjected(Class<?> injectorType, Class<?> entityType, long nanos);
+
+    /**
+     * Record a response built by {@link com.jayway.jaxrs.hateoas.core.HateoasResponse.HateoasResponseBuilder}.
+     *
+     * @param linkCount the number of links produced by the link mappings of the response. Rows of collections are
+     *                  injected while building the response when metrics are enabled, so their links are counted,
+     *                  except for the rows of a {@link com.jayway.jaxrs.hateoas.support.LazyCollection}.
+     * @param verbosity the verbosity the links were rendered with.
+     */
+    void responseBuilt(int linkCount, HateoasVerbosity verbosity);
+
+    /**
+     * Record the generation of a subclass by {@link com.jayway.jaxrs.hateoas.support.JavassistHateoasLinkInjector}.
+     *
+     * @param entityType the type the subclass was generated for.
+     * @param nanos      elapsed time in nanoseconds.
+     */
+    void classGenerated(Class<?> entityType, long nanos);
+
+    /**
+     * Record a lookup in one of the internal caches.
+     *
+     * @param cacheName the name of the cache.
+     * @param hit       <code>true</code> if the value was found in the cache.
+     */
+    void cacheLookup(String cacheName, boolean hit);
+
+    /**
+     * Record an entry evicted from one of the bounded caches to make room for another.
+     *
+     * @param cacheName the name of the cache.
+     */
+    void cacheEviction(String cacheName);
+
+    /**
+     * Record a completed request.
+     *
+     * @param nanos elapsed time in nanoseconds, from receiving the request until the response has been written.
+     */
+    void requestCompleted(long nanos);
+
+    /**
+     * @return the values recorded so far.
+     */
+    HateoasMetricsSnapshot snapshot();
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exposes {@link HateoasMetrics} as an MXBean in the platform MBean server, under {@link #OBJECT_NAME} with an
+ * <code>app</code> key naming the application, so that several applications in the same JVM are exposed side by side.
+ * Every attribute read takes a new {@link HateoasMetrics#snapshot()}.
+ */
+public final class HateoasMetricsJmx implements HateoasMetricsMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(HateoasMetricsJmx.class);
+
+    public static final String OBJECT_NAME = "com.jayway.jaxrs.hateoas:type=HateoasMetrics";
+
+    private final HateoasMetrics metrics;
+
+    private HateoasMetricsJmx(HateoasMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Register the supplied metrics, replacing any previously registered ones of the same application, e.g. from an
+     * earlier deployment. Failures are logged rather than thrown since metrics are not essential to serving requests.
+     *
+     * @param metrics the metrics to expose.
+     * @param app     the name of the application.
+     */
+    public static void register(HateoasMetrics metrics, String app) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = objectName(app);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new HateoasMetricsJmx(metrics), name);
+        } catch (JMException e) {
+            log.warn("Could not register HATEOAS metrics MBean", e);
+        }
+    }
+
+    public static void unregister(String app) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = objectName(app);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            log.warn("Could not unregister HATEOAS metrics MBean", e);
+        }
+    }
+
+    /**
+     * @return the name the metrics of the application are registered under.
+     */
+    public static ObjectName objectName(String app) throws MalformedObjectNameException {
+        return new ObjectName(OBJECT_NAME + ",app=" + ObjectName.quote(app));
+    }
+
+    @Override
+    public long getRequestCount() {
+        HistogramSnapshot requests = metrics.snapshot().getHistogram(HateoasMetricsSnapshot.REQUEST);
+        return requests == null ? 0L : requests.getCount();
+    }
+
+    @Override
+    public long getRequestP99Nanos() {
+        HistogramSnapshot requests = metrics.snapshot().getHistogram(HateoasMetricsSnapshot.REQUEST);
+        return requests == null ? 0L : requests.getValueAtPercentile(99.0);
+    }
+
+    @Override
+    public double getMeanLinksPerResponse() {
+        HistogramSnapshot links = metrics.snapshot().getHistogram(HateoasMetricsSnapshot.RESPONSE_LINKS);
+        return links == null ? 0.0 : links.getMean();
+    }
+
+    @Override
+    public long getGeneratedClassCount() {
+        HistogramSnapshot generations = metrics.snapshot().getHistogram(HateoasMetricsSnapshot.CLASS_GENERATION);
+        return generations == null ? 0L : generations.getCount();
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        return new TreeMap<String, Long>(metrics.snapshot().getCounters());
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for (Map.Entry<String, HistogramSnapshot> entry : metrics.snapshot().getHistograms().entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getCount());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getMeans() {
+        Map<String, Double> result = new TreeMap<String, Double>();
+        for (Map.Entry<String, HistogramSnapshot> entry : metrics.snapshot().getHistograms().entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getMean());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getP99s() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for (Map.Entry<String, HistogramSnapshot> entry : metrics.snapshot().getHistograms().entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getValueAtPercentile(99.0));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getMaxes() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for (Map.Entry<String, HistogramSnapshot> entry : metrics.snapshot().getHistograms().entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getMax());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the current {@link HateoasMetrics}. Histograms are keyed by the names used in
+ * {@link HateoasMetricsSnapshot}; timings are in nanoseconds.
+ *
+ * @see HateoasMetricsJmx
+ */
+public interface HateoasMetricsMXBean {
+
+    long getRequestCount();
+
+    long getRequestP99Nanos();
+
+    double getMeanLinksPerResponse();
+
+    long getGeneratedClassCount();
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getCounts();
+
+    Map<String, Double> getMeans();
+
+    Map<String, Long> getP99s();
+
+    Map<String, Long> getMaxes();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.metrics;
+
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+
+/**
+ * Gives the {@link HateoasMetrics} used by the framework: those of the {@link HateoasConfiguration} of the current
+ * request, {@link NoOpHateoasMetrics} unless configured otherwise.
+ */
+public class HateoasMetricsProvider {
+
+    /**
+     * @return the metrics of the current configuration, see {@link HateoasConfiguration#current()}.
+     */
+    public static HateoasMetrics getMetrics() {
+        return HateoasConfiguration.current().getMetrics();
+    }
+
+    /**
+     * Set the metrics of the default configuration, used outside of requests and by applications not binding a
+     * configuration of their own.
+     */
+    public static void setMetrics(HateoasMetrics metrics) {
+        HateoasConfiguration.getDefault().setMetrics(metrics);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable, point in time view of recorded metrics, made up of named counters and histograms. Timings are recorded
+ * in nanoseconds. Metric names are built from the prefixes defined here, e.g. <code>link.build:books.get</code>.
+ */
+public final class HateoasMetricsSnapshot {
+
+    /**
+     * Histogram of link build times, followed by the linkable id.
+     */
+    public static final String LINK_BUILD_PREFIX = "link.build:";
+
+    /**
+     * Histogram of link injection times, followed by the simple name of the injector, ':' and the entity type name.
+     */
+    public static final String INJECT_PREFIX = "inject:";
+
+    /**
+     * Histogram of the number of links per response.
+     */
+    public static final String RESPONSE_LINKS = "response.links";
+
+    /**
+     * Counter of responses, followed by the verbosity name or its comma separated options.
+     */
+    public static final String VERBOSITY_PREFIX = "verbosity:";
+
+    /**
+     * Histogram of Javassist class generation times.
+     */
+    public static final String CLASS_GENERATION = "javassist.generate";
+
+    /**
+     * Counters of cache hits, misses and evictions, followed by the cache name.
+     */
+    public static final String CACHE_HIT_PREFIX = "cache.hit:";
+    public static final String CACHE_MISS_PREFIX = "cache.miss:";
+    public static final String CACHE_EVICTION_PREFIX = "cache.eviction:";
+
+    /**
+     * Histogram of request times.
+     */
+    public static final String REQUEST = "request";
+
+    static final HateoasMetricsSnapshot EMPTY = new HateoasMetricsSnapshot(0L,
+            Collections.<String, Long>emptyMap(), Collections.<String, HistogramSnapshot>emptyMap());
+
+    private final long timestamp;
+    private final Map<String, Long> counters;
+    private final Map<String, HistogramSnapshot> histograms;
+
+    HateoasMetricsSnapshot(long timestamp, Map<String, Long> counters, Map<String, HistogramSnapshot> histograms) {
+        this.timestamp = timestamp;
+        this.counters = Collections.unmodifiableMap(counters);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * @return the time the snapshot was taken, in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * @return the value of the named counter, or 0 if nothing has been counted.
+     */
+    public long getCounter(String name) {
+        Long value = counters.get(name);
+        return value == null ? 0L : value;
+    }
+
+    /**
+     * @return the named histogram, or <code>null</code> if nothing has been recorded.
+     */
+    public HistogramSnapshot getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * @return the share of lookups in the named cache that were hits, or <code>Double.NaN</code> if there were none.
+     */
+    public double getCacheHitRate(String cacheName) {
+        long hits = getCounter(CACHE_HIT_PREFIX + cacheName);
+        long total = hits + getCounter(CACHE_MISS_PREFIX + cacheName);
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+}
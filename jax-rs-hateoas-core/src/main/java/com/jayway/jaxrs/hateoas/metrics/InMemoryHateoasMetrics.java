@@ -0,0 +1,202 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.metrics;
+
+import com.jayway.jaxrs.hateoas.HateoasOption;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link HateoasMetrics} implementation keeping everything in memory, using lock free striped counters and
+ * log-linear histograms. Recording allocates nothing once a metric has been seen; names are only built when taking a
+ * {@link #snapshot()}.
+ *
+ * @see HateoasMetricsJmx
+ */
+public class InMemoryHateoasMetrics implements HateoasMetrics {
+
+    /**
+     * Upper bound of distinct verbosities counted, protecting against clients sending arbitrary option combinations.
+     */
+    static final int MAX_VERBOSITIES = 64;
+
+    static final String OTHER_VERBOSITY = "other";
+
+    private final ConcurrentMap<String, Histogram> linkBuilds = new ConcurrentHashMap<String, Histogram>();
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Histogram>> injections =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, Histogram>>();
+    private final ConcurrentMap<HateoasVerbosity, StripedCounter> verbosities =
+            new ConcurrentHashMap<HateoasVerbosity, StripedCounter>();
+    private final StripedCounter otherVerbosities = new StripedCounter();
+    private final ConcurrentMap<String, StripedCounter> cacheHits = new ConcurrentHashMap<String, StripedCounter>();
+    private final ConcurrentMap<String, StripedCounter> cacheMisses = new ConcurrentHashMap<String, StripedCounter>();
+    private final ConcurrentMap<String, StripedCounter> cacheEvictions = new ConcurrentHashMap<String, StripedCounter>();
+    private final Histogram responseLinks = new Histogram();
+    private final Histogram classGenerations = new Histogram();
+    private final Histogram requests = new Histogram();
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void linkBuilt(String linkableId, long nanos) {
+        histogram(linkBuilds, linkableId).record(nanos);
+    }
+
+    @Override
+    public void linksInjected(Class<?> injectorType, Class<?> entityType, long nanos) {
+        ConcurrentMap<Class<?>, Histogram> byEntityType = injections.get(injectorType);
+        if (byEntityType == null) {
+            byEntityType = new ConcurrentHashMap<Class<?>, Histogram>();
+            ConcurrentMap<Class<?>, Histogram> existing = injections.putIfAbsent(injectorType, byEntityType);
+            if (existing != null) {
+                byEntityType = existing;
+            }
+        }
+        histogram(byEntityType, entityType).record(nanos);
+    }
+
+    @Override
+    public void responseBuilt(int linkCount, HateoasVerbosity verbosity) {
+        responseLinks.record(linkCount);
+
+        StripedCounter counter = verbosities.get(verbosity);
+        if (counter == null) {
+            if (verbosities.size() >= MAX_VERBOSITIES) {
+                otherVerbosities.increment();
+                return;
+            }
+            counter = counter(verbosities, verbosity);
+        }
+        counter.increment();
+    }
+
+    @Override
+    public void classGenerated(Class<?> entityType, long nanos) {
+        classGenerations.record(nanos);
+    }
+
+    @Override
+    public void cacheLookup(String cacheName, boolean hit) {
+        counter(hit ? cacheHits : cacheMisses, cacheName).increment();
+    }
+
+    @Override
+    public void cacheEviction(String cacheName) {
+        counter(cacheEvictions, cacheName).increment();
+    }
+
+    @Override
+    public void requestCompleted(long nanos) {
+        requests.record(nanos);
+    }
+
+    @Override
+    public HateoasMetricsSnapshot snapshot() {
+        Map<String, Long> counters = new TreeMap<String, Long>();
+        Map<String, HistogramSnapshot> histograms = new TreeMap<String, HistogramSnapshot>();
+
+        for (Map.Entry<String, Histogram> entry : linkBuilds.entrySet()) {
+            histograms.put(HateoasMetricsSnapshot.LINK_BUILD_PREFIX + entry.getKey(), entry.getValue().snapshot());
+        }
+        for (Map.Entry<Class<?>, ConcurrentMap<Class<?>, Histogram>> byInjector : injections.entrySet()) {
+            for (Map.Entry<Class<?>, Histogram> entry : byInjector.getValue().entrySet()) {
+                histograms.put(HateoasMetricsSnapshot.INJECT_PREFIX + byInjector.getKey().getSimpleName() + ":"
+                        + entry.getKey().getName(), entry.getValue().snapshot());
+            }
+        }
+        histograms.put(HateoasMetricsSnapshot.RESPONSE_LINKS, responseLinks.snapshot());
+        histograms.put(HateoasMetricsSnapshot.CLASS_GENERATION, classGenerations.snapshot());
+        histograms.put(HateoasMetricsSnapshot.REQUEST, requests.snapshot());
+
+        for (Map.Entry<HateoasVerbosity, StripedCounter> entry : verbosities.entrySet()) {
+            addCounter(counters, HateoasMetricsSnapshot.VERBOSITY_PREFIX + verbosityName(entry.getKey()),
+                    entry.getValue().sum());
+        }
+        long others = otherVerbosities.sum();
+        if (others > 0) {
+            addCounter(counters, HateoasMetricsSnapshot.VERBOSITY_PREFIX + OTHER_VERBOSITY, others);
+        }
+        for (Map.Entry<String, StripedCounter> entry : cacheHits.entrySet()) {
+            counters.put(HateoasMetricsSnapshot.CACHE_HIT_PREFIX + entry.getKey(), entry.getValue().sum());
+        }
+        for (Map.Entry<String, StripedCounter> entry : cacheMisses.entrySet()) {
+            counters.put(HateoasMetricsSnapshot.CACHE_MISS_PREFIX + entry.getKey(), entry.getValue().sum());
+        }
+        for (Map.Entry<String, StripedCounter> entry : cacheEvictions.entrySet()) {
+            counters.put(HateoasMetricsSnapshot.CACHE_EVICTION_PREFIX + entry.getKey(), entry.getValue().sum());
+        }
+
+        return new HateoasMetricsSnapshot(System.currentTimeMillis(), counters, histograms);
+    }
+
+    private static void addCounter(Map<String, Long> counters, String name, long value) {
+        // Custom verbosities with the same options as a predefined one end up under the same name.
+        Long existing = counters.get(name);
+        counters.put(name, existing == null ? value : existing + value);
+    }
+
+    static String verbosityName(HateoasVerbosity verbosity) {
+        if (verbosity.equals(HateoasVerbosity.MAXIMUM)) {
+            return "MAXIMUM";
+        } else if (verbosity.equals(HateoasVerbosity.NORMAL)) {
+            return "NORMAL";
+        } else if (verbosity.equals(HateoasVerbosity.MINIMUM)) {
+            return "MINIMUM";
+        } else if (verbosity.equals(HateoasVerbosity.ATOM)) {
+            return "ATOM";
+        } else if (verbosity.equals(HateoasVerbosity.GENERIC_CLIENT)) {
+            return "GENERIC_CLIENT";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (HateoasOption option : verbosity.getOptions()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(option.name());
+        }
+        return sb.toString();
+    }
+
+    private static <K> Histogram histogram(ConcurrentMap<K, Histogram> histograms, K key) {
+        Histogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = new Histogram();
+            Histogram existing = histograms.putIfAbsent(key, histogram);
+            if (existing != null) {
+                histogram = existing;
+            }
+        }
+        return histogram;
+    }
+
+    private static <K> StripedCounter counter(ConcurrentMap<K, StripedCounter> counters, K key) {
+        StripedCounter counter = counters.get(key);
+        if (counter == null) {
+            counter = new StripedCounter();
+            StripedCounter existing = counters.putIfAbsent(key, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.metrics;
+
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+
+/**
+ * {@link HateoasMetrics} implementation that records nothing. This is the default.
+ */
+public final class NoOpHateoasMetrics implements HateoasMetrics {
+
+    public static final NoOpHateoasMetrics INSTANCE = new NoOpHateoasMetrics();
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void linkBuilt(String linkableId, long nanos) {
+    }
+
+    @Override
+    public void linksInjected(Class<?> injectorType, Class<?> entityType, long nanos) {
+    }
+
+    @Override
+    public void responseBuilt(int linkCount, HateoasVerbosity verbosity) {
+    }
+
+    @Override
+    public void classGenerated(Class<?> entityType, long nanos) {
+    }
+
+    @Override
+    public void cacheLookup(String cacheName, boolean hit) {
+    }
+
+    @Override
+    public void cacheEviction(String cacheName) {
+    }
+
+    @Override
+    public void requestCompleted(long nanos) {
+    }
+
+    @Override
+    public HateoasMetricsSnapshot snapshot() {
+        return HateoasMetricsSnapshot.EMPTY;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.paging;
+
+import com.jayway.jaxrs.hateoas.HateoasContextProvider;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import com.jayway.jaxrs.hateoas.LinkableParameterInfo;
+import com.jayway.jaxrs.hateoas.core.HateoasResponse.HateoasResponseBuilder;
+import com.jayway.jaxrs.hateoas.support.AtomRels;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a collection served by a {@link com.jayway.jaxrs.hateoas.Linkable} method, fetched using a
+ * {@link Pageable} and an opaque cursor rather than an offset, so that pages stay consistent while items are added
+ * and fetching a page costs the same wherever it is in the collection.
+ * <p/>
+ * The method must declare the query parameters {@value #CURSOR_PARAMETER} and {@value #LIMIT_PARAMETER}, the latter
+ * with a {@link javax.ws.rs.DefaultValue}, which is both the default and the maximum page size:
+ * <pre>
+ * &#64;GET
+ * &#64;Linkable("books.list")
+ * public Response getBooks(&#64;QueryParam("cursor") String cursor, &#64;QueryParam("limit") &#64;DefaultValue("20") Integer limit) {
+ *     Page&lt;Book&gt; page = Page.fetch("books.list", pageable, cursor, limit);
+ *     return HateoasResponse.ok(page.getItems()).pageLinks(page).build();
+ * }
+ * </pre>
+ *
+ * @param <T> the type of the items.
+ * @see HateoasResponseBuilder#pageLinks(Page, Object...)
+ */
+public final class Page<T> {
+
+    public static final String CURSOR_PARAMETER = "cursor";
+    public static final String LIMIT_PARAMETER = "limit";
+
+    private final String id;
+    private final List<T> items;
+    private final int limit;
+    private final int defaultLimit;
+    private final String previousCursor;
+    private final String nextCursor;
+
+    private Page(String id, List<T> items, int limit, int defaultLimit, String previousCursor, String nextCursor) {
+        this.id = id;
+        this.items = items;
+        this.limit = limit;
+        this.defaultLimit = defaultLimit;
+        this.previousCursor = previousCursor;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Fetch the page identified by the cursor, fetching one item more than the page size to find out if there is a
+     * next (or previous) page.
+     *
+     * @param id       the @Linkable id of the method serving the collection.
+     * @param pageable the collection.
+     * @param cursor   a cursor from a link of a previous page, <code>null</code> for the first page.
+     * @param limit    the page size asked for, <code>null</code> for the declared default.
+     * @return the page.
+     * @throws javax.ws.rs.WebApplicationException
+     *          with status <code>400 Bad Request</code> if the cursor is invalid.
+     */
+    public static <T> Page<T> fetch(String id, Pageable<T> pageable, String cursor, Integer limit) {
+        int defaultLimit = defaultLimit(id);
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, defaultLimit));
+
+        PageCursor pageCursor = cursor == null || cursor.length() == 0 ? null : PageCursor.parse(cursor);
+        List<T> items;
+        boolean more;
+        if (pageCursor == null || pageCursor.isAfter()) {
+            String key = pageCursor == null ? null : pageCursor.getKey();
+            items = pageable.fetchAfter(key, pageSize + 1);
+            more = items.size() > pageSize;
+            if (more) {
+                items = items.subList(0, pageSize);
+            }
+        } else {
+            items = pageable.fetchBefore(pageCursor.getKey(), pageSize + 1);
+            more = items.size() > pageSize;
+            if (more) {
+                items = items.subList(items.size() - pageSize, items.size());
+            }
+        }
+        items = Collections.unmodifiableList(new ArrayList<T>(items));
+
+        String previousCursor = null;
+        String nextCursor = null;
+        if (!items.isEmpty()) {
+            String firstKey = pageable.keyOf(items.get(0));
+            String lastKey = pageable.keyOf(items.get(items.size() - 1));
+            if (pageCursor == null || pageCursor.isAfter()) {
+                // Having come from a previous page there is one, even if it may have become empty.
+                previousCursor = pageCursor == null ? null : PageCursor.before(firstKey);
+                nextCursor = more ? PageCursor.after(lastKey) : null;
+            } else {
+                previousCursor = more ? PageCursor.before(firstKey) : null;
+                nextCursor = PageCursor.after(lastKey);
+            }
+        }
+        return new Page<T>(id, items, pageSize, defaultLimit, previousCursor, nextCursor);
+    }
+
+    private static int defaultLimit(String id) {
+        LinkableInfo linkableInfo = HateoasContextProvider.getContext().getLinkableInfo(id);
+        for (LinkableParameterInfo parameterInfo : linkableInfo.getParameterInfo()) {
+            if (LIMIT_PARAMETER.equals(parameterInfo.getName()) && parameterInfo.getDefaultValue() != null) {
+                try {
+                    return Integer.parseInt(parameterInfo.getDefaultValue());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid default value of query parameter " + LIMIT_PARAMETER
+                            + " of " + id + ": " + parameterInfo.getDefaultValue());
+                }
+            }
+        }
+        throw new IllegalArgumentException(id + " must declare a default value for query parameter " + LIMIT_PARAMETER);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the page size.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the cursor of the previous page, or <code>null</code> if this is the first page.
+     */
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+
+    /**
+     * @return the cursor of the next page, or <code>null</code> if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Create the <code>first</code>, <code>prev</code> and <code>next</code> links of this page, as far as there are
+     * such pages. The page size is only part of the links if it is not the default.
+     *
+     * @param params the path parameters of the method serving the collection.
+     * @return the links.
+     */
+    public List<HateoasLink> links(Object... params) {
+        List<HateoasLink> links = new ArrayList<HateoasLink>(3);
+        links.add(HateoasResponseBuilder.makeLink(id, AtomRels.FIRST, queryParameters(null), params));
+        if (previousCursor != null) {
+            links.add(HateoasResponseBuilder.makeLink(id, AtomRels.PREVIOUS, queryParameters(previousCursor), params));
+        }
+        if (nextCursor != null) {
+            links.add(HateoasResponseBuilder.makeLink(id, AtomRels.NEXT, queryParameters(nextCursor), params));
+        }
+        return links;
+    }
+
+    private Map<String, Object> queryParameters(String cursor) {
+        Map<String, Object> queryParameters = new LinkedHashMap<String, Object>();
+        if (cursor != null) {
+            queryParameters.put(CURSOR_PARAMETER, cursor);
+        }
+        if (limit != defaultLimit) {
+            queryParameters.put(LIMIT_PARAMETER, limit);
+        }
+        return queryParameters;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.paging;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * Opaque cursor token, the unpadded URL safe Base64 form (RFC 4648 section 5) of the UTF-8 encoded direction and key
+ * of the item to continue from. Clients are only to pass back the tokens they are given, so the format may change at
+ * any time.
+ */
+final class PageCursor {
+
+    private static final char AFTER = 'a';
+    private static final char BEFORE = 'b';
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    /**
+     * The value of each character of the alphabet, -1 for other characters.
+     */
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private final boolean after;
+    private final String key;
+
+    private PageCursor(boolean after, String key) {
+        this.after = after;
+        this.key = key;
+    }
+
+    static String after(String key) {
+        return encode(AFTER, key);
+    }
+
+    static String before(String key) {
+        return encode(BEFORE, key);
+    }
+
+    /**
+     * @throws WebApplicationException with status <code>400 Bad Request</code> if the token was not created by this
+     *                                 class.
+     */
+    static PageCursor parse(String token) {
+        byte[] bytes = decode(token);
+        String value;
+        try {
+            value = bytes == null ? null : UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes)).toString();
+        } catch (CharacterCodingException e) {
+            value = null;
+        }
+        if (value == null || value.length() < 2 || value.charAt(1) != ':' || (value.charAt(0) != AFTER && value.charAt(0) != BEFORE)) {
+            throw invalid(token);
+        }
+        return new PageCursor(value.charAt(0) == AFTER, value.substring(2));
+    }
+
+    boolean isAfter() {
+        return after;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    private static String encode(char direction, String key) {
+        byte[] bytes = (direction + ":" + key).getBytes(UTF_8);
+        StringBuilder sb = new StringBuilder((bytes.length * 4 + 2) / 3);
+        for (int i = 0; i < bytes.length; i += 3) {
+            int remaining = Math.min(3, bytes.length - i);
+            int group = (bytes[i] & 0xff) << 16;
+            if (remaining > 1) {
+                group |= (bytes[i + 1] & 0xff) << 8;
+            }
+            if (remaining > 2) {
+                group |= bytes[i + 2] & 0xff;
+            }
+            // One character per six bits, two to four per group of one to three bytes.
+            for (int j = 0; j <= remaining; j++) {
+                sb.append(ALPHABET[(group >> (18 - 6 * j)) & 0x3f]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the bytes of the token, or <code>null</code> if it is not unpadded URL safe Base64 in canonical form.
+     */
+    private static byte[] decode(String token) {
+        int length = token.length();
+        if (length % 4 == 1) {
+            return null;
+        }
+        byte[] bytes = new byte[length * 3 / 4];
+        int group = 0;
+        int count = 0;
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            int value = c < 128 ? VALUES[c] : -1;
+            if (value < 0) {
+                return null;
+            }
+            group = (group << 6) | value;
+            if (++count == 4) {
+                bytes[position++] = (byte) (group >> 16);
+                bytes[position++] = (byte) (group >> 8);
+                bytes[position++] = (byte) group;
+                group = 0;
+                count = 0;
+            }
+        }
+        if (count == 2) {
+            if ((group & 0xf) != 0) {
+                return null;
+            }
+            bytes[position] = (byte) (group >> 4);
+        } else if (count == 3) {
+            if ((group & 0x3) != 0) {
+                return null;
+            }
+            bytes[position++] = (byte) (group >> 10);
+            bytes[position] = (byte) (group >> 2);
+        }
+        return bytes;
+    }
+
+    private static WebApplicationException invalid(String token) {
+        return new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                .entity("Invalid cursor: " + token).build());
+    }
+}
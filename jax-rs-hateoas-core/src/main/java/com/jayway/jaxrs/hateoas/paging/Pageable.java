@@ -0,0 +1,49 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.paging;
+
+import java.util.List;
+
+/**
+ * Access to a collection ordered by a unique key, fetching one page at a time, typically implemented by a
+ * repository using a range query on the key. Used by {@link Page#fetch(String, Pageable, String, Integer)}.
+ * <p/>
+ * The keys passed to the fetch methods are read from cursors supplied by clients, so implementations should reject a
+ * key they can not parse with a {@link javax.ws.rs.WebApplicationException} with status
+ * <code>400 Bad Request</code>.
+ *
+ * @param <T> the type of the items.
+ */
+public interface Pageable<T> {
+
+    /**
+     * @param key   the key to start after, <code>null</code> to start with the first item.
+     * @param limit the maximum number of items to return.
+     * @return the items following the key, in key order.
+     */
+    List<T> fetchAfter(String key, int limit);
+
+    /**
+     * @param key   the key to end before.
+     * @param limit the maximum number of items to return.
+     * @return the items immediately preceding the key, in key order.
+     */
+    List<T> fetchBefore(String key, int limit);
+
+    /**
+     * @return the key of the specified item, as passed to {@link #fetchAfter(String, int)}.
+     */
+    String keyOf(T item);
+}
@@ -26,5 +26,8 @@ public class AtomRels {
     public final static String SELF = "self";
     public final static String ENCLOSURE = "enclosure";
     public final static String VIA = "via";
+    public final static String FIRST = "first";
+    public final static String NEXT = "next";
+    public final static String PREVIOUS = "prev";
 
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.support;
+
+import com.jayway.jaxrs.hateoas.HateoasInjectException;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Incremental 64 bit FNV-1a hash, used for computing entity tags. Objects are hashed by walking their fields,
+ * i.e. the same state that is serialized, without actually serializing them. Not intended for external use.
+ * <p/>
+ * Instances are not thread safe.
+ */
+public final class ContentHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private static final byte NULL = 0;
+    private static final byte VALUE = 1;
+    private static final byte SEQUENCE_START = 2;
+    private static final byte SEQUENCE_END = 3;
+    private static final byte OBJECT_START = 4;
+    private static final byte OBJECT_END = 5;
+    private static final byte BACK_REFERENCE = 6;
+
+    private long hash = OFFSET_BASIS;
+
+    /**
+     * The objects hashed so far, by the order they were first visited in.
+     */
+    private final Map<Object, Integer> visited = new IdentityHashMap<Object, Integer>();
+
+    public ContentHash update(String value) {
+        if (value == null) {
+            return updateByte(NULL);
+        }
+        updateByte(VALUE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            updateByte((byte) c);
+            updateByte((byte) (c >>> 8));
+        }
+        // Terminate the value so that ("ab", "c") and ("a", "bc") hash differently.
+        return updateByte(NULL);
+    }
+
+    /**
+     * Hash the object graph rooted at the supplied object. Values of JDK types are hashed using their string
+     * representation, arrays, collections and maps element by element, links by id, rel, href and method, and other
+     * objects field by field, including inherited fields but excluding static and transient ones.
+     *
+     * @param value the root of the object graph, may be <code>null</code>.
+     * @return this.
+     */
+    public ContentHash updateGraph(Object value) {
+        if (value == null) {
+            return updateByte(NULL);
+        }
+
+        Class<?> clazz = value.getClass();
+        if (value instanceof Date) {
+            return update(String.valueOf(((Date) value).getTime()));
+        }
+        if (value instanceof Class) {
+            return update(((Class<?>) value).getName());
+        }
+        if (isValueType(clazz)) {
+            return update(value.toString());
+        }
+
+        Integer ordinal = visited.get(value);
+        if (ordinal != null) {
+            // Which object is referenced matters, [x, y, x] and [x, y, y] differ.
+            updateByte(BACK_REFERENCE);
+            return updateInt(ordinal);
+        }
+        visited.put(value, visited.size());
+
+        if (value instanceof HateoasLink) {
+            // Everything else about a link is given by its id and the verbosity.
+            HateoasLink link = (HateoasLink) value;
+            updateByte(OBJECT_START);
+            update(link.getId());
+            update(link.getRel());
+            update(link.getHref());
+            update(link.getMethod());
+            updateByte(OBJECT_END);
+        } else if (clazz.isArray()) {
+            updateByte(SEQUENCE_START);
+            if (value instanceof Object[]) {
+                for (Object element : (Object[]) value) {
+                    updateGraph(element);
+                }
+            } else {
+                int length = Array.getLength(value);
+                for (int i = 0; i < length; i++) {
+                    updateGraph(Array.get(value, i));
+                }
+            }
+            updateByte(SEQUENCE_END);
+        } else if (value instanceof Collection) {
+            // Only collections, other Iterables such as DefaultCollectionWrapper are serialized as beans.
+            updateByte(SEQUENCE_START);
+            for (Object element : (Collection<?>) value) {
+                updateGraph(element);
+            }
+            updateByte(SEQUENCE_END);
+        } else if (value instanceof Map) {
+            updateByte(OBJECT_START);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                updateGraph(entry.getKey());
+                updateGraph(entry.getValue());
+            }
+            updateByte(OBJECT_END);
+        } else {
+            updateByte(OBJECT_START);
+            updateFields(value, clazz);
+            updateByte(OBJECT_END);
+        }
+        return this;
+    }
+
+    private void updateFields(Object value, Class<?> clazz) {
+        if (clazz == null || clazz.equals(Object.class)) {
+            return;
+        }
+        updateFields(value, clazz.getSuperclass());
+        for (Field field : clazz.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                continue;
+            }
+            ReflectionUtils.setFieldAccessible(field);
+            update(field.getName());
+            try {
+                updateGraph(field.get(value));
+            } catch (IllegalAccessException e) {
+                throw new HateoasInjectException(e);
+            }
+        }
+    }
+
+    private static boolean isValueType(Class<?> clazz) {
+        if (clazz.isArray() || Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz)) {
+            return false;
+        }
+        // Strings, numbers, URIs and the like are serialized using their string representation.
+        return Enum.class.isAssignableFrom(clazz) || clazz.getName().startsWith("java.");
+    }
+
+    private ContentHash updateInt(int value) {
+        updateByte((byte) value);
+        updateByte((byte) (value >>> 8));
+        updateByte((byte) (value >>> 16));
+        return updateByte((byte) (value >>> 24));
+    }
+
+    private ContentHash updateByte(byte b) {
+        hash ^= (b & 0xff);
+        hash *= PRIME;
+        return this;
+    }
+
+    public long getValue() {
+        return hash;
+    }
+
+    /**
+     * @return the current hash value as a 16 character hex string, suitable as an entity tag value.
+     */
+    public String toHexString() {
+        String hex = Long.toHexString(hash);
+        StringBuilder sb = new StringBuilder(16);
+        for (int i = hex.length(); i < 16; i++) {
+            sb.append('0');
+        }
+        return sb.append(hex).toString();
+    }
+}
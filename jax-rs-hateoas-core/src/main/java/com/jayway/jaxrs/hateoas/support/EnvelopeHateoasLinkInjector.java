@@ -0,0 +1,85 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.support;
+
+import com.jayway.jaxrs.hateoas.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link HateoasLinkInjector} implementation that wraps the entities in a {@link LinkEnvelope} together with their
+ * links, rather than copying them into generated subclasses like {@link JavassistHateoasLinkInjector}. The entities
+ * are left untouched and need no no-arg constructor. Maps, {@link HateoasLinkBean}s and entities with a
+ * <code>links</code> field are injected directly.
+ * <p/>
+ * The envelopes are serialized inline using Jackson, so this injector requires Jackson as JSON provider. Since an
+ * envelope is not an instance of the entity class, links can only be injected at the root, in collection elements
+ * and in fields of type Object when using this injector.
+ * <p/>
+ * Select this injector by setting
+ * {@link com.jayway.jaxrs.hateoas.core.HateoasConfigurationFactory#PROPERTY_HATEOAS_LINK_INJECTOR} to
+ * <code>com.jayway.jaxrs.hateoas.support.EnvelopeHateoasLinkInjector</code>.
+ */
+public class EnvelopeHateoasLinkInjector implements HateoasLinkInjector<Object> {
+
+    private final List<HateoasLinkInjector<Object>> directInjectors = new ArrayList<HateoasLinkInjector<Object>>();
+
+    public EnvelopeHateoasLinkInjector() {
+        directInjectors.add(new MapBasedHateoasLinkInjector());
+        directInjectors.add(new HateoasLinkBeanLinkInjector());
+        directInjectors.add(new ReflectionBasedHateoasLinkInjector());
+    }
+
+    @Override
+    public boolean canInject(Object entity) {
+        return true;
+    }
+
+    @Override
+    public Object injectLinks(Object entity, LinkProducer<Object> linkProducer, HateoasVerbosity verbosity) {
+        if (entity == null) {
+            return null;
+        }
+
+        if (entity instanceof LinkEnvelope) {
+            // Links for the same entity from another mapping.
+            LinkEnvelope envelope = (LinkEnvelope) entity;
+            Collection<Map<String, Object>> links = new ArrayList<Map<String, Object>>(envelope.getLinks());
+            addLinks(links, linkProducer.getLinks(envelope.getEntity()), verbosity);
+            return new LinkEnvelope(envelope.getEntity(), links);
+        }
+
+        for (HateoasLinkInjector<Object> injector : directInjectors) {
+            if (injector.canInject(entity)) {
+                return injector.injectLinks(entity, linkProducer, verbosity);
+            }
+        }
+
+        Collection<HateoasLink> producedLinks = linkProducer.getLinks(entity);
+        Collection<Map<String, Object>> links = new ArrayList<Map<String, Object>>(producedLinks.size());
+        addLinks(links, producedLinks, verbosity);
+        return new LinkEnvelope(entity, links);
+    }
+
+    private static void addLinks(Collection<Map<String, Object>> target, Collection<HateoasLink> links,
+                                 HateoasVerbosity verbosity) {
+        for (HateoasLink link : links) {
+            target.add(link.toMap(verbosity));
+        }
+    }
+}
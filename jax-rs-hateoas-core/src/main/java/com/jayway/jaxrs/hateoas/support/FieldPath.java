@@ -63,12 +63,24 @@ public class FieldPath implements Iterable<String> {
 
     public Object injectLinks(Object target, HateoasLinkInjector<Object> injector, LinkProducer linkProducer,
                               HateoasVerbosity verbosity) {
+        return injectLinks(target, injector, linkProducer, verbosity, false);
+    }
+
+    /**
+     * Inject links into the objects at the end of this path. Links of collection elements are by default injected
+     * when the collection is iterated, i.e. when the entity is written, and again each time it is iterated.
+     *
+     * @param eager <code>true</code> to inject the links of collection elements right away, into new lists. The
+     *              elements of a {@link LazyCollection} are always injected when iterated.
+     */
+    public Object injectLinks(Object target, HateoasLinkInjector<Object> injector, LinkProducer linkProducer,
+                              HateoasVerbosity verbosity, boolean eager) {
 
         if (target == null) {
             return target;
         }
         try {
-            return injectLinks(iterator(), target, injector, linkProducer, verbosity);
+            return injectLinks(iterator(), target, injector, linkProducer, verbosity, eager);
         } catch (Exception e) {
             throw new HateoasInjectException(e);
         }
@@ -77,7 +89,8 @@ public class FieldPath implements Iterable<String> {
     @SuppressWarnings("unchecked")
     private Object injectLinks(Iterator<String> pathIterator, Object currentTarget,
                                final HateoasLinkInjector<Object> injector, final LinkProducer linkProducer,
-                               final HateoasVerbosity verbosity) throws NoSuchFieldException, IllegalAccessException {
+                               final HateoasVerbosity verbosity, final boolean eager)
+            throws NoSuchFieldException, IllegalAccessException {
 
         if (currentTarget == null) {
             return currentTarget;
@@ -86,12 +99,12 @@ public class FieldPath implements Iterable<String> {
         if (!pathIterator.hasNext()) {
             if (Collection.class.isAssignableFrom(currentTarget.getClass())) {
                 Collection<Object> targetAsCollection = (Collection<Object>) currentTarget;
-                return Collections2.transform(targetAsCollection, new Function<Object, Object>() {
+                return transform(targetAsCollection, new Function<Object, Object>() {
                     @Override
                     public Object apply(Object entry) {
                         return injector.injectLinks(entry, linkProducer, verbosity);
                     }
-                });
+                }, eager);
             }
             return injector.injectLinks(currentTarget, linkProducer, verbosity);
         }
@@ -107,15 +120,15 @@ public class FieldPath implements Iterable<String> {
             // collection.
             final ImmutableList<String> restOfPath = ImmutableList.copyOf(pathIterator);
             Collection<Object> targetAsCollection = (Collection<Object>) nextTarget;
-            nextResult = Collections2.transform(targetAsCollection, new Function<Object, Object>() {
+            nextResult = transform(targetAsCollection, new Function<Object, Object>() {
                 @Override
                 public Object apply(Object entry) {
                     FieldPath nestedPath = new FieldPath(restOfPath);
-                    return nestedPath.injectLinks(entry, injector, linkProducer, verbosity);
+                    return nestedPath.injectLinks(entry, injector, linkProducer, verbosity, eager);
                 }
-            });
+            }, eager);
         } else {
-            nextResult = injectLinks(pathIterator, nextTarget, injector, linkProducer, verbosity);
+            nextResult = injectLinks(pathIterator, nextTarget, injector, linkProducer, verbosity, eager);
         }
         //ReflectionUtils.setFieldAccessible(currentField);
 
@@ -126,6 +139,12 @@ public class FieldPath implements Iterable<String> {
         return currentTarget;
     }
 
+    private static Collection<Object> transform(Collection<Object> collection, Function<Object, Object> function,
+                                                boolean eager) {
+        Collection<Object> transformed = Collections2.transform(collection, function);
+        return eager && !(collection instanceof LazyCollection) ? Lists.newArrayList(transformed) : transformed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -15,9 +15,12 @@
 package com.jayway.jaxrs.hateoas.support;
 
 import com.jayway.jaxrs.hateoas.HateoasInjectException;
+import com.jayway.jaxrs.hateoas.HateoasLinkBean;
 import com.jayway.jaxrs.hateoas.HateoasLinkInjector;
 import com.jayway.jaxrs.hateoas.HateoasVerbosity;
 import com.jayway.jaxrs.hateoas.LinkProducer;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
 import javassist.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +46,8 @@ public class JavassistHateoasLinkInjector implements HateoasLinkInjector<Object>
 
     private static final ClassPool CLASS_POOL = ClassPool.getDefault();
 
+    static final String CLASS_CACHE_NAME = "javassist-class";
+
     private final static Map<String, Class<?>> TRANSFORMED_CLASSES = new HashMap<String, Class<?>>();
 
     static {
@@ -66,11 +71,18 @@ public class JavassistHateoasLinkInjector implements HateoasLinkInjector<Object>
         }
 
 
-        String newClassName = entity.getClass().getPackage().getName() + "." + entity.getClass().getSimpleName() + "_generated";
+        String newClassName = generatedClassName(entity.getClass());
+
+        HateoasMetrics metrics = HateoasMetricsProvider.getMetrics();
+        boolean cached = TRANSFORMED_CLASSES.containsKey(newClassName);
+        if (metrics.isEnabled()) {
+            metrics.cacheLookup(CLASS_CACHE_NAME, cached);
+        }
 
         Class<?> clazz;
-        if (!TRANSFORMED_CLASSES.containsKey(newClassName)) {
+        if (!cached) {
             synchronized (this) {
+                long start = metrics.isEnabled() ? System.nanoTime() : 0L;
                 try {
                     log.debug("Creating HATEOAS subclass for DTO : {}", entity.getClass());
 
@@ -120,6 +132,9 @@ public class JavassistHateoasLinkInjector implements HateoasLinkInjector<Object>
                     clazz = newClass.toClass(classLoader, entity.getClass().getProtectionDomain());
 
                     TRANSFORMED_CLASSES.put(newClassName, clazz);
+                    if (metrics.isEnabled()) {
+                        metrics.classGenerated(entity.getClass(), System.nanoTime() - start);
+                    }
                 } catch (Exception e) {
                     if(e instanceof HateoasInjectException){
                         throw (HateoasInjectException)e;
@@ -143,4 +158,21 @@ public class JavassistHateoasLinkInjector implements HateoasLinkInjector<Object>
         return injector.injectLinks(newInstance, linkProducer, verbosity);
     }
 
+    /**
+     * @return the class of the entities a class generated by this injector holds, or the class itself if it was not
+     *         generated, e.g. for marshalling the entities with a JAXB context not knowing the generated class.
+     */
+    public static Class<?> getEntityClass(Class<?> clazz) {
+        Class<?> superclass = clazz.getSuperclass();
+        if (superclass != null && HateoasLinkBean.class.isAssignableFrom(clazz)
+                && clazz.getName().equals(generatedClassName(superclass))) {
+            return superclass;
+        }
+        return clazz;
+    }
+
+    private static String generatedClassName(Class<?> entityClass) {
+        return entityClass.getPackage().getName() + "." + entityClass.getSimpleName() + "_generated";
+    }
+
 }
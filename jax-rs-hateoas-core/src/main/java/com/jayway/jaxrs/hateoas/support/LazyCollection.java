@@ -0,0 +1,63 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.support;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+
+/**
+ * Collection reading its elements from a source when iterated rather than holding them, for responses streaming
+ * large collections such as exports, see {@link com.jayway.jaxrs.hateoas.jackson.NdjsonCollectionWriter}. Each
+ * iteration reads the source anew, so the source should be cheap to iterate only when the response is written, e.g.
+ * a query.
+ * <p/>
+ * The size is unknown up front, so {@link #size()} iterates the whole source. Avoid anything using it, as well as
+ * {@link com.jayway.jaxrs.hateoas.core.HateoasResponse.HateoasResponseBuilder#autoTag()}, which hashes every row.
+ * Its rows are injected as they are written even when metrics or timing is enabled, so the links of the rows are
+ * neither counted nor timed.
+ *
+ * @param <T> the type of the elements.
+ */
+public class LazyCollection<T> extends AbstractCollection<T> {
+
+    private final Iterable<T> source;
+
+    public LazyCollection(Iterable<T> source) {
+        this.source = source;
+    }
+
+    public static <T> LazyCollection<T> of(Iterable<T> source) {
+        return new LazyCollection<T>(source);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return source.iterator();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Iterator<T> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+            size++;
+        }
+        return size;
+    }
+}
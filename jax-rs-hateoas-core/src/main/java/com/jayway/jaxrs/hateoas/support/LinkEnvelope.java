@@ -0,0 +1,46 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.support;
+
+import com.jayway.jaxrs.hateoas.jackson.LinkEnvelopeSerializer;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Holds an unchanged entity together with its links, as created by {@link EnvelopeHateoasLinkInjector}. Serialized
+ * by {@link LinkEnvelopeSerializer} as a single object with the properties of the entity followed by the links.
+ *
+ * @see EnvelopeHateoasLinkInjector
+ */
+@JsonSerialize(using = LinkEnvelopeSerializer.class)
+public final class LinkEnvelope {
+    private final Object entity;
+    private final Collection<Map<String, Object>> links;
+
+    public LinkEnvelope(Object entity, Collection<Map<String, Object>> links) {
+        this.entity = entity;
+        this.links = links;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    public Collection<Map<String, Object>> getLinks() {
+        return links;
+    }
+}
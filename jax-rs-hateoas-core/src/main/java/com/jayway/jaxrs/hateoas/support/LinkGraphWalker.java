@@ -0,0 +1,269 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.support;
+
+import com.jayway.jaxrs.hateoas.*;
+import com.jayway.jaxrs.hateoas.usage.LinkUsageTracker;
+import com.jayway.jaxrs.hateoas.web.LinkFilter;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Injects links into an object graph in a single walk, applying both the LinkProducers mapped to explicit
+ * {@link FieldPath}s and the type based link rules of the {@link HateoasContext}. Not intended for external use.
+ * <p/>
+ * The FieldPaths are merged into a tree that is followed during the walk, while every other reference field is
+ * walked as well in order to find objects matched by the link rules. Objects reachable through several references
+ * are only injected once, which also protects against cycles. A new instance is needed for each graph.
+ */
+public final class LinkGraphWalker {
+
+    private static final Logger log = LoggerFactory.getLogger(LinkGraphWalker.class);
+
+    private static final ConcurrentMap<Class<?>, Field[]> WALKED_FIELDS = new ConcurrentHashMap<Class<?>, Field[]>();
+
+    private static final ConcurrentMap<Field, Boolean> NOT_WRITTEN = new ConcurrentHashMap<Field, Boolean>();
+
+    private final HateoasContext context;
+    private final HateoasLinkInjector<Object> linkInjector;
+    private final HateoasVerbosity verbosity;
+
+    private final Node root = new Node();
+
+    private final Map<Object, Object> visited = new IdentityHashMap<Object, Object>();
+
+    public LinkGraphWalker(HateoasContext context, HateoasLinkInjector<Object> linkInjector, HateoasVerbosity verbosity) {
+        this.context = context;
+        this.linkInjector = linkInjector;
+        this.verbosity = verbosity;
+    }
+
+    /**
+     * Add a LinkProducer for the objects at the specified FieldPath.
+     *
+     * @param fieldPath    the FieldPath of the targeted objects.
+     * @param linkProducer the LinkProducer to apply to the targeted objects.
+     * @return this.
+     */
+    public LinkGraphWalker addPath(FieldPath fieldPath, LinkProducer<Object> linkProducer) {
+        Node node = root;
+        for (String fieldName : fieldPath) {
+            Node child = node.children.get(fieldName);
+            if (child == null) {
+                child = new Node();
+                node.children.put(fieldName, child);
+            }
+            node = child;
+        }
+        node.linkProducers.add(linkProducer);
+        return this;
+    }
+
+    /**
+     * Walk the graph, injecting all links.
+     *
+     * @param entity the root of the graph.
+     * @return the root of the graph after link injection.
+     */
+    public Object walk(Object entity) {
+        try {
+            return visit(entity, root);
+        } catch (IllegalAccessException e) {
+            throw new HateoasInjectException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object visit(Object target, Node node) throws IllegalAccessException {
+        if (target == null || target instanceof HateoasLink) {
+            return target;
+        }
+
+        if (target instanceof Collection) {
+            // As with FieldPath, a collection anywhere in the path means that the rest of the path applies to each
+            // of its elements.
+            Collection<Object> collection = (Collection<Object>) target;
+            Collection<Object> result = collection instanceof Set
+                    ? new LinkedHashSet<Object>() : new ArrayList<Object>(collection.size());
+            boolean changed = false;
+            for (Object element : collection) {
+                Object newElement = visit(element, node);
+                changed |= newElement != element;
+                result.add(newElement);
+            }
+            return changed ? result : target;
+        }
+
+        if (!isWalkable(target.getClass())) {
+            // Maps and the like are not walked, but may still be the target of a FieldPath.
+            if (node != null && !node.linkProducers.isEmpty()) {
+                return linkInjector.injectLinks(target, new CompositeLinkProducer(node.linkProducers,
+                        Collections.<LinkProducer<Object>>emptyList()), verbosity);
+            }
+            return target;
+        }
+
+        Object previous = visited.get(target);
+        if (previous != null) {
+            return previous;
+        }
+        visited.put(target, target);
+
+        Field[] fields = walkedFields(target.getClass());
+        for (Field field : fields) {
+            Node child = node == null ? null : node.children.get(field.getName());
+            Object value = field.get(target);
+            Object newValue = visit(value, child);
+            if (newValue != value) {
+                setField(target, field, value, newValue);
+            }
+        }
+        if (node != null) {
+            for (String fieldName : node.children.keySet()) {
+                if (!containsField(fields, fieldName)) {
+                    throw new HateoasInjectException("Field not found: " + fieldName + " in " + target.getClass());
+                }
+            }
+        }
+
+        List<LinkProducer<Object>> rules = context.getLinkRules(target.getClass());
+        List<LinkProducer<Object>> linkProducers = node == null ? Collections.<LinkProducer<Object>>emptyList() : node.linkProducers;
+
+        Object result = target;
+        if (!rules.isEmpty() || !linkProducers.isEmpty()) {
+            result = linkInjector.injectLinks(target, new CompositeLinkProducer(linkProducers, rules), verbosity);
+        }
+        visited.put(target, result);
+        return result;
+    }
+
+    /**
+     * Write back the result of visiting a field. A collection is rebuilt as a list or a set when its elements are
+     * replaced by the injector, which may not fit the declared type of the field. The elements of a list are then
+     * replaced in place, those of other collections such as sorted sets are left as they are.
+     */
+    @SuppressWarnings("unchecked")
+    private static void setField(Object target, Field field, Object value, Object newValue) throws IllegalAccessException {
+        if (field.getType().isInstance(newValue)) {
+            field.set(target, newValue);
+        } else if (value instanceof List && newValue instanceof List) {
+            try {
+                ListIterator<Object> iterator = ((List<Object>) value).listIterator();
+                for (Object element : (List<Object>) newValue) {
+                    iterator.next();
+                    iterator.set(element);
+                }
+            } catch (UnsupportedOperationException e) {
+                warnNotWritten(field);
+            }
+        } else {
+            warnNotWritten(field);
+        }
+    }
+
+    private static void warnNotWritten(Field field) {
+        if (NOT_WRITTEN.putIfAbsent(field, Boolean.TRUE) == null) {
+            log.warn("The elements of " + field + " were replaced when injecting links, but can not be written back to "
+                    + "a field of that type. Declare the field as a List, Set or Collection, or use a link injector "
+                    + "injecting links in place.");
+        }
+    }
+
+    private static boolean containsField(Field[] fields, String fieldName) {
+        for (Field field : fields) {
+            if (field.getName().equals(fieldName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWalkable(Class<?> clazz) {
+        return !(clazz.isArray() || clazz.isEnum() || clazz.isPrimitive() || Map.class.isAssignableFrom(clazz)
+                || clazz.getName().startsWith("java."));
+    }
+
+    private static Field[] walkedFields(Class<?> clazz) {
+        Field[] fields = WALKED_FIELDS.get(clazz);
+        if (fields == null) {
+            List<Field> result = new ArrayList<Field>();
+            for (Class<?> current = clazz; current != null && !current.equals(Object.class); current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || field.isSynthetic() || !mayReferenceObjects(field.getType())) {
+                        continue;
+                    }
+                    ReflectionUtils.setFieldAccessible(field);
+                    result.add(field);
+                }
+            }
+            fields = result.toArray(new Field[result.size()]);
+            WALKED_FIELDS.putIfAbsent(clazz, fields);
+        }
+        return fields;
+    }
+
+    private static boolean mayReferenceObjects(Class<?> type) {
+        if (type.isPrimitive() || type.isEnum()) {
+            return false;
+        }
+        return !(type.equals(String.class) || Number.class.isAssignableFrom(type) || type.equals(Boolean.class)
+                || type.equals(Character.class) || Date.class.isAssignableFrom(type));
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<String, Node>();
+        private final List<LinkProducer<Object>> linkProducers = new ArrayList<LinkProducer<Object>>();
+    }
+
+    private static final class CompositeLinkProducer implements LinkProducer<Object> {
+        private final List<LinkProducer<Object>> first;
+        private final List<LinkProducer<Object>> second;
+
+        private CompositeLinkProducer(List<LinkProducer<Object>> first, List<LinkProducer<Object>> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Collection<HateoasLink> getLinks(Object entity) {
+            Collection<HateoasLink> result = new ArrayList<HateoasLink>();
+            for (LinkProducer<Object> linkProducer : first) {
+                result.addAll(linkProducer.getLinks(entity));
+            }
+            LinkFilter linkFilter = LinkFilter.current();
+            LinkUsageTracker tracker = LinkUsageTracker.getCurrent();
+            for (LinkProducer<Object> linkProducer : second) {
+                Collection<HateoasLink> links = linkProducer.getLinks(entity);
+                if (linkFilter != null) {
+                    links = linkFilter.filter(links);
+                }
+                if (tracker != null) {
+                    // The links of the first producers are recorded by the response builder.
+                    tracker.linksEmitted(RequestContext.getRequestContext(), links);
+                }
+                result.addAll(links);
+            }
+            return linkFilter == null ? result : linkFilter.filter(result);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.support;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasOption;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.Linkable;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map representation of a link as returned by {@link HateoasLink#toMap(HateoasVerbosity)}, holding the link and the
+ * verbosity rather than the entries. The entries are created by the {@link HateoasOption}s of the verbosity on first
+ * access, so a serializer knowing this class, see {@link com.jayway.jaxrs.hateoas.jackson.HateoasJacksonModule}, can
+ * write the link directly and the map is never filled. The map is modifiable like any other link map.
+ * <p/>
+ * The entries of links with a template are created right away if the verbosity contains
+ * {@link HateoasOption#TEMPLATE}, so that a template class that can not be instantiated fails
+ * {@link HateoasLink#toMap(HateoasVerbosity)} rather than the serialization of the response.
+ * <p/>
+ * Instances are not thread safe.
+ */
+public final class LinkMap extends AbstractMap<String, Object> {
+
+    private final HateoasLink link;
+    private final HateoasVerbosity verbosity;
+    private Map<String, Object> entries;
+
+    public LinkMap(HateoasLink link, HateoasVerbosity verbosity) {
+        this.link = link;
+        this.verbosity = verbosity;
+        if (hasTemplate(link, verbosity)) {
+            entries();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the verbosity includes the template of the link, which is instantiated from its
+     *         template class.
+     */
+    private static boolean hasTemplate(HateoasLink link, HateoasVerbosity verbosity) {
+        if ("GET".equals(link.getMethod()) || "DELETE".equals(link.getMethod())
+                || link.getTemplateClass() == null || link.getTemplateClass().equals(Linkable.NoTemplate.class)) {
+            return false;
+        }
+        for (HateoasOption option : verbosity.getOptions()) {
+            if (option == HateoasOption.TEMPLATE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public HateoasLink getLink() {
+        return link;
+    }
+
+    public HateoasVerbosity getVerbosity() {
+        return verbosity;
+    }
+
+    /**
+     * @return <code>true</code> if the entries were created, in which case they may have been modified and no longer
+     *         correspond to the link.
+     */
+    public boolean isMaterialized() {
+        return entries != null;
+    }
+
+    private Map<String, Object> entries() {
+        if (entries == null) {
+            Map<String, Object> map = new LinkedHashMap<String, Object>();
+            for (HateoasOption option : verbosity.getOptions()) {
+                option.addTo(map, link);
+            }
+            entries = map;
+        }
+        return entries;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return entries().entrySet();
+    }
+
+    @Override
+    public int size() {
+        return entries().size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries().containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return entries().get(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return entries().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return entries().remove(key);
+    }
+}
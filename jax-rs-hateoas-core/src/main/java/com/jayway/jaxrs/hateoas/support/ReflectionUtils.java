@@ -19,6 +19,8 @@ import com.jayway.jaxrs.hateoas.HateoasInjectException;
 
 import java.lang.reflect.Field;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * General reflection utilities. Not intended for external use.
@@ -27,6 +29,13 @@ import java.util.Collection;
  * @author Kalle Stenflo
  */
 public class ReflectionUtils {
+
+    /**
+     * Fields found by {@link #getFieldValueHierarchical(Object, String)}, since looking a field up copies it.
+     */
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Field>> HIERARCHICAL_FIELDS =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Field>>();
+
     private ReflectionUtils() {
 
     }
@@ -76,7 +85,20 @@ public class ReflectionUtils {
 
     public static Object getFieldValueHierarchical(Object entity, String fieldName) {
         try {
-            Field field = getFieldHierarchical(entity.getClass(), fieldName);
+            Class<?> clazz = entity.getClass();
+            ConcurrentMap<String, Field> fields = HIERARCHICAL_FIELDS.get(clazz);
+            if (fields == null) {
+                fields = new ConcurrentHashMap<String, Field>();
+                ConcurrentMap<String, Field> existing = HIERARCHICAL_FIELDS.putIfAbsent(clazz, fields);
+                if (existing != null) {
+                    fields = existing;
+                }
+            }
+            Field field = fields.get(fieldName);
+            if (field == null) {
+                field = getFieldHierarchical(clazz, fieldName);
+                fields.putIfAbsent(fieldName, field);
+            }
             return field.get(entity);
         } catch (Exception e) {
             throw new HateoasInjectException(e);
@@ -5,6 +5,10 @@ import com.jayway.jaxrs.hateoas.HateoasInjectException;
 import com.jayway.jaxrs.hateoas.HateoasLinkInjector;
 import com.jayway.jaxrs.hateoas.HateoasVerbosity;
 import com.jayway.jaxrs.hateoas.LinkProducer;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import com.jayway.jaxrs.hateoas.web.ServerTimingRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,8 +25,15 @@ public class StrategyBasedLinkInjector implements HateoasLinkInjector<Object> {
 
     private static final Logger log = LoggerFactory.getLogger(StrategyBasedLinkInjector.class);
 
+    static final String STRATEGY_CACHE_NAME = "injector-strategy";
+
     private List<HateoasLinkInjector<Object>> strategies;
 
+    /**
+     * The {@link ServerTimingRecorder} phase of each strategy, by class.
+     */
+    private final Map<Class<?>, String> timingPhases = new HashMap<Class<?>, String>();
+
     private static final Map<Class<?>, HateoasLinkInjector<Object>> INJECTOR_MAPPING = new HashMap<Class<?>, HateoasLinkInjector<Object>>();
     
     public StrategyBasedLinkInjector() {
@@ -31,6 +42,13 @@ public class StrategyBasedLinkInjector implements HateoasLinkInjector<Object> {
         strategies.add(new HateoasLinkBeanLinkInjector());
         strategies.add(new ReflectionBasedHateoasLinkInjector());
         strategies.add(new JavassistHateoasLinkInjector());
+        for (HateoasLinkInjector<Object> strategy : strategies) {
+            timingPhases.put(strategy.getClass(), timingPhase(strategy.getClass()));
+        }
+    }
+
+    private static String timingPhase(Class<?> injectorClass) {
+        return ServerTimingRecorder.INJECT + "-" + injectorClass.getSimpleName();
     }
 
     @Override
@@ -40,7 +58,16 @@ public class StrategyBasedLinkInjector implements HateoasLinkInjector<Object> {
 
     @Override
     public Object injectLinks(Object entity, LinkProducer<Object> objectLinkProducer, HateoasVerbosity verbosity) {
-        if(!INJECTOR_MAPPING.containsKey(entity.getClass())){
+        HateoasMetrics metrics = HateoasMetricsProvider.getMetrics();
+        RequestContext requestContext = RequestContext.getRequestContext();
+        ServerTimingRecorder timing = requestContext != null ? requestContext.getServerTiming() : null;
+        long start = metrics.isEnabled() || timing != null ? System.nanoTime() : 0L;
+
+        boolean cached = INJECTOR_MAPPING.containsKey(entity.getClass());
+        if (metrics.isEnabled()) {
+            metrics.cacheLookup(STRATEGY_CACHE_NAME, cached);
+        }
+        if(!cached){
             synchronized (this) {
                 for (HateoasLinkInjector<Object> strategy : strategies) {
                     log.debug("Trying link injector strategy : " + strategy.getClass().getName() );
@@ -62,6 +89,17 @@ public class StrategyBasedLinkInjector implements HateoasLinkInjector<Object> {
             throw new HateoasInjectException("No suitable injector found for " + entity.getClass());
         }
 
-        return injector.injectLinks(entity, objectLinkProducer, verbosity);
+        Object result = injector.injectLinks(entity, objectLinkProducer, verbosity);
+        if (metrics.isEnabled() || timing != null) {
+            long elapsed = System.nanoTime() - start;
+            if (metrics.isEnabled()) {
+                metrics.linksInjected(injector.getClass(), entity.getClass(), elapsed);
+            }
+            if (timing != null) {
+                String phase = timingPhases.get(injector.getClass());
+                timing.add(phase != null ? phase : timingPhase(injector.getClass()), elapsed);
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.usage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of the usage recorded by a {@link LinkUsageTracker}: per endpoint, the links it emitted and how often
+ * they were followed.
+ */
+public final class LinkUsageReport {
+
+    private final List<EndpointReport> endpoints;
+
+    LinkUsageReport(List<EndpointReport> endpoints) {
+        this.endpoints = Collections.unmodifiableList(endpoints);
+    }
+
+    public List<EndpointReport> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return the report for the endpoint with the specified id, or <code>null</code> if nothing was recorded for it.
+     */
+    public EndpointReport getEndpoint(String id) {
+        for (EndpointReport endpoint : endpoints) {
+            if (endpoint.getId().equals(id)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (EndpointReport endpoint : endpoints) {
+            sb.append(endpoint.getId()).append(" (").append(endpoint.getRequests()).append(" requests)\n");
+            for (LinkReport link : endpoint.getLinks()) {
+                sb.append("  -> ").append(link.getTarget())
+                        .append(": emitted ").append(link.getEmitted())
+                        .append(", followed ").append(link.getFollowed())
+                        .append(" (+").append(link.getUnattributedFollows()).append(" without referer)");
+                if (link.isSuppressed()) {
+                    sb.append(", suppressed");
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    public static final class EndpointReport {
+        private final String id;
+        private final long requests;
+        private final List<LinkReport> links;
+
+        EndpointReport(String id, long requests, List<LinkReport> links) {
+            this.id = id;
+            this.requests = requests;
+            this.links = Collections.unmodifiableList(links);
+        }
+
+        /**
+         * @return the id of the {@link com.jayway.jaxrs.hateoas.Linkable} endpoint.
+         */
+        public String getId() {
+            return id;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public List<LinkReport> getLinks() {
+            return links;
+        }
+
+        /**
+         * @return the report for the link to the endpoint with the specified id, or <code>null</code> if there is
+         *         none.
+         */
+        public LinkReport getLink(String target) {
+            for (LinkReport link : links) {
+                if (link.getTarget().equals(target)) {
+                    return link;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final class LinkReport {
+        private final String target;
+        private final long emitted;
+        private final long followed;
+        private final long unattributedFollows;
+        private final boolean suppressed;
+
+        LinkReport(String target, long emitted, long followed, long unattributedFollows, boolean suppressed) {
+            this.target = target;
+            this.emitted = emitted;
+            this.followed = followed;
+            this.unattributedFollows = unattributedFollows;
+            this.suppressed = suppressed;
+        }
+
+        /**
+         * @return the id of the {@link com.jayway.jaxrs.hateoas.Linkable} endpoint the link points to.
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        /**
+         * @return the number of times the link was emitted by the endpoint.
+         */
+        public long getEmitted() {
+            return emitted;
+        }
+
+        /**
+         * @return the number of requests to the target with a <code>Referer</code> matching the endpoint.
+         */
+        public long getFollowed() {
+            return followed;
+        }
+
+        /**
+         * @return the number of requests to the target without a matching <code>Referer</code>, from any endpoint.
+         */
+        public long getUnattributedFollows() {
+            return unattributedFollows;
+        }
+
+        public boolean isSuppressed() {
+            return suppressed;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.usage;
+
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.HateoasContext;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import com.jayway.jaxrs.hateoas.web.LinkFilter;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+
+import javax.ws.rs.HttpMethod;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+
+/**
+ * Records which links clients actually follow. Each request is matched back to the {@link LinkableInfo} serving it
+ * using {@link HateoasContext#matchLinkableInfo(String, String)}, its endpoint. Links in the responses of an endpoint
+ * are counted per target, and a request counts as following a link from the endpoint matching its
+ * <code>Referer</code> header. Requests without a matching <code>Referer</code> count as following the link to their
+ * endpoint from anywhere, so that links are never suppressed for clients not sending the header.
+ * <p/>
+ * With {@link Policy#SUPPRESS_UNFOLLOWED} links recently emitted at least <code>minEmitted</code> times by an endpoint
+ * but not followed are left out of its responses, using a {@link LinkFilter}. The suppressed links are recomputed once
+ * per refresh interval, from counts halved on each refresh so that usage recorded long ago fades out. One in
+ * <code>sampleInterval</code> responses of an endpoint still includes its suppressed links, and a suppressed link is
+ * emitted again as soon as one of those is followed.
+ * <p/>
+ * The tracker in use is part of the {@link HateoasConfiguration}, none by default.
+ */
+public class LinkUsageTracker {
+
+    public static final long DEFAULT_MIN_EMITTED = 1000;
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 10000;
+    public static final int DEFAULT_SAMPLE_INTERVAL = 100;
+
+    static final String REFERER_HEADER = "Referer";
+
+    /**
+     * What to do with the recorded usage.
+     */
+    public enum Policy {
+        /**
+         * Only record usage, see {@link #report()}.
+         */
+        REPORT,
+        /**
+         * Record usage and leave out links never followed.
+         */
+        SUPPRESS_UNFOLLOWED
+    }
+
+    private final HateoasContext context;
+    private final Policy policy;
+    private final long minEmitted;
+    private final long refreshIntervalNanos;
+    private final int sampleInterval;
+
+    private final ConcurrentMap<String, EndpointUsage> endpoints = new ConcurrentHashMap<String, EndpointUsage>();
+    private final ConcurrentMap<String, AtomicLong> unattributedFollows = new ConcurrentHashMap<String, AtomicLong>();
+    /**
+     * Guarded by the tracker, maintained by {@link #refresh()}.
+     */
+    private final Map<String, DecayedCount> recentUnattributedFollows = new HashMap<String, DecayedCount>();
+    private final AtomicLong nextRefresh;
+
+    public LinkUsageTracker(HateoasContext context, Policy policy, long minEmitted) {
+        this(context, policy, minEmitted, DEFAULT_REFRESH_INTERVAL_MILLIS);
+    }
+
+    public LinkUsageTracker(HateoasContext context, Policy policy, long minEmitted, long refreshIntervalMillis) {
+        this(context, policy, minEmitted, refreshIntervalMillis, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param sampleInterval one in this many responses of an endpoint includes the links suppressed for it.
+     */
+    public LinkUsageTracker(HateoasContext context, Policy policy, long minEmitted, long refreshIntervalMillis,
+                            int sampleInterval) {
+        notNull(context, "context must not be null");
+        notNull(policy, "policy must not be null");
+        isTrue(minEmitted > 0, "minEmitted must be positive");
+        isTrue(refreshIntervalMillis >= 0, "refreshIntervalMillis must not be negative");
+        isTrue(sampleInterval > 0, "sampleInterval must be positive");
+        this.context = context;
+        this.policy = policy;
+        this.minEmitted = minEmitted;
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+        this.sampleInterval = sampleInterval;
+        this.nextRefresh = new AtomicLong(System.nanoTime() + refreshIntervalNanos);
+    }
+
+    /**
+     * Set the tracker of the default {@link HateoasConfiguration}.
+     */
+    public static void setCurrent(LinkUsageTracker tracker) {
+        HateoasConfiguration.getDefault().setLinkUsageTracker(tracker);
+    }
+
+    /**
+     * @return the tracker of the current request, or <code>null</code> if usage is not tracked.
+     * @see HateoasConfiguration#current()
+     */
+    public static LinkUsageTracker getCurrent() {
+        return HateoasConfiguration.current().getLinkUsageTracker();
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Record a request, setting its endpoint on the supplied RequestContext.
+     *
+     * @param requestContext the context of the request.
+     * @param httpMethod     the method of the request.
+     * @param path           the path of the request relative to the application root.
+     */
+    public void requestReceived(RequestContext requestContext, String httpMethod, String path) {
+        LinkableInfo endpoint = context.matchLinkableInfo(httpMethod, path);
+        if (endpoint == null) {
+            return;
+        }
+        requestContext.setEndpoint(endpoint);
+        endpointUsage(endpoint.getId()).requests.incrementAndGet();
+
+        LinkableInfo source = matchReferer(requestContext);
+        if (source != null) {
+            endpointUsage(source.getId()).linkUsage(endpoint.getId()).followed.incrementAndGet();
+        } else {
+            counter(unattributedFollows, endpoint.getId()).incrementAndGet();
+        }
+
+        if (policy == Policy.SUPPRESS_UNFOLLOWED) {
+            long now = System.nanoTime();
+            long next = nextRefresh.get();
+            if (now - next >= 0 && nextRefresh.compareAndSet(next, now + refreshIntervalNanos)) {
+                refresh();
+            }
+        }
+    }
+
+    /**
+     * Record links emitted in the response to the request of the supplied RequestContext.
+     */
+    public void linksEmitted(RequestContext requestContext, Collection<HateoasLink> links) {
+        LinkableInfo endpoint = requestContext == null ? null : requestContext.getEndpoint();
+        if (endpoint == null || links.isEmpty()) {
+            return;
+        }
+        EndpointUsage usage = endpointUsage(endpoint.getId());
+        for (HateoasLink link : links) {
+            if (link.getId() != null) {
+                usage.linkUsage(link.getId()).emitted.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return a filter excluding the links suppressed for the supplied endpoint, or <code>null</code> if none are or
+     *         the response is one of the samples including them.
+     */
+    public LinkFilter getSuppressed(LinkableInfo endpoint) {
+        EndpointUsage usage = endpoints.get(endpoint.getId());
+        LinkFilter suppressed = usage == null ? null : usage.suppressed;
+        if (suppressed != null && usage.lookups.incrementAndGet() % sampleInterval == 0) {
+            return null;
+        }
+        return suppressed;
+    }
+
+    /**
+     * Recompute the suppressed links of all endpoints. Done periodically when requests are received.
+     * <p/>
+     * A link is suppressed if it was not followed recently, and either already was suppressed or was emitted at least
+     * <code>minEmitted</code> times recently. Recent counts are halved on each refresh.
+     */
+    public synchronized void refresh() {
+        if (policy != Policy.SUPPRESS_UNFOLLOWED) {
+            return;
+        }
+        for (Map.Entry<String, AtomicLong> entry : unattributedFollows.entrySet()) {
+            DecayedCount recent = recentUnattributedFollows.get(entry.getKey());
+            if (recent == null) {
+                recent = new DecayedCount();
+                recentUnattributedFollows.put(entry.getKey(), recent);
+            }
+            recent.update(entry.getValue().get());
+        }
+        for (EndpointUsage usage : endpoints.values()) {
+            List<LinkableInfo> suppressed = new ArrayList<LinkableInfo>();
+            for (Map.Entry<String, LinkUsage> entry : usage.links.entrySet()) {
+                LinkUsage linkUsage = entry.getValue();
+                long emitted = linkUsage.recentEmitted.update(linkUsage.emitted.get());
+                long followed = linkUsage.recentFollowed.update(linkUsage.followed.get());
+                DecayedCount unattributed = recentUnattributedFollows.get(entry.getKey());
+                linkUsage.suppressed = followed == 0 && (unattributed == null || unattributed.value == 0)
+                        && (linkUsage.suppressed || emitted >= minEmitted);
+                if (linkUsage.suppressed) {
+                    LinkableInfo target = context.findLinkableInfo(entry.getKey());
+                    if (target != null) {
+                        suppressed.add(target);
+                    }
+                }
+            }
+            usage.suppressed = LinkFilter.excluding(suppressed);
+        }
+    }
+
+    /**
+     * @return the usage recorded so far.
+     */
+    public LinkUsageReport report() {
+        List<LinkUsageReport.EndpointReport> result = new ArrayList<LinkUsageReport.EndpointReport>();
+        for (Map.Entry<String, EndpointUsage> endpoint : endpoints.entrySet()) {
+            EndpointUsage usage = endpoint.getValue();
+            List<LinkUsageReport.LinkReport> links = new ArrayList<LinkUsageReport.LinkReport>();
+            for (Map.Entry<String, LinkUsage> link : usage.links.entrySet()) {
+                String target = link.getKey();
+                LinkableInfo targetInfo = context.findLinkableInfo(target);
+                LinkFilter suppressed = usage.suppressed;
+                links.add(new LinkUsageReport.LinkReport(target, link.getValue().emitted.get(),
+                        link.getValue().followed.get(), getUnattributedFollows(target),
+                        suppressed != null && targetInfo != null && !suppressed.accepts(targetInfo, null)));
+            }
+            result.add(new LinkUsageReport.EndpointReport(endpoint.getKey(), usage.requests.get(), links));
+        }
+        return new LinkUsageReport(result);
+    }
+
+    /**
+     * Forget all recorded usage and suppressed links.
+     */
+    public synchronized void reset() {
+        endpoints.clear();
+        unattributedFollows.clear();
+        recentUnattributedFollows.clear();
+    }
+
+    private long getUnattributedFollows(String target) {
+        AtomicLong follows = unattributedFollows.get(target);
+        return follows == null ? 0 : follows.get();
+    }
+
+    private LinkableInfo matchReferer(RequestContext requestContext) {
+        String referer = requestContext.getHeader(REFERER_HEADER);
+        if (referer == null) {
+            return null;
+        }
+        String base = requestContext.getBasePath().build().toString();
+        if (!referer.startsWith(base)) {
+            return null;
+        }
+        String path = referer.substring(base.length());
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.indexOf('#');
+        }
+        return context.matchLinkableInfo(HttpMethod.GET, end < 0 ? path : path.substring(0, end));
+    }
+
+    private EndpointUsage endpointUsage(String id) {
+        EndpointUsage usage = endpoints.get(id);
+        if (usage == null) {
+            usage = new EndpointUsage();
+            EndpointUsage existing = endpoints.putIfAbsent(id, usage);
+            if (existing != null) {
+                usage = existing;
+            }
+        }
+        return usage;
+    }
+
+    private static AtomicLong counter(ConcurrentMap<String, AtomicLong> counters, String id) {
+        AtomicLong counter = counters.get(id);
+        if (counter == null) {
+            counter = new AtomicLong();
+            AtomicLong existing = counters.putIfAbsent(id, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        return counter;
+    }
+
+    private static final class EndpointUsage {
+        private final AtomicLong requests = new AtomicLong();
+        private final ConcurrentMap<String, LinkUsage> links = new ConcurrentHashMap<String, LinkUsage>();
+        private volatile LinkFilter suppressed;
+        private final AtomicLong lookups = new AtomicLong();
+
+        private LinkUsage linkUsage(String target) {
+            LinkUsage usage = links.get(target);
+            if (usage == null) {
+                usage = new LinkUsage();
+                LinkUsage existing = links.putIfAbsent(target, usage);
+                if (existing != null) {
+                    usage = existing;
+                }
+            }
+            return usage;
+        }
+    }
+
+    private static final class LinkUsage {
+        private final AtomicLong emitted = new AtomicLong();
+        private final AtomicLong followed = new AtomicLong();
+        // Maintained by refresh().
+        private final DecayedCount recentEmitted = new DecayedCount();
+        private final DecayedCount recentFollowed = new DecayedCount();
+        private boolean suppressed;
+    }
+
+    /**
+     * A count halved on each refresh, computed from a total that only grows. Maintained by refresh().
+     */
+    private static final class DecayedCount {
+        private long counted;
+        private long value;
+
+        private long update(long total) {
+            value = value / 2 + (total - counted);
+            counted = total;
+            return value;
+        }
+    }
+}
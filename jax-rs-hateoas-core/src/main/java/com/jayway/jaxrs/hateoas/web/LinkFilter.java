@@ -0,0 +1,163 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.web;
+
+import com.jayway.jaxrs.hateoas.HateoasContext;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The links a client wants, as listed in the {@link RequestContext#HATEOAS_LINKS_HEADER} header of its request.
+ * Entries are rels or {@link com.jayway.jaxrs.hateoas.Linkable} ids; a link is wanted if either its rel or its id is
+ * listed. Ids are resolved once per request to a bit set over {@link LinkableInfo#getHandle()}s, so that link
+ * producers can skip unwanted links before doing any work for them.
+ * <p/>
+ * A filter may also exclude links by id regardless of what the client wants, see
+ * {@link com.jayway.jaxrs.hateoas.usage.LinkUsageTracker}.
+ */
+public final class LinkFilter {
+
+    private final Set<String> entries;
+    private final BitSet handles;
+    private final Set<String> excludedIds;
+    private final BitSet excludedHandles;
+
+    private LinkFilter(Set<String> entries, BitSet handles, Set<String> excludedIds, BitSet excludedHandles) {
+        this.entries = entries;
+        this.handles = handles;
+        this.excludedIds = excludedIds;
+        this.excludedHandles = excludedHandles;
+    }
+
+    /**
+     * Parse a list of wanted rels and ids.
+     *
+     * @param value   comma-delimited (,) or semi-colon (;) String of rels and ids.
+     * @param context the context to resolve ids in.
+     * @return the filter, or <code>null</code> if the value is blank, i.e. all links are wanted.
+     */
+    public static LinkFilter parse(String value, HateoasContext context) {
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        Set<String> entries = new HashSet<String>();
+        BitSet handles = new BitSet();
+        for (String entry : StringUtils.split(value, value.contains(",") ? "," : ";")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            entries.add(entry);
+            LinkableInfo linkableInfo = context.findLinkableInfo(entry);
+            if (linkableInfo != null && linkableInfo.getHandle() >= 0) {
+                handles.set(linkableInfo.getHandle());
+            }
+        }
+        return new LinkFilter(entries, handles, Collections.<String>emptySet(), new BitSet());
+    }
+
+    /**
+     * Create a filter wanting all links but the ones to the supplied LinkableInfos.
+     *
+     * @return the filter, or <code>null</code> if nothing is excluded.
+     */
+    public static LinkFilter excluding(Collection<LinkableInfo> linkableInfos) {
+        if (linkableInfos.isEmpty()) {
+            return null;
+        }
+        Set<String> excludedIds = new HashSet<String>();
+        BitSet excludedHandles = new BitSet();
+        for (LinkableInfo linkableInfo : linkableInfos) {
+            excludedIds.add(linkableInfo.getId());
+            if (linkableInfo.getHandle() >= 0) {
+                excludedHandles.set(linkableInfo.getHandle());
+            }
+        }
+        return new LinkFilter(null, null, excludedIds, excludedHandles);
+    }
+
+    /**
+     * @return a filter wanting the links wanted by the first filter, except the ones excluded by the second.
+     *         Either may be <code>null</code>.
+     */
+    public static LinkFilter combine(LinkFilter wanted, LinkFilter excluding) {
+        if (wanted == null || excluding == null) {
+            return wanted == null ? excluding : wanted;
+        }
+        return new LinkFilter(wanted.entries, wanted.handles, excluding.excludedIds, excluding.excludedHandles);
+    }
+
+    /**
+     * @return the filter of the current request, or <code>null</code> if all links are wanted.
+     */
+    public static LinkFilter current() {
+        RequestContext requestContext = RequestContext.getRequestContext();
+        return requestContext == null ? null : requestContext.getLinkFilter();
+    }
+
+    /**
+     * Check whether a link is wanted before creating it.
+     *
+     * @param linkableInfo the target of the link.
+     * @param rel          the rel of the link.
+     * @return <code>true</code> if the link is wanted.
+     */
+    public boolean accepts(LinkableInfo linkableInfo, String rel) {
+        int handle = linkableInfo.getHandle();
+        if (handle >= 0 ? excludedHandles.get(handle) : excludedIds.contains(linkableInfo.getId())) {
+            return false;
+        }
+        if (entries == null) {
+            return true;
+        }
+        boolean idAccepted = handle >= 0 ? handles.get(handle) : entries.contains(linkableInfo.getId());
+        return idAccepted || (rel != null && entries.contains(rel));
+    }
+
+    public boolean accepts(HateoasLink link) {
+        if (link.getId() != null && excludedIds.contains(link.getId())) {
+            return false;
+        }
+        return entries == null
+                || (link.getRel() != null && entries.contains(link.getRel()))
+                || (link.getId() != null && entries.contains(link.getId()));
+    }
+
+    /**
+     * @return the wanted links, the supplied collection itself if all of them are wanted.
+     */
+    public Collection<HateoasLink> filter(Collection<HateoasLink> links) {
+        for (HateoasLink link : links) {
+            if (!accepts(link)) {
+                Collection<HateoasLink> result = new ArrayList<HateoasLink>(links.size());
+                for (HateoasLink candidate : links) {
+                    if (accepts(candidate)) {
+                        result.add(candidate);
+                    }
+                }
+                return result;
+            }
+        }
+        return links;
+    }
+}
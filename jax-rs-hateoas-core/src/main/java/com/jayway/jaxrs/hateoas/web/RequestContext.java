@@ -14,6 +14,11 @@
  */
 package com.jayway.jaxrs.hateoas.web;
 
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import com.jayway.jaxrs.hateoas.usage.LinkUsageTracker;
+
 import javax.ws.rs.core.UriBuilder;
 
 /**
@@ -24,6 +29,17 @@ public class RequestContext {
 
     public static final String HATEOAS_OPTIONS_HEADER = "x-jax-rs-hateoas-options";
 
+    /**
+     * Request header listing the rels and link ids a client wants, see {@link LinkFilter}.
+     */
+    public static final String HATEOAS_LINKS_HEADER = "x-jax-rs-hateoas-links";
+
+    /**
+     * Query parameter listing the rels of the links to embed the target resources of, see
+     * {@link com.jayway.jaxrs.hateoas.embed.EmbedBatch}.
+     */
+    public static final String EMBED_PARAMETER = "embed";
+
     private final static ThreadLocal<RequestContext> currentContext = new ThreadLocal<RequestContext>();
 
     public static void setRequestContext(RequestContext context) {
@@ -43,16 +59,166 @@ public class RequestContext {
 
     private final String verbosityHeader;
 
+    private final HateoasConfiguration configuration;
+
+    private String baseUri;
+
+    private final long startNanos = System.nanoTime();
+
+    private ServerTimingRecorder serverTiming;
+
+    private boolean serverTimingResolved;
+
+    private boolean completed;
+
+    private LinkableInfo endpoint;
+
+    private HateoasVerbosity verbosity;
+
+    private LinkFilter linkFilter;
+
+    private boolean linkFilterResolved;
+
     public RequestContext(UriBuilder basePath, String verbosityHeader) {
+        this(basePath, verbosityHeader, null);
+    }
+
+    /**
+     * @param configuration the configuration of the application serving the request, <code>null</code> for the
+     *                      default configuration.
+     */
+    public RequestContext(UriBuilder basePath, String verbosityHeader, HateoasConfiguration configuration) {
         this.basePath = basePath;
         this.verbosityHeader = verbosityHeader;
+        this.configuration = configuration == null ? HateoasConfiguration.getDefault() : configuration;
     }
 
     public UriBuilder getBasePath() {
         return basePath.clone();
     }
 
+    /**
+     * @return the base path in its ASCII form, built once per request.
+     */
+    public String getBaseUri() {
+        if (baseUri == null) {
+            baseUri = basePath.clone().build().toASCIIString();
+        }
+        return baseUri;
+    }
+
     public String getVerbosityHeader() {
         return verbosityHeader;
     }
+
+    /**
+     * @return the configuration of the application serving the request.
+     */
+    public HateoasConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return the value of {@link System#nanoTime()} when this context was created, i.e. when the request started.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Mark the request as completed, so that bookkeeping done when a request completes is done once even if both a
+     * response filter and the next request on the same thread see this context.
+     *
+     * @return <code>true</code> if the request was not already marked as completed.
+     */
+    public boolean complete() {
+        if (completed) {
+            return false;
+        }
+        completed = true;
+        return true;
+    }
+
+    /**
+     * @return the LinkableInfo serving this request, or <code>null</code> if unknown.
+     * @see LinkUsageTracker
+     */
+    public LinkableInfo getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(LinkableInfo endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @return the verbosity the links of the last response of this request were built with, or <code>null</code> if
+     *         no response was built, for writers formatting the links.
+     */
+    public HateoasVerbosity getVerbosity() {
+        return verbosity;
+    }
+
+    public void setVerbosity(HateoasVerbosity verbosity) {
+        this.verbosity = verbosity;
+    }
+
+    /**
+     * @return the links wanted by the client, less the ones suppressed for the endpoint by the
+     *         {@link LinkUsageTracker}, or <code>null</code> if all links are wanted.
+     */
+    public LinkFilter getLinkFilter() {
+        if (!linkFilterResolved) {
+            linkFilter = LinkFilter.parse(getHeader(HATEOAS_LINKS_HEADER), configuration.getContext());
+            LinkUsageTracker tracker = configuration.getLinkUsageTracker();
+            if (tracker != null && endpoint != null) {
+                linkFilter = LinkFilter.combine(linkFilter, tracker.getSuppressed(endpoint));
+            }
+            linkFilterResolved = true;
+        }
+        return linkFilter;
+    }
+
+    /**
+     * @return the timing recorder of this request, or <code>null</code> if timing is not enabled for it.
+     * @see HateoasConfiguration#configureServerTiming(ServerTimingRecorder.Mode, String)
+     */
+    public ServerTimingRecorder getServerTiming() {
+        if (!serverTimingResolved) {
+            serverTiming = ServerTimingRecorder.isEnabledFor(this) ? new ServerTimingRecorder() : null;
+            serverTimingResolved = true;
+        }
+        return serverTiming;
+    }
+
+    /**
+     * Get the value of a header of the current request. Filters setting up the context override this to give access
+     * to the request headers.
+     *
+     * @param name the name of the header.
+     * @return the value of the header, or <code>null</code> if not present.
+     */
+    public String getHeader(String name) {
+        return null;
+    }
+
+    /**
+     * Get the value of a query parameter of the current request. Filters setting up the context override this to give
+     * access to the request parameters.
+     *
+     * @param name the name of the parameter.
+     * @return the first value of the parameter, or <code>null</code> if not present.
+     */
+    public String getQueryParameter(String name) {
+        return null;
+    }
+
+    /**
+     * Get the HTTP method of the current request. Filters setting up the context override this.
+     *
+     * @return the method, or <code>null</code> if unknown.
+     */
+    public String getMethod() {
+        return null;
+    }
 }
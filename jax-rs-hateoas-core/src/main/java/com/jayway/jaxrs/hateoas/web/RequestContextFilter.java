@@ -14,18 +14,41 @@
  */
 package com.jayway.jaxrs.hateoas.web;
 
+import com.jayway.jaxrs.hateoas.AdaptiveVerbosityController;
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetrics;
+import com.jayway.jaxrs.hateoas.usage.LinkUsageTracker;
 import org.apache.commons.lang.StringUtils;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
 
 /**
+ * Servlet filter storing the current request in a ThreadLocal ({@link RequestContext}), binding the
+ * {@link HateoasConfiguration} of the filter to it.
+ *
  * @author Mattias Hellborg Arthursson
  * @author Kalle Stenflo
  */
 public class RequestContextFilter implements Filter {
+
+    private final HateoasConfiguration configuration;
+
+    /**
+     * Create a filter using the default configuration.
+     */
+    public RequestContextFilter() {
+        this(HateoasConfiguration.getDefault());
+    }
+
+    public RequestContextFilter(HateoasConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response,
                          FilterChain chain) throws IOException, ServletException {
@@ -39,16 +62,71 @@ public class RequestContextFilter implements Filter {
         String baseURL = StringUtils.removeEnd(servletRequest.getRequestURL().toString(), requestURI);
         UriBuilder uriBuilder = UriBuilder.fromUri(baseURL);
 
-        RequestContext ctx = new RequestContext(uriBuilder, servletRequest.getHeader(RequestContext.HATEOAS_OPTIONS_HEADER));
+        RequestContext ctx = new RequestContext(uriBuilder, servletRequest.getHeader(RequestContext.HATEOAS_OPTIONS_HEADER),
+                configuration) {
+            @Override
+            public String getHeader(String name) {
+                return servletRequest.getHeader(name);
+            }
+
+            @Override
+            public String getQueryParameter(String name) {
+                return queryParameter(servletRequest.getQueryString(), name);
+            }
+
+            @Override
+            public String getMethod() {
+                return servletRequest.getMethod();
+            }
+        };
 
         RequestContext.setRequestContext(ctx);
+        LinkUsageTracker tracker = configuration.getLinkUsageTracker();
+        if (tracker != null) {
+            tracker.requestReceived(ctx, servletRequest.getMethod(), requestURI);
+        }
+        AdaptiveVerbosityController controller = configuration.getAdaptiveVerbosityController();
+        if (controller != null) {
+            controller.requestStarted();
+        }
         try {
             chain.doFilter(request, response);
         } finally {
+            if (ctx.complete()) {
+                HateoasMetrics metrics = ctx.getConfiguration().getMetrics();
+                if (metrics.isEnabled()) {
+                    metrics.requestCompleted(System.nanoTime() - ctx.getStartNanos());
+                }
+                if (controller != null) {
+                    controller.requestCompleted();
+                }
+            }
             RequestContext.clearRequestContext();
         }
     }
 
+    /**
+     * Parse the parameter from the query string, as {@link ServletRequest#getParameter(String)} would read the body of
+     * form posts before the resource gets to it.
+     */
+    static String queryParameter(String queryString, String name) {
+        if (queryString == null) {
+            return null;
+        }
+        for (String pair : StringUtils.split(queryString, '&')) {
+            int separator = pair.indexOf('=');
+            String pairName = separator < 0 ? pair : pair.substring(0, separator);
+            if (pairName.equals(name)) {
+                try {
+                    return separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), "UTF-8");
+                } catch (UnsupportedEncodingException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public void destroy() {
 
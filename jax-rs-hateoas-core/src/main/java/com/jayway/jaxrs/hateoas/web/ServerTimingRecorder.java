@@ -0,0 +1,157 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.web;
+
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+
+/**
+ * Per request recorder of the time spent building HATEOAS responses, written as a <code>Server-Timing</code>
+ * response header. Phases are recorded using {@link System#nanoTime()} checkpoints and accumulated by name, so a
+ * phase entered several times, such as the injection of a collection, is reported once.
+ * <p/>
+ * Timing is configured for each {@link HateoasConfiguration} and disabled by default. It can be enabled for all
+ * requests, or only for requests carrying the {@link #SERVER_TIMING_REQUEST_HEADER} header with a configured token
+ * as value.
+ * <p/>
+ * Instances are confined to the thread of the request and are obtained from
+ * {@link RequestContext#getServerTiming()}.
+ */
+public final class ServerTimingRecorder {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    public static final String SERVER_TIMING_REQUEST_HEADER = "x-jax-rs-hateoas-server-timing";
+
+    /**
+     * Parsing the verbosity of the request.
+     */
+    public static final String VERBOSITY = "hateoas-verbosity";
+
+    /**
+     * Building links, part of {@link #INJECT}.
+     */
+    public static final String LINKS = "hateoas-links";
+
+    /**
+     * Producing and injecting links, the strategy used is reported as <code>hateoas-inject-</code> followed by its
+     * simple name. Rows of collections are injected while timing, so their links are included, except for the rows
+     * of a {@link com.jayway.jaxrs.hateoas.support.LazyCollection}.
+     */
+    public static final String INJECT = "hateoas-inject";
+
+    /**
+     * Creating the view of a rendered response.
+     */
+    public static final String VIEW = "hateoas-view";
+
+    /**
+     * The total time spent building the response.
+     */
+    public static final String TOTAL = "hateoas";
+
+    public enum Mode {
+        NEVER, ON_REQUEST, ALWAYS
+    }
+
+    private String[] names = new String[8];
+    private long[] durations = new long[8];
+    private int size;
+
+    /**
+     * Configure when timing is recorded for requests of the default configuration.
+     *
+     * @see HateoasConfiguration#configureServerTiming(Mode, String)
+     */
+    public static void configure(Mode mode, String token) {
+        HateoasConfiguration.getDefault().configureServerTiming(mode, token);
+    }
+
+    static boolean isEnabledFor(RequestContext context) {
+        HateoasConfiguration configuration = context.getConfiguration();
+        Mode currentMode = configuration.getServerTimingMode();
+        if (currentMode == Mode.ALWAYS) {
+            return true;
+        } else if (currentMode == Mode.ON_REQUEST) {
+            String value = context.getHeader(SERVER_TIMING_REQUEST_HEADER);
+            String requiredToken = configuration.getServerTimingToken();
+            return requiredToken != null && requiredToken.equals(value);
+        }
+        return false;
+    }
+
+    /**
+     * Add the time elapsed since the previous checkpoint to the named phase.
+     *
+     * @param name     the name of the phase.
+     * @param previous the previous checkpoint, as given by {@link System#nanoTime()} or a previous call.
+     * @return the new checkpoint.
+     */
+    public long checkpoint(String name, long previous) {
+        long now = System.nanoTime();
+        add(name, now - previous);
+        return now;
+    }
+
+    public void add(String name, long nanos) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                durations[i] += nanos;
+                return;
+            }
+        }
+        if (size == names.length) {
+            String[] newNames = new String[size * 2];
+            long[] newDurations = new long[size * 2];
+            System.arraycopy(names, 0, newNames, 0, size);
+            System.arraycopy(durations, 0, newDurations, 0, size);
+            names = newNames;
+            durations = newDurations;
+        }
+        names[size] = name;
+        durations[size] = nanos;
+        size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the recorded phases formatted as a <code>Server-Timing</code> header value, durations in milliseconds.
+     */
+    public String toHeaderValue() {
+        StringBuilder sb = new StringBuilder(size * 32);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            long micros = durations[i] / 1000;
+            long fraction = micros % 1000;
+            sb.append(names[i]).append(";dur=").append(micros / 1000).append('.');
+            if (fraction < 100) {
+                sb.append('0');
+            }
+            if (fraction < 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+        return sb.toString();
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
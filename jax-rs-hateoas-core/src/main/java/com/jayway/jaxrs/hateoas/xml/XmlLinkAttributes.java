@@ -0,0 +1,92 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.xml;
+
+import com.jayway.jaxrs.hateoas.HateoasOption;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import org.apache.commons.lang.StringUtils;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The attributes of the <code>link</code> elements written for one verbosity, in the order of its options. Not
+ * intended for external use.
+ * <p/>
+ * Links are held as the maps created by {@link com.jayway.jaxrs.hateoas.HateoasLink#toMap(HateoasVerbosity)}, so
+ * the attribute names are the keys of those maps. Templates can not be expressed as attributes and are left out.
+ */
+final class XmlLinkAttributes {
+
+    static final String LINK_ELEMENT = "link";
+
+    /**
+     * Upper bound of cached attribute sets, protecting against clients sending arbitrary option combinations.
+     */
+    private static final int MAX_CACHED_VERBOSITIES = 256;
+
+    private static final ConcurrentMap<HateoasVerbosity, XmlLinkAttributes> BY_VERBOSITY =
+            new ConcurrentHashMap<HateoasVerbosity, XmlLinkAttributes>();
+
+    private final String[] names;
+
+    private XmlLinkAttributes(List<String> names) {
+        this.names = names.toArray(new String[names.size()]);
+    }
+
+    static XmlLinkAttributes forVerbosity(HateoasVerbosity verbosity) {
+        XmlLinkAttributes attributes = BY_VERBOSITY.get(verbosity);
+        if (attributes == null) {
+            List<String> names = new ArrayList<String>();
+            for (HateoasOption option : verbosity.getOptions()) {
+                if (option != HateoasOption.TEMPLATE) {
+                    names.add(option.name().toLowerCase());
+                }
+            }
+            attributes = new XmlLinkAttributes(names);
+            if (BY_VERBOSITY.size() < MAX_CACHED_VERBOSITIES) {
+                BY_VERBOSITY.putIfAbsent(verbosity, attributes);
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * @return the attributes of the keys of a link, for links written outside of a request knowing its verbosity.
+     */
+    static XmlLinkAttributes forLink(Map<String, Object> link) {
+        return new XmlLinkAttributes(new ArrayList<String>(link.keySet()));
+    }
+
+    void writeLinks(XMLStreamWriter writer, Collection<Map<String, Object>> links) throws XMLStreamException {
+        for (Map<String, Object> link : links) {
+            writer.writeEmptyElement(LINK_ELEMENT);
+            for (String name : names) {
+                Object value = link.get(name);
+                if (value instanceof String) {
+                    writer.writeAttribute(name, (String) value);
+                } else if (value instanceof String[]) {
+                    writer.writeAttribute(name, StringUtils.join((String[]) value, ' '));
+                }
+            }
+        }
+    }
+}
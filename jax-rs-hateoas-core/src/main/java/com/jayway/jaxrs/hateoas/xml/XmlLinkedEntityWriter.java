@@ -0,0 +1,196 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.xml;
+
+import com.jayway.jaxrs.hateoas.HateoasLinkBean;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import com.jayway.jaxrs.hateoas.support.JavassistHateoasLinkInjector;
+import com.jayway.jaxrs.hateoas.support.LinkEnvelope;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writes entities with injected links as XML, streaming them using StAX. Each entity is marshalled using JAXB, with
+ * its links as <code>&lt;link rel="..." href="..."/&gt;</code> elements following its properties. Root collections
+ * are written as a <code>collection</code> element holding one element per row followed by the links of the
+ * collection, one row at a time, so memory use does not grow with the size of the collection.
+ * <p/>
+ * The DTOs need no JAXB annotations. Those without {@link XmlRootElement} are written as elements named like their
+ * class, e.g. <code>bookDto</code>. The JAXBContext of each DTO class is created once.
+ * <p/>
+ * Registered by the application classes in the core package, handles entities whose links were injected by
+ * {@link JavassistHateoasLinkInjector}, {@link com.jayway.jaxrs.hateoas.support.EnvelopeHateoasLinkInjector} or into
+ * {@link HateoasLinkBean}s.
+ */
+@Provider
+@Produces({MediaType.APPLICATION_XML, MediaType.TEXT_XML})
+public class XmlLinkedEntityWriter implements MessageBodyWriter<Object> {
+
+    static final String COLLECTION_ELEMENT = "collection";
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private static final ConcurrentMap<Class<?>, XmlType> TYPES = new ConcurrentHashMap<Class<?>, XmlType>();
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return HateoasLinkBean.class.isAssignableFrom(type) || LinkEnvelope.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        RequestContext requestContext = RequestContext.getRequestContext();
+        HateoasVerbosity verbosity = requestContext == null ? null : requestContext.getVerbosity();
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(entityStream, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            new Session(writer, verbosity == null ? null : XmlLinkAttributes.forVerbosity(verbosity)).write(value);
+            writer.writeEndDocument();
+            // Closing the writer leaves the stream open.
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new WebApplicationException(e);
+        } catch (JAXBException e) {
+            throw new WebApplicationException(e);
+        }
+    }
+
+    private static XmlType getType(Class<?> clazz) throws JAXBException {
+        XmlType type = TYPES.get(clazz);
+        if (type == null) {
+            type = new XmlType(clazz);
+            XmlType existing = TYPES.putIfAbsent(clazz, type);
+            if (existing != null) {
+                type = existing;
+            }
+        }
+        return type;
+    }
+
+    /**
+     * The state of writing one response, Marshallers are not thread safe.
+     */
+    private static final class Session {
+        private final XMLStreamWriter writer;
+        private final LinkAppendingStreamWriter linkWriter;
+        private final XmlLinkAttributes attributes;
+        private XmlType lastType;
+        private Marshaller lastMarshaller;
+
+        private Session(XMLStreamWriter writer, XmlLinkAttributes attributes) {
+            this.writer = writer;
+            this.linkWriter = new LinkAppendingStreamWriter(writer);
+            this.attributes = attributes;
+        }
+
+        private void write(Object entity) throws XMLStreamException, JAXBException {
+            if (entity instanceof DefaultCollectionWrapper) {
+                DefaultCollectionWrapper<?> collection = (DefaultCollectionWrapper<?>) entity;
+                writer.writeStartElement(COLLECTION_ELEMENT);
+                if (collection.getRows() != null) {
+                    for (Object row : collection.getRows()) {
+                        if (row != null) {
+                            write(row);
+                        }
+                    }
+                }
+                writeLinks(collection.getLinks());
+                writer.writeEndElement();
+            } else if (entity instanceof LinkEnvelope) {
+                LinkEnvelope envelope = (LinkEnvelope) entity;
+                marshal(envelope.getEntity(), envelope.getLinks());
+            } else if (entity instanceof HateoasLinkBean) {
+                marshal(entity, ((HateoasLinkBean) entity).getLinks());
+            } else {
+                marshal(entity, null);
+            }
+        }
+
+        private void marshal(Object entity, Collection<Map<String, Object>> links) throws JAXBException {
+            XmlType type = getType(JavassistHateoasLinkInjector.getEntityClass(entity.getClass()));
+            if (type != lastType) {
+                lastMarshaller = type.context.createMarshaller();
+                lastMarshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+                lastType = type;
+            }
+            linkWriter.setLinks(links, attributesOf(links));
+            lastMarshaller.marshal(type.toElement(entity), linkWriter);
+        }
+
+        private void writeLinks(Collection<Map<String, Object>> links) throws XMLStreamException {
+            XmlLinkAttributes linkAttributes = attributesOf(links);
+            if (linkAttributes != null) {
+                linkAttributes.writeLinks(writer, links);
+            }
+        }
+
+        private XmlLinkAttributes attributesOf(Collection<Map<String, Object>> links) {
+            if (links == null || links.isEmpty()) {
+                return null;
+            }
+            return attributes != null ? attributes : XmlLinkAttributes.forLink(links.iterator().next());
+        }
+    }
+
+    private static final class XmlType {
+        private final Class<?> clazz;
+        private final JAXBContext context;
+        private final QName name;
+
+        private XmlType(Class<?> clazz) throws JAXBException {
+            this.clazz = clazz;
+            this.context = JAXBContext.newInstance(clazz);
+            this.name = clazz.isAnnotationPresent(XmlRootElement.class) ? null
+                    : new QName(Introspector.decapitalize(clazz.getSimpleName()));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object toElement(Object entity) {
+            return name == null ? entity : new JAXBElement<Object>(name, (Class<Object>) clazz, entity);
+        }
+    }
+}
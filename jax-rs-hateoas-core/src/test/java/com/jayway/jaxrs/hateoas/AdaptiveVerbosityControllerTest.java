@@ -0,0 +1,131 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveVerbosityControllerTest {
+
+    private static final HateoasVerbosity[] LEVELS = {
+            HateoasVerbosity.MAXIMUM, HateoasVerbosity.NORMAL, HateoasVerbosity.MINIMUM};
+
+    @After
+    public void cleanup() {
+        AdaptiveVerbosityController.setCurrent(null);
+    }
+
+    @Test
+    public void levelIsLoweredOneStepPerOverloadedInterval() {
+        AdaptiveVerbosityController controller = controller(AdaptiveVerbosityController.ClientPolicy.HONOUR);
+        assertSame(HateoasVerbosity.MAXIMUM, controller.verbosityFor(null));
+
+        for (int i = 0; i < 3; i++) {
+            controller.requestStarted();
+        }
+        assertSame(HateoasVerbosity.NORMAL, controller.verbosityFor(null));
+        assertSame(HateoasVerbosity.MINIMUM, controller.verbosityFor(null));
+        assertSame(HateoasVerbosity.MINIMUM, controller.verbosityFor(null));
+    }
+
+    @Test
+    public void slowLinksLowerTheLevel() {
+        AdaptiveVerbosityController controller = controller(AdaptiveVerbosityController.ClientPolicy.HONOUR);
+
+        controller.linksBuilt(3000000);
+        controller.linksBuilt(1000000);
+
+        assertSame(HateoasVerbosity.NORMAL, controller.verbosityFor(null));
+    }
+
+    @Test
+    public void levelIsRaisedOnlyAfterConsecutiveCalmIntervals() {
+        AdaptiveVerbosityController controller = controller(AdaptiveVerbosityController.ClientPolicy.HONOUR);
+        controller.linksBuilt(5000000);
+        controller.verbosityFor(null);
+        assertEquals(1, controller.getLevel());
+
+        // Below the threshold but above the recovery ratio, keeps the level.
+        controller.linksBuilt(800000);
+        assertEquals(1, evaluate(controller));
+
+        assertEquals(1, evaluate(controller));
+        assertEquals(1, evaluate(controller));
+        controller.linksBuilt(800000);
+        assertEquals(1, evaluate(controller));
+        assertEquals(1, evaluate(controller));
+        assertEquals(1, evaluate(controller));
+        assertEquals(0, evaluate(controller));
+    }
+
+    @Test
+    public void completedRequestsAreNotCountedAsConcurrent() {
+        AdaptiveVerbosityController controller = controller(AdaptiveVerbosityController.ClientPolicy.HONOUR);
+        for (int i = 0; i < 3; i++) {
+            controller.requestStarted();
+            controller.requestCompleted();
+        }
+
+        // The peak of the first interval still counts.
+        assertEquals(0, evaluate(controller));
+        assertEquals(0, evaluate(controller));
+    }
+
+    @Test
+    public void explicitVerbosityIsCappedToCurrentLevel() {
+        AdaptiveVerbosityController controller = controller(AdaptiveVerbosityController.ClientPolicy.CAP);
+        assertEquals(4, controller.verbosityFor("REL,HREF,LABEL,METHOD").getOptions().length);
+
+        controller.linksBuilt(5000000);
+        controller.verbosityFor(null);
+        controller.linksBuilt(5000000);
+
+        assertEquals(new HateoasVerbosity(HateoasOption.REL, HateoasOption.HREF, HateoasOption.METHOD),
+                controller.verbosityFor("REL,HREF,LABEL,METHOD"));
+    }
+
+    @Test
+    public void explicitVerbosityIsHonoured() {
+        AdaptiveVerbosityController controller = controller(AdaptiveVerbosityController.ClientPolicy.HONOUR);
+        controller.linksBuilt(5000000);
+        controller.verbosityFor(null);
+
+        assertEquals(HateoasVerbosity.valueOf("REL,HREF,LABEL"), controller.verbosityFor("REL,HREF,LABEL"));
+    }
+
+    @Test
+    public void resolveFallsBackToDefaultVerbosityWithoutController() {
+        assertSame(HateoasVerbosity.valueOf(null), AdaptiveVerbosityController.resolve(null));
+
+        AdaptiveVerbosityController.setCurrent(new AdaptiveVerbosityController(
+                new HateoasVerbosity[]{HateoasVerbosity.ATOM}, 0, 0, null));
+        assertSame(HateoasVerbosity.ATOM, AdaptiveVerbosityController.resolve(null));
+    }
+
+    private static int evaluate(AdaptiveVerbosityController controller) {
+        controller.verbosityFor(null);
+        return controller.getLevel();
+    }
+
+    /**
+     * Evaluates on every call, lowering above 2 requests or 1 ms on links and raising after 3 intervals below half
+     * of that.
+     */
+    private static AdaptiveVerbosityController controller(AdaptiveVerbosityController.ClientPolicy clientPolicy) {
+        return new AdaptiveVerbosityController(LEVELS, 2, 1000, clientPolicy, 0, 0.5, 3);
+    }
+}
@@ -15,12 +15,19 @@
 
 package com.jayway.jaxrs.hateoas;
 
+import com.jayway.jaxrs.hateoas.core.LinkPlan;
+import com.jayway.jaxrs.hateoas.support.FieldPath;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
-import static junit.framework.Assert.assertEquals;
-import static junit.framework.Assert.assertNotNull;
+import javax.ws.rs.core.UriBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.*;
 
 public class DefaultHateoasContextTest {
 
@@ -124,6 +131,17 @@ public class DefaultHateoasContextTest {
         assertEquals("/root/{id}", result.getMethodPath());
     }
 
+    @Test
+    public void requestPathsAreMatchedToLinkableInfo() {
+        assertEquals("dummy.root.resource.get", tested.matchLinkableInfo("GET", "root").getId());
+        assertEquals("dummy.sub.resource.get", tested.matchLinkableInfo("GET", "/root/42").getId());
+        assertEquals("test.dummy.post", tested.matchLinkableInfo("POST", "/dummy/").getId());
+        assertEquals("test.dummy.get.subpath", tested.matchLinkableInfo("GET", "/dummy/subpath").getId());
+        assertNull(tested.matchLinkableInfo("PUT", "/root/42"));
+        assertNull(tested.matchLinkableInfo("GET", "/root/42/more"));
+        assertNull(tested.matchLinkableInfo("GET", "/unknown"));
+    }
+
     @Test
     public void sameClassCanBeScannedTwice() throws Exception {
         tested.mapClass(DummyAnnotatedClass.class);
@@ -141,5 +159,119 @@ public class DefaultHateoasContextTest {
         tested.mapClass(DuplicateAnnotatedClass.class);
     }
 
+    @Test
+    public void failedMappingPublishesNothing() {
+        DefaultHateoasContext context = new DefaultHateoasContext();
+        context.mapClass(DummyAnnotatedClass.class);
+
+        try {
+            context.mapClasses(Arrays.<Class<?>>asList(DummyRootResourceClass.class, DuplicateAnnotatedClass.class));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertNull(context.findLinkableInfo("dummy.root.resource.get"));
+        assertNull(context.matchLinkableInfo("GET", "/root"));
+        assertFalse(context.isInitialized(DummyRootResourceClass.class));
+
+        context.mapClass(DummyRootResourceClass.class);
+        assertEquals("dummy.sub.resource.get", context.matchLinkableInfo("GET", "/root/1").getId());
+        assertTrue(context.isInitialized(DummySubResourceClass.class));
+    }
+
+    @Test
+    public void parallelMappingGivesSameResultAsSerialMapping() {
+        // The sub-resource class and the DTO are not annotated with @Path.
+        List<Class<?>> classes = Arrays.<Class<?>>asList(DummyRootResourceClass.class, DummyAnnotatedClass.class,
+                DummySubResourceClass.class, SneakyAnnotatedClass.class, DummyDto.class);
+        DefaultHateoasContext serial = new DefaultHateoasContext();
+        serial.setMappingParallelism(1);
+        serial.mapClasses(classes);
+        DefaultHateoasContext parallel = new DefaultHateoasContext();
+        parallel.setMappingParallelism(4);
+        parallel.mapClasses(classes);
+
+        for (String id : Arrays.asList("dummy.root.resource.get", "dummy.sub.resource.get", "test.dummy.get",
+                "test.dummy.sneaky.get", "test.dummy.fully.documented")) {
+            LinkableInfo expected = serial.getLinkableInfo(id);
+            LinkableInfo actual = parallel.getLinkableInfo(id);
+            assertEquals(expected.getHandle(), actual.getHandle());
+            assertEquals(expected.getMethodPath(), actual.getMethodPath());
+            assertEquals(expected.getHttpMethod(), actual.getHttpMethod());
+        }
+        // The sub-resource class was mapped through the root resource, with its path.
+        assertEquals("/root/{id}", parallel.getLinkableInfo("dummy.sub.resource.get").getMethodPath());
+
+        MappingReport report = parallel.getMappingReport();
+        assertEquals(3, report.getRootClasses());
+        assertEquals(4, report.getMappedClasses());
+        assertEquals(3, report.getThreads());
+        assertEquals(3, report.getSlowestClasses().size());
+    }
+
+    @Test
+    public void parallelMappingDetectsDuplicatesLikeSerialMapping() {
+        List<Class<?>> classes = Arrays.<Class<?>>asList(DummyAnnotatedClass.class, DummyRootResourceClass.class,
+                DuplicateAnnotatedClass.class);
+        String serialMessage = mappingFailure(classes, 1);
+
+        assertNotNull(serialMessage);
+        assertEquals(serialMessage, mappingFailure(classes, 3));
+    }
+
+    private static String mappingFailure(List<Class<?>> classes, int parallelism) {
+        DefaultHateoasContext context = new DefaultHateoasContext();
+        context.setMappingParallelism(parallelism);
+        try {
+            context.mapClasses(classes);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    public void verifyLinkPlan() {
+        LinkPlan plan = tested.getLinkPlan("dummy.root.resource.get");
+
+        assertEquals("dummy.root.resource.get", plan.getId());
+        assertEquals(2, plan.getGroupCount());
+        assertEquals(FieldPath.EMPTY_PATH, plan.getGroup(0).getFieldPath());
+        assertFalse(plan.getGroup(0).isEach());
+        assertTrue(plan.getGroup(1).isEach());
+        assertSame(plan, tested.getLinkPlan("dummy.root.resource.get"));
+    }
+
+    @Test
+    public void linkPlanBindsArgumentsAndEntityFields() {
+        RequestContext.setRequestContext(new RequestContext(UriBuilder.fromUri("http://www.example.com/api"), null));
+        try {
+            LinkPlan plan = tested.getLinkPlan("dummy.root.resource.get");
 
+            List<HateoasLink> links = new ArrayList<HateoasLink>(plan.getGroup(0).getLinks(new Object(), new Object[]{7}));
+            assertEquals(2, links.size());
+            assertEquals("http://www.example.com/api/root", links.get(0).getHref());
+            assertEquals("first", links.get(1).getRel());
+            assertEquals("http://www.example.com/api/root/7", links.get(1).getHref());
+
+            HateoasLink rowLink = plan.getGroup(1).getLinks(new Row(3), new Object[]{7}).iterator().next();
+            assertEquals("sub", rowLink.getRel());
+            assertEquals("http://www.example.com/api/root/3", rowLink.getHref());
+        } finally {
+            RequestContext.clearRequestContext();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void undeclaredLinkPlanThrowsException() {
+        tested.getLinkPlan("test.dummy.get");
+    }
+
+    private static class Row {
+        private final int id;
+
+        private Row(int id) {
+            this.id = id;
+        }
+    }
 }
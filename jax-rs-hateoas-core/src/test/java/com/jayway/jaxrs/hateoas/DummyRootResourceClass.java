@@ -19,6 +19,11 @@ public class DummyRootResourceClass {
     @GET
     @Produces(MediaType.TEXT_PLAIN)
     @Linkable("dummy.root.resource.get")
+    @ResponseLinks({
+            @ResponseLink("dummy.root.resource.get"),
+            @ResponseLink(value = "dummy.sub.resource.get", rel = "first", params = "$0"),
+            @ResponseLink(value = "dummy.sub.resource.get", rel = "sub", params = "id", each = true)
+    })
     public Response get() {
         return Response.ok("hello from dummy root").type(MediaType.TEXT_PLAIN).build();
     }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import com.jayway.jaxrs.hateoas.core.jersey.JerseyHateoasContextFilter;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
+import com.jayway.jaxrs.hateoas.metrics.InMemoryHateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.NoOpHateoasMetrics;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import com.jayway.jaxrs.hateoas.web.ServerTimingRecorder;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.ws.rs.core.UriBuilder;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class HateoasConfigurationTest {
+
+    @After
+    public void cleanup() {
+        RequestContext.clearRequestContext();
+    }
+
+    @Test
+    public void defaultConfigurationIsUsedOutsideOfRequests() {
+        assertSame(HateoasConfiguration.getDefault(), HateoasConfiguration.current());
+        assertSame(HateoasContextProvider.getDefaultContext(), HateoasContextProvider.getContext());
+    }
+
+    @Test
+    public void configurationsOfRequestsAreIsolated() {
+        HateoasConfiguration first = new HateoasConfiguration(new DefaultHateoasContext());
+        first.getContext().mapClasses(Arrays.<Class<?>>asList(DummyAnnotatedClass.class));
+        first.setDefaultVerbosity(HateoasVerbosity.MINIMUM);
+        InMemoryHateoasMetrics metrics = new InMemoryHateoasMetrics();
+        first.setMetrics(metrics);
+        first.configureServerTiming(ServerTimingRecorder.Mode.ALWAYS, null);
+        HateoasConfiguration second = new HateoasConfiguration(new DefaultHateoasContext());
+        second.getContext().mapClasses(Collections.<Class<?>>singletonList(DummyRootResourceClass.class));
+
+        bind(first);
+        assertSame(first.getContext(), HateoasContextProvider.getContext());
+        assertNotNull(HateoasContextProvider.getContext().findLinkableInfo("test.dummy.get"));
+        assertEquals(HateoasVerbosity.MINIMUM, HateoasVerbosity.valueOf(null));
+        assertSame(metrics, HateoasMetricsProvider.getMetrics());
+        assertNotNull(RequestContext.getRequestContext().getServerTiming());
+
+        bind(second);
+        assertSame(second.getContext(), HateoasContextProvider.getContext());
+        assertNull(HateoasContextProvider.getContext().findLinkableInfo("test.dummy.get"));
+        assertEquals(HateoasVerbosity.MAXIMUM, HateoasVerbosity.valueOf(null));
+        assertSame(NoOpHateoasMetrics.INSTANCE, HateoasMetricsProvider.getMetrics());
+        assertNull(RequestContext.getRequestContext().getServerTiming());
+    }
+
+    @Test
+    public void filtersAreEqualForTheSameConfiguration() {
+        HateoasConfiguration configuration = new HateoasConfiguration(new DefaultHateoasContext());
+        JerseyHateoasContextFilter filter = new JerseyHateoasContextFilter(configuration);
+
+        assertEquals(filter, new JerseyHateoasContextFilter(configuration));
+        assertEquals(filter.hashCode(), new JerseyHateoasContextFilter(configuration).hashCode());
+        assertEquals(new JerseyHateoasContextFilter(), new JerseyHateoasContextFilter());
+        assertFalse(filter.equals(new JerseyHateoasContextFilter()));
+        assertFalse(filter.equals(null));
+    }
+
+    private static void bind(HateoasConfiguration configuration) {
+        RequestContext.setRequestContext(new RequestContext(UriBuilder.fromPath("/"), null, configuration));
+    }
+}
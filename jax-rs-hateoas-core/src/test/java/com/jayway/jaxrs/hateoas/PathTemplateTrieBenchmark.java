@@ -0,0 +1,87 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Micro benchmark of {@link PathTemplateTrie} with thousands of templates, compared to matching the templates one by
+ * one as regular expressions. Not run as part of the build, run the main method with the test classpath:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=com.jayway.jaxrs.hateoas.PathTemplateTrieBenchmark \
+ *     -Dexec.classpathScope=test
+ * </pre>
+ */
+public class PathTemplateTrieBenchmark {
+
+    private static final int[] TEMPLATE_COUNTS = {100, 1000, 5000};
+    private static final int ITERATIONS = 2000000;
+    private static final int REGEX_ITERATIONS = 2000;
+
+    public static void main(String[] args) {
+        for (int templates : TEMPLATE_COUNTS) {
+            run(templates);
+        }
+    }
+
+    private static void run(int templateCount) {
+        PathTemplateTrie trie = new PathTemplateTrie();
+        List<Pattern> patterns = new ArrayList<Pattern>();
+        for (int i = 0; i < templateCount; i++) {
+            String template = "/api/v" + (i % 3) + "/resource" + i + "/{id}/items/{item}";
+            trie.add(new LinkableInfo("resource" + i, template, "GET", null, null, null, null, null));
+            patterns.add(Pattern.compile(template.replaceAll("\\{[^}]+\\}", "[^/]+")));
+        }
+        String[] paths = new String[64];
+        for (int i = 0; i < paths.length; i++) {
+            int resource = (i * 7919) % templateCount;
+            paths[i] = "/api/v" + (resource % 3) + "/resource" + resource + "/" + i + "/items/" + (i * 31);
+        }
+
+        PathMatch match = new PathMatch();
+        long checksum = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            checksum += trie.match("GET", paths[i & 63], match).getId().length();
+        }
+
+        long allocatedBefore = TestUtils.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            checksum += trie.match("GET", paths[i & 63], match).getId().length();
+            checksum += match.getParameterCount();
+        }
+        long trieNanos = System.nanoTime() - start;
+        long allocated = TestUtils.allocatedBytes() - allocatedBefore;
+
+        start = System.nanoTime();
+        for (int i = 0; i < REGEX_ITERATIONS; i++) {
+            String path = paths[i & 63];
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(path).matches()) {
+                    checksum++;
+                    break;
+                }
+            }
+        }
+        long regexNanos = System.nanoTime() - start;
+
+        System.out.printf("%5d templates: trie %6.1f ns/match, %s; linear regex scan %10.1f ns/match (checksum %d)%n",
+                templateCount, (double) trieNanos / ITERATIONS,
+                allocated < 0 ? "allocation unknown" : String.format("%.2f bytes/match", (double) allocated / ITERATIONS),
+                (double) regexNanos / REGEX_ITERATIONS, checksum);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PathTemplateTrieTest {
+
+    private PathTemplateTrie tested;
+
+    @Before
+    public void prepareTestedInstance() {
+        tested = new PathTemplateTrie();
+        add("books.list", "GET", "/books");
+        add("books.create", "POST", "/books");
+        add("book.get", "GET", "/books/{id}");
+        add("book.search", "GET", "/books/search");
+        add("book.chapter", "GET", "/books/{bookId: \\d+}/chapters/{chapter}");
+        add("search.pages", "GET", "/books/search/pages/{page}");
+        add("root", "GET", "/");
+    }
+
+    @Test
+    public void literalSegmentsTakePrecedence() {
+        assertEquals("book.search", tested.match("GET", "/books/search", null).getId());
+        assertEquals("book.get", tested.match("GET", "/books/42", null).getId());
+    }
+
+    @Test
+    public void parameterIsTriedWhenLiteralBranchFails() {
+        PathMatch match = new PathMatch();
+
+        assertEquals("book.chapter", tested.match("GET", "books/search/chapters/3/", match).getId());
+        assertEquals(2, match.getParameterCount());
+        assertEquals("bookId", match.getParameterName(0));
+        assertEquals("search", match.getParameterValue("bookId"));
+        assertEquals("3", match.getParameterValue(1));
+    }
+
+    @Test
+    public void methodIsPartOfTheMatch() {
+        assertEquals("books.create", tested.match("POST", "/books", null).getId());
+        assertEquals("books.list", tested.match("GET", "//books", null).getId());
+        assertNull(tested.match("DELETE", "/books", null));
+    }
+
+    @Test
+    public void failedMatchClearsPathMatch() {
+        PathMatch match = new PathMatch();
+        assertNotNull(tested.match("GET", "/books/1", match));
+
+        assertNull(tested.match("GET", "/books/1/pages", match));
+        assertNull(match.getLinkableInfo());
+        assertEquals(0, match.getParameterCount());
+        assertEquals("root", tested.match("GET", "", match).getId());
+    }
+
+    @Test
+    public void thousandsOfTemplatesAreMatched() {
+        for (int i = 0; i < 5000; i++) {
+            add("resource" + i, "GET", "/resource" + i + "/{id}/items/{item}");
+        }
+        PathMatch match = new PathMatch();
+        for (int i = 0; i < 5000; i += 7) {
+            assertEquals("resource" + i, tested.match("GET", "/resource" + i + "/x/items/" + i, match).getId());
+            assertEquals(String.valueOf(i), match.getParameterValue("item"));
+        }
+        assertNull(tested.match("GET", "/resource5000/x/items/1", match));
+    }
+
+    @Test
+    public void parameterValueIsAppendedInPlace() {
+        PathMatch match = new PathMatch();
+        tested.match("GET", "/books/42", match);
+
+        assertEquals("id=42", match.appendParameterValue(0, new StringBuilder("id=")).toString());
+    }
+
+    private void add(String id, String method, String path) {
+        tested.add(new LinkableInfo(id, path, method, null, null, null, null, null));
+    }
+}
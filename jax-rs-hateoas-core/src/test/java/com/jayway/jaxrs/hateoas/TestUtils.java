@@ -15,6 +15,9 @@
 
 package com.jayway.jaxrs.hateoas;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.HashSet;
 
@@ -46,4 +49,19 @@ public class TestUtils {
 		return result;
 	}
 
+	/**
+	 * @return the number of bytes allocated by the current thread so far, or -1 if not supported by the JVM.
+	 */
+	public static long allocatedBytes() {
+		// Only available on HotSpot, through com.sun.management.ThreadMXBean. Resolved through that exported interface
+		// as the implementation class is not accessible on Java 9 and later.
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		try {
+			Method method = Class.forName("com.sun.management.ThreadMXBean")
+					.getMethod("getThreadAllocatedBytes", long.class);
+			return (Long) method.invoke(threadMXBean, Thread.currentThread().getId());
+		} catch (Exception e) {
+			return -1;
+		}
+	}
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.cbor;
+
+import org.codehaus.jackson.JsonGenerationException;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CborGeneratorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void entityWithLinksIsDecodedToSameStructure() throws Exception {
+        Map<String, Object> link = new LinkedHashMap<String, Object>();
+        link.put("rel", "self");
+        link.put("href", "http://example.com/books/1");
+        link.put("method", "GET");
+        link.put("produces", new String[]{"application/json", "application/cbor"});
+        Book book = new Book(1, "Dune \u00e9\u4e2d\ud83d\ude00", Collections.singletonList(link));
+
+        byte[] cbor = write(book);
+
+        Map<Object, Object> expectedLink = new LinkedHashMap<Object, Object>(link);
+        expectedLink.put("produces", Arrays.asList("application/json", "application/cbor"));
+        Map<Object, Object> expected = new LinkedHashMap<Object, Object>();
+        expected.put("id", 1L);
+        expected.put("title", "Dune \u00e9\u4e2d\ud83d\ude00");
+        expected.put("links", Collections.singletonList(expectedLink));
+        assertEquals(expected, CborDecoder.decode(cbor));
+        // Written again from the cached fragments.
+        assertArrayEquals(cbor, write(book));
+        assertTrue(cbor.length < mapper.writeValueAsBytes(book).length);
+    }
+
+    @Test
+    public void numbersAndSimpleValuesAreDecodedToSameValues() throws Exception {
+        List<Object> values = Arrays.<Object>asList(0L, 23L, 24L, -1L, -25L, Long.MAX_VALUE, Long.MIN_VALUE,
+                BigInteger.ONE.shiftLeft(70), BigInteger.ONE.shiftLeft(70).negate(), new BigDecimal("-12.345"),
+                1.5d, Boolean.TRUE, Boolean.FALSE, null);
+
+        Object decoded = CborDecoder.decode(write(values));
+
+        assertEquals(values, decoded);
+    }
+
+    @Test
+    public void encodingFollowsSpecificationExamples() throws Exception {
+        assertArrayEquals(bytes(0x1a, 0x00, 0x0f, 0x42, 0x40), write(1000000));
+        assertArrayEquals(bytes(0x38, 0x63), write(-100));
+        assertArrayEquals(bytes(0x64, 0x49, 0x45, 0x54, 0x46), write("IETF"));
+        assertArrayEquals(bytes(0x62, 0xc3, 0xbc), write("\u00fc"));
+        assertArrayEquals(bytes(0xfb, 0x3f, 0xf1, 0x99, 0x99, 0x99, 0x99, 0x99, 0x9a), write(1.1d));
+        assertArrayEquals(bytes(0x9f, 0x01, 0x02, 0xff), write(Arrays.asList(1, 2)));
+
+        Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+        map.put(1L, 2L);
+        map.put(3L, 4L);
+        assertEquals(map, CborDecoder.decode(bytes(0xa2, 0x01, 0x02, 0x03, 0x04)));
+        assertEquals(1.0d, CborDecoder.decode(bytes(0xf9, 0x3c, 0x00)));
+        assertEquals("streaming", CborDecoder.decode(bytes(0x7f, 0x65, 0x73, 0x74, 0x72, 0x65, 0x61, 0x64, 0x6d,
+                0x69, 0x6e, 0x67, 0xff)));
+    }
+
+    @Test(expected = JsonGenerationException.class)
+    public void endOfObjectIsNotWrittenInArray() throws Exception {
+        CborGenerator generator = new CborGenerator(new ByteArrayOutputStream(), mapper);
+        generator.writeStartArray();
+        generator.writeEndObject();
+    }
+
+    private byte[] write(Object value) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CborMessageBodyWriter().writeTo(value, value.getClass(), null, null,
+                CborMessageBodyWriter.APPLICATION_CBOR_TYPE, null, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    public static class Book {
+        private final int id;
+        private final String title;
+        private final List<Map<String, Object>> links;
+
+        public Book(int id, String title, List<Map<String, Object>> links) {
+            this.id = id;
+            this.title = title;
+            this.links = links;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public List<Map<String, Object>> getLinks() {
+            return links;
+        }
+    }
+}
@@ -126,4 +126,14 @@ public class DefaultHateoasLinkTest {
 		assertEquals("NOT_DEFINED", result.get("template"));
 	}
 
+	@Test(expected = RuntimeException.class)
+	public void templatesAreInstantiatedByToMap() {
+		LinkableInfo linkableInfo = new LinkableInfo("test.dummy",
+				"/dummy/{id1}/{id2}", "PUT", DEFAULT_MEDIA_TYPE,
+				DEFAULT_MEDIA_TYPE, "test label", "test description",
+				Integer.class);
+		tested = DefaultHateoasLink.fromLinkableInfo(linkableInfo, AtomRels.SELF, 1, 2);
+		tested.toMap(HateoasVerbosity.MAXIMUM);
+	}
+
 }
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jayway.jaxrs.hateoas.core;
+
+import com.google.common.collect.Iterables;
+import com.jayway.jaxrs.hateoas.*;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsProvider;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsSnapshot;
+import com.jayway.jaxrs.hateoas.metrics.InMemoryHateoasMetrics;
+import com.jayway.jaxrs.hateoas.metrics.NoOpHateoasMetrics;
+import com.jayway.jaxrs.hateoas.support.AtomRels;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapperStrategy;
+import com.jayway.jaxrs.hateoas.support.FieldPath;
+import com.jayway.jaxrs.hateoas.support.StrategyBasedLinkInjector;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import com.jayway.jaxrs.hateoas.web.ServerTimingRecorder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class HateoasResponseBuilderImplTest {
+
+    private static final String[] JSON = new String[]{"application/json"};
+
+    private HateoasLinkInjector<Object> linkInjectorMock;
+    private CollectionWrapperStrategy collectionWrapperStrategyMock;
+    private LinkableInfo getInfo;
+    private LinkableInfo postInfo;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void prepareTestedInstance() throws Exception {
+        RequestContext.setRequestContext(new RequestContext(
+                UriBuilder.fromUri(new URI("http://www.example.com/api")), "REL, METHOD, TYPE, CONSUMES, LABEL"));
+
+        linkInjectorMock = mock(HateoasLinkInjector.class);
+        collectionWrapperStrategyMock = mock(CollectionWrapperStrategy.class);
+        HateoasResponse.HateoasResponseBuilder.configure(linkInjectorMock, collectionWrapperStrategyMock, null);
+
+        getInfo = new LinkableInfo("test.get", "/dummy/{id}", "GET", JSON, JSON, "Get \"dummy\"", null, null);
+        postInfo = new LinkableInfo("test.post", "/dummy", "POST", JSON, JSON, null, null, DummyDto.class);
+    }
+
+    @After
+    public void cleanup() {
+        RequestContext.clearRequestContext();
+        HateoasResponse.HateoasResponseBuilder.configure(null, null, null);
+        HateoasMetricsProvider.setMetrics(NoOpHateoasMetrics.INSTANCE);
+        ServerTimingRecorder.configure(ServerTimingRecorder.Mode.NEVER, null);
+    }
+
+    @Test
+    public void rootLinksAreWrittenAsHeadersAndEntityIsUntouched() {
+        DummyDto entity = new DummyDto();
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(entity)
+                .links(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1),
+                        DefaultHateoasLink.fromLinkableInfo(postInfo, "create"))
+                .linkHeaders()
+                .build();
+
+        assertSame(entity, response.getEntity());
+        verifyZeroInteractions(linkInjectorMock);
+
+        List<Object> headers = response.getMetadata().get(LinkHeaders.LINK_HEADER);
+        assertEquals(Arrays.<Object>asList(
+                "<http://www.example.com/api/dummy/1>; rel=\"self\"; method=\"GET\"; type=\"application/json\"; title=\"Get \\\"dummy\\\"\"",
+                "<http://www.example.com/api/dummy>; rel=\"create\"; method=\"POST\"; type=\"application/json\"; consumes=\"application/json\""),
+                headers);
+    }
+
+    @Test
+    public void rootCollectionIsNotWrappedWhenAllLinksAreHeaders() {
+        List<DummyDto> entity = Arrays.asList(new DummyDto());
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(entity)
+                .links(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1))
+                .linkHeaders()
+                .build();
+
+        assertSame(entity, response.getEntity());
+        verifyZeroInteractions(collectionWrapperStrategyMock, linkInjectorMock);
+    }
+
+    @Test
+    public void linksAreInjectedWithoutHeaderMode() {
+        DummyDto entity = new DummyDto();
+        when(linkInjectorMock.injectLinks(any(), any(LinkProducer.class), any(HateoasVerbosity.class))).thenReturn(entity);
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(entity)
+                .links(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1))
+                .build();
+
+        assertNull(response.getMetadata().get(LinkHeaders.LINK_HEADER));
+        verify(linkInjectorMock).injectLinks(any(), any(LinkProducer.class), any(HateoasVerbosity.class));
+    }
+
+    @Test
+    public void matchingVersionKeyGivesNotModifiedWithoutLinkInjection() throws Exception {
+        EntityTag entityTag = (EntityTag) new HateoasResponseBuilderImpl()
+                .entity(new DummyDto())
+                .autoTag(42L)
+                .build().getMetadata().getFirst(HttpHeaders.ETAG);
+        assertNotNull(entityTag);
+
+        setIfNoneMatch("W/\"other\", \"" + entityTag.getValue() + "\"");
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(new DummyDto())
+                .links(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1))
+                .autoTag(42L)
+                .build();
+
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+        assertNull(response.getEntity());
+        assertEquals(entityTag, response.getMetadata().getFirst(HttpHeaders.ETAG));
+        verifyZeroInteractions(linkInjectorMock);
+    }
+
+    @Test
+    public void contentTagDependsOnEntityAndLinks() throws Exception {
+        EntityTag first = contentTag(new DummyDto(), 1);
+        assertEquals(first, contentTag(new DummyDto(), 1));
+        assertFalse(first.equals(contentTag(new DummyDto(), 2)));
+
+        setIfNoneMatch("\"" + first.getValue() + "\"");
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(new DummyDto())
+                .links(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1))
+                .linkHeaders()
+                .autoTag()
+                .build();
+
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+        assertNull(response.getMetadata().get(LinkHeaders.LINK_HEADER));
+    }
+
+    @Test
+    public void linksPerResponseAndVerbosityAreRecorded() {
+        InMemoryHateoasMetrics metrics = new InMemoryHateoasMetrics();
+        HateoasMetricsProvider.setMetrics(metrics);
+
+        new HateoasResponseBuilderImpl()
+                .entity(new DummyDto())
+                .links(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1),
+                        DefaultHateoasLink.fromLinkableInfo(postInfo, "create"))
+                .linkHeaders()
+                .build();
+
+        HateoasMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(2.0, snapshot.getHistogram(HateoasMetricsSnapshot.RESPONSE_LINKS).getMean());
+        assertEquals(1, snapshot.getCounter(HateoasMetricsSnapshot.VERBOSITY_PREFIX + "REL,METHOD,TYPE,CONSUMES,LABEL"));
+        assertEquals(1, snapshot.getHistogram(HateoasMetricsSnapshot.LINK_BUILD_PREFIX + "test.get").getCount());
+    }
+
+    @Test
+    public void rowLinksAreCountedWhenMetricsAreEnabled() {
+        InMemoryHateoasMetrics metrics = new InMemoryHateoasMetrics();
+        HateoasMetricsProvider.setMetrics(metrics);
+        HateoasResponse.HateoasResponseBuilder.configure(new StrategyBasedLinkInjector(),
+                new DefaultCollectionWrapperStrategy(), null);
+
+        new HateoasResponseBuilderImpl()
+                .entity(Arrays.asList(new DummyDto(), new DummyDto()))
+                .each(new HateoasResponseBuilderImpl.FixedLinkProducer(
+                        DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1)))
+                .build();
+
+        assertEquals(2.0, metrics.snapshot().getHistogram(HateoasMetricsSnapshot.RESPONSE_LINKS).getMean());
+    }
+
+    @Test
+    public void serverTimingHeaderIsAddedWhenEnabled() {
+        ServerTimingRecorder.configure(ServerTimingRecorder.Mode.ALWAYS, null);
+        when(linkInjectorMock.injectLinks(any(), any(LinkProducer.class), any(HateoasVerbosity.class))).thenReturn(new DummyDto());
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(new DummyDto())
+                .links(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1))
+                .build();
+
+        String serverTiming = (String) response.getMetadata().getFirst(ServerTimingRecorder.SERVER_TIMING_HEADER);
+        assertTrue(serverTiming, serverTiming.matches("hateoas-links;dur=\\d+\\.\\d{3}, hateoas-verbosity;dur=\\d+\\.\\d{3}, "
+                + "hateoas-inject;dur=\\d+\\.\\d{3}, hateoas;dur=\\d+\\.\\d{3}"));
+    }
+
+    @Test
+    public void rowLinksAreProducedWithinTheTimedInjection() {
+        ServerTimingRecorder.configure(ServerTimingRecorder.Mode.ALWAYS, null);
+        HateoasResponse.HateoasResponseBuilder.configure(new StrategyBasedLinkInjector(),
+                new DefaultCollectionWrapperStrategy(), null);
+        final int[] calls = new int[1];
+        LinkProducer<DummyDto> rowLinks = new LinkProducer<DummyDto>() {
+            @Override
+            public Collection<HateoasLink> getLinks(DummyDto entity) {
+                calls[0]++;
+                return Collections.<HateoasLink>singletonList(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1));
+            }
+        };
+
+        new HateoasResponseBuilderImpl()
+                .entity(Arrays.asList(new DummyDto(), new DummyDto()))
+                .each(rowLinks)
+                .build();
+
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    public void unwantedLinksAreNeitherProducedNorWritten() throws Exception {
+        HateoasContextProvider.getDefaultContext().mapClass(DummyAnnotatedClass.class);
+        setHeader(RequestContext.HATEOAS_LINKS_HEADER, "test.dummy.get");
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(new DummyDto())
+                .link("test.dummy.get", AtomRels.SELF)
+                .link("test.dummy.post", "create")
+                // Would fail for the missing field if the producer was invoked.
+                .link(FieldPath.EMPTY_PATH, "test.dummy.delete", "delete", "missingField")
+                .links(DefaultHateoasLink.fromLinkableInfo(postInfo, "create"))
+                .linkHeaders()
+                .build();
+
+        assertEquals(Arrays.<Object>asList("<http://www.example.com/api/dummy>; rel=\"self\"; method=\"GET\"; type=\"*/*\""),
+                response.getMetadata().get(LinkHeaders.LINK_HEADER));
+    }
+
+    @Test
+    public void contentTagDependsOnRepresentation() throws Exception {
+        setHeader(HttpHeaders.ACCEPT, "application/json");
+        HateoasResponse json = new HateoasResponseBuilderImpl().entity(new DummyDto()).linkHeaders().autoTag().build();
+        setHeader(HttpHeaders.ACCEPT, "application/xml");
+        HateoasResponse xml = new HateoasResponseBuilderImpl().entity(new DummyDto()).linkHeaders().autoTag().build();
+
+        assertFalse(json.getMetadata().getFirst(HttpHeaders.ETAG).equals(xml.getMetadata().getFirst(HttpHeaders.ETAG)));
+        assertEquals(Arrays.<Object>asList(HttpHeaders.ACCEPT), json.getMetadata().get(HttpHeaders.VARY));
+    }
+
+    @Test
+    public void notModifiedIsOnlyBuiltForGetAndHead() throws Exception {
+        EntityTag entityTag = (EntityTag) new HateoasResponseBuilderImpl()
+                .entity(new DummyDto())
+                .autoTag(42L)
+                .build().getMetadata().getFirst(HttpHeaders.ETAG);
+
+        setRequest("HEAD", HttpHeaders.IF_NONE_MATCH, "\"" + entityTag.getValue() + "\"");
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(),
+                new HateoasResponseBuilderImpl().entity(new DummyDto()).autoTag(42L).build().getStatus());
+
+        setRequest("PUT", HttpHeaders.IF_NONE_MATCH, "\"" + entityTag.getValue() + "\"");
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .status(Response.Status.OK).entity(new DummyDto()).autoTag(42L).build();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(entityTag, response.getMetadata().getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void rowLinksAreProducedOnceWhenHashed() {
+        HateoasResponse.HateoasResponseBuilder.configure(new StrategyBasedLinkInjector(),
+                new DefaultCollectionWrapperStrategy(), null);
+        final int[] calls = new int[1];
+        LinkProducer<DummyDto> rowLinks = new LinkProducer<DummyDto>() {
+            @Override
+            public Collection<HateoasLink> getLinks(DummyDto entity) {
+                calls[0]++;
+                return Collections.<HateoasLink>singletonList(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, 1));
+            }
+        };
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(Arrays.asList(new DummyDto(), new DummyDto()))
+                .each(rowLinks)
+                .autoTag()
+                .build();
+        assertEquals(2, calls[0]);
+
+        // As done when writing the entity.
+        assertEquals(2, Iterables.size(Iterables.unmodifiableIterable(
+                ((DefaultCollectionWrapper<Object>) response.getEntity()).getRows())));
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void planRootLinksAreHeadersAndRowLinksAreMergedWithMappedLinks() {
+        HateoasContextProvider.getDefaultContext().mapClass(DummyRootResourceClass.class);
+        HateoasResponse.HateoasResponseBuilder.configure(linkInjectorMock, new DefaultCollectionWrapperStrategy(), null);
+        when(linkInjectorMock.injectLinks(any(), any(LinkProducer.class), any(HateoasVerbosity.class)))
+                .thenReturn(new DummyDto());
+        HateoasLink mappedLink = DefaultHateoasLink.fromLinkableInfo(getInfo, "mapped", 1);
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(Arrays.asList(new Row(3)))
+                .plan("dummy.root.resource.get", 7)
+                .each(new HateoasResponseBuilderImpl.FixedLinkProducer(mappedLink))
+                .linkHeaders()
+                .build();
+
+        assertEquals(Arrays.<Object>asList("<http://www.example.com/api/root>; rel=\"self\"; method=\"GET\"; type=\"text/plain\"",
+                "<http://www.example.com/api/root/7>; rel=\"first\"; method=\"GET\"; type=\"text/plain\""),
+                response.getMetadata().get(LinkHeaders.LINK_HEADER));
+
+        Iterables.size(Iterables.unmodifiableIterable(((DefaultCollectionWrapper<Object>) response.getEntity()).getRows()));
+        ArgumentCaptor<LinkProducer> producer = ArgumentCaptor.forClass(LinkProducer.class);
+        verify(linkInjectorMock).injectLinks(any(Row.class), producer.capture(), any(HateoasVerbosity.class));
+        List<HateoasLink> rowLinks = new ArrayList<HateoasLink>(producer.getValue().getLinks(new Row(3)));
+        assertEquals(2, rowLinks.size());
+        assertSame(mappedLink, rowLinks.get(0));
+        assertEquals("http://www.example.com/api/root/3", rowLinks.get(1).getHref());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void planCanBeAppliedOnce() {
+        HateoasContextProvider.getDefaultContext().mapClass(DummyRootResourceClass.class);
+        new HateoasResponseBuilderImpl().plan("dummy.root.resource.get", 7).plan("dummy.root.resource.get", 8);
+    }
+
+    private EntityTag contentTag(Object entity, int id) {
+        return (EntityTag) new HateoasResponseBuilderImpl()
+                .entity(entity)
+                .links(DefaultHateoasLink.fromLinkableInfo(getInfo, AtomRels.SELF, id))
+                .linkHeaders()
+                .autoTag()
+                .build().getMetadata().getFirst(HttpHeaders.ETAG);
+    }
+
+    private void setIfNoneMatch(String ifNoneMatch) throws Exception {
+        setHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    }
+
+    private static class Row {
+        private final Integer id;
+
+        private Row(Integer id) {
+            this.id = id;
+        }
+    }
+
+    private void setHeader(String header, String value) throws Exception {
+        setRequest("GET", header, value);
+    }
+
+    private void setRequest(final String method, final String header, final String value) throws Exception {
+        RequestContext.setRequestContext(new RequestContext(
+                UriBuilder.fromUri(new URI("http://www.example.com/api")), "REL, METHOD, TYPE, CONSUMES, LABEL") {
+            @Override
+            public String getHeader(String name) {
+                return header.equals(name) ? value : null;
+            }
+
+            @Override
+            public String getMethod() {
+                return method;
+            }
+        });
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+import com.jayway.jaxrs.hateoas.DefaultHateoasContext;
+import com.jayway.jaxrs.hateoas.Linkable;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.UriBuilder;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class HrefTemplateTest {
+
+    private static final String[] BASES = {"http://www.example.com/api", "http://www.example.com/api/",
+            "http://www.example.com", "http://www.example.com/", "https://example.com:8443/a%20b/c"};
+
+    private static final String ALPHABET = "abcXYZ019-._~!$&'()*+,;=:@/ \"#%<>?[\\]^`{|}\u00e9\u20ac";
+
+    private DefaultHateoasContext context;
+
+    @Before
+    public void mapResources() {
+        context = new DefaultHateoasContext();
+        context.mapClass(TypedResource.class);
+        context.mapClass(RelativeResource.class);
+    }
+
+    @Test
+    public void hrefsAreIdenticalToUriBuilder() {
+        Random random = new Random(42);
+        String[] ids = {"href.int", "href.long", "href.uuid", "href.string", "href.mixed", "href.regex",
+                "href.untyped", "href.relative", "href.root"};
+        int fast = 0;
+        for (int i = 0; i < 20000; i++) {
+            LinkableInfo linkableInfo = context.getLinkableInfo(ids[random.nextInt(ids.length)]);
+            String base = BASES[random.nextInt(BASES.length)];
+            Object[] params = new Object[parameterCount(linkableInfo)];
+            for (int j = 0; j < params.length; j++) {
+                params[j] = randomValue(random);
+            }
+
+            String href = HrefTemplate.compile(linkableInfo).build(base, params);
+            if (href != null) {
+                assertEquals(expected(base, linkableInfo, params), href);
+                fast++;
+            }
+        }
+        assertTrue("Only " + fast + " hrefs were built without UriBuilder", fast > 15000);
+    }
+
+    @Test
+    public void typedValuesTakeTheFastPath() {
+        UUID uuid = UUID.randomUUID();
+
+        assertEquals("http://www.example.com/api/href/int/-17",
+                HrefTemplate.compile(context.getLinkableInfo("href.int")).build(BASES[0], new Object[]{-17}));
+        assertEquals("http://www.example.com/api/href/long/" + Long.MIN_VALUE,
+                HrefTemplate.compile(context.getLinkableInfo("href.long")).build(BASES[1], new Object[]{Long.MIN_VALUE}));
+        assertEquals("http://www.example.com/href/uuid/" + uuid,
+                HrefTemplate.compile(context.getLinkableInfo("href.uuid")).build(BASES[2], new Object[]{uuid}));
+        assertEquals("http://www.example.com/api/href/mixed/a:b/1-a:b",
+                HrefTemplate.compile(context.getLinkableInfo("href.mixed")).build(BASES[0], new Object[]{"a:b", 1}));
+    }
+
+    @Test
+    public void valuesUriBuilderWouldEncodeFallBack() {
+        HrefTemplate template = HrefTemplate.compile(context.getLinkableInfo("href.string"));
+
+        assertNull(template.build(BASES[0], new Object[]{"a b"}));
+        assertNull(template.build(BASES[0], new Object[]{"%41"}));
+        assertNull(template.build(BASES[0], new Object[]{"\u00e9"}));
+        assertNull(template.build(BASES[0], new Object[]{null}));
+        assertNull(template.build(BASES[0], new Object[0]));
+        assertNull(template.build(BASES[0] + "?q=1", new Object[]{"a"}));
+    }
+
+    private static int parameterCount(LinkableInfo linkableInfo) {
+        String path = linkableInfo.getMethodPath();
+        if (path.contains("{b}")) {
+            return 2;
+        }
+        return path.contains("{") ? 1 : 0;
+    }
+
+    private static Object randomValue(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return random.nextInt();
+            case 1:
+                return random.nextLong();
+            case 2:
+                return new UUID(random.nextLong(), random.nextLong());
+            default:
+                StringBuilder sb = new StringBuilder();
+                int length = random.nextInt(6);
+                for (int i = 0; i < length; i++) {
+                    // Mostly characters that need no encoding, so that the fast path is exercised.
+                    int bound = random.nextInt(4) == 0 ? ALPHABET.length() : 27;
+                    sb.append(ALPHABET.charAt(random.nextInt(bound)));
+                }
+                return sb.toString();
+        }
+    }
+
+    private static String expected(String base, LinkableInfo linkableInfo, Object[] params) {
+        return UriBuilder.fromUri(base).path(linkableInfo.getMethodPath()).build(params).toASCIIString();
+    }
+
+    @Path("/href")
+    public static class TypedResource {
+
+        @GET
+        @Path("/int/{id}")
+        @Linkable("href.int")
+        public String getInt(@PathParam("id") int id) {
+            return null;
+        }
+
+        @GET
+        @Path("/long/{id}")
+        @Linkable("href.long")
+        public String getLong(@PathParam("id") Long id) {
+            return null;
+        }
+
+        @GET
+        @Path("/uuid/{id}")
+        @Linkable("href.uuid")
+        public String getUuid(@PathParam("id") UUID id) {
+            return null;
+        }
+
+        @GET
+        @Path("/string/{name}")
+        @Linkable("href.string")
+        public String getString(@PathParam("name") String name) {
+            return null;
+        }
+
+        @GET
+        @Path("/mixed/{a}/{b}-{a}")
+        @Linkable("href.mixed")
+        public String getMixed(@PathParam("a") String a, @PathParam("b") int b) {
+            return null;
+        }
+
+        @GET
+        @Path("/regex/{id: [0-9]{1,3}}")
+        @Linkable("href.regex")
+        public String getRegex(@PathParam("id") int id) {
+            return null;
+        }
+
+        @GET
+        @Path("/untyped/{id}")
+        @Linkable("href.untyped")
+        public String getUntyped(@PathParam("id") Object id) {
+            return null;
+        }
+
+        @GET
+        @Linkable("href.root")
+        public String getRoot() {
+            return null;
+        }
+    }
+
+    @Path("relative")
+    public static class RelativeResource {
+
+        @GET
+        @Path("/{id}")
+        @Linkable("href.relative")
+        public String get(@PathParam("id") long id) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+import com.jayway.jaxrs.hateoas.DefaultHateoasContext;
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.Linkable;
+import com.jayway.jaxrs.hateoas.TestUtils;
+import com.jayway.jaxrs.hateoas.support.AtomRels;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.UriBuilder;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Enforces a budget of bytes allocated per rendered link, covering the href, the link and the collection returned by
+ * the producer.
+ */
+public class LinkAllocationTest {
+
+    private static final long BYTES_PER_LINK_BUDGET = 512;
+
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 100000;
+
+    @Before
+    public void bindConfiguration() {
+        HateoasConfiguration configuration = new HateoasConfiguration(new DefaultHateoasContext());
+        configuration.getContext().mapClass(ItemResource.class);
+        RequestContext.setRequestContext(new RequestContext(
+                UriBuilder.fromUri("http://www.example.com/api"), null, configuration));
+    }
+
+    @After
+    public void cleanup() {
+        RequestContext.clearRequestContext();
+    }
+
+    @Test
+    public void linkWithIntegerIdStaysWithinBudget() {
+        assertWithinBudget(new HateoasResponseBuilderImpl.ReflectionBasedLinkProducer(
+                "allocation.item", AtomRels.SELF, "id"), new Item(42, null));
+    }
+
+    @Test
+    public void linkWithUuidAndIdStaysWithinBudget() {
+        assertWithinBudget(new HateoasResponseBuilderImpl.ReflectionBasedLinkProducer(
+                "allocation.part", AtomRels.SELF, "id", "part"), new Item(42, UUID.randomUUID()));
+    }
+
+    private static void assertWithinBudget(HateoasResponseBuilderImpl.ReflectionBasedLinkProducer producer, Item item) {
+        assertTrue("The JVM does not report allocated bytes", TestUtils.allocatedBytes() >= 0);
+
+        long checksum = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            checksum += render(producer, item);
+        }
+        long before = TestUtils.allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            checksum += render(producer, item);
+        }
+        long bytesPerLink = (TestUtils.allocatedBytes() - before) / ITERATIONS;
+
+        assertTrue(checksum > 0);
+        assertTrue(bytesPerLink + " bytes allocated per link, budget is " + BYTES_PER_LINK_BUDGET,
+                bytesPerLink <= BYTES_PER_LINK_BUDGET);
+    }
+
+    private static int render(HateoasResponseBuilderImpl.ReflectionBasedLinkProducer producer, Item item) {
+        HateoasLink link = producer.getLinks(item).iterator().next();
+        return link.getHref().length();
+    }
+
+    private static class Item {
+        private final Integer id;
+        private final UUID part;
+
+        private Item(Integer id, UUID part) {
+            this.id = id;
+            this.part = part;
+        }
+    }
+
+    @Path("/items")
+    public static class ItemResource {
+
+        @GET
+        @Path("/{id}")
+        @Linkable("allocation.item")
+        public Item get(@PathParam("id") Integer id) {
+            return null;
+        }
+
+        @GET
+        @Path("/{id}/parts/{part}")
+        @Linkable("allocation.part")
+        public Item getPart(@PathParam("id") int id, @PathParam("part") UUID part) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.core;
+
+import com.jayway.jaxrs.hateoas.DefaultHateoasContext;
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.Linkable;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import com.jayway.jaxrs.hateoas.metrics.HateoasMetricsSnapshot;
+import com.jayway.jaxrs.hateoas.metrics.InMemoryHateoasMetrics;
+import com.jayway.jaxrs.hateoas.support.AtomRels;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.UriBuilder;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class LinkCacheTest {
+
+    private HateoasConfiguration configuration;
+    private LinkCache linkCache;
+
+    @Before
+    public void prepareTestedInstance() {
+        DefaultHateoasContext context = new DefaultHateoasContext();
+        context.mapClass(ItemResource.class);
+        configuration = new HateoasConfiguration(context);
+        linkCache = new LinkCache(1000);
+        configuration.setLinkCache(linkCache);
+    }
+
+    @After
+    public void cleanup() {
+        RequestContext.clearRequestContext();
+    }
+
+    @Test
+    public void cacheableLinksAreReusedAcrossRequests() {
+        InMemoryHateoasMetrics metrics = new InMemoryHateoasMetrics();
+        configuration.setMetrics(metrics);
+
+        HateoasLink first = link("http://example.com/api", "items.get", 1);
+        HateoasLink second = link("http://example.com/api", "items.get", 1);
+        HateoasLink otherHost = link("http://example.org/api", "items.get", 1);
+
+        assertSame(first, second);
+        assertEquals("http://example.org/api/items/1", otherHost.getHref());
+        assertNotSame(first, link("http://example.com/api", "items.get", 2));
+        assertEquals(1, linkCache.getHitCount());
+        assertEquals(3, linkCache.getMissCount());
+        assertEquals(1, metrics.snapshot().getCounter(HateoasMetricsSnapshot.CACHE_HIT_PREFIX + LinkCache.CACHE_NAME));
+    }
+
+    @Test
+    public void linksNotMarkedCacheableOrWithQueryAreNotCached() {
+        assertNotSame(link("http://example.com/api", "items.owner", 1), link("http://example.com/api", "items.owner", 1));
+
+        setRequestContext("http://example.com/api");
+        LinkableInfo linkableInfo = configuration.getContext().getLinkableInfo("items.get");
+        DefaultHateoasLink.fromLinkableInfo(linkableInfo, AtomRels.SELF,
+                Collections.<String, Object>singletonMap("q", "x"), 1);
+
+        assertEquals(0, linkCache.getHitCount() + linkCache.getMissCount());
+        assertEquals(0, linkCache.size());
+    }
+
+    @Test
+    public void frequentLinksAreKeptWhenFull() {
+        LinkCache small = new LinkCache(16);
+        setRequestContext("http://example.com/api");
+        LinkableInfo linkableInfo = configuration.getContext().getLinkableInfo("items.get");
+
+        for (int round = 0; round < 5; round++) {
+            for (int id = 0; id < 8; id++) {
+                lookup(small, linkableInfo, id);
+            }
+        }
+        // A crawl through links asked for once, while the popular links are still being asked for.
+        for (int id = 1000; id < 2000; id++) {
+            lookup(small, linkableInfo, id);
+            lookup(small, linkableInfo, id % 8);
+        }
+        long hits = small.getHitCount();
+        for (int id = 0; id < 8; id++) {
+            lookup(small, linkableInfo, id);
+        }
+
+        assertTrue(small.size() <= 16);
+        assertEquals(8, small.getHitCount() - hits);
+    }
+
+    @Test
+    public void lessFrequentLinksAreEvicted() {
+        LinkCache small = new LinkCache(16);
+        setRequestContext("http://example.com/api");
+        LinkableInfo linkableInfo = configuration.getContext().getLinkableInfo("items.get");
+
+        for (int id = 0; id < 64; id++) {
+            lookup(small, linkableInfo, id);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int id = 100; id < 116; id++) {
+                lookup(small, linkableInfo, id);
+            }
+        }
+
+        assertTrue(small.size() <= 16);
+        assertTrue(small.getEvictionCount() > 0);
+        long hits = small.getHitCount();
+        for (int id = 100; id < 116; id++) {
+            lookup(small, linkableInfo, id);
+        }
+        assertEquals(16, small.getHitCount() - hits);
+    }
+
+    private void lookup(LinkCache cache, LinkableInfo linkableInfo, int id) {
+        Object[] params = {id};
+        if (cache.get(linkableInfo, AtomRels.SELF, "http://example.com/api", params) == null) {
+            cache.put(linkableInfo, AtomRels.SELF, "http://example.com/api", params,
+                    new DefaultHateoasLink(linkableInfo, AtomRels.SELF, "http://example.com/api/items/" + id));
+        }
+    }
+
+    private HateoasLink link(String baseUri, String id, Object param) {
+        setRequestContext(baseUri);
+        return HateoasResponse.HateoasResponseBuilder.makeLink(id, AtomRels.SELF, param);
+    }
+
+    private void setRequestContext(String baseUri) {
+        RequestContext.setRequestContext(new RequestContext(UriBuilder.fromUri(baseUri), null, configuration));
+    }
+
+    @Path("/items")
+    public static class ItemResource {
+        @GET
+        @Path("/{id}")
+        @Linkable(value = "items.get", cacheable = true)
+        public String get(@PathParam("id") Integer id) {
+            return null;
+        }
+
+        @GET
+        @Path("/{id}/owner")
+        @Linkable("items.owner")
+        public String getOwner(@PathParam("id") Integer id) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.embed;
+
+import com.jayway.jaxrs.hateoas.DefaultHateoasContext;
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.Linkable;
+import com.jayway.jaxrs.hateoas.core.HateoasResponseBuilderImpl;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapperStrategy;
+import com.jayway.jaxrs.hateoas.support.StrategyBasedLinkInjector;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.UriBuilder;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EmbedBatchTest {
+
+    private HateoasConfiguration configuration;
+    private RecordingLoader loader;
+
+    @Before
+    public void prepareTestedInstance() {
+        DefaultHateoasContext context = new DefaultHateoasContext();
+        context.mapClass(AuthorResource.class);
+        configuration = new HateoasConfiguration(context);
+        configuration.configure(new StrategyBasedLinkInjector(), new DefaultCollectionWrapperStrategy(), null);
+        loader = new RecordingLoader();
+        configuration.registerBatchLoader("authors.get", loader);
+    }
+
+    @After
+    public void cleanup() {
+        RequestContext.clearRequestContext();
+    }
+
+    @Test
+    public void identicalTargetsAreLoadedOnceInOneCall() {
+        List<Map<String, Object>> links = rowLinks("author", new Book("a"), new Book("b"), new Book("a"));
+
+        assertEquals(1, loader.calls.size());
+        assertEquals(Arrays.asList("a", "b"), loader.calls.get(0));
+        assertEquals("Author a", links.get(0).get(EmbedBatch.EMBEDDED));
+        assertEquals("Author b", links.get(1).get(EmbedBatch.EMBEDDED));
+        assertEquals("Author a", links.get(2).get(EmbedBatch.EMBEDDED));
+        assertEquals("http://example.com/api/authors/a", links.get(0).get("href"));
+    }
+
+    @Test
+    public void linksBeyondLimitsAreNotEmbedded() {
+        configuration.setEmbedLimits(1, 1);
+        List<Map<String, Object>> links = rowLinks("author", new Book("a"), new Book("b"), new Book("a"));
+
+        assertEquals(Arrays.asList(Arrays.asList("a")), loader.calls);
+        assertEquals("Author a", links.get(0).get(EmbedBatch.EMBEDDED));
+        assertFalse(links.get(1).containsKey(EmbedBatch.EMBEDDED));
+        assertEquals("Author a", links.get(2).get(EmbedBatch.EMBEDDED));
+
+        configuration.setEmbedLimits(10, 0);
+        loader.calls.clear();
+        links = rowLinks("author", new Book("a"));
+
+        assertTrue(loader.calls.isEmpty());
+        assertFalse(links.get(0).containsKey(EmbedBatch.EMBEDDED));
+    }
+
+    @Test
+    public void onlyRequestedRelsAreEmbedded() {
+        List<Map<String, Object>> links = rowLinks("publisher", new Book("a"));
+
+        assertTrue(loader.calls.isEmpty());
+        assertFalse(links.get(0).containsKey(EmbedBatch.EMBEDDED));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> rowLinks(final String embed, Book... books) {
+        RequestContext.setRequestContext(new RequestContext(UriBuilder.fromUri("http://example.com/api"), null,
+                configuration) {
+            @Override
+            public String getQueryParameter(String name) {
+                return RequestContext.EMBED_PARAMETER.equals(name) ? embed : null;
+            }
+        });
+        DefaultCollectionWrapper<Book> entity = (DefaultCollectionWrapper<Book>) new HateoasResponseBuilderImpl()
+                .entity(Arrays.asList(books))
+                .each("authors.get", "author", "author")
+                .build().getEntity();
+
+        List<Map<String, Object>> links = new ArrayList<Map<String, Object>>();
+        for (Book book : entity.getRows()) {
+            links.addAll(book.links);
+        }
+        return links;
+    }
+
+    @Path("/authors")
+    public static class AuthorResource {
+        @GET
+        @Path("/{name}")
+        @Linkable("authors.get")
+        public String get(@PathParam("name") String name) {
+            return null;
+        }
+    }
+
+    private static class Book {
+        private final String author;
+        private Collection<Map<String, Object>> links;
+
+        private Book(String author) {
+            this.author = author;
+        }
+    }
+
+    private static class RecordingLoader implements BatchLoader<String> {
+        private final List<List<String>> calls = new ArrayList<List<String>>();
+
+        @Override
+        public Map<LinkTarget, String> load(List<LinkTarget> targets) {
+            List<String> names = new ArrayList<String>();
+            Map<LinkTarget, String> result = new HashMap<LinkTarget, String>();
+            for (LinkTarget target : targets) {
+                names.add(target.getParameter("name"));
+                result.put(target, "Author " + target.getParameter("name"));
+            }
+            calls.add(names);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.hal;
+
+import com.jayway.jaxrs.hateoas.DefaultHateoasContext;
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.Linkable;
+import com.jayway.jaxrs.hateoas.core.HateoasResponse;
+import com.jayway.jaxrs.hateoas.core.HateoasResponseBuilderImpl;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapperStrategy;
+import com.jayway.jaxrs.hateoas.support.StrategyBasedLinkInjector;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class HalMessageBodyWriterTest {
+
+    private static final String BOOK_TYPE = "application/vnd.book+json";
+
+    private HateoasConfiguration configuration;
+
+    @Before
+    public void prepareConfiguration() {
+        DefaultHateoasContext context = new DefaultHateoasContext();
+        context.mapClass(BookResource.class);
+        configuration = new HateoasConfiguration(context);
+        configuration.configure(new StrategyBasedLinkInjector(), new DefaultCollectionWrapperStrategy(), null);
+        configuration.setHalEnabled(true);
+    }
+
+    @After
+    public void cleanup() {
+        RequestContext.clearRequestContext();
+    }
+
+    @Test
+    public void halIsPreferredOnlyWhenRankedFirst() {
+        assertTrue(HalMediaType.isPreferredBy("application/hal+json"));
+        assertTrue(HalMediaType.isPreferredBy("application/hal+json, application/json"));
+        assertTrue(HalMediaType.isPreferredBy("application/json;q=0.5, application/hal+json, */*"));
+        assertFalse(HalMediaType.isPreferredBy("application/json, application/hal+json"));
+        assertFalse(HalMediaType.isPreferredBy("application/hal+json;q=0.5, application/json"));
+        assertFalse(HalMediaType.isPreferredBy("application/hal+json;q=0"));
+        assertFalse(HalMediaType.isPreferredBy("*/*"));
+        assertFalse(HalMediaType.isPreferredBy(null));
+    }
+
+    @Test
+    public void collectionIsWrittenWithEmbeddedRows() throws Exception {
+        setRequestContext("application/hal+json", "REL, HREF, TYPE, LABEL");
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(Arrays.asList(new Book(1, "Dune"), new Book(2, "Emma")))
+                .selfLink("hal.books")
+                .selfEach("hal.book", "id")
+                .build();
+
+        assertEquals(HalMediaType.APPLICATION_HAL_JSON_TYPE, response.getMetadata().getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals("{\"_links\":{\"self\":{\"href\":\"http://www.example.com/api/books{?page}\",\"templated\":true,"
+                + "\"type\":\"application/vnd.book+json\",\"title\":\"All books\"}},"
+                + "\"_embedded\":{\"items\":["
+                + "{\"_links\":{\"self\":{\"href\":\"http://www.example.com/api/books/1\",\"type\":\"application/vnd.book+json\"}},"
+                + "\"id\":1,\"title\":\"Dune\"},"
+                + "{\"_links\":{\"self\":{\"href\":\"http://www.example.com/api/books/2\",\"type\":\"application/vnd.book+json\"}},"
+                + "\"id\":2,\"title\":\"Emma\"}]}}", write(response.getEntity()));
+    }
+
+    @Test
+    public void linksSharingRelAreWrittenAsArray() throws Exception {
+        setRequestContext("application/hal+json", "REL, HREF");
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(Collections.singletonMap("count", 2))
+                .link("hal.book", "item", 1)
+                .link("hal.books", "collection")
+                .link("hal.book", "item", 2)
+                .build();
+
+        assertEquals("{\"_links\":{\"item\":[{\"href\":\"http://www.example.com/api/books/1\"},"
+                + "{\"href\":\"http://www.example.com/api/books/2\"}],"
+                + "\"collection\":{\"href\":\"http://www.example.com/api/books{?page}\",\"templated\":true}},"
+                + "\"count\":2}", write(response.getEntity()));
+    }
+
+    @Test
+    public void plainRepresentationIsKeptWhenHalIsNotPreferred() throws Exception {
+        setRequestContext("application/json, application/hal+json", "REL, HREF");
+
+        HateoasResponse response = new HateoasResponseBuilderImpl()
+                .entity(Arrays.asList(new Book(1, "Dune")))
+                .selfLink("hal.books")
+                .build();
+
+        assertTrue(response.getEntity() instanceof DefaultCollectionWrapper);
+        assertNull(response.getMetadata().getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    private String write(Object entity) throws Exception {
+        HalMessageBodyWriter writer = new HalMessageBodyWriter();
+        assertTrue(writer.isWriteable(entity.getClass(), null, null, HalMediaType.APPLICATION_HAL_JSON_TYPE));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(entity, entity.getClass(), null, null, HalMediaType.APPLICATION_HAL_JSON_TYPE, null, out);
+        return out.toString("UTF-8");
+    }
+
+    private void setRequestContext(final String accept, String verbosity) {
+        RequestContext.setRequestContext(new RequestContext(
+                UriBuilder.fromUri("http://www.example.com/api"), verbosity, configuration) {
+            @Override
+            public String getHeader(String name) {
+                return HttpHeaders.ACCEPT.equals(name) ? accept : null;
+            }
+        });
+    }
+
+    @Path("/books")
+    public static class BookResource {
+        @GET
+        @Produces(BOOK_TYPE)
+        @Linkable(value = "hal.books", label = "All books")
+        public Response getBooks(@QueryParam("page") int page) {
+            return null;
+        }
+
+        @GET
+        @Path("/{id}")
+        @Produces(BOOK_TYPE)
+        @Linkable("hal.book")
+        public Response getBook(@PathParam("id") int id) {
+            return null;
+        }
+    }
+
+    public static class Book {
+        private final int id;
+        private final String title;
+
+        public Book(int id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasOption;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.Linkable;
+import com.jayway.jaxrs.hateoas.cbor.CborDecoder;
+import com.jayway.jaxrs.hateoas.cbor.CborGenerator;
+import com.jayway.jaxrs.hateoas.core.HateoasResponseBuilderImpl.FixedLinkProducer;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import com.jayway.jaxrs.hateoas.support.JavassistHateoasLinkInjector;
+import com.jayway.jaxrs.hateoas.support.LinkMap;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.ws.rs.core.UriBuilder;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class HateoasJacksonModuleTest {
+
+    private final ObjectMapper plainMapper = new ObjectMapper();
+    private final ObjectMapper moduleMapper = new HateoasObjectMapperProvider().getContext(Object.class);
+
+    @After
+    public void cleanup() {
+        RequestContext.clearRequestContext();
+    }
+
+    @Test
+    public void linkMapIsWrittenDirectlyAsFilledMapWouldBe() throws Exception {
+        HateoasVerbosity verbosity = new HateoasVerbosity(HateoasOption.REL, HateoasOption.HREF, HateoasOption.ID,
+                HateoasOption.CONSUMES, HateoasOption.PRODUCES, HateoasOption.METHOD, HateoasOption.LABEL,
+                HateoasOption.DESCRIPTION);
+        LinkMap direct = new LinkMap(new TestLink("create", "POST", Template.class), verbosity);
+        LinkMap filled = new LinkMap(new TestLink("create", "POST", Template.class), verbosity);
+
+        String json = moduleMapper.writeValueAsString(direct);
+
+        assertFalse(direct.isMaterialized());
+        assertEquals(plainMapper.writeValueAsString(filled), json);
+        assertTrue(filled.isMaterialized());
+        assertEquals(json, moduleMapper.writeValueAsString(filled));
+        assertEquals("{\"rel\":\"create\",\"href\":\"http://example.com/books\",\"id\":\"books.create\","
+                + "\"consumes\":[\"application/json\"],\"produces\":[\"application/json\"],\"method\":\"POST\","
+                + "\"label\":\"Create book\",\"description\":null}", json);
+    }
+
+    @Test
+    public void linkMapWithTemplateIsFilledRightAway() throws Exception {
+        LinkMap linkMap = new LinkMap(new TestLink("create", "POST", Template.class), HateoasVerbosity.MAXIMUM);
+
+        assertTrue(linkMap.isMaterialized());
+        assertEquals(plainMapper.writeValueAsString(linkMap), moduleMapper.writeValueAsString(linkMap));
+        assertEquals("{\"rel\":\"create\",\"href\":\"http://example.com/books\",\"id\":\"books.create\","
+                + "\"consumes\":[\"application/json\"],\"produces\":[\"application/json\"],\"method\":\"POST\","
+                + "\"label\":\"Create book\",\"description\":null,\"template\":{\"title\":\"Title\"}}",
+                moduleMapper.writeValueAsString(linkMap));
+    }
+
+    @Test
+    public void generatedBeansAndCollectionWrapperAreWrittenAsWithoutModule() throws Exception {
+        JavassistHateoasLinkInjector injector = new JavassistHateoasLinkInjector();
+        List<Object> rows = Arrays.asList(
+                injector.injectLinks(new Book("Dune"), new FixedLinkProducer(new TestLink("self", "GET", null)),
+                        HateoasVerbosity.GENERIC_CLIENT),
+                injector.injectLinks(new Book("Emma"), new FixedLinkProducer(new TestLink("self", "GET", null)),
+                        HateoasVerbosity.GENERIC_CLIENT));
+        DefaultCollectionWrapper<Object> collection = new DefaultCollectionWrapper<Object>(rows);
+        collection.setLinks(Collections.singletonList(new TestLink("create", "POST", Template.class)
+                .toMap(HateoasVerbosity.GENERIC_CLIENT)));
+
+        String json = moduleMapper.writeValueAsString(collection);
+
+        assertEquals(plainMapper.writeValueAsString(collection), json);
+        assertEquals("{\"rows\":[{\"title\":\"Dune\",\"links\":[{\"rel\":\"self\",\"href\":\"http://example.com/books\","
+                + "\"method\":\"GET\"}]},{\"title\":\"Emma\",\"links\":[{\"rel\":\"self\","
+                + "\"href\":\"http://example.com/books\",\"method\":\"GET\"}]}],\"links\":[{\"rel\":\"create\","
+                + "\"href\":\"http://example.com/books\",\"consumes\":[\"application/json\"],\"method\":\"POST\","
+                + "\"template\":{\"title\":\"Title\"}}]}", json);
+    }
+
+    @Test
+    public void linkIsWrittenWithVerbosityOfRequest() throws Exception {
+        RequestContext requestContext = new RequestContext(UriBuilder.fromUri("http://example.com"), null);
+        requestContext.setVerbosity(HateoasVerbosity.MINIMUM);
+        RequestContext.setRequestContext(requestContext);
+
+        assertEquals("{\"rel\":\"self\",\"href\":\"http://example.com/books\",\"method\":\"GET\"}",
+                moduleMapper.writeValueAsString(new TestLink("self", "GET", null)));
+    }
+
+    @Test
+    public void templateIsTranscodedToCbor() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CborGenerator generator = new CborGenerator(out, moduleMapper);
+        moduleMapper.writeValue(generator, new TestLink("create", "POST", Template.class)
+                .toMap(HateoasVerbosity.GENERIC_CLIENT));
+
+        Map<Object, Object> expected = new LinkedHashMap<Object, Object>();
+        expected.put("rel", "create");
+        expected.put("href", "http://example.com/books");
+        expected.put("consumes", Arrays.asList("application/json"));
+        expected.put("method", "POST");
+        expected.put("template", Collections.singletonMap("title", "Title"));
+        assertEquals(expected, CborDecoder.decode(out.toByteArray()));
+    }
+
+    private static class TestLink implements HateoasLink {
+        private final String rel;
+        private final String method;
+        private final Class<?> templateClass;
+
+        private TestLink(String rel, String method, Class<?> templateClass) {
+            this.rel = rel;
+            this.method = method;
+            this.templateClass = templateClass == null ? Linkable.NoTemplate.class : templateClass;
+        }
+
+        @Override
+        public String getRel() {
+            return rel;
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public String getId() {
+            return "books." + rel;
+        }
+
+        @Override
+        public String getHref() {
+            return "http://example.com/books";
+        }
+
+        @Override
+        public String[] getConsumes() {
+            return new String[]{"application/json"};
+        }
+
+        @Override
+        public String[] getProduces() {
+            return new String[]{"application/json"};
+        }
+
+        @Override
+        public String getLabel() {
+            return "Create book";
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public Class<?> getTemplateClass() {
+            return templateClass;
+        }
+
+        @Override
+        public Map<String, Object> toMap(HateoasVerbosity verbosity) {
+            return new LinkMap(this, verbosity);
+        }
+    }
+
+    public static class Template {
+        public String getTitle() {
+            return "Title";
+        }
+    }
+
+    public static class Book {
+        private String title;
+
+        public Book() {
+        }
+
+        public Book(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+    }
+}
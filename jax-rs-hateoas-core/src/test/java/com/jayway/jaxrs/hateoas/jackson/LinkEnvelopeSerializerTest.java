@@ -0,0 +1,99 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.LinkProducer;
+import com.jayway.jaxrs.hateoas.support.EnvelopeHateoasLinkInjector;
+import com.jayway.jaxrs.hateoas.support.LinkEnvelope;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LinkEnvelopeSerializerTest {
+
+    private final EnvelopeHateoasLinkInjector injector = new EnvelopeHateoasLinkInjector();
+
+    @Test
+    public void entityIsWrappedAndSerializedInline() throws Exception {
+        Book book = new Book();
+
+        Object injected = injector.injectLinks(book, producer(link("self", "http://example.com/books/1")),
+                HateoasVerbosity.MINIMUM);
+
+        assertTrue(injected instanceof LinkEnvelope);
+        assertSame(book, ((LinkEnvelope) injected).getEntity());
+        assertEquals("{\"title\":\"Dune\",\"year\":1965,\"links\":[{\"rel\":\"self\",\"href\":\"http://example.com/books/1\"}]}",
+                new ObjectMapper().writeValueAsString(injected));
+    }
+
+    @Test
+    public void linksAreMergedIntoExistingEnvelope() throws Exception {
+        Book book = new Book();
+        Object injected = injector.injectLinks(book, producer(link("self", "/books/1")), HateoasVerbosity.MINIMUM);
+
+        injected = injector.injectLinks(injected, producer(link("author", "/authors/1")), HateoasVerbosity.MINIMUM);
+
+        assertSame(book, ((LinkEnvelope) injected).getEntity());
+        assertEquals(2, ((LinkEnvelope) injected).getLinks().size());
+    }
+
+    @Test
+    public void mapsAreInjectedDirectly() {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+
+        Object injected = injector.injectLinks(map, producer(link("self", "/books/1")), HateoasVerbosity.MINIMUM);
+
+        assertSame(map, injected);
+        assertTrue(map.containsKey("links"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LinkProducer<Object> producer(HateoasLink link) {
+        LinkProducer<Object> producer = mock(LinkProducer.class);
+        when(producer.getLinks(org.mockito.Matchers.any())).thenReturn(Collections.singletonList(link));
+        return producer;
+    }
+
+    private static HateoasLink link(String rel, String href) {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("rel", rel);
+        map.put("href", href);
+        HateoasLink link = mock(HateoasLink.class);
+        when(link.toMap(HateoasVerbosity.MINIMUM)).thenReturn(map);
+        return link;
+    }
+
+    public static class Book {
+        private String title = "Dune";
+        private int year = 1965;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getYear() {
+            return year;
+        }
+    }
+}
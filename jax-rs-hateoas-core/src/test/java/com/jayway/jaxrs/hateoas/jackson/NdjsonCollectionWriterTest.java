@@ -0,0 +1,132 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.jackson;
+
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import com.jayway.jaxrs.hateoas.support.LazyCollection;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class NdjsonCollectionWriterTest {
+
+    private static final MediaType NDJSON = MediaType.valueOf(NdjsonCollectionWriter.APPLICATION_NDJSON);
+
+    @Test
+    public void rowsAreWrittenOneLineEachAndFlushedAsProduced() throws Exception {
+        final RecordingOutputStream out = new RecordingOutputStream();
+        // Rows created on the fly, each must have been flushed before the next one is created.
+        Iterable<Book> source = new Iterable<Book>() {
+            @Override
+            public Iterator<Book> iterator() {
+                return new Iterator<Book>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < 3;
+                    }
+
+                    @Override
+                    public Book next() {
+                        assertEquals(next, out.flushed.size());
+                        return new Book(next++);
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+        DefaultCollectionWrapper<Book> collection = new DefaultCollectionWrapper<Book>(LazyCollection.of(source));
+        collection.setLinks(Collections.singletonList(linkMap("self", "http://example.com/books")));
+
+        write(collection, out);
+
+        assertEquals(Arrays.asList("{\"id\":0}\n", "{\"id\":0}\n{\"id\":1}\n", "{\"id\":0}\n{\"id\":1}\n{\"id\":2}\n"),
+                out.flushed.subList(0, 3));
+        assertEquals("{\"id\":0}\n{\"id\":1}\n{\"id\":2}\n"
+                + "{\"links\":[{\"rel\":\"self\",\"href\":\"http://example.com/books\"}]}\n", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void linksLineIsOmittedWithoutCollectionLinks() throws Exception {
+        RecordingOutputStream out = new RecordingOutputStream();
+        write(new DefaultCollectionWrapper<Book>(Arrays.asList(new Book(1))), out);
+
+        assertEquals("{\"id\":1}\n", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void emptyCollectionWritesNothing() throws Exception {
+        RecordingOutputStream out = new RecordingOutputStream();
+        write(new DefaultCollectionWrapper<Book>(Collections.<Book>emptyList()), out);
+
+        assertEquals("", out.toString("UTF-8"));
+    }
+
+    private static void write(DefaultCollectionWrapper<?> collection, RecordingOutputStream out) throws Exception {
+        NdjsonCollectionWriter writer = new NdjsonCollectionWriter();
+        assertTrue(writer.isWriteable(collection.getClass(), null, null, NDJSON));
+        writer.writeTo(collection, collection.getClass(), null, null, NDJSON, null, out);
+    }
+
+    private static Map<String, Object> linkMap(String rel, String href) {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("rel", rel);
+        map.put("href", href);
+        return map;
+    }
+
+    /**
+     * Records the content at each flush completing a line.
+     */
+    private static class RecordingOutputStream extends ByteArrayOutputStream {
+        private final List<String> flushed = new ArrayList<String>();
+
+        @Override
+        public void flush() throws IOException {
+            String content = toString("UTF-8");
+            if (content.endsWith("\n") && (flushed.isEmpty() || !content.equals(flushed.get(flushed.size() - 1)))) {
+                flushed.add(content);
+            }
+        }
+    }
+
+    public static class Book {
+        private final int id;
+
+        public Book(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void bucketsCoverTheWholeRangeContiguously() {
+        assertEquals(0, Histogram.bucketIndex(0));
+        assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex(Long.MAX_VALUE));
+        for (int i = 1; i < Histogram.BUCKET_COUNT; i++) {
+            assertEquals(Histogram.highestEquivalentValue(i - 1) + 1, Histogram.lowestEquivalentValue(i));
+            assertEquals(i, Histogram.bucketIndex(Histogram.lowestEquivalentValue(i)));
+            assertEquals(i, Histogram.bucketIndex(Histogram.highestEquivalentValue(i)));
+        }
+    }
+
+    @Test
+    public void percentilesAreWithinRelativeError() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(100000, snapshot.getCount());
+        assertEquals(100000000L, snapshot.getMax());
+        assertEquals(50000500.0, snapshot.getMean(), 0.001);
+        assertEquals(50000000.0, snapshot.getValueAtPercentile(50.0), 50000000.0 / 16);
+        assertEquals(99000000.0, snapshot.getValueAtPercentile(99.0), 99000000.0 / 16);
+        assertEquals(100000000L, snapshot.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        HistogramSnapshot snapshot = new Histogram().snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0L, snapshot.getValueAtPercentile(99.0));
+        assertEquals(0.0, snapshot.getMean(), 0.0);
+    }
+
+    @Test
+    public void concurrentRecordingIsNotLost() throws Exception {
+        final Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        histogram.record(j);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(80000, snapshot.getCount());
+        assertEquals(8L * 9999 * 10000 / 2, snapshot.getSum());
+        assertEquals(9999, snapshot.getMax());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.metrics;
+
+import com.jayway.jaxrs.hateoas.HateoasOption;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.support.ReflectionBasedHateoasLinkInjector;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class InMemoryHateoasMetricsTest {
+
+    private final InMemoryHateoasMetrics metrics = new InMemoryHateoasMetrics();
+
+    @After
+    public void cleanup() {
+        HateoasMetricsJmx.unregister("books");
+        HateoasMetricsJmx.unregister("loans");
+    }
+
+    @Test
+    public void recordedValuesAreNamedInSnapshot() {
+        metrics.linkBuilt("books.get", 1000);
+        metrics.linkBuilt("books.get", 3000);
+        metrics.linksInjected(ReflectionBasedHateoasLinkInjector.class, String.class, 500);
+        metrics.responseBuilt(4, HateoasVerbosity.MINIMUM);
+        metrics.responseBuilt(2, new HateoasVerbosity(HateoasOption.REL, HateoasOption.HREF));
+        metrics.cacheLookup("plans", true);
+        metrics.cacheLookup("plans", true);
+        metrics.cacheLookup("plans", false);
+
+        HateoasMetricsSnapshot snapshot = metrics.snapshot();
+
+        HistogramSnapshot linkBuild = snapshot.getHistogram(HateoasMetricsSnapshot.LINK_BUILD_PREFIX + "books.get");
+        assertEquals(2, linkBuild.getCount());
+        assertEquals(2000.0, linkBuild.getMean(), 0.0);
+        assertEquals(1, snapshot.getHistogram(HateoasMetricsSnapshot.INJECT_PREFIX
+                + "ReflectionBasedHateoasLinkInjector:java.lang.String").getCount());
+        assertEquals(3.0, snapshot.getHistogram(HateoasMetricsSnapshot.RESPONSE_LINKS).getMean(), 0.0);
+        assertEquals(1, snapshot.getCounter(HateoasMetricsSnapshot.VERBOSITY_PREFIX + "MINIMUM"));
+        assertEquals(1, snapshot.getCounter(HateoasMetricsSnapshot.VERBOSITY_PREFIX + "REL,HREF"));
+        assertEquals(2.0 / 3, snapshot.getCacheHitRate("plans"), 0.0001);
+        assertTrue(Double.isNaN(snapshot.getCacheHitRate("unknown")));
+    }
+
+    @Test
+    public void distinctVerbositiesAreBounded() {
+        HateoasOption[] options = HateoasOption.values();
+        for (int i = 0; i < InMemoryHateoasMetrics.MAX_VERBOSITIES + 10; i++) {
+            metrics.responseBuilt(0, new HateoasVerbosity(options[i % options.length],
+                    options[(i / options.length) % options.length], options[i / (options.length * options.length)]));
+        }
+
+        HateoasMetricsSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(10, snapshot.getCounter(HateoasMetricsSnapshot.VERBOSITY_PREFIX
+                + InMemoryHateoasMetrics.OTHER_VERBOSITY));
+    }
+
+    @Test
+    public void metricsAreExposedThroughJmx() throws Exception {
+        metrics.requestCompleted(2000000);
+        metrics.linkBuilt("books.get", 1000);
+
+        HateoasMetricsJmx.register(metrics, "books");
+        HateoasMetricsJmx.register(new InMemoryHateoasMetrics(), "loans");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = HateoasMetricsJmx.objectName("books");
+        assertEquals(1L, server.getAttribute(name, "RequestCount"));
+        TabularData counts = (TabularData) server.getAttribute(name, "Counts");
+        assertEquals(1L, counts.get(new Object[]{HateoasMetricsSnapshot.LINK_BUILD_PREFIX + "books.get"}).get("value"));
+        assertEquals(0L, server.getAttribute(HateoasMetricsJmx.objectName("loans"), "RequestCount"));
+    }
+
+    @Test
+    public void noOpMetricsAreDisabledAndEmpty() {
+        NoOpHateoasMetrics.INSTANCE.linkBuilt("books.get", 1000);
+
+        assertFalse(NoOpHateoasMetrics.INSTANCE.isEnabled());
+        assertTrue(NoOpHateoasMetrics.INSTANCE.snapshot().getHistograms().isEmpty());
+    }
+}
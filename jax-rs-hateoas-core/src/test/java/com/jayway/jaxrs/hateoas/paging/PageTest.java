@@ -0,0 +1,173 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.paging;
+
+import com.jayway.jaxrs.hateoas.DefaultHateoasContext;
+import com.jayway.jaxrs.hateoas.HateoasConfiguration;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.Linkable;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.UriBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class PageTest {
+
+    private final Numbers numbers = new Numbers(1, 2, 3, 4, 5);
+
+    @Before
+    public void prepareTestedInstance() {
+        DefaultHateoasContext context = new DefaultHateoasContext();
+        context.mapClass(NumbersResource.class);
+        RequestContext.setRequestContext(new RequestContext(UriBuilder.fromUri("http://example.com/api"), null,
+                new HateoasConfiguration(context)));
+    }
+
+    @After
+    public void cleanup() {
+        RequestContext.clearRequestContext();
+    }
+
+    @Test
+    public void cursorsPageForwardAndBackward() {
+        Page<Integer> first = Page.fetch("numbers.list", numbers, null, null);
+        assertEquals(Arrays.asList(1, 2), first.getItems());
+        assertNull(first.getPreviousCursor());
+
+        Page<Integer> second = Page.fetch("numbers.list", numbers, first.getNextCursor(), null);
+        assertEquals(Arrays.asList(3, 4), second.getItems());
+
+        Page<Integer> last = Page.fetch("numbers.list", numbers, second.getNextCursor(), null);
+        assertEquals(Arrays.asList(5), last.getItems());
+        assertNull(last.getNextCursor());
+
+        Page<Integer> back = Page.fetch("numbers.list", numbers, last.getPreviousCursor(), null);
+        assertEquals(Arrays.asList(3, 4), back.getItems());
+        back = Page.fetch("numbers.list", numbers, back.getPreviousCursor(), null);
+        assertEquals(Arrays.asList(1, 2), back.getItems());
+        assertNull(back.getPreviousCursor());
+        assertEquals(second.getNextCursor(), Page.fetch("numbers.list", numbers, back.getNextCursor(), null).getNextCursor());
+    }
+
+    @Test
+    public void pageSizeIsLimitedByDeclaredDefault() {
+        assertEquals(2, Page.fetch("numbers.list", numbers, null, 100).getItems().size());
+
+        Page<Integer> page = Page.fetch("numbers.list", numbers, null, 1);
+        assertEquals(Arrays.asList(1), page.getItems());
+        assertEquals(Arrays.asList(2), Page.fetch("numbers.list", numbers, page.getNextCursor(), 1).getItems());
+    }
+
+    @Test
+    public void linksCarryCursorAndNonDefaultLimit() {
+        Page<Integer> page = Page.fetch("numbers.list", numbers, null, null);
+        page = Page.fetch("numbers.list", numbers, page.getNextCursor(), 1);
+
+        List<HateoasLink> links = page.links();
+        assertEquals(3, links.size());
+        assertEquals("first", links.get(0).getRel());
+        assertEquals("http://example.com/api/numbers?limit=1", links.get(0).getHref());
+        assertEquals("prev", links.get(1).getRel());
+        assertEquals("http://example.com/api/numbers?cursor=" + page.getPreviousCursor() + "&limit=1",
+                links.get(1).getHref());
+        assertEquals("next", links.get(2).getRel());
+        assertFalse(page.getNextCursor().contains("3"));
+    }
+
+    @Test
+    public void invalidCursorIsBadRequest() {
+        // Valid Base64 not created by the cursor, standard Base64, a dangling character, non-zero trailing bits and
+        // malformed UTF-8.
+        for (String cursor : new String[]{"bm90IGEgY3Vyc29y", "YTox+/", "YToxM", "YToxMR", "_w"}) {
+            try {
+                Page.fetch("numbers.list", numbers, cursor, null);
+                fail(cursor);
+            } catch (WebApplicationException e) {
+                assertEquals(400, e.getResponse().getStatus());
+            }
+        }
+    }
+
+    @Test
+    public void cursorKeysRoundTrip() {
+        for (String key : new String[]{"", "1", "12", "123", "k\u00e4y/?&=", "\u2603\u2603"}) {
+            PageCursor cursor = PageCursor.parse(PageCursor.after(key));
+            assertTrue(cursor.isAfter());
+            assertEquals(key, cursor.getKey());
+            assertFalse(PageCursor.parse(PageCursor.before(key)).isAfter());
+        }
+    }
+
+    @Path("/numbers")
+    public static class NumbersResource {
+        @GET
+        @Linkable("numbers.list")
+        public List<Integer> list(@QueryParam("cursor") String cursor,
+                                  @QueryParam("limit") @DefaultValue("2") Integer limit) {
+            return null;
+        }
+    }
+
+    private static class Numbers implements Pageable<Integer> {
+        private final NavigableSet<Integer> values = new TreeSet<Integer>();
+
+        private Numbers(Integer... values) {
+            this.values.addAll(Arrays.asList(values));
+        }
+
+        @Override
+        public List<Integer> fetchAfter(String key, int limit) {
+            return take(key == null ? values : values.tailSet(Integer.valueOf(key), false), limit);
+        }
+
+        @Override
+        public List<Integer> fetchBefore(String key, int limit) {
+            List<Integer> result = take(values.headSet(Integer.valueOf(key), false).descendingSet(), limit);
+            Collections.reverse(result);
+            return result;
+        }
+
+        @Override
+        public String keyOf(Integer item) {
+            return item.toString();
+        }
+
+        private static List<Integer> take(Iterable<Integer> values, int limit) {
+            List<Integer> result = new ArrayList<Integer>();
+            for (Integer value : values) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(value);
+            }
+            return result;
+        }
+    }
+}
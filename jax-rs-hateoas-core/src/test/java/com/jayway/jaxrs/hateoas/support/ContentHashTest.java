@@ -0,0 +1,99 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.support;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ContentHashTest {
+
+    @Test
+    public void emptyStringHashesToFnv1aReferenceValue() {
+        // FNV-1a of the single byte 0x01 followed by the terminating 0x00.
+        long expected = 0xcbf29ce484222325L;
+        expected = (expected ^ 0x01) * 0x100000001b3L;
+        expected = (expected ^ 0x00) * 0x100000001b3L;
+
+        assertEquals(expected, new ContentHash().update("").getValue());
+    }
+
+    @Test
+    public void equalGraphsHashEqually() {
+        String first = new ContentHash().updateGraph(new Bean("a", 1, new Bean("b", 2, null))).toHexString();
+        String second = new ContentHash().updateGraph(new Bean("a", 1, new Bean("b", 2, null))).toHexString();
+
+        assertEquals(16, first.length());
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void changedNestedValueChangesHash() {
+        long first = new ContentHash().updateGraph(new Bean("a", 1, new Bean("b", 2, null))).getValue();
+        long second = new ContentHash().updateGraph(new Bean("a", 1, new Bean("b", 3, null))).getValue();
+
+        assertFalse(first == second);
+    }
+
+    @Test
+    public void valueBoundariesAreSignificant() {
+        long first = new ContentHash().updateGraph(Arrays.asList("ab", "c")).getValue();
+        long second = new ContentHash().updateGraph(Arrays.asList("a", "bc")).getValue();
+
+        assertFalse(first == second);
+    }
+
+    @Test
+    public void sharedReferencesAreDistinguished() {
+        Bean x = new Bean("x", 1, null);
+        Bean y = new Bean("y", 2, null);
+
+        assertFalse(new ContentHash().updateGraph(Arrays.asList(x, y, x)).getValue()
+                == new ContentHash().updateGraph(Arrays.asList(x, y, y)).getValue());
+    }
+
+    @Test
+    public void cyclicGraphIsHashed() {
+        Bean bean = new Bean("a", 1, null);
+        bean.child = bean;
+
+        assertEquals(new ContentHash().updateGraph(bean).getValue(), new ContentHash().updateGraph(bean).getValue());
+    }
+
+    @Test
+    public void linksOfCollectionWrapperAreHashed() {
+        DefaultCollectionWrapper<String> first = new DefaultCollectionWrapper<String>(Arrays.asList("a"));
+        DefaultCollectionWrapper<String> second = new DefaultCollectionWrapper<String>(Arrays.asList("a"));
+        second.setLinks(Collections.singletonList(Collections.<String, Object>singletonMap("rel", "self")));
+
+        assertFalse(new ContentHash().updateGraph(first).getValue() == new ContentHash().updateGraph(second).getValue());
+    }
+
+    private static class Bean {
+        private final String name;
+        private final int value;
+        private Bean child;
+        private transient String ignored = String.valueOf(System.nanoTime());
+
+        private Bean(String name, int value, Bean child) {
+            this.name = name;
+            this.value = value;
+            this.child = child;
+        }
+    }
+}
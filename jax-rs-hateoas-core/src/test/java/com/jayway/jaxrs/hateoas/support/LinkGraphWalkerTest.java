@@ -0,0 +1,176 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.support;
+
+import com.jayway.jaxrs.hateoas.*;
+import com.jayway.jaxrs.hateoas.core.HateoasResponseBuilderImpl.FixedLinkProducer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.*;
+
+public class LinkGraphWalkerTest {
+
+    private DefaultHateoasContext context;
+    private HateoasLinkInjector<Object> linkInjectorMock;
+    private HateoasLink bookLink;
+    private HateoasLink shelfLink;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void prepareTestedInstance() {
+        context = new DefaultHateoasContext();
+        linkInjectorMock = mock(HateoasLinkInjector.class);
+        when(linkInjectorMock.injectLinks(any(), any(LinkProducer.class), any(HateoasVerbosity.class)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        return invocation.getArguments()[0];
+                    }
+                });
+
+        bookLink = mock(HateoasLink.class);
+        shelfLink = mock(HateoasLink.class);
+        context.addLinkRule(Book.class, new FixedLinkProducer(bookLink));
+    }
+
+    @Test
+    public void ruleIsAppliedOnceToEachInstanceWhereverItAppears() {
+        Book shared = new Book();
+        Book nested = new Book();
+        Shelf shelf = new Shelf(Arrays.asList(shared, new Book()), new Library(Arrays.asList(shared, nested)));
+
+        newWalker().walk(shelf);
+
+        verify(linkInjectorMock, times(1)).injectLinks(same(shared), any(LinkProducer.class), any(HateoasVerbosity.class));
+        verify(linkInjectorMock, times(1)).injectLinks(same(nested), any(LinkProducer.class), any(HateoasVerbosity.class));
+        verify(linkInjectorMock, times(3)).injectLinks(any(Book.class), any(LinkProducer.class), any(HateoasVerbosity.class));
+        verify(linkInjectorMock, never()).injectLinks(same(shelf), any(LinkProducer.class), any(HateoasVerbosity.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void fieldPathProducersAndRulesAreCombined() {
+        Book book = new Book();
+        Shelf shelf = new Shelf(Arrays.asList(book), null);
+
+        newWalker()
+                .addPath(FieldPath.EMPTY_PATH, new FixedLinkProducer(shelfLink))
+                .addPath(FieldPath.path("books"), new FixedLinkProducer(shelfLink))
+                .walk(shelf);
+
+        ArgumentCaptor<LinkProducer> producer = ArgumentCaptor.forClass(LinkProducer.class);
+        verify(linkInjectorMock).injectLinks(same(book), producer.capture(), any(HateoasVerbosity.class));
+        assertEquals(Arrays.asList(shelfLink, bookLink), new ArrayList<HateoasLink>(producer.getValue().getLinks(book)));
+
+        verify(linkInjectorMock).injectLinks(same(shelf), producer.capture(), any(HateoasVerbosity.class));
+        assertEquals(Arrays.asList(shelfLink), new ArrayList<HateoasLink>(producer.getValue().getLinks(shelf)));
+    }
+
+    @Test
+    public void cyclicGraphIsWalked() {
+        Book book = new Book();
+        book.related = book;
+
+        assertSame(book, newWalker().walk(book));
+        verify(linkInjectorMock, times(1)).injectLinks(same(book), any(LinkProducer.class), any(HateoasVerbosity.class));
+    }
+
+    @Test
+    public void replacedElementsAreWrittenBackToConcreteCollectionFields() {
+        final Book replacement = new Book();
+        context.addLinkRule(Tag.class, new FixedLinkProducer(shelfLink));
+        when(linkInjectorMock.injectLinks(any(), any(LinkProducer.class), any(HateoasVerbosity.class)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        return invocation.getArguments()[0] instanceof Tag ? new Tag("b") : replacement;
+                    }
+                });
+        Book book = new Book();
+        Catalog catalog = new Catalog();
+        catalog.books.add(book);
+        catalog.tags.add(new Tag("a"));
+
+        newWalker().walk(catalog);
+
+        assertEquals(1, catalog.books.size());
+        assertSame(replacement, catalog.books.getFirst());
+        // Sorted sets can not take the replaced elements, so they are left as they are.
+        assertEquals("a", catalog.tags.first().name);
+    }
+
+    @Test(expected = HateoasInjectException.class)
+    public void unknownFieldInPathThrowsException() {
+        newWalker().addPath(FieldPath.path("missing"), new FixedLinkProducer(shelfLink)).walk(new Shelf(null, null));
+    }
+
+    private LinkGraphWalker newWalker() {
+        return new LinkGraphWalker(context, linkInjectorMock, HateoasVerbosity.MINIMUM);
+    }
+
+    private static class Book {
+        private String title = "title";
+        private Book related;
+    }
+
+    private static class Shelf {
+        private final List<Book> books;
+        private final Library library;
+
+        private Shelf(List<Book> books, Library library) {
+            this.books = books;
+            this.library = library;
+        }
+    }
+
+    private static class Catalog {
+        private final LinkedList<Book> books = new LinkedList<Book>();
+        private final TreeSet<Tag> tags = new TreeSet<Tag>();
+    }
+
+    private static class Tag implements Comparable<Tag> {
+        private final String name;
+
+        private Tag(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int compareTo(Tag other) {
+            return name.compareTo(other.name);
+        }
+    }
+
+    private static class Library {
+        private final List<Book> books;
+
+        private Library(List<Book> books) {
+            this.books = books;
+        }
+    }
+}
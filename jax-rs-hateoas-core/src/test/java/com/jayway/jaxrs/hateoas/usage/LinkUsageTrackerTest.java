@@ -0,0 +1,169 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.usage;
+
+import com.jayway.jaxrs.hateoas.DefaultHateoasContext;
+import com.jayway.jaxrs.hateoas.DummyAnnotatedClass;
+import com.jayway.jaxrs.hateoas.DummyRootResourceClass;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.web.LinkFilter;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.UriBuilder;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LinkUsageTrackerTest {
+
+    private DefaultHateoasContext context;
+    private LinkUsageTracker tracker;
+
+    @Before
+    public void prepareTestedInstance() {
+        context = new DefaultHateoasContext();
+        context.mapClass(DummyAnnotatedClass.class);
+        context.mapClass(DummyRootResourceClass.class);
+        tracker = new LinkUsageTracker(context, LinkUsageTracker.Policy.SUPPRESS_UNFOLLOWED, 2,
+                LinkUsageTracker.DEFAULT_REFRESH_INTERVAL_MILLIS);
+        LinkUsageTracker.setCurrent(tracker);
+    }
+
+    @After
+    public void cleanup() {
+        LinkUsageTracker.setCurrent(null);
+    }
+
+    @Test
+    public void linksNeverFollowedAreSuppressed() {
+        getRoot();
+        getRoot();
+        tracker.requestReceived(request("http://www.example.com/api/root?page=2"), "GET", "/root/1");
+        tracker.refresh();
+
+        LinkFilter filter = getRoot().getLinkFilter();
+        assertNotNull(filter);
+        assertTrue(filter.accepts(context.getLinkableInfo("dummy.sub.resource.get"), "item"));
+        assertFalse(filter.accepts(context.getLinkableInfo("test.dummy.post"), "create"));
+
+        LinkUsageReport.EndpointReport root = tracker.report().getEndpoint("dummy.root.resource.get");
+        assertEquals(3, root.getRequests());
+        assertEquals(3, root.getLink("dummy.sub.resource.get").getEmitted());
+        assertEquals(1, root.getLink("dummy.sub.resource.get").getFollowed());
+        assertFalse(root.getLink("dummy.sub.resource.get").isSuppressed());
+        assertEquals(2, root.getLink("test.dummy.post").getEmitted());
+        assertTrue(root.getLink("test.dummy.post").isSuppressed());
+    }
+
+    @Test
+    public void linksFollowedWithoutRefererAreNotSuppressed() {
+        getRoot();
+        getRoot();
+        tracker.requestReceived(request(null), "POST", "dummy");
+        tracker.refresh();
+
+        LinkUsageReport.EndpointReport root = tracker.report().getEndpoint("dummy.root.resource.get");
+        assertEquals(1, root.getLink("test.dummy.post").getUnattributedFollows());
+        assertFalse(root.getLink("test.dummy.post").isSuppressed());
+        assertTrue(root.getLink("dummy.sub.resource.get").isSuppressed());
+    }
+
+    @Test
+    public void suppressionIsLiftedWhenASampledLinkIsFollowed() {
+        tracker = new LinkUsageTracker(context, LinkUsageTracker.Policy.SUPPRESS_UNFOLLOWED, 2,
+                LinkUsageTracker.DEFAULT_REFRESH_INTERVAL_MILLIS, 2);
+        LinkUsageTracker.setCurrent(tracker);
+        getRoot();
+        getRoot();
+        tracker.refresh();
+
+        assertNotNull(getRoot().getLinkFilter());
+        // Every second response includes the suppressed links.
+        assertNull(getRoot().getLinkFilter());
+        tracker.refresh();
+        assertTrue(tracker.report().getEndpoint("dummy.root.resource.get").getLink("test.dummy.post").isSuppressed());
+
+        tracker.requestReceived(request("http://www.example.com/api/root"), "POST", "dummy");
+        tracker.refresh();
+        assertFalse(tracker.report().getEndpoint("dummy.root.resource.get").getLink("test.dummy.post").isSuppressed());
+    }
+
+    @Test
+    public void followsFadeOutOnRefresh() {
+        getRoot();
+        getRoot();
+        tracker.requestReceived(request("http://www.example.com/api/root"), "GET", "/root/1");
+        tracker.refresh();
+        assertFalse(tracker.report().getEndpoint("dummy.root.resource.get").getLink("dummy.sub.resource.get")
+                .isSuppressed());
+
+        getRoot();
+        getRoot();
+        tracker.refresh();
+        assertTrue(tracker.report().getEndpoint("dummy.root.resource.get").getLink("dummy.sub.resource.get")
+                .isSuppressed());
+    }
+
+    @Test
+    public void reportOnlyPolicyNeverSuppresses() {
+        tracker = new LinkUsageTracker(context, LinkUsageTracker.Policy.REPORT, 1, 0);
+        LinkUsageTracker.setCurrent(tracker);
+        getRoot();
+        tracker.refresh();
+
+        assertNull(getRoot().getLinkFilter());
+        assertEquals(2, tracker.report().getEndpoint("dummy.root.resource.get").getRequests());
+    }
+
+    @Test
+    public void unmappedRequestsAreIgnored() {
+        RequestContext ctx = request(null);
+        tracker.requestReceived(ctx, "GET", "/unmapped");
+        tracker.linksEmitted(ctx, Arrays.asList(link("test.dummy.post")));
+
+        assertNull(ctx.getEndpoint());
+        assertTrue(tracker.report().getEndpoints().isEmpty());
+    }
+
+    private RequestContext getRoot() {
+        RequestContext ctx = request(null);
+        tracker.requestReceived(ctx, "GET", "/root");
+        Collection<HateoasLink> links = Arrays.asList(link("dummy.sub.resource.get"), link("test.dummy.post"));
+        // As done by the response builder.
+        tracker.linksEmitted(ctx, ctx.getLinkFilter() == null ? links : ctx.getLinkFilter().filter(links));
+        return ctx;
+    }
+
+    private static RequestContext request(final String referer) {
+        return new RequestContext(UriBuilder.fromUri("http://www.example.com/api"), null) {
+            @Override
+            public String getHeader(String name) {
+                return LinkUsageTracker.REFERER_HEADER.equals(name) ? referer : null;
+            }
+        };
+    }
+
+    private static HateoasLink link(String id) {
+        HateoasLink link = mock(HateoasLink.class);
+        when(link.getId()).thenReturn(id);
+        return link;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.web;
+
+import com.jayway.jaxrs.hateoas.DefaultHateoasContext;
+import com.jayway.jaxrs.hateoas.DummyAnnotatedClass;
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.LinkableInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LinkFilterTest {
+
+    private DefaultHateoasContext context;
+
+    @Before
+    public void prepareContext() {
+        context = new DefaultHateoasContext();
+        context.mapClass(DummyAnnotatedClass.class);
+    }
+
+    @Test
+    public void blankValueWantsAllLinks() {
+        assertNull(LinkFilter.parse(null, context));
+        assertNull(LinkFilter.parse(" ", context));
+    }
+
+    @Test
+    public void linksAreAcceptedByIdOrRel() {
+        LinkFilter filter = LinkFilter.parse("test.dummy.get; edit", context);
+
+        assertTrue(filter.accepts(context.getLinkableInfo("test.dummy.get"), "self"));
+        assertTrue(filter.accepts(context.getLinkableInfo("test.dummy.post"), "edit"));
+        assertFalse(filter.accepts(context.getLinkableInfo("test.dummy.post"), "create"));
+        assertFalse(filter.accepts(context.getLinkableInfo("test.dummy.delete"), null));
+    }
+
+    @Test
+    public void idsAreResolvedToHandles() {
+        LinkableInfo get = context.getLinkableInfo("test.dummy.get");
+        assertTrue(get.getHandle() >= 0);
+        assertFalse(get.getHandle() == context.getLinkableInfo("test.dummy.post").getHandle());
+        assertNull(context.findLinkableInfo("unknown"));
+
+        LinkableInfo detached = new LinkableInfo("test.dummy.get", "/dummy", "GET", null, null, null, null, null);
+        assertEquals(-1, detached.getHandle());
+        assertTrue(LinkFilter.parse("test.dummy.get", context).accepts(detached, null));
+    }
+
+    @Test
+    public void createdLinksAreFiltered() {
+        HateoasLink get = link("test.dummy.get", "self");
+        HateoasLink post = link("test.dummy.post", "create");
+        Collection<HateoasLink> links = Arrays.asList(get, post);
+
+        assertEquals(Arrays.asList(post), LinkFilter.parse("create", context).filter(links));
+        assertSame(links, LinkFilter.parse("self,create", context).filter(links));
+    }
+
+    private static HateoasLink link(String id, String rel) {
+        HateoasLink link = mock(HateoasLink.class);
+        when(link.getId()).thenReturn(id);
+        when(link.getRel()).thenReturn(rel);
+        return link;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.web;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.ws.rs.core.UriBuilder;
+
+import static org.junit.Assert.*;
+
+public class ServerTimingRecorderTest {
+
+    @After
+    public void cleanup() {
+        ServerTimingRecorder.configure(ServerTimingRecorder.Mode.NEVER, null);
+    }
+
+    @Test
+    public void phasesAreAccumulatedAndFormattedInMilliseconds() {
+        ServerTimingRecorder recorder = new ServerTimingRecorder();
+        recorder.add(ServerTimingRecorder.INJECT, 1500000);
+        recorder.add(ServerTimingRecorder.LINKS, 42000);
+        recorder.add(ServerTimingRecorder.INJECT, 1000000);
+
+        assertEquals("hateoas-inject;dur=2.500, hateoas-links;dur=0.042", recorder.toHeaderValue());
+
+        recorder.clear();
+        assertTrue(recorder.isEmpty());
+    }
+
+    @Test
+    public void timingIsDisabledByDefault() {
+        assertNull(context(null).getServerTiming());
+        assertNull(context("secret").getServerTiming());
+    }
+
+    @Test
+    public void onRequestModeRequiresMatchingToken() {
+        ServerTimingRecorder.configure(ServerTimingRecorder.Mode.ON_REQUEST, "secret");
+
+        assertNull(context(null).getServerTiming());
+        assertNull(context("guess").getServerTiming());
+        assertNotNull(context("secret").getServerTiming());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onRequestModeIsRefusedWithoutToken() {
+        ServerTimingRecorder.configure(ServerTimingRecorder.Mode.ON_REQUEST, " ");
+    }
+
+    @Test
+    public void alwaysModeRecordsEveryRequest() {
+        ServerTimingRecorder.configure(ServerTimingRecorder.Mode.ALWAYS, null);
+
+        RequestContext context = context(null);
+        assertNotNull(context.getServerTiming());
+        assertSame(context.getServerTiming(), context.getServerTiming());
+    }
+
+    private static RequestContext context(final String timingHeader) {
+        return new RequestContext(UriBuilder.fromUri("http://www.example.com"), null) {
+            @Override
+            public String getHeader(String name) {
+                return ServerTimingRecorder.SERVER_TIMING_REQUEST_HEADER.equals(name) ? timingHeader : null;
+            }
+        };
+    }
+}
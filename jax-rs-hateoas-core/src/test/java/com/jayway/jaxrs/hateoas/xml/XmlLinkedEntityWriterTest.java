@@ -0,0 +1,180 @@
+/*
+ * Copyright 2011 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jayway.jaxrs.hateoas.xml;
+
+import com.jayway.jaxrs.hateoas.HateoasLink;
+import com.jayway.jaxrs.hateoas.HateoasOption;
+import com.jayway.jaxrs.hateoas.HateoasVerbosity;
+import com.jayway.jaxrs.hateoas.core.HateoasResponseBuilderImpl.FixedLinkProducer;
+import com.jayway.jaxrs.hateoas.support.DefaultCollectionWrapper;
+import com.jayway.jaxrs.hateoas.support.JavassistHateoasLinkInjector;
+import com.jayway.jaxrs.hateoas.support.LinkEnvelope;
+import com.jayway.jaxrs.hateoas.web.RequestContext;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.UriBuilder;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.ByteArrayOutputStream;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class XmlLinkedEntityWriterTest {
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+    @After
+    public void cleanup() {
+        RequestContext.clearRequestContext();
+    }
+
+    @Test
+    public void generatedEntityIsWrittenWithLinkElements() throws Exception {
+        Object entity = new JavassistHateoasLinkInjector().injectLinks(new Book("Dune"),
+                new FixedLinkProducer(link("self", "http://example.com/books/1", "GET")), HateoasVerbosity.MINIMUM);
+
+        assertEquals(XML_DECLARATION + "<book><title>Dune</title>"
+                + "<link rel=\"self\" href=\"http://example.com/books/1\" method=\"GET\"/></book>", write(entity));
+    }
+
+    @Test
+    public void attributesFollowVerbosityOfRequest() throws Exception {
+        RequestContext requestContext = new RequestContext(UriBuilder.fromUri("http://example.com"), null);
+        requestContext.setVerbosity(new HateoasVerbosity(HateoasOption.HREF, HateoasOption.REL));
+        RequestContext.setRequestContext(requestContext);
+
+        LinkEnvelope envelope = new LinkEnvelope(new Author("Herbert"), Collections.singletonList(
+                linkMap("author", "http://example.com/authors/1", "GET")));
+
+        assertEquals(XML_DECLARATION + "<writer><name>Herbert</name>"
+                + "<link href=\"http://example.com/authors/1\" rel=\"author\"/></writer>", write(envelope));
+    }
+
+    @Test
+    public void collectionRowsAreStreamed() throws Exception {
+        final int size = 10000;
+        final int[] created = new int[1];
+        // Rows created on the fly, as the each links of a response are injected.
+        Collection<Object> rows = new AbstractCollection<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return new Iterator<Object>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Object next() {
+                        created[0]++;
+                        return new Book("Book " + next++);
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+        DefaultCollectionWrapper<Object> collection = new DefaultCollectionWrapper<Object>(rows);
+        collection.setLinks(Collections.singletonList(linkMap("self", "http://example.com/books", "GET")));
+
+        String xml = write(collection);
+
+        assertEquals(size, created[0]);
+        assertTrue(xml, xml.startsWith(XML_DECLARATION + "<collection><book><title>Book 0</title></book>"));
+        assertTrue(xml, xml.endsWith("<book><title>Book 9999</title></book>"
+                + "<link rel=\"self\" href=\"http://example.com/books\" method=\"GET\"/></collection>"));
+    }
+
+    private static String write(Object entity) throws Exception {
+        XmlLinkedEntityWriter writer = new XmlLinkedEntityWriter();
+        assertTrue(writer.isWriteable(entity.getClass(), null, null, MediaType.APPLICATION_XML_TYPE));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(entity, entity.getClass(), null, null, MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.toString("UTF-8");
+    }
+
+    private static Map<String, Object> linkMap(String rel, String href, String method) {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("rel", rel);
+        map.put("href", href);
+        map.put("method", method);
+        return map;
+    }
+
+    private static HateoasLink link(String rel, String href, String method) {
+        HateoasLink link = mock(HateoasLink.class);
+        when(link.toMap(any(HateoasVerbosity.class))).thenReturn(linkMap(rel, href, method));
+        return link;
+    }
+
+    public static class Book {
+        private String title;
+
+        public Book() {
+        }
+
+        public Book(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+    }
+
+    @XmlRootElement(name = "writer")
+    public static class Author {
+        private String name;
+
+        public Author() {
+        }
+
+        public Author(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}